@@ -0,0 +1,112 @@
+package physicsengine.benchmark;
+
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.Scene;
+import physicsengine.physics.particle.Particle;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.colliders.BoxCollider;
+import physicsengine.physics.rigidbody.colliders.PlaneCollider;
+import physicsengine.physics.rigidbody.colliders.SphereCollider;
+
+import java.util.Random;
+
+/**
+ * Generates the scenes the benchmarks are run on. All scenes are built from a fixed seed, so every run simulates exactly the same motion.
+ */
+public final class BenchmarkScenes {
+    private static final double DENSITY = 1175.0;
+    private static final int STACK_HEIGHT = 4;
+
+    private BenchmarkScenes() {
+    }
+
+    /**
+     * Unit cubes on a ground plane, stacked in columns of four.
+     */
+    public static Scene createCubeStacks(int cubeCount) {
+        Scene scene = new Scene();
+        scene.add(new RigidBody(new PlaneCollider(Vec3.UP)));
+
+        double mass = GeometryProperties.calculateCuboidMass(DENSITY, 1.0, 1.0, 1.0);
+        Mat3 inverseInertiaTensor = GeometryProperties.calculateCuboidInertiaTensor(mass, 1.0, 1.0, 1.0).invert();
+        BoxCollider collider = new BoxCollider(1.0, 1.0, 1.0);
+        int columns = (int)Math.ceil(Math.sqrt((double)cubeCount / STACK_HEIGHT));
+        Random random = new Random(0L);
+
+        for (int i = 0; i < cubeCount; ++i) {
+            int column = i / STACK_HEIGHT;
+            int level = i % STACK_HEIGHT;
+
+            RigidBody cube = new RigidBody(mass, collider, inverseInertiaTensor);
+            cube.setPosition(2.0 * (column % columns) + 0.05 * random.nextGaussian(), 0.5 + 1.05 * level, 2.0 * (column / columns) + 0.05 * random.nextGaussian());
+            cube.setOrientation(new Quaternion(0.05 * random.nextGaussian(), Vec3.UP));
+            scene.getForces().registerGravity(cube);
+            scene.add(cube);
+        }
+
+        return scene;
+    }
+
+    /**
+     * Spheres thrown in random directions inside a box made of a ground plane and four walls.
+     */
+    public static Scene createSpheresInBox(int sphereCount) {
+        Scene scene = new Scene();
+        int columns = (int)Math.ceil(Math.cbrt(sphereCount));
+        double halfSize = 0.75 * columns + 1.0;
+
+        addPlane(scene, Vec3.UP, new Vec3(0.0, 0.0, 0.0));
+        addPlane(scene, Vec3.NEG_X, new Vec3(halfSize, 0.0, 0.0));
+        addPlane(scene, Vec3.POS_X, new Vec3(-halfSize, 0.0, 0.0));
+        addPlane(scene, Vec3.NEG_Z, new Vec3(0.0, 0.0, halfSize));
+        addPlane(scene, Vec3.POS_Z, new Vec3(0.0, 0.0, -halfSize));
+
+        double mass = GeometryProperties.calculateSphereMass(DENSITY, 0.5);
+        Mat3 inverseInertiaTensor = GeometryProperties.calculateSphereInertiaTensor(mass, 0.5).invert();
+        SphereCollider collider = new SphereCollider(0.5);
+        Random random = new Random(0L);
+
+        for (int i = 0; i < sphereCount; ++i) {
+            int x = i % columns;
+            int y = i / (columns * columns);
+            int z = (i / columns) % columns;
+
+            RigidBody sphere = new RigidBody(mass, collider, inverseInertiaTensor);
+            sphere.setPosition(1.5 * x - 0.75 * (columns - 1), 0.5 + 1.5 * y, 1.5 * z - 0.75 * (columns - 1));
+            sphere.setVelocity(4.0 * random.nextGaussian(), 2.0 * random.nextGaussian(), 4.0 * random.nextGaussian());
+            scene.getForces().registerGravity(sphere);
+            scene.add(sphere);
+        }
+
+        return scene;
+    }
+
+    /**
+     * Soft cubes of eight particles connected by springs, see {@link Particle#createCube(Scene, Vec3, double, double, double)}, dropped onto a ground plane.
+     *
+     * @param cubeCount the number of cubes, each made of eight particles
+     */
+    public static Scene createSpringCubes(int cubeCount) {
+        Scene scene = new Scene();
+        scene.add(new RigidBody(new PlaneCollider(Vec3.UP)));
+
+        int columns = (int)Math.ceil(Math.sqrt(cubeCount));
+        Random random = new Random(0L);
+
+        for (int i = 0; i < cubeCount; ++i) {
+            Vec3 center = new Vec3(2.0 * (i % columns), 1.0 + 1.5 * random.nextDouble(), 2.0 * (i / columns));
+            Particle.createCube(scene, center, 1.0, 1.0, 700.0);
+        }
+
+        return scene;
+    }
+
+    private static void addPlane(Scene scene, Vec3 normal, Vec3 position) {
+        RigidBody plane = new RigidBody(new PlaneCollider(normal));
+        plane.setPosition(position);
+        scene.add(plane);
+    }
+}
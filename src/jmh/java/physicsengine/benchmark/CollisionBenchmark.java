@@ -0,0 +1,193 @@
+package physicsengine.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+import physicsengine.physics.rigidbody.colliders.BoxCollider;
+import physicsengine.physics.rigidbody.colliders.CollisionAlgorithms;
+import physicsengine.physics.rigidbody.colliders.ConvexCollision;
+import physicsengine.physics.rigidbody.colliders.MeshCollision;
+import physicsengine.physics.rigidbody.colliders.SphereCollider;
+import physicsengine.physics.rigidbody.colliders.TriangleMeshCollider;
+import physicsengine.physics.rigidbody.colliders.external.BoxCollision;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks of the narrow phase and of the collision response of a single contact.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    private final CollisionData collisionData = new CollisionData();
+    private final CollisionData resolveData = new CollisionData();
+    private final BoxCollider boxCollider = new BoxCollider(1.0, 1.0, 1.0);
+    private final SphereCollider sphereCollider = new SphereCollider(0.5);
+    private final Vec3 contactNormal = new Vec3(0.0, -1.0, 0.0); // points from box2 towards box1
+    private final Vec3 contactPoint = new Vec3(0.2, 0.475, -0.1);
+    private final Vec3 zero = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 box2Position = new Vec3(0.0, 0.95, 0.0);
+    private final Vec3 velocity = new Vec3(0.1, -2.0, 0.3);
+    private final Vec3 angularVelocity = new Vec3(0.5, 0.0, -0.2);
+    private RigidBody box1;
+    private RigidBody box2;
+    private RigidBody sphere;
+    private RigidBody edgeBox1;
+    private RigidBody edgeBox2;
+    private ContactManifold edgeManifold;
+    private TriangleMeshCollider terrainCollider;
+    private RigidBody terrain;
+    private RigidBody terrainBox;
+    private RigidBody terrainSphere;
+    private RigidBodyCollision collision;
+
+    @Setup
+    public void setUp() {
+        double boxMass = GeometryProperties.calculateCuboidMass(1175.0, 1.0, 1.0, 1.0);
+        Mat3 boxInverseInertiaTensor = GeometryProperties.calculateCuboidInertiaTensor(boxMass, 1.0, 1.0, 1.0).invert();
+        double sphereMass = GeometryProperties.calculateSphereMass(1175.0, 0.5);
+        Mat3 sphereInverseInertiaTensor = GeometryProperties.calculateSphereInertiaTensor(sphereMass, 0.5).invert();
+
+        this.box1 = new RigidBody(boxMass, this.boxCollider, boxInverseInertiaTensor);
+        this.box2 = new RigidBody(boxMass, this.boxCollider, boxInverseInertiaTensor);
+        this.box2.setPosition(0.3, 0.9, 0.2);
+        this.box2.setOrientation(new Quaternion(0.4, new Vec3(1.0, 1.0, 0.0).normalize(1.0)));
+
+        this.sphere = new RigidBody(sphereMass, this.sphereCollider, sphereInverseInertiaTensor);
+        this.sphere.setPosition(0.2, 0.85, -0.1);
+
+        // Two boxes whose crossed edges face each other, only separated by the cross product of the edges
+        this.edgeBox1 = new RigidBody(boxMass, this.boxCollider, boxInverseInertiaTensor);
+        this.edgeBox1.setOrientation(new Quaternion(Math.PI / 4.0, new Vec3(1.0, 0.0, 0.0)));
+        this.edgeBox2 = new RigidBody(boxMass, this.boxCollider, boxInverseInertiaTensor);
+        this.edgeBox2.setOrientation(new Quaternion(Math.PI / 4.0, new Vec3(0.0, 0.0, 1.0)));
+        this.edgeBox2.setPosition(0.0, 1.5, 0.0);
+        this.edgeManifold = new ContactManifold(this.edgeBox1, this.edgeBox2);
+
+        // A terrain of 131072 triangles on one square unit each, with a box and a sphere sinking into it
+        int cells = 256;
+        float[] vertices = new float[3 * (cells + 1) * (cells + 1)];
+        int[] triangles = new int[6 * cells * cells];
+
+        for (int i = 0, k = 0; i <= cells; ++i) {
+            for (int j = 0; j <= cells; ++j) {
+                vertices[k++] = i - cells / 2.0f;
+                vertices[k++] = (float)(0.2 * Math.sin(0.3 * i) * Math.cos(0.3 * j));
+                vertices[k++] = j - cells / 2.0f;
+            }
+        }
+
+        for (int i = 0, k = 0; i < cells; ++i) {
+            for (int j = 0; j < cells; ++j) {
+                int corner = i * (cells + 1) + j;
+                triangles[k++] = corner;
+                triangles[k++] = corner + 1;
+                triangles[k++] = corner + cells + 1;
+                triangles[k++] = corner + 1;
+                triangles[k++] = corner + cells + 2;
+                triangles[k++] = corner + cells + 1;
+            }
+        }
+
+        this.terrainCollider = new TriangleMeshCollider(vertices, triangles);
+        this.terrain = new RigidBody(this.terrainCollider);
+        this.terrainBox = new RigidBody(boxMass, this.boxCollider, boxInverseInertiaTensor);
+        this.terrainBox.setPosition(10.3, 0.45, -20.6);
+        this.terrainBox.setOrientation(new Quaternion(0.3, new Vec3(1.0, 0.0, 1.0).normalize(1.0)));
+        this.terrainSphere = new RigidBody(sphereMass, this.sphereCollider, sphereInverseInertiaTensor);
+        this.terrainSphere.setPosition(-7.5, 0.4, 3.2);
+
+        this.resolveData.set(this.box1, this.box2, this.contactNormal, this.contactPoint, 0.05, RigidBodyCollision.DEFAULT_RESTITUTION);
+        this.collision = this.resolveData.get(0);
+    }
+
+    @Benchmark
+    public int boxAndBox() {
+        this.collisionData.reset();
+        BoxCollision.boxAndBox(this.box1, this.boxCollider, this.box2, this.boxCollider, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    /**
+     * The same pair as {@link #boxAndBox()}, collided by GJK and EPA instead of the separating axis test.
+     */
+    @Benchmark
+    public int convexBoxAndBox() {
+        this.collisionData.reset();
+        ConvexCollision.collide(this.box1, this.boxCollider, this.box2, this.boxCollider, null, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    @Benchmark
+    public int separatedBoxes() {
+        this.collisionData.reset();
+        BoxCollision.boxAndBox(this.edgeBox1, this.boxCollider, this.edgeBox2, this.boxCollider, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    /**
+     * The same pair as {@link #separatedBoxes()}, with the separating axis of the previous invocation cached in the manifold of the pair.
+     */
+    @Benchmark
+    public int separatedBoxesCachedAxis() {
+        this.collisionData.reset();
+        BoxCollision.boxAndBox(this.edgeBox1, this.boxCollider, this.edgeBox2, this.boxCollider, this.edgeManifold, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    @Benchmark
+    public int collideBoxSphere() {
+        this.collisionData.reset();
+        CollisionAlgorithms.collideBoxSphere(this.box1, this.boxCollider, this.sphere, this.sphereCollider, null, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    @Benchmark
+    public int boxOnMesh() {
+        this.collisionData.reset();
+        MeshCollision.collideBoxMesh(this.terrainBox, this.boxCollider, this.terrain, this.terrainCollider, null, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    @Benchmark
+    public int sphereOnMesh() {
+        this.collisionData.reset();
+        MeshCollision.collideSphereMesh(this.terrainSphere, this.sphereCollider, this.terrain, this.terrainCollider, null, this.collisionData);
+        return this.collisionData.size();
+    }
+
+    /**
+     * Restores the state of both rigid bodies before every resolution, so each invocation resolves the same approaching contact.
+     */
+    @Benchmark
+    public double resolve() {
+        this.box1.setPosition(this.zero);
+        this.box1.setVelocity(this.zero);
+        this.box1.setAngularVelocity(this.zero);
+        this.box2.setPosition(this.box2Position);
+        this.box2.setVelocity(this.velocity);
+        this.box2.setAngularVelocity(this.angularVelocity);
+
+        this.collision.resolve();
+        return this.collision.normalImpulse;
+    }
+}
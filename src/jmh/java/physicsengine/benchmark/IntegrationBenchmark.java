@@ -0,0 +1,76 @@
+package physicsengine.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import physicsengine.math.Mat3;
+import physicsengine.physics.BodyStore;
+import physicsengine.physics.IntegrationKernel;
+import physicsengine.physics.StepContext;
+import physicsengine.physics.rigidbody.GeometryProperties;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BodyStore#integrate(StepContext)} with the scalar and the vector kernel. Every entry is dynamic and every other entry rotates.
+ *
+ * <p>Damping slows the entries down until their velocities become subnormal numbers, which are much slower to compute with. Like {@link SceneBenchmark},
+ * every measurement therefore integrates {@value #STEPS} steps of a freshly built store; divide by {@value #STEPS} to obtain the time of a single step.</p>
+ *
+ * <p>The vector kernel requires {@code --add-modules jdk.incubator.vector}, which the {@code jmh} task passes on to the forked JVM.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = IntegrationBenchmark.STEPS)
+@Measurement(iterations = 20, batchSize = IntegrationBenchmark.STEPS)
+@Fork(1)
+@State(Scope.Thread)
+public class IntegrationBenchmark {
+    public static final int STEPS = 240;
+    private static final double DT = 1.0 / 60.0;
+    @Param({"1024", "65536"})
+    public int bodyCount;
+    @Param({"scalar", "vector"})
+    public String kernel;
+    private final StepContext context = new StepContext();
+    private BodyStore store;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        IntegrationKernel kernel = this.kernel.equals("vector") ? BodyStore.getVectorKernel() : BodyStore.SCALAR_KERNEL;
+
+        if (kernel == null) throw new IllegalStateException("The vector kernel requires --add-modules jdk.incubator.vector!");
+
+        double mass = GeometryProperties.calculateCuboidMass(1175.0, 1.0, 1.0, 1.0);
+        Mat3 inverseInertiaTensor = GeometryProperties.calculateCuboidInertiaTensor(mass, 1.0, 1.0, 1.0).invert();
+        Random random = new Random(42L);
+
+        this.context.begin(DT);
+        this.store = new BodyStore(this.bodyCount);
+        this.store.setKernel(kernel);
+
+        for (int i = 0; i < this.bodyCount; ++i) {
+            BodyStore.Slot slot = this.store.add(mass, i % 2 == 0 ? inverseInertiaTensor : null);
+            slot.setDynamic(true);
+            slot.setPosition(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            slot.setVelocity(random.nextDouble(), random.nextDouble(), random.nextDouble());
+            slot.setAngularVelocity(random.nextDouble(), random.nextDouble(), random.nextDouble());
+        }
+    }
+
+    @Benchmark
+    public BodyStore integrate() {
+        this.store.integrate(this.context);
+        return this.store;
+    }
+}
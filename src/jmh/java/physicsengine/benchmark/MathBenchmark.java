@@ -0,0 +1,49 @@
+package physicsengine.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathBenchmark {
+    private final Quaternion orientation = new Quaternion(0.7, new Vec3(1.0, 2.0, 3.0).normalize(1.0));
+    private final Vec3 point = new Vec3(0.3, -1.2, 0.8);
+    private final Mat3 matrix = new Mat3();
+    private final Vec3 result = new Vec3(0.0, 0.0, 0.0);
+
+    @Benchmark
+    public Mat3 getMatrix() {
+        return this.orientation.getMatrix();
+    }
+
+    @Benchmark
+    public Mat3 getMatrixInto() {
+        return this.orientation.getMatrixInto(this.matrix);
+    }
+
+    @Benchmark
+    public Vec3 apply() {
+        return this.orientation.apply(this.point);
+    }
+
+    @Benchmark
+    public Vec3 applyInto() {
+        return this.orientation.applyInto(this.point, this.result);
+    }
+}
@@ -0,0 +1,91 @@
+package physicsengine.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import physicsengine.physics.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Scene#update(double)} on generated scenes.
+ *
+ * <p>Resting bodies fall asleep after a while and cost almost nothing, so a steady-state measurement would mostly measure sleeping scenes.
+ * Instead, every measurement simulates the first {@value #STEPS} steps of a freshly built scene. The reported time and the normalized allocation
+ * ({@code gc.alloc.rate.norm}) therefore refer to {@value #STEPS} steps; divide by {@value #STEPS} and the body count to obtain ns/body-step and bytes/step.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = SceneBenchmark.STEPS)
+@Measurement(iterations = 20, batchSize = SceneBenchmark.STEPS)
+@Fork(1)
+public class SceneBenchmark {
+    public static final int STEPS = 240;
+    private static final double DT = 1.0 / 60.0;
+
+    @Benchmark
+    public Scene cubeStacks(CubeStacks state) {
+        state.scene.update(DT);
+        return state.scene;
+    }
+
+    @Benchmark
+    public Scene spheresInBox(SpheresInBox state) {
+        state.scene.update(DT);
+        return state.scene;
+    }
+
+    @Benchmark
+    public Scene springCubes(SpringCubes state) {
+        state.scene.update(DT);
+        return state.scene;
+    }
+
+    @State(Scope.Thread)
+    public static class CubeStacks {
+        @Param({"64", "512"})
+        public int bodyCount;
+        private Scene scene;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            this.scene = BenchmarkScenes.createCubeStacks(this.bodyCount);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SpheresInBox {
+        @Param({"64", "512"})
+        public int bodyCount;
+        private Scene scene;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            this.scene = BenchmarkScenes.createSpheresInBox(this.bodyCount);
+        }
+    }
+
+    /**
+     * The body count is the number of particles, eight per cube.
+     */
+    @State(Scope.Thread)
+    public static class SpringCubes {
+        @Param({"64", "512"})
+        public int bodyCount;
+        private Scene scene;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            this.scene = BenchmarkScenes.createSpringCubes(this.bodyCount / 8);
+        }
+    }
+}
@@ -1,19 +1,18 @@
 package physicsengine;
 
 import physicsengine.graphics.Window;
+import physicsengine.graphics.util.ObjLoader;
 import physicsengine.math.Mat3;
 import physicsengine.math.Vec3;
 import physicsengine.physics.PhysicsObject;
 import physicsengine.physics.Scene;
-import physicsengine.physics.forces.GravityForce;
-import physicsengine.physics.forces.rigidbody.AnchoredRigidBodySpringForce;
-import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
 import physicsengine.physics.particle.Particle;
 import physicsengine.physics.rigidbody.Constraint;
 import physicsengine.physics.rigidbody.GeometryProperties;
 import physicsengine.physics.rigidbody.RigidBody;
 import physicsengine.physics.rigidbody.colliders.BoxCollider;
 import physicsengine.physics.rigidbody.colliders.Collider;
+import physicsengine.physics.rigidbody.colliders.ConvexHullCollider;
 import physicsengine.physics.rigidbody.colliders.PlaneCollider;
 import physicsengine.physics.rigidbody.colliders.SphereCollider;
 
@@ -53,15 +52,25 @@ public class Main {
 
         RigidBody sphere1 = new RigidBody(sphereMass, sphereCollider, inverseSphereInertiaTensor);
         sphere1.setPosition(-2.0, 1.5, 0.0);
-        GravityForce.register(sphere1);
+        scene.getForces().registerGravity(sphere1);
         scene.add(sphere1);
 
         RigidBody sphere2 = new RigidBody(sphereMass, sphereCollider, inverseSphereInertiaTensor);
         sphere2.setPosition(-3.5, 4.0, 1.0);
-        GravityForce.register(sphere2);
+        scene.getForces().registerGravity(sphere2);
         scene.add(sphere2);
 
 
+        // A convex hull of a mesh
+
+        ConvexHullCollider hullCollider = new ConvexHullCollider(ObjLoader.loadVertices("/assets/models/icosphere.obj"));
+        double hullMass = GeometryProperties.calculateConvexHullMass(density, hullCollider);
+        RigidBody hull = new RigidBody(hullMass, hullCollider, GeometryProperties.calculateConvexHullInertiaTensor(hullMass, hullCollider).invert());
+        hull.setPosition(-2.0, 3.0, -1.0);
+        scene.getForces().registerGravity(hull);
+        scene.add(hull);
+
+
         // Stacked Cubes
 
         for (int x = 0; x < 2; ++x) {
@@ -69,7 +78,7 @@ public class Main {
                 for (int z = 0; z < 2; ++z) {
                     RigidBody cube3 = new RigidBody(cubeMass, cubeCollider, inverseCubeInertiaTensor);
                     cube3.setPosition(-0.5 - x, 0.5 + y * 1.5, -3.5 - z);
-                    GravityForce.register(cube3);
+                    scene.getForces().registerGravity(cube3);
                     scene.add(cube3);
                 }
             }
@@ -90,12 +99,12 @@ public class Main {
             for (int i = 0; i < cubeCount; ++i) {
                 RigidBody cube = new RigidBody(cubeMass, cubeCollider, inverseCubeInertiaTensor);
                 cube.setPosition(parent.getPosition().add(-1.0, -1.0, 1.0));
-                GravityForce.register(cube);
+                scene.getForces().registerGravity(cube);
 
                 if (i == 0) {
-                    AnchoredRigidBodySpringForce.register(cube, (Particle)parent, new Vec3(0.5, 0.5, -0.5), 30000.0, 0.0);
+                    scene.getForces().registerAnchoredRigidBodySpring(cube, (Particle)parent, new Vec3(0.5, 0.5, -0.5), 30000.0, 0.0);
                 } else {
-                    RigidBodySpringForce.register((RigidBody)parent, cube, new Vec3(-0.5, -0.5, 0.5), new Vec3(0.5, 0.5, -0.5), 30000.0, 0.0);
+                    scene.getForces().registerRigidBodySpring((RigidBody)parent, cube, new Vec3(-0.5, -0.5, 0.5), new Vec3(0.5, 0.5, -0.5), 30000.0, 0.0);
                 }
 
                 scene.add(cube);
@@ -113,10 +122,10 @@ public class Main {
             for (int i = 0; i < cubeCount; ++i) {
                 RigidBody cube = new RigidBody(cubeMass, cubeCollider, inverseCubeInertiaTensor);
                 cube.setPosition(parent.getPosition().add(-1.0, -1.0, 1.0));
-                GravityForce.register(cube);
+                scene.getForces().registerGravity(cube);
 
                 if (i == 0) {
-                    AnchoredRigidBodySpringForce.register(cube, (Particle)parent, new Vec3(0.5, 0.5, -0.5), 30000.0, 0.0);
+                    scene.getForces().registerAnchoredRigidBodySpring(cube, (Particle)parent, new Vec3(0.5, 0.5, -0.5), 30000.0, 0.0);
                 } else {
                     scene.add(new Constraint((RigidBody)parent, cube, new Vec3(-0.5, -0.5, 0.5), new Vec3(0.5, 0.5, -0.5), 0.0));
                 }
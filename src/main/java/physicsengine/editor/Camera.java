@@ -21,6 +21,21 @@ public class Camera {
     public Camera() {
     }
 
+    /**
+     * @return a camera with the same position, rotation and field of view, which does not follow this camera
+     */
+    public Camera copy() {
+        Camera camera = new Camera();
+        camera.x = this.x;
+        camera.y = this.y;
+        camera.z = this.z;
+        camera.roll = this.roll;
+        camera.pitch = this.pitch;
+        camera.yaw = this.yaw;
+        camera.fov = this.fov;
+        return camera;
+    }
+
     public void processKeyInput(double dt) {
         Vec3 movement = new Vec3(0.0, 0.0, 0.0);
 
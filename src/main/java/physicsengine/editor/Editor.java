@@ -7,31 +7,53 @@ import physicsengine.physics.PhysicsObject;
 import physicsengine.physics.Scene;
 import physicsengine.physics.rigidbody.RigidBody;
 
+import java.util.function.Consumer;
+
 import static org.lwjgl.glfw.GLFW.*;
 
+/**
+ * Handles the input of the window: the camera is moved right away on the input thread, while everything that reads or changes the scene (picking,
+ * selecting and dragging objects) is turned into a command. The commands are performed by the thread that steps the scene, between two steps,
+ * so the scene is never changed while it is being stepped. The state of the editor (the selected object, the current action) belongs to that thread.
+ */
 public class Editor {
     private final Scene scene;
     private final Camera camera;
+    private final Consumer<Runnable> commands;
     private OrientationScope orientationScope = OrientationScope.GLOBAL;
     private EditMode editMode = EditMode.TRANSLATION;
     private Action action = Action.NONE;
     private Editable selected = null;
+    private Action hoveredAction = Action.NONE;
+
+    // Owned by the input thread
+    private volatile boolean editing = false; // a press may have started an action, mouse moves are sent to the scene instead of the camera
     private boolean viewerAdjustsCamera = false;
     private int width;
     private int height;
     private double mouseX;
     private double mouseY;
-    private Action hoveredAction = Action.NONE;
 
+    /**
+     * Creates an editor that changes the scene right away, for scenes that are stepped on the input thread.
+     */
     public Editor(Scene scene) {
+        this(scene, Runnable::run);
+    }
+
+    /**
+     * @param commands performs a command on the thread that steps the scene between two steps, e.g. {@link physicsengine.physics.SimulationRunner#submit(Runnable)}
+     */
+    public Editor(Scene scene, Consumer<Runnable> commands) {
         this.scene = scene;
         this.camera = new Camera();
+        this.commands = commands;
     }
 
     public void processKeyInput(double dt) {
         this.camera.processKeyInput(dt);
 
-        if (this.action != Action.NONE && (Input.isKeyDown(GLFW_KEY_W) || Input.isKeyDown(GLFW_KEY_A) || Input.isKeyDown(GLFW_KEY_S) || Input.isKeyDown(GLFW_KEY_D) || Input.isKeyDown(GLFW_KEY_SPACE) || Input.isKeyDown(GLFW_KEY_LEFT_SHIFT))) {
+        if (this.editing && (Input.isKeyDown(GLFW_KEY_W) || Input.isKeyDown(GLFW_KEY_A) || Input.isKeyDown(GLFW_KEY_S) || Input.isKeyDown(GLFW_KEY_D) || Input.isKeyDown(GLFW_KEY_SPACE) || Input.isKeyDown(GLFW_KEY_LEFT_SHIFT))) {
             this.processMouseMove(this.mouseX, this.mouseY, 0.0, 0.0, this.width, this.height);
         }
     }
@@ -42,16 +64,24 @@ public class Editor {
     }
 
     public void keyCallback(long window, int key, int scancode, int action, int mods) {
-        if (key == GLFW_KEY_TAB && action == GLFW_RELEASE && this.selected != null && this.action == Action.NONE) {
-            this.orientationScope = this.orientationScope.opposite();
-        }
-
-        if (key == GLFW_KEY_Q && action == GLFW_RELEASE && this.selected != null && this.action == Action.NONE) {
-            this.editMode = this.editMode.toggle();
-        }
+        if (action != GLFW_RELEASE) return;
 
-        if (key == GLFW_KEY_R && action == GLFW_RELEASE && this.selected != null) {
-            this.selected.setOrientation(Quaternion.NO_ROTATION);
+        switch (key) {
+            case GLFW_KEY_TAB -> this.commands.accept(() -> {
+                if (this.selected != null && this.action == Action.NONE) {
+                    this.orientationScope = this.orientationScope.opposite();
+                }
+            });
+            case GLFW_KEY_Q -> this.commands.accept(() -> {
+                if (this.selected != null && this.action == Action.NONE) {
+                    this.editMode = this.editMode.toggle();
+                }
+            });
+            case GLFW_KEY_R -> this.commands.accept(() -> {
+                if (this.selected != null) {
+                    this.selected.setOrientation(Quaternion.NO_ROTATION);
+                }
+            });
         }
     }
 
@@ -64,7 +94,10 @@ public class Editor {
         this.mouseY = y;
 
         this.processMouseMove(x, y, dx, dy, this.width, this.height);
-        this.calculateHoveredAction();
+
+        Vec3 origin = new Vec3(this.camera.x, this.camera.y, this.camera.z);
+        Vec3 direction = this.calculateRayDirection(x, y, this.width, this.height);
+        this.commands.accept(() -> this.calculateHoveredAction(origin, direction));
     }
 
     public void mouseButtonCallback(long window, int button, int action, int mods) {
@@ -77,70 +110,66 @@ public class Editor {
     }
 
     private void processMouseMove(double x, double y, double dx, double dy, int width, int height) {
-        if (this.action == Action.NONE) {
+        if (!this.editing) {
             this.camera.processMouseInput(2.0 * dx / (double)this.height, 2.0 * dy / (double)this.height);
             this.viewerAdjustsCamera = Input.isMouseButtonDown(GLFW_MOUSE_BUTTON_LEFT) || Input.isMouseButtonDown(GLFW_MOUSE_BUTTON_RIGHT);
         } else {
             Vec3 origin = new Vec3(this.camera.x, this.camera.y, this.camera.z);
             Vec3 direction = this.calculateRayDirection(x, y, width, height);
-            this.action.apply(origin, direction, this.camera, this.orientationScope, this.selected);
+            Camera camera = this.camera.copy();
+
+            this.commands.accept(() -> {
+                if (this.action != Action.NONE) {
+                    this.action.apply(origin, direction, camera, this.orientationScope, this.selected);
+                }
+            });
         }
     }
 
     private void processMouseButtonPress(int button, int action, double x, double y, int width, int height) {
         if (button == GLFW_MOUSE_BUTTON_LEFT) {
+            Vec3 origin = new Vec3(this.camera.x, this.camera.y, this.camera.z);
+            Vec3 direction = this.calculateRayDirection(x, y, width, height);
+
             switch (action) {
-                case GLFW_PRESS -> this.onPress(x, y, width, height);
-                case GLFW_RELEASE -> this.onRelease(x, y, width, height);
+                case GLFW_PRESS -> {
+                    Camera camera = this.camera.copy();
+                    this.editing = true; // until the press turns out to miss the widgets
+                    this.commands.accept(() -> this.onPress(origin, direction, camera));
+                }
+                case GLFW_RELEASE -> {
+                    boolean viewerAdjustedCamera = this.viewerAdjustsCamera;
+                    boolean deselect = Input.isKeyDown(GLFW_KEY_H);
+                    this.editing = false;
+                    this.viewerAdjustsCamera = false;
+                    this.commands.accept(() -> this.onRelease(origin, direction, viewerAdjustedCamera, deselect));
+                }
             }
         }
     }
 
-    private void onPress(double x, double y, int width, int height) {
-        if (this.selected == null) return;
-
-        Vec3 origin = new Vec3(this.camera.x, this.camera.y, this.camera.z);
-        Vec3 direction = this.calculateRayDirection(x, y, width, height);
-        Vec3 position = this.selected.getPosition();
-        Quaternion orientation = this.orientationScope.getOrientation(this.selected);
-
-        Action nearest = Action.NONE;
-        double d = Double.POSITIVE_INFINITY;
-
-        for (Action action : this.editMode.actions) {
-            Vec3 intersection = BoundingVolume.getIntersection(action.getHitbox(), origin, direction, true, position, orientation);
-
-            if (intersection != null) {
-                double d2 = intersection.distance(origin);
-
-                if (d2 <= d) {
-                    nearest = action;
-                    d = d2;
-                }
-            }
-        }
+    private void onPress(Vec3 origin, Vec3 direction, Camera camera) {
+        Action nearest = this.selected != null ? this.findAction(origin, direction) : Action.NONE;
 
         if (nearest != Action.NONE) {
             this.action = nearest;
-            this.action.prepare(origin, direction, this.camera, this.orientationScope, this.selected, position, orientation);
+            this.action.prepare(origin, direction, camera, this.orientationScope, this.selected, this.selected.getPosition(), this.orientationScope.getOrientation(this.selected));
+        } else {
+            this.editing = false;
         }
     }
 
-    private void onRelease(double x, double y, int width, int height) {
-        if (this.action != Action.NONE || this.viewerAdjustsCamera) {
+    private void onRelease(Vec3 origin, Vec3 direction, boolean viewerAdjustedCamera, boolean deselect) {
+        if (this.action != Action.NONE || viewerAdjustedCamera) {
             this.action = Action.NONE;
-            this.viewerAdjustsCamera = false;
 
-            if (Input.isKeyDown(GLFW_KEY_H)) {
+            if (deselect) {
                 this.setSelected(null);
             }
 
             return;
         }
 
-        Vec3 origin = new Vec3(this.camera.x, this.camera.y, this.camera.z);
-        Vec3 direction = this.calculateRayDirection(x, y, width, height);
-
         Editable nearest = null;
         double d = Double.POSITIVE_INFINITY;
 
@@ -194,14 +223,14 @@ public class Editor {
         }
     }
 
-    private void calculateHoveredAction() {
-        if (this.selected == null) {
-            this.hoveredAction = Action.NONE;
-            return;
-        }
+    private void calculateHoveredAction(Vec3 origin, Vec3 direction) {
+        this.hoveredAction = this.selected != null ? this.findAction(origin, direction) : Action.NONE;
+    }
 
-        Vec3 origin = new Vec3(this.camera.x, this.camera.y, this.camera.z);
-        Vec3 direction = this.calculateRayDirection(this.mouseX, this.mouseY, this.width, this.height);
+    /**
+     * @return the action of the current edit mode whose widget of the selected object is hit first by the ray
+     */
+    private Action findAction(Vec3 origin, Vec3 direction) {
         Vec3 position = this.selected.getPosition();
         Quaternion orientation = this.orientationScope.getOrientation(this.selected);
 
@@ -221,9 +250,12 @@ public class Editor {
             }
         }
 
-        this.hoveredAction = nearest;
+        return nearest;
     }
 
+    /**
+     * @return the camera, which belongs to the input thread
+     */
     public Camera getCamera() {
         return this.camera;
     }
@@ -247,4 +279,4 @@ public class Editor {
     public Action getHoveredAction() {
         return this.hoveredAction;
     }
-}
\ No newline at end of file
+}
@@ -4,25 +4,24 @@ import physicsengine.editor.Action;
 import physicsengine.editor.Camera;
 import physicsengine.editor.Editor;
 import physicsengine.graphics.util.*;
+import physicsengine.math.Quaternion;
 import physicsengine.math.Vec3;
 import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
 import physicsengine.math.boundingvolumes.BoundingVolume;
-import physicsengine.physics.Scene;
-import physicsengine.physics.forces.SpringForce;
-import physicsengine.physics.forces.rigidbody.AnchoredRigidBodySpringForce;
-import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
-import physicsengine.physics.particle.Particle;
-import physicsengine.physics.rigidbody.Constraint;
 import physicsengine.physics.rigidbody.RigidBody;
 import physicsengine.physics.rigidbody.colliders.BoxCollider;
+import physicsengine.physics.rigidbody.colliders.Collider;
+import physicsengine.physics.rigidbody.colliders.CollisionDispatcher;
+import physicsengine.physics.rigidbody.colliders.ConvexHullCollider;
 import physicsengine.physics.rigidbody.colliders.PlaneCollider;
 import physicsengine.physics.rigidbody.colliders.SphereCollider;
+import physicsengine.physics.rigidbody.colliders.TriangleMeshCollider;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.glfw.GLFW;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import static org.lwjgl.opengl.GL46.*;
 
@@ -65,6 +64,7 @@ public class Renderer {
     private Model quad;
     private Model cube;
     private Model sphere;
+    private final Map<Collider, Model> meshModels = new IdentityHashMap<>(); // created when a hull or triangle mesh is first drawn
 
     public Renderer(Editor editor) {
         this.editor = editor;
@@ -124,6 +124,8 @@ public class Renderer {
         this.quad.delete();
         this.cube.delete();
         this.sphere.delete();
+        this.meshModels.values().forEach(Model::delete);
+        this.meshModels.clear();
 
         glDeleteBuffers(this.dynamicArrayBuffer);
         glDeleteBuffers(this.dynamicElementArrayBuffer);
@@ -132,7 +134,12 @@ public class Renderer {
         glDeleteTextures(this.depthTexture);
     }
 
-    public void render(Scene scene, int width, int height) {
+    /**
+     * Draws a snapshot of the scene, without touching the scene itself, so that it can be stepped on another thread at the same time.
+     *
+     * @param alpha the fraction of the step after the snapshot, used to interpolate the bodies between their states before and after the step
+     */
+    public void render(SceneSnapshot snapshot, int width, int height, double alpha) {
         glDisable(GL_MULTISAMPLE); // enabled by default
 
         // DEPTH PASS
@@ -153,7 +160,7 @@ public class Renderer {
         this.depthShader.setUniform("view", lightViewMatrix);
         this.depthShader.detach();
 
-        this.renderScene(scene, this.depthShader, this.depthShader);
+        this.renderScene(snapshot, this.depthShader, this.depthShader, alpha);
 
         glDisable(GL_DEPTH_TEST);
         glDisable(GL_CULL_FACE);
@@ -201,11 +208,11 @@ public class Renderer {
         this.defaultShader.setUniform("depthTexture", 0);
         this.defaultShader.detach();
 
-        this.renderScene(scene, this.staticShader, this.defaultShader);
+        this.renderScene(snapshot, this.staticShader, this.defaultShader, alpha);
 
         glClear(GL_DEPTH_BUFFER_BIT);
 
-        this.drawEditorWidgets();
+        this.drawEditorWidgets(snapshot);
 
         glDisable(GL_MULTISAMPLE);
         glDisable(GL_DEPTH_TEST);
@@ -226,17 +233,21 @@ public class Renderer {
         this.skyboxShader.detach();
     }
 
-    private void renderScene(Scene scene, Shader staticShader, Shader defaultShader) {
+    private void renderScene(SceneSnapshot snapshot, Shader staticShader, Shader defaultShader, double alpha) {
         staticShader.bind();
         staticShader.setUniform("model", (new Matrix4f()));
         this.drawCoordinateAxis(staticShader, 1.0f, 1.0f);
         staticShader.detach();
 
-        for (RigidBody rigidBody : scene.getRigidBodies()) {
+        Vec3 position = new Vec3(0.0, 0.0, 0.0);
+        Quaternion orientation = new Quaternion(1.0, 0.0, 0.0, 0.0);
+
+        for (int i = 0; i < snapshot.getRigidBodyCount(); ++i) {
+            Collider collider = snapshot.getCollider(i);
             defaultShader.bind();
 
             if (RigidBody.HIGHLIGHT_RIGID_BODY_COLLISIONS) {
-                switch (rigidBody.collisionMarker) {
+                switch (snapshot.getCollisionMarker(i)) {
                     default -> defaultShader.setUniform("color", COLLISION_MARKER_NONE_COLOR);
                     case RigidBody.COLLISION_MARKER_BROAD -> defaultShader.setUniform("color", COLLISION_MARKER_BROAD_COLOR);
                     case RigidBody.COLLISION_MARKER_COLLISION -> defaultShader.setUniform("color", COLLISION_MARKER_COLLISION_COLOR);
@@ -245,54 +256,129 @@ public class Renderer {
                 defaultShader.setUniform("color", COLLISION_MARKER_NONE_COLOR);
             }
 
-            Matrix4f modelMatrix = (new Matrix4f()).translate(rigidBody.getPosition().vector3f()).mul(rigidBody.getOrientation().getMatrix().matrix4f());
-
-            if (rigidBody.getCollider() instanceof BoxCollider boxCollider) {
-                defaultShader.setUniform("model", modelMatrix.scale((float)boxCollider.width / 2.0f, (float)boxCollider.height / 2.0f, (float)boxCollider.depth / 2.0f));
-                this.cube.draw(defaultShader);
-            } else if (rigidBody.getCollider() instanceof SphereCollider sphereCollider) {
-                defaultShader.setUniform("model", modelMatrix.scale((float)sphereCollider.radius));
-                this.sphere.draw(defaultShader);
-            } else if (rigidBody.getCollider() instanceof PlaneCollider planeCollider) {
-                Vector3f modelNormal = Vec3.POS_Y.vector3f();
-                Vector3f normal = planeCollider.normal.vector3f();
-                float angle = (float)Math.acos(modelNormal.dot(normal));
-
-                if (angle > 0.0) {
-                    Vector3f axis = modelNormal.cross(normal).normalize();
-                    modelMatrix.rotate(angle, axis);
+            Vec3 interpolatedPosition = snapshot.getRigidBodyPositionInto(i, alpha, position);
+            Quaternion interpolatedOrientation = snapshot.getRigidBodyOrientationInto(i, alpha, orientation);
+            Matrix4f modelMatrix = (new Matrix4f()).translate(interpolatedPosition.vector3f()).mul(interpolatedOrientation.getMatrix().matrix4f());
+
+            switch (collider.getTypeId()) {
+                case CollisionDispatcher.BOX -> {
+                    BoxCollider boxCollider = (BoxCollider)collider;
+                    defaultShader.setUniform("model", modelMatrix.scale((float)boxCollider.width / 2.0f, (float)boxCollider.height / 2.0f, (float)boxCollider.depth / 2.0f));
+                    this.cube.draw(defaultShader);
+                }
+                case CollisionDispatcher.SPHERE -> {
+                    defaultShader.setUniform("model", modelMatrix.scale((float)((SphereCollider)collider).radius));
+                    this.sphere.draw(defaultShader);
                 }
+                case CollisionDispatcher.PLANE -> {
+                    PlaneCollider planeCollider = (PlaneCollider)collider;
+                    Vector3f modelNormal = Vec3.POS_Y.vector3f();
+                    Vector3f normal = planeCollider.normal.vector3f();
+                    float angle = (float)Math.acos(modelNormal.dot(normal));
+
+                    if (angle > 0.0) {
+                        Vector3f axis = modelNormal.cross(normal).normalize();
+                        modelMatrix.rotate(angle, axis);
+                    }
 
-                defaultShader.setUniform("model", modelMatrix.scale((float)PlaneCollider.SELECT_SIZE, new Matrix4f()));
-                this.cube.draw(defaultShader);
-                defaultShader.setUniform("model", modelMatrix.scale((float)planeCollider.size));
-                defaultShader.setUniform("color", 0.6f, 0.6f, 0.6f);
-                this.quad.draw(defaultShader);
+                    defaultShader.setUniform("model", modelMatrix.scale((float)PlaneCollider.SELECT_SIZE, new Matrix4f()));
+                    this.cube.draw(defaultShader);
+                    defaultShader.setUniform("model", modelMatrix.scale((float)planeCollider.size));
+                    defaultShader.setUniform("color", 0.6f, 0.6f, 0.6f);
+                    this.quad.draw(defaultShader);
+                }
+                case CollisionDispatcher.MESH -> {
+                    defaultShader.setUniform("model", modelMatrix);
+                    this.meshModels.computeIfAbsent(collider, mesh -> createFlatShadedModel(getTriangleVertices((TriangleMeshCollider)mesh))).draw(defaultShader);
+                }
+                default -> {
+                    if (collider.getTypeId() == ConvexHullCollider.TYPE) {
+                        defaultShader.setUniform("model", modelMatrix);
+                        this.meshModels.computeIfAbsent(collider, hull -> createFlatShadedModel(getTriangleVertices((ConvexHullCollider)hull))).draw(defaultShader);
+                    }
+                }
             }
 
             defaultShader.detach();
         }
 
-        this.drawParticles(staticShader, scene.getParticles(), 15.0f);
-        this.drawLinks(staticShader, scene);
+        this.drawParticles(staticShader, snapshot, 15.0f, alpha);
+        this.drawLinks(staticShader, snapshot, alpha);
+    }
+
+    private static float[] getTriangleVertices(ConvexHullCollider hull) {
+        double[] positions = hull.getVertices();
+        int[] triangles = hull.getTriangles();
+        float[] vertices = new float[3 * triangles.length];
+
+        for (int i = 0; i < triangles.length; ++i) {
+            vertices[3 * i] = (float)positions[3 * triangles[i]];
+            vertices[3 * i + 1] = (float)positions[3 * triangles[i] + 1];
+            vertices[3 * i + 2] = (float)positions[3 * triangles[i] + 2];
+        }
+
+        return vertices;
+    }
+
+    private static float[] getTriangleVertices(TriangleMeshCollider mesh) {
+        float[] vertices = new float[9 * mesh.getTriangleCount()];
+        Vec3 vertex = new Vec3(0.0, 0.0, 0.0);
+
+        for (int i = 0; i < vertices.length / 3; ++i) {
+            mesh.getVertexInto(i / 3, i % 3, vertex);
+            vertices[3 * i] = (float)vertex.x;
+            vertices[3 * i + 1] = (float)vertex.y;
+            vertices[3 * i + 2] = (float)vertex.z;
+        }
+
+        return vertices;
     }
 
-    private void drawEditorWidgets() {
-        if (this.editor.getSelected() != null) {
-            Matrix4f model = (new Matrix4f()).translate(this.editor.getSelected().getPosition().vector3f()).mul(this.editor.getOrientationScope().getOrientation(this.editor.getSelected()).getMatrix().matrix4f());
+    /**
+     * Creates a flat shaded model of triangles, given by the coordinates of their vertices, with the normal of each triangle at its three vertices.
+     */
+    private static Model createFlatShadedModel(float[] triangleVertices) {
+        float[] vertices = new float[2 * triangleVertices.length];
+        Vector3f a = new Vector3f();
+        Vector3f b = new Vector3f();
+        Vector3f c = new Vector3f();
+
+        for (int i = 0; i < triangleVertices.length; i += 9) {
+            a.set(triangleVertices[i], triangleVertices[i + 1], triangleVertices[i + 2]);
+            b.set(triangleVertices[i + 3], triangleVertices[i + 4], triangleVertices[i + 5]);
+            c.set(triangleVertices[i + 6], triangleVertices[i + 7], triangleVertices[i + 8]);
+            Vector3f normal = b.sub(a, new Vector3f()).cross(c.sub(a, new Vector3f())).normalize();
+
+            for (int j = 0; j < 3; ++j) {
+                int offset = 2 * (i + 3 * j);
+                System.arraycopy(triangleVertices, i + 3 * j, vertices, offset, 3);
+                vertices[offset + 3] = normal.x;
+                vertices[offset + 4] = normal.y;
+                vertices[offset + 5] = normal.z;
+            }
+        }
+
+        Model model = new Model(vertices, BufferFormat.POSITION_NORMAL);
+        model.load();
+        return model;
+    }
+
+    private void drawEditorWidgets(SceneSnapshot snapshot) {
+        if (snapshot.hasSelection()) {
+            Matrix4f model = (new Matrix4f()).translate(snapshot.getSelectedPosition().vector3f()).mul(snapshot.getSelectedOrientation().getMatrix().matrix4f());
 
             this.staticShader.bind();
             this.staticShader.setUniform("model", model);
             this.drawCoordinateAxis(this.staticShader, 1.2f, 8.0f);
 
-            if (this.editor.getAction() != Action.NONE) {
-                this.drawBoundingVolume(this.staticShader, this.editor.getAction().getHitbox(), 1.0f, 0.7f, 0.0f);
+            if (snapshot.getAction() != Action.NONE) {
+                this.drawBoundingVolume(this.staticShader, snapshot.getAction().getHitbox(), 1.0f, 0.7f, 0.0f);
             } else {
-                for (Action action : this.editor.getEditMode().actions) {
+                for (Action action : snapshot.getEditMode().actions) {
                     float g = 1.0f;
                     float b = 1.0f;
 
-                    if (action == this.editor.getHoveredAction()) {
+                    if (action == snapshot.getHoveredAction()) {
                         g = 0.7f;
                         b = 0.0f;
                     }
@@ -348,11 +434,12 @@ public class Renderer {
         }
     }
 
-    private void drawParticles(Shader staticShader, List<Particle> particles, float pointSize) {
-        float[] afloat = new float[particles.size() * 3];
+    private void drawParticles(Shader staticShader, SceneSnapshot snapshot, float pointSize, double alpha) {
+        float[] afloat = new float[snapshot.getParticleCount() * 3];
+        Vec3 position = new Vec3(0.0, 0.0, 0.0);
 
-        for (int i = 0; i < particles.size(); ++i) {
-            Vector3f particle = particles.get(i).getPosition().vector3f();
+        for (int i = 0; i < snapshot.getParticleCount(); ++i) {
+            Vector3f particle = snapshot.getParticlePositionInto(i, alpha, position).vector3f();
             afloat[3 * i] = particle.x;
             afloat[3 * i + 1] = particle.y;
             afloat[3 * i + 2] = particle.z;
@@ -369,7 +456,7 @@ public class Renderer {
         glBufferData(GL_ARRAY_BUFFER, Buffers.wrap(afloat), GL_DYNAMIC_DRAW);
         staticShader.format.enable(BufferFormat.POSITION);
 
-        glDrawArrays(GL_POINTS, 0, particles.size());
+        glDrawArrays(GL_POINTS, 0, snapshot.getParticleCount());
 
         staticShader.format.disable();
         glBindBuffer(GL_ARRAY_BUFFER, 0);
@@ -380,43 +467,22 @@ public class Renderer {
     }
 
 
-    private void drawLinks(Shader staticShader, Scene scene) {
-        int initialCapacity = SpringForce.SPRINGS.size() * 2 + RigidBodySpringForce.SPRINGS.size() * 2 + AnchoredRigidBodySpringForce.SPRINGS.size() * 2 + scene.getConstraints().size() * 2;
-
-        if (initialCapacity == 0) {
+    private void drawLinks(Shader staticShader, SceneSnapshot snapshot, double alpha) {
+        if (snapshot.getLinkCount() == 0) {
             return;
         }
 
-        List<Vector3f> positions = new ArrayList<>(initialCapacity);
-
-        for (SpringForce.Spring spring : SpringForce.SPRINGS) {
-            positions.add(spring.receiver().getPosition().vector3f());
-            positions.add(spring.anchor().getPosition().vector3f());
-        }
+        float[] afloat = new float[snapshot.getLinkCount() * 2 * 3];
+        Vec3 position = new Vec3(0.0, 0.0, 0.0);
 
-        for (RigidBodySpringForce spring : RigidBodySpringForce.SPRINGS) {
-            positions.add(spring.rigidBody1().getPointInWorldSpace(spring.localAttachmentPoint1()).vector3f());
-            positions.add(spring.rigidBody2().getPointInWorldSpace(spring.localAttachmentPoint2()).vector3f());
-        }
-
-        for (AnchoredRigidBodySpringForce spring : AnchoredRigidBodySpringForce.SPRINGS) {
-            positions.add(spring.rigidBody().getPointInWorldSpace(spring.localAttachmentPoint()).vector3f());
-            positions.add(spring.particle().getPosition().vector3f());
-        }
-
-        for (Constraint constraint : scene.getConstraints()) {
-            positions.add(constraint.getRigidBody1().getPointInWorldSpace(constraint.getLocalAttachmentPoint1()).vector3f());
-            positions.add(constraint.getRigidBody2().getPointInWorldSpace(constraint.getLocalAttachmentPoint2()).vector3f());
-        }
-
-        float[] afloat = new float[positions.size() * 3];
-        int i = 0;
-
-        for (Vector3f v : positions) {
-            afloat[3 * i] = v.x;
-            afloat[3 * i + 1] = v.y;
-            afloat[3 * i + 2] = v.z;
-            ++i;
+        for (int i = 0; i < snapshot.getLinkCount(); ++i) {
+            for (int end = 0; end < 2; ++end) {
+                Vector3f v = snapshot.getLinkEndPointInto(i, end, alpha, position).vector3f();
+                int j = 2 * i + end;
+                afloat[3 * j] = v.x;
+                afloat[3 * j + 1] = v.y;
+                afloat[3 * j + 2] = v.z;
+            }
         }
 
         staticShader.bind();
@@ -0,0 +1,301 @@
+package physicsengine.graphics;
+
+import physicsengine.editor.Action;
+import physicsengine.editor.EditMode;
+import physicsengine.editor.Editable;
+import physicsengine.editor.Editor;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.BodyStore;
+import physicsengine.physics.PhysicsObject;
+import physicsengine.physics.Scene;
+import physicsengine.physics.forces.ForceRegistry;
+import physicsengine.physics.forces.SpringNetwork;
+import physicsengine.physics.forces.rigidbody.AnchoredRigidBodySpringForce;
+import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
+import physicsengine.physics.particle.Particle;
+import physicsengine.physics.rigidbody.Constraint;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.colliders.Collider;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything the renderer draws of a scene after a step: the transforms of the rigid bodies and the positions of the particles before and after the step,
+ * the end points of springs and constraints, and the state of the editor widgets. It is captured on the physics thread, so that the renderer never touches
+ * the scene while it is stepped.
+ *
+ * <p>Snapshots are pooled in a {@link TripleBuffer} and are not changed while the renderer holds them. Their arrays grow with the scene and are reused,
+ * so capturing a snapshot does not allocate once the scene has stopped growing.</p>
+ */
+public final class SceneSnapshot {
+    private static final int TRANSFORM_SIZE = 14; // previous position, previous orientation, position, orientation
+    private static final int POINT_SIZE = 6;      // previous position, position
+    private long time;
+    private long stepNanos = 1;
+    private int rigidBodyCount = 0;
+    private Collider[] colliders = new Collider[0];
+    private int[] collisionMarkers = new int[0];
+    private double[] transforms = new double[0];
+    private int particleCount = 0;
+    private double[] particlePositions = new double[0];
+    private int linkCount = 0;
+    private double[] linkEndPoints = new double[0]; // two points per link
+    private boolean selection = false;
+    private final Vec3 selectedPosition = new Vec3(0.0, 0.0, 0.0);
+    private final Quaternion selectedOrientation = new Quaternion(1.0, 0.0, 0.0, 0.0);
+    private EditMode editMode;
+    private Action action;
+    private Action hoveredAction;
+
+    // Temporary values while capturing
+    private final Vec3 position = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 point = new Vec3(0.0, 0.0, 0.0);
+    private final Quaternion orientation = new Quaternion(1.0, 0.0, 0.0, 0.0);
+
+    /**
+     * Captures the scene right after a step. Must be called on the thread that steps the scene.
+     *
+     * @param timeStep the length of the step, which the renderer interpolates over, see {@link #getAlpha(long)}
+     */
+    public void capture(Scene scene, Editor editor, double timeStep) {
+        this.time = System.nanoTime();
+        this.stepNanos = Math.max(1L, (long)(timeStep * 1.0e9));
+
+        this.captureRigidBodies(scene.getRigidBodies());
+        this.captureParticles(scene.getParticles());
+        this.captureLinks(scene.getForces(), scene.getConstraints());
+        this.captureEditor(editor);
+    }
+
+    private void captureRigidBodies(List<RigidBody> rigidBodies) {
+        int count = rigidBodies.size();
+
+        if (this.colliders.length < count) {
+            int capacity = Math.max(count, 2 * this.colliders.length);
+            this.colliders = Arrays.copyOf(this.colliders, capacity);
+            this.collisionMarkers = Arrays.copyOf(this.collisionMarkers, capacity);
+            this.transforms = Arrays.copyOf(this.transforms, capacity * TRANSFORM_SIZE);
+        }
+
+        for (int i = 0; i < count; ++i) {
+            RigidBody rigidBody = rigidBodies.get(i);
+            BodyStore.Slot slot = rigidBody.getSlot();
+            int offset = i * TRANSFORM_SIZE;
+
+            this.colliders[i] = rigidBody.getCollider();
+            this.collisionMarkers[i] = rigidBody.collisionMarker;
+            put(this.transforms, offset, slot.getPreviousPosition(this.position));
+            put(this.transforms, offset + 3, slot.getPreviousOrientation(this.orientation));
+            put(this.transforms, offset + 7, slot.getPosition(this.position));
+            put(this.transforms, offset + 10, slot.getOrientation(this.orientation));
+        }
+
+        Arrays.fill(this.colliders, count, this.rigidBodyCount, null);
+        this.rigidBodyCount = count;
+    }
+
+    private void captureParticles(List<Particle> particles) {
+        int count = particles.size();
+
+        if (this.particlePositions.length < count * POINT_SIZE) {
+            this.particlePositions = Arrays.copyOf(this.particlePositions, Math.max(count * POINT_SIZE, 2 * this.particlePositions.length));
+        }
+
+        for (int i = 0; i < count; ++i) {
+            BodyStore.Slot slot = particles.get(i).getSlot();
+            put(this.particlePositions, i * POINT_SIZE, slot.getPreviousPosition(this.position));
+            put(this.particlePositions, i * POINT_SIZE + 3, slot.getPosition(this.position));
+        }
+
+        this.particleCount = count;
+    }
+
+    private void captureLinks(ForceRegistry forces, List<Constraint> constraints) {
+        SpringNetwork springs = forces.getSprings();
+        List<RigidBodySpringForce> rigidBodySprings = forces.getRigidBodySprings();
+        List<AnchoredRigidBodySpringForce> anchoredRigidBodySprings = forces.getAnchoredRigidBodySprings();
+        int count = springs.size() + rigidBodySprings.size() + anchoredRigidBodySprings.size() + constraints.size();
+
+        if (this.linkEndPoints.length < count * 2 * POINT_SIZE) {
+            this.linkEndPoints = Arrays.copyOf(this.linkEndPoints, Math.max(count * 2 * POINT_SIZE, 2 * this.linkEndPoints.length));
+        }
+
+        int end = 0;
+
+        for (int i = 0; i < springs.size(); ++i) {
+            this.putEndPoint(end++, springs.getObject1(i), null);
+            this.putEndPoint(end++, springs.getObject2(i), null);
+        }
+
+        for (int i = 0; i < rigidBodySprings.size(); ++i) {
+            RigidBodySpringForce spring = rigidBodySprings.get(i);
+            this.putEndPoint(end++, spring.rigidBody1(), spring.localAttachmentPoint1());
+            this.putEndPoint(end++, spring.rigidBody2(), spring.localAttachmentPoint2());
+        }
+
+        for (int i = 0; i < anchoredRigidBodySprings.size(); ++i) {
+            AnchoredRigidBodySpringForce spring = anchoredRigidBodySprings.get(i);
+            this.putEndPoint(end++, spring.rigidBody(), spring.localAttachmentPoint());
+            this.putEndPoint(end++, spring.particle(), null);
+        }
+
+        for (int i = 0; i < constraints.size(); ++i) {
+            Constraint constraint = constraints.get(i);
+            this.putEndPoint(end++, constraint.getRigidBody1(), constraint.getLocalAttachmentPoint1());
+            this.putEndPoint(end++, constraint.getRigidBody2(), constraint.getLocalAttachmentPoint2());
+        }
+
+        this.linkCount = count;
+    }
+
+    /**
+     * @param localPoint the attachment point in the local space of a rigid body, {@code null} for the position of the object
+     */
+    private void putEndPoint(int end, PhysicsObject physicsObject, Vec3 localPoint) {
+        int offset = end * POINT_SIZE;
+        BodyStore.Slot slot = physicsObject instanceof RigidBody rigidBody ? rigidBody.getSlot() : physicsObject instanceof Particle particle ? particle.getSlot() : null;
+
+        if (slot == null) {
+            put(this.linkEndPoints, offset, physicsObject.getPosition());
+            put(this.linkEndPoints, offset + 3, physicsObject.getPosition());
+            return;
+        }
+
+        slot.getPreviousPosition(this.position);
+
+        if (localPoint != null) {
+            slot.getPreviousOrientation(this.orientation).applyInto(localPoint, this.point).addInto(this.position, this.position);
+        }
+
+        put(this.linkEndPoints, offset, this.position);
+        slot.getPosition(this.position);
+
+        if (localPoint != null) {
+            slot.getOrientation(this.orientation).applyInto(localPoint, this.point).addInto(this.position, this.position);
+        }
+
+        put(this.linkEndPoints, offset + 3, this.position);
+    }
+
+    private void captureEditor(Editor editor) {
+        Editable selected = editor.getSelected();
+        this.selection = selected != null;
+
+        if (selected != null) {
+            this.selectedPosition.set(selected.getPosition());
+            this.selectedOrientation.set(editor.getOrientationScope().getOrientation(selected));
+        }
+
+        this.editMode = editor.getEditMode();
+        this.action = editor.getAction();
+        this.hoveredAction = editor.getHoveredAction();
+    }
+
+    private static void put(double[] array, int offset, Vec3 v) {
+        array[offset] = v.x;
+        array[offset + 1] = v.y;
+        array[offset + 2] = v.z;
+    }
+
+    private static void put(double[] array, int offset, Quaternion q) {
+        array[offset] = q.w;
+        array[offset + 1] = q.x;
+        array[offset + 2] = q.y;
+        array[offset + 3] = q.z;
+    }
+
+    private static Vec3 lerp(double[] array, int previous, int current, double alpha, Vec3 dst) {
+        dst.set(
+                array[previous] + (array[current] - array[previous]) * alpha,
+                array[previous + 1] + (array[current + 1] - array[previous + 1]) * alpha,
+                array[previous + 2] + (array[current + 2] - array[previous + 2]) * alpha
+        );
+        return dst;
+    }
+
+    /**
+     * @param now the current time, see {@link System#nanoTime()}
+     * @return the fraction of the step that has passed since this snapshot was captured, from 0 to 1, which the renderer interpolates with
+     */
+    public double getAlpha(long now) {
+        return Math.min(Math.max((double)(now - this.time) / (double)this.stepNanos, 0.0), 1.0);
+    }
+
+    public int getRigidBodyCount() {
+        return this.rigidBodyCount;
+    }
+
+    public Collider getCollider(int i) {
+        return this.colliders[i];
+    }
+
+    public int getCollisionMarker(int i) {
+        return this.collisionMarkers[i];
+    }
+
+    public Vec3 getRigidBodyPositionInto(int i, double alpha, Vec3 dst) {
+        int offset = i * TRANSFORM_SIZE;
+        return lerp(this.transforms, offset, offset + 7, alpha, dst);
+    }
+
+    public Quaternion getRigidBodyOrientationInto(int i, double alpha, Quaternion dst) {
+        double[] t = this.transforms;
+        int offset = i * TRANSFORM_SIZE;
+        return Quaternion.nlerpInto(t[offset + 3], t[offset + 4], t[offset + 5], t[offset + 6], t[offset + 10], t[offset + 11], t[offset + 12], t[offset + 13], alpha, dst);
+    }
+
+    public int getParticleCount() {
+        return this.particleCount;
+    }
+
+    public Vec3 getParticlePositionInto(int i, double alpha, Vec3 dst) {
+        return lerp(this.particlePositions, i * POINT_SIZE, i * POINT_SIZE + 3, alpha, dst);
+    }
+
+    /**
+     * @return the number of springs and constraints
+     */
+    public int getLinkCount() {
+        return this.linkCount;
+    }
+
+    /**
+     * @param end 0 or 1 for either end of the link
+     */
+    public Vec3 getLinkEndPointInto(int i, int end, double alpha, Vec3 dst) {
+        int offset = (2 * i + end) * POINT_SIZE;
+        return lerp(this.linkEndPoints, offset, offset + 3, alpha, dst);
+    }
+
+    /**
+     * @return {@code true} if an object was selected in the editor
+     */
+    public boolean hasSelection() {
+        return this.selection;
+    }
+
+    public Vec3 getSelectedPosition() {
+        return this.selectedPosition;
+    }
+
+    /**
+     * @return the orientation of the selected object in the orientation scope of the editor
+     */
+    public Quaternion getSelectedOrientation() {
+        return this.selectedOrientation;
+    }
+
+    public EditMode getEditMode() {
+        return this.editMode;
+    }
+
+    public Action getAction() {
+        return this.action;
+    }
+
+    public Action getHoveredAction() {
+        return this.hoveredAction;
+    }
+}
@@ -0,0 +1,54 @@
+package physicsengine.graphics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands buffers from one writing thread to one reading thread without locks. Of the three buffers, the writer owns the back buffer and the reader owns the
+ * front buffer; the third is exchanged between them. Publishing swaps the back buffer with the exchanged one and reading swaps the front buffer with it, if
+ * it holds a newer publication. Neither thread ever waits for the other, and a buffer is never written while it is being read.
+ *
+ * <p>The reader always sees the latest publication; publications that are overwritten before the reader picks them up are skipped.</p>
+ */
+public final class TripleBuffer<T> {
+    private static final int INDEX = 0b11;
+    private static final int FRESH = 0b100; // the exchanged buffer holds a publication the reader has not seen yet
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger exchanged = new AtomicInteger(2);
+    private int back = 0;  // owned by the writer
+    private int front = 1; // owned by the reader
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < 3; ++i) {
+            this.buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * @return the buffer the writer may fill before it calls {@link #publish()}
+     */
+    @SuppressWarnings("unchecked")
+    public T getBackBuffer() {
+        return (T) this.buffers[this.back];
+    }
+
+    /**
+     * Makes the back buffer available to the reader and hands the writer another buffer. Must only be called by the writer.
+     */
+    public void publish() {
+        this.back = this.exchanged.getAndSet(this.back | FRESH) & INDEX;
+    }
+
+    /**
+     * @return the latest published buffer, which stays valid until the next call, or the initial front buffer if nothing has been published yet.
+     * Must only be called by the reader.
+     */
+    @SuppressWarnings("unchecked")
+    public T read() {
+        if ((this.exchanged.get() & FRESH) != 0) {
+            this.front = this.exchanged.getAndSet(this.front) & INDEX;
+        }
+
+        return (T) this.buffers[this.front];
+    }
+}
@@ -2,21 +2,38 @@ package physicsengine.graphics;
 
 import physicsengine.editor.Editor;
 import physicsengine.editor.Input;
+import physicsengine.physics.FixedTimestep;
 import physicsengine.physics.Scene;
+import physicsengine.physics.SimulationRunner;
 import org.lwjgl.opengl.GL;
 
 import static org.lwjgl.glfw.Callbacks.glfwFreeCallbacks;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
+/**
+ * Shows a scene and lets the user edit it. The scene is stepped on a physics thread of its own, paced to real time, while this thread renders and handles
+ * the input: after each step the physics thread captures a {@link SceneSnapshot} into a {@link TripleBuffer}, from which the renderer takes the latest one,
+ * and edits are performed by the physics thread between two steps. Neither thread waits for the other, so a slow step does not drop frames and vice versa.
+ */
 public class Window {
     public int width = 800;
     public int height = 600;
     private final long window;
     private final Editor editor;
+    private final SimulationRunner runner;
+    private final TripleBuffer<SceneSnapshot> snapshots = new TripleBuffer<>(SceneSnapshot::new);
 
     public Window(Scene scene) throws IllegalStateException {
-        this.editor = new Editor(scene);
+        this(scene, FixedTimestep.DEFAULT_FREQUENCY);
+    }
+
+    /**
+     * @param frequency the number of steps per second, independent of the frame rate
+     */
+    public Window(Scene scene, double frequency) throws IllegalStateException {
+        this.runner = new SimulationRunner(scene, 1.0 / frequency);
+        this.editor = new Editor(scene, this.runner::submit);
 
         Graphics.initialize();
 
@@ -52,32 +69,48 @@ public class Window {
         Renderer renderer = new Renderer(this.editor);
         renderer.load();
 
+        this.capture(scene, 0L, 0.0); // the first frame may be rendered before the first step
+        this.runner.addStepListener(this::capture);
+        this.runner.setRealTime(true);
+        this.runner.start();
+
         double t = glfwGetTime();
 
-        while (!glfwWindowShouldClose(this.window)) {
+        // The physics thread stops by itself if a step fails, which is rethrown by stop()
+        while (!glfwWindowShouldClose(this.window) && this.runner.isRunning()) {
             double now = glfwGetTime();
             double dt = now - t;
             t = now;
 
             if (dt > 0) {
-                dt = Math.min(dt, 1.0 / 30.0); // avoid lag occurring from frame drops
-
-                scene.update(dt);
-                this.editor.processKeyInput(dt);
+                this.editor.processKeyInput(Math.min(dt, 1.0 / 30.0)); // avoid jumps of the camera from frame drops
             }
 
-            renderer.render(scene, this.width, this.height);
+            SceneSnapshot snapshot = this.snapshots.read();
+            renderer.render(snapshot, this.width, this.height, snapshot.getAlpha(System.nanoTime()));
 
             glfwSwapBuffers(this.window);
             glfwPollEvents();
         }
 
-        renderer.delete();
+        try {
+            this.runner.stop();
+        } finally {
+            renderer.delete();
 
-        glfwFreeCallbacks(this.window);
-        glfwDestroyWindow(this.window);
+            glfwFreeCallbacks(this.window);
+            glfwDestroyWindow(this.window);
+
+            Graphics.terminate();
+        }
+    }
 
-        Graphics.terminate();
+    /**
+     * Called on the physics thread after each step.
+     */
+    private void capture(Scene scene, long step, double time) {
+        this.snapshots.getBackBuffer().capture(scene, this.editor, this.runner.getTimeStep());
+        this.snapshots.publish();
     }
 
     private void framebufferSizeCallback(long window, int width, int height) {
@@ -1,6 +1,7 @@
 package physicsengine.graphics.util;
 
 import physicsengine.Main;
+import physicsengine.math.Vec3;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 
@@ -63,7 +64,7 @@ public class ObjLoader {
         Collections.addAll(this.faceVertices, face);
     }
 
-    public static Model load(String path) {
+    private static ObjLoader parse(String path) {
         ObjLoader loader = new ObjLoader();
 
         String source = Main.loadResource(path);
@@ -86,6 +87,11 @@ public class ObjLoader {
             }
         }
 
+        return loader;
+    }
+
+    public static Model load(String path) {
+        ObjLoader loader = parse(path);
         int[] triangles = new int[loader.triangles.size() * 3];
         float[] vertices = new float[loader.faceVertices.size() * 6];
 
@@ -111,6 +117,56 @@ public class ObjLoader {
         return new Model(triangles, vertices, BufferFormat.POSITION_NORMAL);
     }
 
+    /**
+     * Reads only the positions of the vertices, for example to build a {@link physicsengine.physics.rigidbody.colliders.ConvexHullCollider}.
+     */
+    public static Vec3[] loadVertices(String path) {
+        ObjLoader loader = parse(path);
+        Vec3[] vertices = new Vec3[loader.vertices.size()];
+
+        for (int i = 0; i < vertices.length; ++i) {
+            Vector3f vertex = loader.vertices.get(i);
+            vertices[i] = new Vec3(vertex.x, vertex.y, vertex.z);
+        }
+
+        return vertices;
+    }
+
+    /**
+     * Reads the positions of the vertices and the triangles between them, for example to build a
+     * {@link physicsengine.physics.rigidbody.colliders.TriangleMeshCollider}.
+     */
+    public static Mesh loadMesh(String path) {
+        ObjLoader loader = parse(path);
+        float[] vertices = new float[loader.vertices.size() * 3];
+        int[] triangles = new int[loader.triangles.size() * 3];
+
+        for (int i = 0; i < loader.vertices.size(); ++i) {
+            Vector3f vertex = loader.vertices.get(i);
+            vertices[3 * i] = vertex.x;
+            vertices[3 * i + 1] = vertex.y;
+            vertices[3 * i + 2] = vertex.z;
+        }
+
+        for (int i = 0; i < loader.triangles.size(); ++i) {
+            Vector3i triangle = loader.triangles.get(i);
+            triangles[3 * i] = loader.faceVertices.get(triangle.x).vertex - 1;
+            triangles[3 * i + 1] = loader.faceVertices.get(triangle.y).vertex - 1;
+            triangles[3 * i + 2] = loader.faceVertices.get(triangle.z).vertex - 1;
+        }
+
+        return new Mesh(vertices, triangles);
+    }
+
+    /**
+     * The geometry of a model without its normals.
+     *
+     * @param vertices  the coordinates of the vertices, three per vertex
+     * @param triangles the vertex indices of the triangles, three per triangle
+     */
+    public record Mesh(float[] vertices, int[] triangles) {
+    }
+
     private static class FaceVertex {
         private final int vertex;
         private final int normal;
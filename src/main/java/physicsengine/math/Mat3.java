@@ -2,16 +2,20 @@ package physicsengine.math;
 
 import org.joml.Matrix4f;
 
+/**
+ * The {@code ...Into} methods write their result into a destination and return it, so the simulation can reuse matrices and vectors instead of allocating new ones.
+ * The destination may be this matrix or one of the arguments.
+ */
 public class Mat3 {
-    private final double m00;
-    private final double m01;
-    private final double m02;
-    private final double m10;
-    private final double m11;
-    private final double m12;
-    private final double m20;
-    private final double m21;
-    private final double m22;
+    private double m00;
+    private double m01;
+    private double m02;
+    private double m10;
+    private double m11;
+    private double m12;
+    private double m20;
+    private double m21;
+    private double m22;
 
     public Mat3(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21, double m22) {
         this.m00 = m00;
@@ -25,11 +29,51 @@ public class Mat3 {
         this.m22 = m22;
     }
 
+    /**
+     * Creates an identity matrix.
+     */
+    public Mat3() {
+        this(1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 1.0);
+    }
+
+    public void set(Mat3 m) {
+        this.set(m.m00, m.m01, m.m02, m.m10, m.m11, m.m12, m.m20, m.m21, m.m22);
+    }
+
+    public void set(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21, double m22) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+    }
+
     public Vec3 transform(Vec3 v) {
         return new Vec3(v.x * this.m00 + v.y * this.m01 + v.z * this.m02, v.x * this.m10 + v.y * this.m11 + v.z * this.m12, v.x * this.m20 + v.y * this.m21 + v.z * this.m22);
     }
 
+    public Vec3 transformInto(Vec3 v, Vec3 dst) {
+        dst.set(v.x * this.m00 + v.y * this.m01 + v.z * this.m02, v.x * this.m10 + v.y * this.m11 + v.z * this.m12, v.x * this.m20 + v.y * this.m21 + v.z * this.m22);
+        return dst;
+    }
+
+    /**
+     * Transforms the vector by the transpose of this matrix, which for a rotation matrix is the inverse rotation.
+     */
+    public Vec3 transformTransposedInto(Vec3 v, Vec3 dst) {
+        dst.set(v.x * this.m00 + v.y * this.m10 + v.z * this.m20, v.x * this.m01 + v.y * this.m11 + v.z * this.m21, v.x * this.m02 + v.y * this.m12 + v.z * this.m22);
+        return dst;
+    }
+
     public Mat3 mul(Mat3 m) {
+        return this.mulInto(m, new Mat3());
+    }
+
+    public Mat3 mulInto(Mat3 m, Mat3 dst) {
         double m00 = this.m00 * m.m00 + this.m01 * m.m10 + this.m02 * m.m20;
         double m01 = this.m00 * m.m01 + this.m01 * m.m11 + this.m02 * m.m21;
         double m02 = this.m00 * m.m02 + this.m01 * m.m12 + this.m02 * m.m22;
@@ -42,13 +86,22 @@ public class Mat3 {
         double m21 = this.m20 * m.m01 + this.m21 * m.m11 + this.m22 * m.m21;
         double m22 = this.m20 * m.m02 + this.m21 * m.m12 + this.m22 * m.m22;
 
-        return new Mat3(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        dst.set(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        return dst;
     }
 
     public Mat3 invert() {
+        Mat3 m = new Mat3();
+        return this.invertInto(m) ? m : null;
+    }
+
+    /**
+     * @return {@code false} if this matrix is singular, in which case {@code dst} is left unchanged
+     */
+    public boolean invertInto(Mat3 dst) {
         double det = this.m00 * this.m11 * this.m22 + this.m01 * this.m12 * this.m20 + this.m02 * this.m10 * this.m21 - this.m02 * this.m11 * this.m20 - this.m01 * this.m10 * this.m22 - this.m00 * this.m12 * this.m21;
 
-        if (det == 0.0) return null;
+        if (det == 0.0) return false;
 
         double inv_det = 1.0 / det;
 
@@ -64,11 +117,17 @@ public class Mat3 {
         double m21 = inv_det * (this.m01 * this.m20 - this.m00 * this.m21);
         double m22 = inv_det * (this.m00 * this.m11 - this.m01 * this.m10);
 
-        return new Mat3(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        dst.set(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        return true;
     }
 
     public Mat3 transpose() {
-        return new Mat3(this.m00, this.m10, this.m20, this.m01, this.m11, this.m21, this.m02, this.m12, this.m22);
+        return this.transposeInto(new Mat3());
+    }
+
+    public Mat3 transposeInto(Mat3 dst) {
+        dst.set(this.m00, this.m10, this.m20, this.m01, this.m11, this.m21, this.m02, this.m12, this.m22);
+        return dst;
     }
 
     public Vec3 getColumn(int column) {
@@ -80,6 +139,17 @@ public class Mat3 {
         };
     }
 
+    public Vec3 getColumnInto(int column, Vec3 dst) {
+        switch (column) {
+            case 0 -> dst.set(this.m00, this.m10, this.m20);
+            case 1 -> dst.set(this.m01, this.m11, this.m21);
+            case 2 -> dst.set(this.m02, this.m12, this.m22);
+            default -> throw new IllegalStateException("Unexpected value: " + column);
+        }
+
+        return dst;
+    }
+
     @Override
     public String toString() {
         return "⎡ " + this.m00 + ", " + this.m01 + ", " + this.m02 + " ⎤\n⎢ " + this.m10 + ", " + this.m11 + ", " + this.m12 + " ⎥\n⎣ " + this.m20 + ", " + this.m21 + ", " + this.m22 + " ⎦";
@@ -1,5 +1,9 @@
 package physicsengine.math;
 
+/**
+ * The {@code ...Into} methods write their result into a destination and return it, so the simulation can reuse quaternions, vectors and matrices instead of
+ * allocating new ones. The destination may be this quaternion or one of the arguments.
+ */
 public class Quaternion {
     public static final Quaternion NO_ROTATION = new Quaternion(1.0, 0.0, 0.0, 0.0);
     public double w; // cos(t / 2)
@@ -36,16 +40,77 @@ public class Quaternion {
     }
 
     public Vec3 apply(Vec3 v) {
-        return this.getMatrix().transform(v);
+        return this.applyInto(v, new Vec3(0.0, 0.0, 0.0));
+    }
+
+    /**
+     * Rotates the vector like {@code getMatrix().transform(v)}, without creating the matrix.
+     */
+    public Vec3 applyInto(Vec3 v, Vec3 dst) {
+        return applyInto(this.w, this.x, this.y, this.z, v.x, v.y, v.z, false, dst);
+    }
+
+    /**
+     * Rotates the vector by the inverse rotation. Like {@link #getMatrix()}, this assumes a unit quaternion.
+     */
+    public Vec3 applyInverseInto(Vec3 v, Vec3 dst) {
+        return applyInto(this.w, this.x, this.y, this.z, v.x, v.y, v.z, true, dst);
+    }
+
+    /**
+     * Rotates the vector (vx, vy, vz) by the unit quaternion (w, x, y, z), or by its inverse, for callers that store quaternions as plain numbers.
+     */
+    public static Vec3 applyInto(double w, double x, double y, double z, double vx, double vy, double vz, boolean inverse, Vec3 dst) {
+        double xx = x * x, yy = y * y, zz = z * z;
+        double xy = x * y, xz = x * z, yz = y * z;
+        double wx = w * x, wy = w * y, wz = w * z;
+
+        // The inverse rotation negates the vector part, which only changes the sign of the w terms
+        if (inverse) {
+            wx = -wx;
+            wy = -wy;
+            wz = -wz;
+        }
+
+        dst.set(
+                vx * (1.0 - (2.0 * yy + 2.0 * zz)) + vy * (2.0 * xy - 2.0 * wz) + vz * (2.0 * xz + 2.0 * wy),
+                vx * (2.0 * xy + 2.0 * wz) + vy * (1.0 - (2.0 * xx + 2.0 * zz)) + vz * (2.0 * yz - 2.0 * wx),
+                vx * (2.0 * xz - 2.0 * wy) + vy * (2.0 * yz + 2.0 * wx) + vz * (1.0 - (2.0 * xx + 2.0 * yy))
+        );
+        return dst;
+    }
+
+    /**
+     * Interpolates linearly from the unit quaternion a to the unit quaternion b along the shorter arc and normalizes the result (nlerp),
+     * which is close enough to slerp for small rotations, e.g. the rotation of a body during one step.
+     *
+     * @param t the fraction of the way from a (0) to b (1)
+     */
+    public static Quaternion nlerpInto(double aw, double ax, double ay, double az, double bw, double bx, double by, double bz, double t, Quaternion dst) {
+        double s = aw * bw + ax * bx + ay * by + az * bz < 0.0 ? -1.0 : 1.0;
+
+        double w = aw + (s * bw - aw) * t;
+        double x = ax + (s * bx - ax) * t;
+        double y = ay + (s * by - ay) * t;
+        double z = az + (s * bz - az) * t;
+        double l = 1.0 / Math.sqrt(w * w + x * x + y * y + z * z);
+
+        dst.set(w * l, x * l, y * l, z * l);
+        return dst;
     }
 
     public Quaternion mul(Quaternion q) {
+        return this.mulInto(q, new Quaternion(1.0, 0.0, 0.0, 0.0));
+    }
+
+    public Quaternion mulInto(Quaternion q, Quaternion dst) {
         double w = this.w * q.w - this.x * q.x - this.y * q.y - this.z * q.z;
         double x = this.w * q.x + this.x * q.w + this.y * q.z - this.z * q.y;
         double y = this.w * q.y - this.x * q.z + this.y * q.w + this.z * q.x;
         double z = this.w * q.z + this.x * q.y - this.y * q.x + this.z * q.w;
 
-        return new Quaternion(w, x, y, z);
+        dst.set(w, x, y, z);
+        return dst;
     }
 
     public void normalize() {
@@ -61,21 +126,31 @@ public class Quaternion {
     }
 
     public Quaternion invert() {
+        return this.invertInto(new Quaternion(1.0, 0.0, 0.0, 0.0));
+    }
+
+    public Quaternion invertInto(Quaternion dst) {
         double inv_squared_length = 1.0 / (this.w * this.w + this.x * this.x + this.y * this.y + this.z * this.z);
         double w = this.w * inv_squared_length;
         double x = -this.x * inv_squared_length;
         double y = -this.y * inv_squared_length;
         double z = -this.z * inv_squared_length;
 
-        return new Quaternion(w, x, y, z);
+        dst.set(w, x, y, z);
+        return dst;
     }
 
     public Mat3 getMatrix() {
-        return new Mat3(
+        return this.getMatrixInto(new Mat3());
+    }
+
+    public Mat3 getMatrixInto(Mat3 dst) {
+        dst.set(
                 1.0 - (2.0 * this.y * this.y + 2.0 * this.z * this.z), 2.0 * this.x * this.y - 2.0 * this.z * this.w, 2.0 * this.x * this.z + 2.0 * this.y * this.w,
                 2.0 * this.x * this.y + 2.0 * this.z * this.w, 1.0 - (2.0 * this.x * this.x + 2.0 * this.z * this.z), 2.0 * this.y * this.z - 2.0 * this.x * this.w,
                 2.0 * this.x * this.z - 2.0 * this.y * this.w, 2.0 * this.y * this.z + 2.0 * this.x * this.w, 1.0 - (2.0 * this.x * this.x + 2.0 * this.y * this.y)
         );
+        return dst;
     }
 
     @Override
@@ -84,12 +159,19 @@ public class Quaternion {
     }
 
     public void addScaledVector(Vec3 v, double scale) {
-        Quaternion q = new Quaternion(0.0, v.x * scale, v.y * scale, v.z * scale);
-        q.multiplyBy(this);
-        this.w += q.w * 0.5f;
-        this.x += q.x * 0.5f;
-        this.y += q.y * 0.5f;
-        this.z += q.z * 0.5f;
+        // (0, v * scale) * this, expanded
+        double x = v.x * scale;
+        double y = v.y * scale;
+        double z = v.z * scale;
+        double qw = -x * this.x - y * this.y - z * this.z;
+        double qx = x * this.w + y * this.z - z * this.y;
+        double qy = -x * this.z + y * this.w + z * this.x;
+        double qz = x * this.y - y * this.x + z * this.w;
+
+        this.w += qw * 0.5f;
+        this.x += qx * 0.5f;
+        this.y += qy * 0.5f;
+        this.z += qz * 0.5f;
     }
 
     public void multiplyBy(Quaternion q) {
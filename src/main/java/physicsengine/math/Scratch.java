@@ -0,0 +1,101 @@
+package physicsengine.math;
+
+import java.util.Arrays;
+
+/**
+ * A per-thread pool of temporary vectors, matrices and quaternions for the simulation hot path.
+ *
+ * <p>A method that needs temporaries brackets them with {@link #push()} and {@link #pop()}; everything taken in between is handed back by {@code pop()} and
+ * must not be used afterwards. The pool grows on demand and keeps its objects, so a step that needs no more temporaries than previous steps allocates nothing.</p>
+ *
+ * <pre>{@code
+ * Scratch scratch = Scratch.get();
+ * scratch.push();
+ * Vec3 relativePosition = point.subInto(position, scratch.vec3());
+ * ...
+ * scratch.pop();
+ * }</pre>
+ */
+public final class Scratch {
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    private Vec3[] vectors = new Vec3[0];
+    private Mat3[] matrices = new Mat3[0];
+    private Quaternion[] quaternions = new Quaternion[0];
+    private int[] frames = new int[48];
+    private int vectorCount = 0;
+    private int matrixCount = 0;
+    private int quaternionCount = 0;
+    private int frameCount = 0;
+
+    private Scratch() {
+    }
+
+    public static Scratch get() {
+        return SCRATCH.get();
+    }
+
+    public void push() {
+        if (this.frameCount + 3 > this.frames.length) this.frames = Arrays.copyOf(this.frames, this.frames.length * 2);
+
+        this.frames[this.frameCount++] = this.vectorCount;
+        this.frames[this.frameCount++] = this.matrixCount;
+        this.frames[this.frameCount++] = this.quaternionCount;
+    }
+
+    public void pop() {
+        if (this.frameCount == 0) throw new IllegalStateException("Scratch pop without matching push!");
+
+        this.quaternionCount = this.frames[--this.frameCount];
+        this.matrixCount = this.frames[--this.frameCount];
+        this.vectorCount = this.frames[--this.frameCount];
+    }
+
+    /**
+     * @return a vector with undefined contents
+     */
+    public Vec3 vec3() {
+        if (this.vectorCount == this.vectors.length) {
+            int length = this.vectors.length;
+            this.vectors = Arrays.copyOf(this.vectors, Math.max(16, length * 2));
+            for (int i = length; i < this.vectors.length; ++i) this.vectors[i] = new Vec3(0.0, 0.0, 0.0);
+        }
+
+        return this.vectors[this.vectorCount++];
+    }
+
+    public Vec3 vec3(double x, double y, double z) {
+        Vec3 v = this.vec3();
+        v.set(x, y, z);
+        return v;
+    }
+
+    public Vec3 vec3(Vec3 v) {
+        return this.vec3(v.x, v.y, v.z);
+    }
+
+    /**
+     * @return a matrix with undefined contents
+     */
+    public Mat3 mat3() {
+        if (this.matrixCount == this.matrices.length) {
+            int length = this.matrices.length;
+            this.matrices = Arrays.copyOf(this.matrices, Math.max(4, length * 2));
+            for (int i = length; i < this.matrices.length; ++i) this.matrices[i] = new Mat3();
+        }
+
+        return this.matrices[this.matrixCount++];
+    }
+
+    /**
+     * @return a quaternion with undefined contents
+     */
+    public Quaternion quaternion() {
+        if (this.quaternionCount == this.quaternions.length) {
+            int length = this.quaternions.length;
+            this.quaternions = Arrays.copyOf(this.quaternions, Math.max(4, length * 2));
+            for (int i = length; i < this.quaternions.length; ++i) this.quaternions[i] = new Quaternion(1.0, 0.0, 0.0, 0.0);
+        }
+
+        return this.quaternions[this.quaternionCount++];
+    }
+}
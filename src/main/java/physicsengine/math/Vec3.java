@@ -2,6 +2,10 @@ package physicsengine.math;
 
 import org.joml.Vector3f;
 
+/**
+ * The {@code ...Into} methods write their result into a destination vector and return it, so the simulation can reuse vectors instead of allocating new ones.
+ * The destination may be this vector or one of the arguments.
+ */
 public class Vec3 {
     public static final Vec3 POS_X = new Vec3(1.0, 0.0, 0.0);
     public static final Vec3 NEG_X = new Vec3(-1.0, 0.0, 0.0);
@@ -50,6 +54,21 @@ public class Vec3 {
         return new Vec3(this.x * t, this.y * t, this.z * t);
     }
 
+    public Vec3 addInto(Vec3 v, Vec3 dst) {
+        dst.set(this.x + v.x, this.y + v.y, this.z + v.z);
+        return dst;
+    }
+
+    public Vec3 subInto(Vec3 v, Vec3 dst) {
+        dst.set(this.x - v.x, this.y - v.y, this.z - v.z);
+        return dst;
+    }
+
+    public Vec3 mulInto(double t, Vec3 dst) {
+        dst.set(this.x * t, this.y * t, this.z * t);
+        return dst;
+    }
+
     public void increment(Vec3 v) {
         this.x += v.x;
         this.y += v.y;
@@ -62,6 +81,15 @@ public class Vec3 {
         this.z -= v.z;
     }
 
+    /**
+     * Adds the vector {@code v} scaled by {@code t} to this vector.
+     */
+    public void increment(Vec3 v, double t) {
+        this.x += v.x * t;
+        this.y += v.y * t;
+        this.z += v.z * t;
+    }
+
     public void scale(double t) {
         this.x *= t;
         this.y *= t;
@@ -76,6 +104,11 @@ public class Vec3 {
         return new Vec3(this.y * v.z - this.z * v.y, this.z * v.x - this.x * v.z, this.x * v.y - this.y * v.x);
     }
 
+    public Vec3 crossInto(Vec3 v, Vec3 dst) {
+        dst.set(this.y * v.z - this.z * v.y, this.z * v.x - this.x * v.z, this.x * v.y - this.y * v.x);
+        return dst;
+    }
+
     public double length() {
         return Math.sqrt(this.x * this.x + this.y * this.y + this.z * this.z);
     }
@@ -97,6 +130,17 @@ public class Vec3 {
         return v;
     }
 
+    public Vec3 normalizeInto(double t, Vec3 dst) {
+        double squared_length = this.x * this.x + this.y * this.y + this.z * this.z;
+        double s = squared_length != 0.0 ? t / Math.sqrt(squared_length) : 1.0;
+        dst.set(this.x * s, this.y * s, this.z * s);
+        return dst;
+    }
+
+    public double squaredLength() {
+        return this.x * this.x + this.y * this.y + this.z * this.z;
+    }
+
     public double distance(Vec3 v) {
         double dx = this.x - v.x;
         double dy = this.y - v.y;
@@ -16,6 +16,23 @@ public class AxisAlignedBoundingBox implements BoundingVolume {
         }
     }
 
+    public Vec3 getMin() {
+        return this.min;
+    }
+
+    public Vec3 getMax() {
+        return this.max;
+    }
+
+    public void set(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.min.set(minX, minY, minZ);
+        this.max.set(maxX, maxY, maxZ);
+    }
+
+    public boolean overlaps(AxisAlignedBoundingBox box) {
+        return this.min.x <= box.max.x && this.max.x >= box.min.x && this.min.y <= box.max.y && this.max.y >= box.min.y && this.min.z <= box.max.z && this.max.z >= box.min.z;
+    }
+
     @Override
     public Vec3 getIntersection(Vec3 origin, Vec3 direction, boolean clip) {
         Vec3 intersection = null;
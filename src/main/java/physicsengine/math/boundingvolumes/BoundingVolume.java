@@ -1,5 +1,6 @@
 package physicsengine.math.boundingvolumes;
 
+import physicsengine.math.Mat3;
 import physicsengine.math.Quaternion;
 import physicsengine.math.Vec3;
 
@@ -42,6 +43,21 @@ public interface BoundingVolume {
         return intersection;
     }
 
+    /**
+     * Like {@link #getIntersection(BoundingVolume, Vec3, Vec3, boolean, Vec3, Quaternion)}, with the orientation given as rotation matrix and its inverse.
+     */
+    static Vec3 getIntersection(BoundingVolume boundingVolume, Vec3 origin, Vec3 direction, boolean clip, Vec3 position, Mat3 rotationMatrix, Mat3 inverseRotationMatrix) {
+        Vec3 origin2 = inverseRotationMatrix.transformInto(origin.sub(position), new Vec3(0.0, 0.0, 0.0));
+        Vec3 direction2 = inverseRotationMatrix.transformInto(direction, new Vec3(0.0, 0.0, 0.0));
+        Vec3 intersection = boundingVolume.getIntersection(origin2, direction2, clip);
+
+        if (intersection == null) return null;
+
+        intersection = rotationMatrix.transformInto(intersection, intersection);
+        intersection.increment(position);
+        return intersection;
+    }
+
     /**
      * @param x first value to compare
      * @param y second value to compare
@@ -0,0 +1,555 @@
+package physicsengine.physics;
+
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+
+import java.util.Arrays;
+
+/**
+ * Stores the dynamic state of bodies in flat arrays, one entry per body: position, velocity, force, orientation, angular velocity, torque,
+ * inverse mass and the body space inverse inertia tensor. Rigid bodies and particles are thin handles that access their entry through a {@link Slot}.
+ *
+ * <p>Every component has an array of its own, e.g. {@code positions[1][i]} is the y coordinate of the position of entry {@code i}, so that consecutive
+ * entries can be processed in the lanes of a vector register.</p>
+ *
+ * <p>Entries are dense: removing a body moves the last entry into the freed place. A body that does not belong to a scene lives in a store of its own
+ * and is moved into the store of the scene it is added to, see {@link #attach(Slot)}.</p>
+ *
+ * <p>{@link #integrate(StepContext)} integrates all dynamic entries at once with an {@link IntegrationKernel}.</p>
+ *
+ * <p>The position and orientation of the previous step are kept as well, see {@link #storePreviousState()}, so that a renderer can interpolate between
+ * two steps when it draws more frames than the scene is stepped.</p>
+ */
+public class BodyStore {
+    /**
+     * Integrates one entry after another.
+     */
+    public static final IntegrationKernel SCALAR_KERNEL = BodyStore::integrateScalar;
+    private static final IntegrationKernel VECTOR_KERNEL = loadVectorKernel();
+    private Slot[] slots;
+    double[][] positions;               // x, y, z
+    double[][] velocities;              // x, y, z
+    double[][] forces;                  // x, y, z
+    double[][] orientations;            // w, x, y, z
+    double[][] angularVelocities;       // x, y, z
+    double[][] torques;                 // x, y, z
+    double[][] inverseInertiaTensors;   // row-major, body space
+    double[][] previousPositions;       // x, y, z
+    double[][] previousOrientations;    // w, x, y, z
+    double[] inverseMasses;
+    Material[] materials;               // null for the default damping
+    boolean[] dynamic;                  // integrated and moved by forces, see PhysicsObject#hasFiniteMass()
+    boolean[] rotational;               // has an orientation that needs to be integrated
+    private int size = 0;
+    private IntegrationKernel kernel = getDefaultKernel();
+
+    public BodyStore() {
+        this(64);
+    }
+
+    public BodyStore(int initialCapacity) {
+        if (initialCapacity < 1) throw new IllegalArgumentException("BodyStore requires an initial capacity of at least 1!");
+
+        this.slots = new Slot[initialCapacity];
+        this.positions = new double[3][initialCapacity];
+        this.velocities = new double[3][initialCapacity];
+        this.forces = new double[3][initialCapacity];
+        this.orientations = new double[4][initialCapacity];
+        this.angularVelocities = new double[3][initialCapacity];
+        this.torques = new double[3][initialCapacity];
+        this.inverseInertiaTensors = new double[9][initialCapacity];
+        this.previousPositions = new double[3][initialCapacity];
+        this.previousOrientations = new double[4][initialCapacity];
+        this.inverseMasses = new double[initialCapacity];
+        this.materials = new Material[initialCapacity];
+        this.dynamic = new boolean[initialCapacity];
+        this.rotational = new boolean[initialCapacity];
+    }
+
+    /**
+     * @return the kernel that uses the Java Vector API, or {@code null} if the module {@code jdk.incubator.vector} is not available,
+     * which requires the JVM option {@code --add-modules jdk.incubator.vector}
+     */
+    public static IntegrationKernel getVectorKernel() {
+        return VECTOR_KERNEL;
+    }
+
+    /**
+     * @return the vector kernel if it is available, otherwise the scalar kernel
+     */
+    public static IntegrationKernel getDefaultKernel() {
+        return VECTOR_KERNEL != null ? VECTOR_KERNEL : SCALAR_KERNEL;
+    }
+
+    /**
+     * The vector kernel is only referenced by name, so this class can be loaded without the incubator module.
+     */
+    private static IntegrationKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+
+        try {
+            return (IntegrationKernel) Class.forName("physicsengine.physics.VectorIntegrationKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a new entry at the origin, at rest and without rotation.
+     *
+     * @param inverseInertiaTensor the body space inverse inertia tensor, {@code null} for bodies that do not rotate
+     */
+    public Slot add(double mass, Mat3 inverseInertiaTensor) {
+        Slot slot = new Slot();
+        int index = this.append(slot);
+
+        this.orientations[0][index] = 1.0;
+        this.previousOrientations[0][index] = 1.0;
+        this.inverseMasses[index] = Double.isFinite(mass) ? 1.0 / mass : 0.0;
+        this.rotational[index] = inverseInertiaTensor != null;
+
+        if (inverseInertiaTensor != null) {
+            Vec3 column = new Vec3(0.0, 0.0, 0.0);
+
+            for (int i = 0; i < 3; ++i) {
+                inverseInertiaTensor.getColumnInto(i, column);
+                this.inverseInertiaTensors[i][index] = column.x;
+                this.inverseInertiaTensors[3 + i][index] = column.y;
+                this.inverseInertiaTensors[6 + i][index] = column.z;
+            }
+        }
+
+        return slot;
+    }
+
+    /**
+     * Moves the entry of a slot, which may belong to another store, into this store. The slot stays valid and refers to the new entry afterwards.
+     */
+    public void attach(Slot slot) {
+        BodyStore source = slot.store;
+
+        if (source == this) return;
+
+        int from = slot.index;
+        int to = this.append(slot);
+
+        copy(source.positions, from, this.positions, to);
+        copy(source.velocities, from, this.velocities, to);
+        copy(source.forces, from, this.forces, to);
+        copy(source.orientations, from, this.orientations, to);
+        copy(source.angularVelocities, from, this.angularVelocities, to);
+        copy(source.torques, from, this.torques, to);
+        copy(source.inverseInertiaTensors, from, this.inverseInertiaTensors, to);
+        copy(source.previousPositions, from, this.previousPositions, to);
+        copy(source.previousOrientations, from, this.previousOrientations, to);
+        this.inverseMasses[to] = source.inverseMasses[from];
+        this.materials[to] = source.materials[from];
+        this.dynamic[to] = source.dynamic[from];
+        this.rotational[to] = source.rotational[from];
+
+        source.removeAt(from);
+    }
+
+    /**
+     * Moves the entry of a slot of this store into a new store of its own, so the body keeps its state after it has been removed from a scene.
+     */
+    public void detach(Slot slot) {
+        if (slot.store != this) throw new IllegalArgumentException("BodyStore does not contain the slot!");
+
+        new BodyStore(1).attach(slot);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public IntegrationKernel getKernel() {
+        return this.kernel;
+    }
+
+    public void setKernel(IntegrationKernel kernel) {
+        if (kernel == null) throw new IllegalArgumentException("BodyStore requires a kernel!");
+
+        this.kernel = kernel;
+    }
+
+    /**
+     * Keeps the current positions and orientations as the state of the previous step, which a scene does before it steps.
+     */
+    public void storePreviousState() {
+        for (int k = 0; k < 3; ++k) {
+            System.arraycopy(this.positions[k], 0, this.previousPositions[k], 0, this.size);
+        }
+
+        for (int k = 0; k < 4; ++k) {
+            System.arraycopy(this.orientations[k], 0, this.previousOrientations[k], 0, this.size);
+        }
+    }
+
+    /**
+     * Integrates all dynamic entries with the semi-implicit Euler method and clears their accumulated forces and torques.
+     */
+    public void integrate(StepContext context) {
+        this.kernel.integrate(this, 0, this.size, context);
+    }
+
+    private static void integrateScalar(BodyStore store, int from, int to, StepContext context) {
+        for (int i = from; i < to; ++i) {
+            if (store.dynamic[i]) store.integrate(i, context);
+        }
+    }
+
+    /**
+     * Integrates a single entry. Every kernel has to produce exactly the same results as this method.
+     */
+    void integrate(int i, StepContext context) {
+        double dt = context.getDt();
+        double linearDamping = context.getLinearDamping(this.materials[i]);
+        double scale = dt * this.inverseMasses[i];
+
+        for (int k = 0; k < 3; ++k) {
+            double[] v = this.velocities[k];
+            v[i] = (v[i] + this.forces[k][i] * scale) * linearDamping;
+            this.positions[k][i] += v[i] * dt;
+            this.forces[k][i] = 0.0;
+        }
+
+        if (this.rotational[i]) this.integrateAngular(i, context);
+    }
+
+    /**
+     * Integrates the angular velocity and the orientation of a single rotational entry and clears its torque.
+     */
+    void integrateAngular(int i, StepContext context) {
+        double dt = context.getDt();
+        double angularDamping = context.getAngularDamping(this.materials[i]);
+        double[][] w = this.angularVelocities;
+        double[][] t = this.torques;
+        double[][] m = this.inverseInertiaTensors;
+
+        // The body space inverse inertia tensor is applied to the world space torque, as RigidBody always did
+        double tx = t[0][i], ty = t[1][i], tz = t[2][i];
+        w[0][i] = (w[0][i] + (m[0][i] * tx + m[1][i] * ty + m[2][i] * tz) * dt) * angularDamping;
+        w[1][i] = (w[1][i] + (m[3][i] * tx + m[4][i] * ty + m[5][i] * tz) * dt) * angularDamping;
+        w[2][i] = (w[2][i] + (m[6][i] * tx + m[7][i] * ty + m[8][i] * tz) * dt) * angularDamping;
+        t[0][i] = 0.0;
+        t[1][i] = 0.0;
+        t[2][i] = 0.0;
+
+        // q += 0.5 * (0, w * dt) * q, see Quaternion#addScaledVector(Vec3, double)
+        double[][] q = this.orientations;
+        double x = w[0][i] * dt, y = w[1][i] * dt, z = w[2][i] * dt;
+        double qw = q[0][i], qx = q[1][i], qy = q[2][i], qz = q[3][i];
+        double nw = qw + (-x * qx - y * qy - z * qz) * 0.5;
+        double nx = qx + (x * qw + y * qz - z * qy) * 0.5;
+        double ny = qy + (-x * qz + y * qw + z * qx) * 0.5;
+        double nz = qz + (x * qy - y * qx + z * qw) * 0.5;
+
+        double squaredLength = nw * nw + nx * nx + ny * ny + nz * nz;
+        double l = squaredLength != 0.0 ? 1.0 / Math.sqrt(squaredLength) : 1.0;
+        q[0][i] = nw * l;
+        q[1][i] = nx * l;
+        q[2][i] = ny * l;
+        q[3][i] = nz * l;
+    }
+
+    private int append(Slot slot) {
+        if (this.size == this.slots.length) {
+            this.grow(this.size * 2);
+        }
+
+        int index = this.size++;
+        this.slots[index] = slot;
+        slot.store = this;
+        slot.index = index;
+        return index;
+    }
+
+    private void removeAt(int index) {
+        int last = --this.size;
+
+        if (index != last) {
+            Slot moved = this.slots[last];
+            this.slots[index] = moved;
+            moved.index = index;
+
+            copy(this.positions, last, this.positions, index);
+            copy(this.velocities, last, this.velocities, index);
+            copy(this.forces, last, this.forces, index);
+            copy(this.orientations, last, this.orientations, index);
+            copy(this.angularVelocities, last, this.angularVelocities, index);
+            copy(this.torques, last, this.torques, index);
+            copy(this.inverseInertiaTensors, last, this.inverseInertiaTensors, index);
+            copy(this.previousPositions, last, this.previousPositions, index);
+            copy(this.previousOrientations, last, this.previousOrientations, index);
+            this.inverseMasses[index] = this.inverseMasses[last];
+            this.materials[index] = this.materials[last];
+            this.dynamic[index] = this.dynamic[last];
+            this.rotational[index] = this.rotational[last];
+        }
+
+        this.slots[last] = null;
+        this.clear(last);
+    }
+
+    private void clear(int index) {
+        clear(this.positions, index);
+        clear(this.velocities, index);
+        clear(this.forces, index);
+        clear(this.orientations, index);
+        clear(this.angularVelocities, index);
+        clear(this.torques, index);
+        clear(this.inverseInertiaTensors, index);
+        clear(this.previousPositions, index);
+        clear(this.previousOrientations, index);
+        this.inverseMasses[index] = 0.0;
+        this.materials[index] = null;
+        this.dynamic[index] = false;
+        this.rotational[index] = false;
+    }
+
+    private void grow(int capacity) {
+        this.slots = Arrays.copyOf(this.slots, capacity);
+        grow(this.positions, capacity);
+        grow(this.velocities, capacity);
+        grow(this.forces, capacity);
+        grow(this.orientations, capacity);
+        grow(this.angularVelocities, capacity);
+        grow(this.torques, capacity);
+        grow(this.inverseInertiaTensors, capacity);
+        grow(this.previousPositions, capacity);
+        grow(this.previousOrientations, capacity);
+        this.inverseMasses = Arrays.copyOf(this.inverseMasses, capacity);
+        this.materials = Arrays.copyOf(this.materials, capacity);
+        this.dynamic = Arrays.copyOf(this.dynamic, capacity);
+        this.rotational = Arrays.copyOf(this.rotational, capacity);
+    }
+
+    private static void copy(double[][] source, int from, double[][] destination, int to) {
+        for (int k = 0; k < source.length; ++k) {
+            destination[k][to] = source[k][from];
+        }
+    }
+
+    private static void clear(double[][] components, int index) {
+        for (double[] component : components) {
+            component[index] = 0.0;
+        }
+    }
+
+    private static void grow(double[][] components, int capacity) {
+        for (int k = 0; k < components.length; ++k) {
+            components[k] = Arrays.copyOf(components[k], capacity);
+        }
+    }
+
+    /**
+     * The reference of a body to its entry. The entry may move within its store or to another store, but the slot always refers to it.
+     */
+    public static final class Slot {
+        private BodyStore store;
+        private int index;
+
+        private Slot() {
+        }
+
+        public BodyStore getStore() {
+            return this.store;
+        }
+
+        public int getIndex() {
+            return this.index;
+        }
+
+        public Vec3 getPosition(Vec3 dst) {
+            return get(this.store.positions, this.index, dst);
+        }
+
+        /**
+         * Moves the entry to a position without interpolation, as if it had been there in the previous step as well.
+         */
+        public void setPosition(double x, double y, double z) {
+            set(this.store.positions, this.index, x, y, z);
+            set(this.store.previousPositions, this.index, x, y, z);
+        }
+
+        /**
+         * Moves the position by the vector {@code v} scaled by {@code t}.
+         */
+        public void translate(Vec3 v, double t) {
+            add(this.store.positions, this.index, v.x * t, v.y * t, v.z * t);
+        }
+
+        public Vec3 getVelocity(Vec3 dst) {
+            return get(this.store.velocities, this.index, dst);
+        }
+
+        public void setVelocity(double x, double y, double z) {
+            set(this.store.velocities, this.index, x, y, z);
+        }
+
+        /**
+         * Adds the vector {@code v} scaled by {@code t} to the velocity.
+         */
+        public void addVelocity(Vec3 v, double t) {
+            add(this.store.velocities, this.index, v.x * t, v.y * t, v.z * t);
+        }
+
+        /**
+         * @return the dot product of the velocity and the vector {@code v}
+         */
+        public double dotVelocity(Vec3 v) {
+            return dot(this.store.velocities, this.index, v);
+        }
+
+        public Quaternion getOrientation(Quaternion dst) {
+            double[][] q = this.store.orientations;
+            int i = this.index;
+            dst.set(q[0][i], q[1][i], q[2][i], q[3][i]);
+            return dst;
+        }
+
+        /**
+         * @return the position before the last step of the store, see {@link BodyStore#storePreviousState()}
+         */
+        public Vec3 getPreviousPosition(Vec3 dst) {
+            return get(this.store.previousPositions, this.index, dst);
+        }
+
+        /**
+         * @param alpha the fraction of the time between the previous and the current step, from 0 (previous) to 1 (current)
+         */
+        public Vec3 getInterpolatedPosition(double alpha, Vec3 dst) {
+            double[][] p = this.store.positions;
+            double[][] q = this.store.previousPositions;
+            int i = this.index;
+            dst.set(q[0][i] + (p[0][i] - q[0][i]) * alpha, q[1][i] + (p[1][i] - q[1][i]) * alpha, q[2][i] + (p[2][i] - q[2][i]) * alpha);
+            return dst;
+        }
+
+        /**
+         * @return the orientation before the last step of the store, see {@link BodyStore#storePreviousState()}
+         */
+        public Quaternion getPreviousOrientation(Quaternion dst) {
+            double[][] p = this.store.previousOrientations;
+            int i = this.index;
+            dst.set(p[0][i], p[1][i], p[2][i], p[3][i]);
+            return dst;
+        }
+
+        /**
+         * @param alpha the fraction of the time between the previous and the current step, from 0 (previous) to 1 (current)
+         * @see Quaternion#nlerpInto(double, double, double, double, double, double, double, double, double, Quaternion)
+         */
+        public Quaternion getInterpolatedOrientation(double alpha, Quaternion dst) {
+            double[][] q = this.store.orientations;
+            double[][] p = this.store.previousOrientations;
+            int i = this.index;
+            return Quaternion.nlerpInto(p[0][i], p[1][i], p[2][i], p[3][i], q[0][i], q[1][i], q[2][i], q[3][i], alpha, dst);
+        }
+
+        /**
+         * Rotates the entry to an orientation without interpolation, as if it had been rotated so in the previous step as well.
+         */
+        public void setOrientation(double w, double x, double y, double z) {
+            double[][] q = this.store.orientations;
+            double[][] p = this.store.previousOrientations;
+            int i = this.index;
+            q[0][i] = p[0][i] = w;
+            q[1][i] = p[1][i] = x;
+            q[2][i] = p[2][i] = y;
+            q[3][i] = p[3][i] = z;
+        }
+
+        public Vec3 getAngularVelocity(Vec3 dst) {
+            return get(this.store.angularVelocities, this.index, dst);
+        }
+
+        public void setAngularVelocity(double x, double y, double z) {
+            set(this.store.angularVelocities, this.index, x, y, z);
+        }
+
+        /**
+         * Adds the vector {@code v} scaled by {@code t} to the angular velocity.
+         */
+        public void addAngularVelocity(Vec3 v, double t) {
+            add(this.store.angularVelocities, this.index, v.x * t, v.y * t, v.z * t);
+        }
+
+        /**
+         * @return the dot product of the angular velocity and the vector {@code v}
+         */
+        public double dotAngularVelocity(Vec3 v) {
+            return dot(this.store.angularVelocities, this.index, v);
+        }
+
+        public void addForce(double x, double y, double z) {
+            add(this.store.forces, this.index, x, y, z);
+        }
+
+        public void addTorque(double x, double y, double z) {
+            add(this.store.torques, this.index, x, y, z);
+        }
+
+        /**
+         * Clears the velocities and the accumulated forces and torques.
+         */
+        public void stop() {
+            clear(this.store.velocities, this.index);
+            clear(this.store.angularVelocities, this.index);
+            clear(this.store.forces, this.index);
+            clear(this.store.torques, this.index);
+        }
+
+        public boolean isDynamic() {
+            return this.store.dynamic[this.index];
+        }
+
+        /**
+         * @param dynamic {@code true} if the entry is integrated, see {@link PhysicsObject#hasFiniteMass()}
+         */
+        public void setDynamic(boolean dynamic) {
+            this.store.dynamic[this.index] = dynamic;
+        }
+
+        public Material getMaterial() {
+            Material material = this.store.materials[this.index];
+            return material != null ? material : Material.DEFAULT;
+        }
+
+        public void setMaterial(Material material) {
+            this.store.materials[this.index] = material != Material.DEFAULT ? material : null;
+        }
+
+        /**
+         * Integrates this entry on its own, like {@link BodyStore#integrate(StepContext)} does for all entries.
+         */
+        public void integrate(StepContext context) {
+            if (this.store.dynamic[this.index]) {
+                this.store.integrate(this.index, context);
+            }
+        }
+
+        private static Vec3 get(double[][] v, int i, Vec3 dst) {
+            dst.set(v[0][i], v[1][i], v[2][i]);
+            return dst;
+        }
+
+        private static void set(double[][] v, int i, double x, double y, double z) {
+            v[0][i] = x;
+            v[1][i] = y;
+            v[2][i] = z;
+        }
+
+        private static void add(double[][] v, int i, double x, double y, double z) {
+            v[0][i] += x;
+            v[1][i] += y;
+            v[2][i] += z;
+        }
+
+        private static double dot(double[][] v, int i, Vec3 u) {
+            return v[0][i] * u.x + v[1][i] * u.y + v[2][i] * u.z;
+        }
+    }
+}
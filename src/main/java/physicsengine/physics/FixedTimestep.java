@@ -0,0 +1,69 @@
+package physicsengine.physics;
+
+/**
+ * Decouples the steps of a scene from the frames of a window: the time of each frame is accumulated and consumed in steps of a fixed length, so that the
+ * simulation behaves the same at any frame rate. The time that is left over is less than one step and is passed to the renderer as {@link #getAlpha()}
+ * to interpolate between the previous and the current step.
+ *
+ * <p>A frame performs at most {@link #getMaxSteps()} steps. If stepping takes longer than the time it simulates, every frame would need more steps than
+ * the last one (the spiral of death); instead the simulation slows down and the time that could not be stepped is dropped.</p>
+ */
+public class FixedTimestep {
+    public static final double DEFAULT_FREQUENCY = 60.0;
+    public static final int DEFAULT_MAX_STEPS = 5;
+    private final double timeStep;
+    private final int maxSteps;
+    private double accumulator = 0.0;
+
+    public FixedTimestep() {
+        this(1.0 / DEFAULT_FREQUENCY, DEFAULT_MAX_STEPS);
+    }
+
+    /**
+     * @param timeStep the length of a step in seconds
+     * @param maxSteps the maximum number of steps per frame
+     */
+    public FixedTimestep(double timeStep, int maxSteps) {
+        if (!(timeStep > 0.0) || Double.isInfinite(timeStep)) throw new IllegalArgumentException("FixedTimestep requires a positive timestep!");
+        if (maxSteps < 1) throw new IllegalArgumentException("FixedTimestep requires at least one step per frame!");
+
+        this.timeStep = timeStep;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Adds the time of a frame and consumes it in whole steps.
+     *
+     * @param frameTime the time since the last frame in seconds
+     * @return the number of steps to perform in this frame, each of length {@link #getTimeStep()}
+     */
+    public int advance(double frameTime) {
+        if (frameTime > 0.0) {
+            this.accumulator += frameTime;
+        }
+
+        int steps = (int) Math.min(Math.floor(this.accumulator / this.timeStep), this.maxSteps);
+        this.accumulator -= steps * this.timeStep;
+
+        if (this.accumulator >= this.timeStep) {
+            this.accumulator %= this.timeStep; // behind by more than the max steps, drop the rest
+        }
+
+        return steps;
+    }
+
+    public double getTimeStep() {
+        return this.timeStep;
+    }
+
+    public int getMaxSteps() {
+        return this.maxSteps;
+    }
+
+    /**
+     * @return the fraction of a step that has been accumulated but not yet stepped, from 0 inclusive to 1 exclusive
+     */
+    public double getAlpha() {
+        return this.accumulator / this.timeStep;
+    }
+}
@@ -0,0 +1,12 @@
+package physicsengine.physics;
+
+/**
+ * Integrates a range of entries of a {@link BodyStore}, see {@link BodyStore#integrate(StepContext)}.
+ */
+@FunctionalInterface
+public interface IntegrationKernel {
+    /**
+     * Integrates the dynamic entries from {@code from} (inclusive) to {@code to} (exclusive) and clears their accumulated forces and torques.
+     */
+    void integrate(BodyStore store, int from, int to, StepContext context);
+}
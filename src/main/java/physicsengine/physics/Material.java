@@ -0,0 +1,36 @@
+package physicsengine.physics;
+
+/**
+ * The damping of a body that should not be damped like {@link PhysicsObject#LINEAR_DAMPING_PER_SECOND} and {@link PhysicsObject#ANGULAR_DAMPING_PER_SECOND}.
+ * The damping multipliers of a material are computed once per step, see {@link StepContext#getLinearDamping(Material)}.
+ */
+public final class Material {
+    public static final Material DEFAULT = new Material(PhysicsObject.LINEAR_DAMPING_PER_SECOND, PhysicsObject.ANGULAR_DAMPING_PER_SECOND);
+    private final double linearDampingPerSecond;
+    private final double angularDampingPerSecond;
+    final double exponentialLinearDampingFactor;
+    final double exponentialAngularDampingFactor;
+
+    /**
+     * @param linearDampingPerSecond the fraction of the velocity that remains after one second, between 0 (exclusive) and 1
+     * @param angularDampingPerSecond the fraction of the angular velocity that remains after one second, between 0 (exclusive) and 1
+     */
+    public Material(double linearDampingPerSecond, double angularDampingPerSecond) {
+        if (!(linearDampingPerSecond > 0.0 && linearDampingPerSecond <= 1.0) || !(angularDampingPerSecond > 0.0 && angularDampingPerSecond <= 1.0)) {
+            throw new IllegalArgumentException("Material requires damping factors between 0 (exclusive) and 1!");
+        }
+
+        this.linearDampingPerSecond = linearDampingPerSecond;
+        this.angularDampingPerSecond = angularDampingPerSecond;
+        this.exponentialLinearDampingFactor = Math.log(linearDampingPerSecond);
+        this.exponentialAngularDampingFactor = Math.log(angularDampingPerSecond);
+    }
+
+    public double getLinearDampingPerSecond() {
+        return this.linearDampingPerSecond;
+    }
+
+    public double getAngularDampingPerSecond() {
+        return this.angularDampingPerSecond;
+    }
+}
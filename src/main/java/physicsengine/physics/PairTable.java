@@ -0,0 +1,195 @@
+package physicsengine.physics;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * An open-addressing hash table that maps pairs of ids to values, regardless of the order of the ids. Every value found or added during an update
+ * is marked, and {@link #removeUnmarked(Consumer)} drops the values that were not, so that the table follows a set of pairs that changes a little
+ * from one update to the next.
+ *
+ * <p>Linear probing requires the remaining entries to be reinserted after a deletion. The arrays of the previous table are kept and reused when the
+ * table is rebuilt at the same capacity, so that no memory is allocated in a steady state.</p>
+ *
+ * @param <V> the type of the values
+ */
+public final class PairTable<V> {
+    private static final long EMPTY_KEY = -1L;
+    private long[] keys = new long[64];
+    private Object[] values = new Object[64];
+    private boolean[] marked = new boolean[64];
+    private long[] spareKeys = new long[0];
+    private Object[] spareValues = new Object[0];
+    private boolean[] spareMarked = new boolean[0];
+    private int size = 0;
+
+    public PairTable() {
+        Arrays.fill(this.keys, EMPTY_KEY);
+    }
+
+    /**
+     * Marks the pair as used during the current update.
+     *
+     * @return the value of the pair, or {@code null} if the table does not contain it
+     */
+    public V mark(int id1, int id2) {
+        long key = key(id1, id2);
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while (this.keys[slot] != EMPTY_KEY) {
+            if (this.keys[slot] == key) {
+                this.marked[slot] = true;
+                return this.get(slot);
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds a pair that the table does not contain yet, marked as used during the current update.
+     */
+    public void put(int id1, int id2, V value) {
+        long key = key(id1, id2);
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while (this.keys[slot] != EMPTY_KEY) {
+            slot = (slot + 1) & mask;
+        }
+
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.marked[slot] = true;
+
+        if (++this.size * 2 > this.keys.length) {
+            this.resize(this.keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes all pairs that have not been marked since the last call and clears the marks of the remaining pairs.
+     *
+     * @param removed receives the value of every removed pair
+     */
+    public void removeUnmarked(Consumer<? super V> removed) {
+        boolean anyRemoved = false;
+
+        for (int i = 0; i < this.keys.length; ++i) {
+            if (this.keys[i] != EMPTY_KEY && !this.marked[i]) {
+                removed.accept(this.get(i));
+                this.keys[i] = EMPTY_KEY;
+                this.values[i] = null;
+                --this.size;
+                anyRemoved = true;
+            }
+
+            this.marked[i] = false;
+        }
+
+        if (anyRemoved) this.resize(this.keys.length);
+    }
+
+    /**
+     * Removes all pairs that contain the id. The marks of the remaining pairs are cleared, so this must not be called during an update.
+     *
+     * @param removed receives the value of every removed pair
+     */
+    public void removeAll(int id, Consumer<? super V> removed) {
+        for (int i = 0; i < this.keys.length; ++i) {
+            long key = this.keys[i];
+
+            if (key != EMPTY_KEY) {
+                this.marked[i] = (int)(key >>> 32) != id && (int)key != id;
+            }
+        }
+
+        this.removeUnmarked(removed);
+    }
+
+    /**
+     * Removes all pairs.
+     *
+     * @param removed receives the value of every removed pair
+     */
+    public void clear(Consumer<? super V> removed) {
+        for (int i = 0; i < this.keys.length; ++i) {
+            if (this.keys[i] != EMPTY_KEY) removed.accept(this.get(i));
+        }
+
+        Arrays.fill(this.keys, EMPTY_KEY);
+        Arrays.fill(this.values, null);
+        Arrays.fill(this.marked, false);
+        this.size = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of slots, which together with {@link #get(int)} allows iterating over the values without allocating an iterator
+     */
+    public int capacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * @return the value in the slot, or {@code null} if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int slot) {
+        return (V)this.values[slot];
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        boolean[] oldMarked = this.marked;
+
+        if (this.spareKeys.length != capacity) {
+            this.spareKeys = new long[capacity];
+            this.spareValues = new Object[capacity];
+            this.spareMarked = new boolean[capacity];
+        }
+
+        this.keys = this.spareKeys;
+        this.values = this.spareValues;
+        this.marked = this.spareMarked;
+        Arrays.fill(this.keys, EMPTY_KEY);
+        Arrays.fill(this.values, null);
+        Arrays.fill(this.marked, false);
+        int mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+
+                while (this.keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+                this.marked[slot] = oldMarked[i];
+            }
+        }
+
+        Arrays.fill(oldValues, null);
+        this.spareKeys = oldKeys;
+        this.spareValues = oldValues;
+        this.spareMarked = oldMarked;
+    }
+
+    private static long key(int id1, int id2) {
+        return id1 < id2 ? ((long)id1 << 32) | (id2 & 0xFFFFFFFFL) : ((long)id2 << 32) | (id1 & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int)(key ^ (key >>> 32));
+    }
+}
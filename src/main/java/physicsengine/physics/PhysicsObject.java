@@ -8,8 +8,19 @@ public interface PhysicsObject {
     double ANGULAR_DAMPING_PER_SECOND = Math.pow(0.96, 60.0);                         // this.angularVelocity.scale(Math.pow(PhysicsObject.ANGULAR_DAMPING_PER_SECOND, dt));
     double EXPONENTIAL_LINEAR_DAMPING_FACTOR = Math.log(LINEAR_DAMPING_PER_SECOND);   // this.velocity.scale(Math.exp(PhysicsObject.EXPONENTIAL_LINEAR_DAMPING_FACTOR * dt));
     double EXPONENTIAL_ANGULAR_DAMPING_FACTOR = Math.log(ANGULAR_DAMPING_PER_SECOND); // this.angularVelocity.scale(Math.exp(PhysicsObject.EXPONENTIAL_ANGULAR_DAMPING_FACTOR * dt));
+    /**
+     * The reference velocity passed to {@link physicsengine.physics.optimization.Tracker#canSleep(double)}, applied to the linear and angular velocity alike.
+     */
+    double SLEEP_VELOCITY = 0.05;
+    /**
+     * The number of steps an object has to be resting before it falls asleep.
+     */
+    int SLEEP_SAMPLES = 30;
 
-    void integrate(double dt);
+    /**
+     * Integrates this object over the timestep of the context and clears its accumulated forces.
+     */
+    void integrate(StepContext context);
 
     double getMass();
 
@@ -17,8 +28,41 @@ public interface PhysicsObject {
         return this.hasFiniteMass() ? 1.0 / this.getMass() : 0.0;
     }
 
+    /**
+     * Sleeping objects are treated like objects of infinite mass: they are neither integrated nor moved by forces or collisions.
+     */
     default boolean hasFiniteMass() {
-        return !(this instanceof Editable editable && editable.isSelected()) && Double.isFinite(this.getMass());
+        return !(this instanceof Editable editable && editable.isSelected()) && this.isAwake() && Double.isFinite(this.getMass());
+    }
+
+    boolean isAwake();
+
+    /**
+     * Putting an object to sleep clears its velocities and accumulated forces. Waking it up restarts the observation of its velocities.
+     */
+    void setAwake(boolean awake);
+
+    /**
+     * Samples the velocities at the end of a step, after all collisions have been resolved. The caller decides whether the object is put to sleep,
+     * since connected objects should only fall asleep together.
+     *
+     * @return {@code true} if the object is sleeping or has been resting for {@link #SLEEP_SAMPLES} steps
+     */
+    boolean updateSleepState();
+
+    /**
+     * @return {@code true} if this object is moving fast enough, or is being edited, to wake up sleeping objects it touches
+     */
+    default boolean isMoving() {
+        Vec3 velocity = this.getVelocity();
+        return (this instanceof Editable editable && editable.isSelected()) || velocity.dot(velocity) > SLEEP_VELOCITY * SLEEP_VELOCITY;
+    }
+
+    /**
+     * @return {@code true} if this object is sleeping and touches or is connected to the given object, which would wake it up
+     */
+    default boolean isWokenUpBy(PhysicsObject other) {
+        return !this.isAwake() && other.isMoving();
     }
 
     Vec3 getPosition();
@@ -1,42 +1,51 @@
 package physicsengine.physics;
 
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
-import physicsengine.physics.forces.GravityForce;
-import physicsengine.physics.forces.SpringForce;
-import physicsengine.physics.forces.rigidbody.AnchoredRigidBodySpringForce;
-import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
+import physicsengine.physics.broadphase.BroadPhase;
+import physicsengine.physics.broadphase.DynamicAabbTree;
+import physicsengine.physics.forces.ForceRegistry;
 import physicsengine.physics.particle.Particle;
 import physicsengine.physics.particle.ParticleCollision;
 import physicsengine.physics.rigidbody.CollisionData;
 import physicsengine.physics.rigidbody.Constraint;
+import physicsengine.physics.rigidbody.ContactManifold;
+import physicsengine.physics.rigidbody.ContactSolver;
+import physicsengine.physics.rigidbody.Islands;
+import physicsengine.physics.rigidbody.ManifoldCache;
 import physicsengine.physics.rigidbody.RigidBody;
 import physicsengine.physics.rigidbody.RigidBodyCollision;
 import physicsengine.physics.rigidbody.colliders.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public class Scene {
     private final List<PhysicsObject> physicsObjects = new ArrayList<>();
     private final List<RigidBody> rigidBodies = new ArrayList<>();
     private final List<Particle> particles = new ArrayList<>();
-    private final List<Runnable> forceGenerators = new ArrayList<>();
     private final List<Constraint> constraints = new ArrayList<>();
-    private final CollisionData collisionData = new CollisionData(128);
-
-    public Scene() {
-        this.forceGenerators.add(GravityForce::apply);
-        this.forceGenerators.add(SpringForce::apply);
-        this.forceGenerators.add(RigidBodySpringForce::apply);
-        this.forceGenerators.add(AnchoredRigidBodySpringForce::apply);
-    }
+    private final ForceRegistry forces = new ForceRegistry();
+    private final BodyStore bodyStore = new BodyStore();
+    private final StepContext stepContext = new StepContext();
+    private final CollisionData collisionData = new CollisionData();
+    private final ContactSolver contactSolver = new ContactSolver();
+    private final ManifoldCache manifoldCache = new ManifoldCache();
+    private final Islands islands = new Islands();
+    // A method reference is a new object every time it is evaluated, so callbacks that are handed out on every step are created once and kept in a field
+    private final BiConsumer<RigidBody, RigidBody> collide = this::collide;
+    private BroadPhase broadPhase = new DynamicAabbTree();
 
     public void add(PhysicsObject physicsObject) {
         this.physicsObjects.add(physicsObject);
 
         if (physicsObject instanceof RigidBody rigidBody) {
+            this.bodyStore.attach(rigidBody.getSlot());
             this.rigidBodies.add(rigidBody);
+            this.broadPhase.add(rigidBody);
         } else if (physicsObject instanceof Particle particle) {
+            this.bodyStore.attach(particle.getSlot());
             this.particles.add(particle);
         }
     }
@@ -45,6 +54,76 @@ public class Scene {
         this.constraints.add(constraint);
     }
 
+    /**
+     * Removes an object together with its forces and the constraints attached to it. The object keeps its state and may be added to a scene again,
+     * but its forces have to be registered again. Cached contacts of a rigid body are dropped at the next step, see {@link ManifoldCache#removeUnused()}.
+     */
+    public void remove(PhysicsObject physicsObject) {
+        if (!this.physicsObjects.remove(physicsObject)) return;
+
+        this.forces.removeAll(physicsObject);
+
+        if (physicsObject instanceof RigidBody rigidBody) {
+            this.bodyStore.detach(rigidBody.getSlot());
+            this.rigidBodies.remove(rigidBody);
+            this.broadPhase.remove(rigidBody);
+            this.constraints.removeIf(constraint -> constraint.getRigidBody1() == rigidBody || constraint.getRigidBody2() == rigidBody);
+        } else if (physicsObject instanceof Particle particle) {
+            this.bodyStore.detach(particle.getSlot());
+            this.particles.remove(particle);
+        }
+    }
+
+    public void remove(Constraint constraint) {
+        this.constraints.remove(constraint);
+    }
+
+    public void setBroadPhase(BroadPhase broadPhase) {
+        this.broadPhase = broadPhase;
+        this.rigidBodies.forEach(broadPhase::add);
+    }
+
+    public BroadPhase getBroadPhase() {
+        return this.broadPhase;
+    }
+
+    /**
+     * @return the forces of this scene, which are applied at the start of every step
+     */
+    public ForceRegistry getForces() {
+        return this.forces;
+    }
+
+    /**
+     * @return the store that holds the state of all rigid bodies and particles of this scene
+     */
+    public BodyStore getBodyStore() {
+        return this.bodyStore;
+    }
+
+    /**
+     * @return the context of the current or last step, which holds e.g. the gravity of this scene
+     */
+    public StepContext getStepContext() {
+        return this.stepContext;
+    }
+
+    public ContactSolver getContactSolver() {
+        return this.contactSolver;
+    }
+
+    public ManifoldCache getManifoldCache() {
+        return this.manifoldCache;
+    }
+
+    public Islands getIslands() {
+        return this.islands;
+    }
+
+    public CollisionData getCollisionData() {
+        return this.collisionData;
+    }
+
     public List<PhysicsObject> getPhysicsObjects() {
         return this.physicsObjects;
     }
@@ -62,91 +141,101 @@ public class Scene {
     }
 
     public void update(double dt) {
-        this.forceGenerators.forEach(Runnable::run);
+        StepContext context = this.stepContext.begin(dt);
+        this.bodyStore.storePreviousState();
 
-        for (PhysicsObject physicsObject : this.physicsObjects) {
-            physicsObject.integrate(dt);
+        this.forces.apply(context);
+
+        this.bodyStore.integrate(context);
+
+        for (int i = 0; i < this.physicsObjects.size(); ++i) {
+            PhysicsObject physicsObject = this.physicsObjects.get(i);
 
             if (physicsObject instanceof RigidBody rigidBody) {
                 rigidBody.collisionMarker = RigidBody.COLLISION_MARKER_NONE;
+            } else if (!(physicsObject instanceof Particle)) {
+                physicsObject.integrate(context); // not part of the body store
             }
         }
 
         this.collisionData.reset();
-        int size = this.rigidBodies.size();
-
-        label1: for (int i = 0; i < size - 1; ++i) {
-            RigidBody rigidBody1 = this.rigidBodies.get(i);
-
-            boolean flag = !rigidBody1.hasFiniteMass();
-
-            for (int j = i + 1; j < size; ++j) {
-                RigidBody rigidBody2 = this.rigidBodies.get(j);
-
-                if (flag && !rigidBody2.hasFiniteMass()) continue;
-
-                if (this.detectBroadCollision(rigidBody1, rigidBody2)) {
-                    rigidBody1.collisionMarker = Math.max(rigidBody1.collisionMarker, RigidBody.COLLISION_MARKER_BROAD);
-                    rigidBody2.collisionMarker = Math.max(rigidBody2.collisionMarker, RigidBody.COLLISION_MARKER_BROAD);
+        this.broadPhase.update();
+        this.broadPhase.findPairs(this.collide);
+        this.manifoldCache.removeUnused();
 
-                    this.detectCollision(rigidBody1, rigidBody2, this.collisionData);
-
-                    if (this.collisionData.hasMaxCapacity()) break label1;
-                }
-            }
-        }
-
-        int i = 0;
-
-        while (i < this.constraints.size() && !this.collisionData.hasMaxCapacity()) {
+        for (int i = 0; i < this.constraints.size(); ++i) {
             this.constraints.get(i).perform(this.collisionData);
-            ++i;
         }
 
-        this.collisionData.resolve();
+        this.islands.build(this.rigidBodies, this.collisionData, this.constraints, this.forces.getRigidBodySprings());
+        this.contactSolver.solve(this.collisionData, this.islands);
+
+        for (int i = 0; i < this.particles.size(); ++i) {
+            Particle particle = this.particles.get(i);
 
-        for (Particle particle : this.particles) {
             if (particle.hasFiniteMass()) {
-                for (RigidBody rigidBody : this.rigidBodies) {
+                for (int j = 0; j < this.rigidBodies.size(); ++j) {
+                    RigidBody rigidBody = this.rigidBodies.get(j);
+
                     if (rigidBody.getCollider() instanceof PlaneCollider planeCollider) {
                         this.collideParticleWithPlane(particle, rigidBody, planeCollider);
                     }
                 }
             }
         }
-    }
 
-    private boolean detectBroadCollision(RigidBody rigidBody1, RigidBody rigidBody2) {
-        Vec3 position1 = rigidBody1.getPosition();
-        Vec3 position2 = rigidBody2.getPosition();
-        Collider collider1 = rigidBody1.getCollider();
-        Collider collider2 = rigidBody2.getCollider();
-        double distance = position2.distance(position1);
+        for (int i = 0; i < this.particles.size(); ++i) {
+            Particle particle = this.particles.get(i);
 
-        return distance <= collider1.getMinDiagonalRadius() + collider2.getMinDiagonalRadius();
+            if (particle.isAwake() && particle.updateSleepState()) {
+                particle.setAwake(false);
+            }
+        }
+
+        this.islands.updateSleepStates();
     }
 
-    private void detectCollision(RigidBody rigidBody1, RigidBody rigidBody2, CollisionData collisionData) {
-        if (rigidBody2.getCollider() instanceof BoxCollider boxCollider) {
-            rigidBody1.getCollider().collide(rigidBody1, rigidBody2, boxCollider, collisionData);
-        } else if (rigidBody2.getCollider() instanceof SphereCollider sphereCollider) {
-            rigidBody1.getCollider().collide(rigidBody1, rigidBody2, sphereCollider, collisionData);
-        } else if (rigidBody2.getCollider() instanceof PlaneCollider planeCollider) {
-            rigidBody1.getCollider().collide(rigidBody1, rigidBody2, planeCollider, collisionData);
+    private void collide(RigidBody rigidBody1, RigidBody rigidBody2) {
+        boolean wakeUp = rigidBody1.isWokenUpBy(rigidBody2) || rigidBody2.isWokenUpBy(rigidBody1);
+
+        if (!rigidBody1.hasFiniteMass() && !rigidBody2.hasFiniteMass() && !wakeUp) return;
+
+        rigidBody1.collisionMarker = Math.max(rigidBody1.collisionMarker, RigidBody.COLLISION_MARKER_BROAD);
+        rigidBody2.collisionMarker = Math.max(rigidBody2.collisionMarker, RigidBody.COLLISION_MARKER_BROAD);
+
+        ContactManifold manifold = this.manifoldCache.get(rigidBody1, rigidBody2);
+        manifold.refresh();
+
+        if (!manifold.tryReuse()) {
+            int start = this.collisionData.size();
+            CollisionDispatcher.collide(rigidBody1, rigidBody2, manifold, this.collisionData);
+            manifold.merge(this.collisionData, start);
+        }
+
+        manifold.emit(this.collisionData);
+
+        if (wakeUp && manifold.size() > 0) {
+            rigidBody1.setAwake(true);
+            rigidBody2.setAwake(true);
         }
     }
 
     private void collideParticleWithPlane(Particle particle, RigidBody rigidBody, PlaneCollider collider) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
         Vec3 particlePosition = particle.getPosition();
         Vec3 rigidBodyPosition = rigidBody.getPosition();
-        Vec3 normal = rigidBody.getOrientation().apply(collider.normal);
+        Vec3 normal = rigidBody.getRotationMatrix().transformInto(collider.normal, scratch.vec3());
 
-        Vec3 relativePosition = particlePosition.sub(rigidBodyPosition);
+        Vec3 relativePosition = particlePosition.subInto(rigidBodyPosition, scratch.vec3());
         double projection = CollisionAlgorithms.project(relativePosition, normal);
 
         if (projection < Particle.PARTICLE_RADIUS) {
             double penetration = Particle.PARTICLE_RADIUS - projection;
             ParticleCollision.resolve(particle, normal, penetration, RigidBodyCollision.DEFAULT_RESTITUTION);
         }
+
+        scratch.pop();
     }
 }
@@ -0,0 +1,230 @@
+package physicsengine.physics;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps a {@link Scene} at a fixed timestep without any window or rendering.
+ *
+ * <p>The scene is either stepped synchronously with {@link #step(int)} or continuously on a background thread between {@link #start()} and {@link #stop()}.
+ * A running simulation steps as fast as possible, unless it is paced to real time by a {@link FixedTimestep}: A paced simulation that falls behind, e.g.
+ * after a long garbage collection, catches up with at most {@link FixedTimestep#getMaxSteps()} steps in a row and skips the rest of the missed time.</p>
+ *
+ * <p>Steps never overlap, so the scene is only ever updated by one thread at a time. Step listeners are called on the stepping thread right after each step.
+ * Other threads must not change the scene while it is running; they submit commands instead, which are performed on the stepping thread between two steps,
+ * see {@link #submit(Runnable)}.</p>
+ *
+ * <p>If a step, a command or a step listener throws on the background thread, the simulation stops right there and the exception is rethrown by the next
+ * call of {@link #stop()} or {@link #start()}, so that it is never lost. In the meantime {@link #isRunning()} returns {@code false}.</p>
+ */
+public class SimulationRunner {
+    public static final double DEFAULT_TIME_STEP = 1.0 / FixedTimestep.DEFAULT_FREQUENCY;
+    private final Scene scene;
+    private final FixedTimestep fixedTimestep;
+    private final double timeStep;
+    private final List<StepListener> stepListeners = new CopyOnWriteArrayList<>();
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final Object stepLock = new Object();
+    private volatile boolean realTime = false;
+    private volatile boolean running = false;
+    private volatile long stepCount = 0;
+    private volatile Throwable failure;
+    private volatile Thread thread;
+
+    public SimulationRunner(Scene scene) {
+        this(scene, DEFAULT_TIME_STEP);
+    }
+
+    public SimulationRunner(Scene scene, double timeStep) {
+        this(scene, timeStep, FixedTimestep.DEFAULT_MAX_STEPS);
+    }
+
+    /**
+     * @param maxSteps the maximum number of steps in a row with which a simulation that is paced to real time catches up
+     */
+    public SimulationRunner(Scene scene, double timeStep, int maxSteps) {
+        this.scene = scene;
+        this.fixedTimestep = new FixedTimestep(timeStep, maxSteps);
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Performs the given number of steps on the calling thread.
+     *
+     * @throws IllegalStateException if the simulation is running on its background thread
+     */
+    public void step(int steps) {
+        if (this.running) throw new IllegalStateException("SimulationRunner cannot be stepped manually while it is running!");
+
+        for (int i = 0; i < steps; ++i) {
+            this.performStep();
+        }
+    }
+
+    /**
+     * Starts stepping the scene on a background thread until {@link #stop()} is called.
+     *
+     * @throws IllegalStateException if the simulation is already running
+     * @throws CompletionException   if the previous run failed and the failure has not been rethrown by {@link #stop()} yet, see {@link #stop()}
+     */
+    public synchronized void start() {
+        if (this.running) throw new IllegalStateException("SimulationRunner is already running!");
+
+        this.stop();
+
+        this.running = true;
+        this.thread = new Thread(this::run, "SimulationRunner");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the background thread after its current step and waits for it to finish. Called on the background thread itself, e.g. by a step listener or a
+     * command, it returns right away instead and the thread finishes once the current step is done.
+     *
+     * @throws CompletionException if the background thread stopped because a step, a command or a step listener threw, with that exception as the cause
+     */
+    public void stop() {
+        // The background thread would wait for itself, and must not wait for the monitor while another thread holds it to wait for the background thread
+        if (Thread.currentThread() == this.thread) {
+            this.running = false;
+            return;
+        }
+
+        synchronized (this) {
+            if (this.thread == null) return;
+
+            this.running = false;
+            LockSupport.unpark(this.thread);
+
+            try {
+                this.thread.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+
+            this.thread = null;
+            Throwable failure = this.failure;
+
+            if (failure != null) {
+                this.failure = null;
+                throw new CompletionException("SimulationRunner stopped because a step failed!", failure);
+            }
+        }
+    }
+
+    /**
+     * Queues a command that changes the scene, e.g. an edit by the user. Commands are performed in the order they were submitted, on the stepping thread
+     * right before the next step. May be called from any thread.
+     */
+    public void submit(Runnable command) {
+        this.commands.add(command);
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public void addStepListener(StepListener stepListener) {
+        this.stepListeners.add(stepListener);
+    }
+
+    public void removeStepListener(StepListener stepListener) {
+        this.stepListeners.remove(stepListener);
+    }
+
+    public boolean isRealTime() {
+        return this.realTime;
+    }
+
+    /**
+     * @param realTime {@code true} to pace a running simulation to real time, {@code false} to step it as fast as possible
+     */
+    public void setRealTime(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    public Scene getScene() {
+        return this.scene;
+    }
+
+    public double getTimeStep() {
+        return this.timeStep;
+    }
+
+    /**
+     * @return the number of steps performed since the creation of this runner
+     */
+    public long getStepCount() {
+        return this.stepCount;
+    }
+
+    /**
+     * @return the simulated time in seconds
+     */
+    public double getTime() {
+        return this.stepCount * this.timeStep;
+    }
+
+    private void run() {
+        double nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        long last = System.nanoTime();
+
+        try {
+            while (this.running) {
+                if (!this.realTime) {
+                    this.performStep();
+                    last = System.nanoTime();
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                int steps = this.fixedTimestep.advance((now - last) / nanosPerSecond);
+                last = now;
+
+                if (steps == 0) {
+                    LockSupport.parkNanos((long)((1.0 - this.fixedTimestep.getAlpha()) * this.timeStep * nanosPerSecond));
+                    continue;
+                }
+
+                for (int i = 0; i < steps && this.running; ++i) {
+                    this.performStep();
+                }
+            }
+        } catch (Throwable failure) {
+            this.failure = failure;
+            this.running = false;
+        }
+    }
+
+    private void performStep() {
+        synchronized (this.stepLock) {
+            Runnable command;
+
+            while ((command = this.commands.poll()) != null) {
+                command.run();
+            }
+
+            this.scene.update(this.timeStep);
+            long step = ++this.stepCount;
+
+            for (StepListener stepListener : this.stepListeners) {
+                stepListener.onStep(this.scene, step, step * this.timeStep);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface StepListener {
+        /**
+         * @param step the number of steps performed so far, including this one
+         * @param time the simulated time in seconds after this step
+         */
+        void onStep(Scene scene, long step, double time);
+    }
+}
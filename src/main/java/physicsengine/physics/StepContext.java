@@ -0,0 +1,117 @@
+package physicsengine.physics;
+
+import physicsengine.math.Scratch;
+import physicsengine.math.Vec3;
+
+import java.util.Arrays;
+
+/**
+ * The values a step of a {@link Scene} shares between all bodies, which are computed once per step rather than once per body:
+ * the timestep, the damping multipliers, the gravity and the scratch pool of the stepping thread.
+ *
+ * <p>The damping multipliers use the exponential damping factors of {@link PhysicsObject}, e.g. {@code exp(EXPONENTIAL_LINEAR_DAMPING_FACTOR * dt)}.
+ * Bodies with a {@link Material} of their own look up its multipliers, which are computed the first time a material is looked up in a step.</p>
+ *
+ * <p>A context is reused for every step and belongs to a single scene.</p>
+ */
+public final class StepContext {
+    private final Vec3 gravity = new Vec3(0.0, -9.81, 0.0);
+    private double dt = 0.0;
+    private double linearDamping = 1.0;
+    private double angularDamping = 1.0;
+    private Scratch scratch;
+    // The multipliers of the materials looked up in this step: linear and angular damping for each material
+    private Material[] materials = new Material[4];
+    private double[] materialDampings = new double[8];
+    private int materialCount = 0;
+
+    /**
+     * Prepares this context for a step of the given length on the calling thread.
+     */
+    public StepContext begin(double dt) {
+        this.dt = dt;
+        this.linearDamping = Math.exp(PhysicsObject.EXPONENTIAL_LINEAR_DAMPING_FACTOR * dt);
+        this.angularDamping = Math.exp(PhysicsObject.EXPONENTIAL_ANGULAR_DAMPING_FACTOR * dt);
+        this.scratch = Scratch.get();
+
+        Arrays.fill(this.materials, 0, this.materialCount, null);
+        this.materialCount = 0;
+        return this;
+    }
+
+    public double getDt() {
+        return this.dt;
+    }
+
+    /**
+     * @return the multiplier of the velocity of bodies without a material of their own
+     */
+    public double getLinearDamping() {
+        return this.linearDamping;
+    }
+
+    /**
+     * @return the multiplier of the angular velocity of bodies without a material of their own
+     */
+    public double getAngularDamping() {
+        return this.angularDamping;
+    }
+
+    /**
+     * @param material the material of a body, {@code null} for the default damping
+     */
+    public double getLinearDamping(Material material) {
+        if (material == null) return this.linearDamping;
+
+        int index = this.lookUp(material); // before reading the array, which the lookup may replace
+        return this.materialDampings[2 * index];
+    }
+
+    /**
+     * @param material the material of a body, {@code null} for the default damping
+     */
+    public double getAngularDamping(Material material) {
+        if (material == null) return this.angularDamping;
+
+        int index = this.lookUp(material);
+        return this.materialDampings[2 * index + 1];
+    }
+
+    /**
+     * @return the gravitational acceleration, which may be changed
+     */
+    public Vec3 getGravity() {
+        return this.gravity;
+    }
+
+    public void setGravity(Vec3 gravity) {
+        this.gravity.set(gravity);
+    }
+
+    /**
+     * @return the scratch pool of the thread performing the step
+     */
+    public Scratch getScratch() {
+        return this.scratch;
+    }
+
+    /**
+     * A scene uses only a few materials, so they are searched linearly.
+     */
+    private int lookUp(Material material) {
+        for (int i = 0; i < this.materialCount; ++i) {
+            if (this.materials[i] == material) return i;
+        }
+
+        if (this.materialCount == this.materials.length) {
+            this.materials = Arrays.copyOf(this.materials, 2 * this.materialCount);
+            this.materialDampings = Arrays.copyOf(this.materialDampings, 4 * this.materialCount);
+        }
+
+        int index = this.materialCount++;
+        this.materials[index] = material;
+        this.materialDampings[2 * index] = Math.exp(material.exponentialLinearDampingFactor * this.dt);
+        this.materialDampings[2 * index + 1] = Math.exp(material.exponentialAngularDampingFactor * this.dt);
+        return index;
+    }
+}
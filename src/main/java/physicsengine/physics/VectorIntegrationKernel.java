@@ -0,0 +1,162 @@
+package physicsengine.physics;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Integrates {@link #SPECIES}{@code .length()} consecutive entries at once with the Java Vector API and the remaining entries with the scalar kernel.
+ * Every lane performs the same operations in the same order as {@link BodyStore#integrate(int, StepContext)}, so the results are identical.
+ *
+ * <p>No lanes are ever masked, since masks and blends are only intrinsified for some species and platforms and everywhere else fall back to code
+ * that allocates on every call. Instead, only groups in which every entry is dynamic and none has a {@link Material} of its own are vectorized, and
+ * their angular state only if every entry is rotational. The other groups, or their rotational entries, are integrated one entry after another.
+ * Ranges of fewer than {@link #MIN_ENTRIES} entries are integrated with the scalar kernel as well: Until the JIT compiler has compiled and inlined
+ * the vector operations, which takes thousands of calls, they allocate their results, and small stores would not amortize that.</p>
+ *
+ * <p>Only {@link BodyStore} refers to this class, by name, since it cannot be loaded without the module {@code jdk.incubator.vector}.</p>
+ *
+ * <p>Vectors are never passed to or returned from methods of this class: If such a method is not inlined, they are boxed on the heap, which is
+ * slower than the scalar kernel. Each method therefore loads what it needs from the store and writes its results back.</p>
+ */
+final class VectorIntegrationKernel implements IntegrationKernel {
+    static final int MIN_ENTRIES = 256;
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int SKIPPED = 0;
+    private static final int SCALAR = 1;
+    private static final int LINEAR = 2;            // vectorized, without rotational entries
+    private static final int PARTLY_ROTATIONAL = 3; // vectorized, except for the angular state of the rotational entries
+    private static final int ROTATIONAL = 4;        // vectorized
+
+    @Override
+    public void integrate(BodyStore store, int from, int to, StepContext context) {
+        if (to - from < MIN_ENTRIES) {
+            BodyStore.SCALAR_KERNEL.integrate(store, from, to, context);
+            return;
+        }
+
+        double dt = context.getDt();
+        double linearDamping = context.getLinearDamping();
+        double angularDamping = context.getAngularDamping();
+        int i = from;
+
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            int group = classify(store, i);
+
+            if (group == SKIPPED) continue;
+
+            if (group == SCALAR) {
+                BodyStore.SCALAR_KERNEL.integrate(store, i, i + SPECIES.length(), context);
+                continue;
+            }
+
+            integrateLinear(store, 0, i, dt, linearDamping);
+            integrateLinear(store, 1, i, dt, linearDamping);
+            integrateLinear(store, 2, i, dt, linearDamping);
+
+            if (group == LINEAR) continue;
+
+            if (group == PARTLY_ROTATIONAL) {
+                for (int j = i; j < i + SPECIES.length(); ++j) {
+                    if (store.rotational[j]) store.integrateAngular(j, context);
+                }
+
+                continue;
+            }
+
+            integrateAngularVelocity(store, 0, i, dt, angularDamping);
+            integrateAngularVelocity(store, 1, i, dt, angularDamping);
+            integrateAngularVelocity(store, 2, i, dt, angularDamping);
+            clearTorques(store, i);
+            integrateOrientation(store, i, dt);
+        }
+
+        BodyStore.SCALAR_KERNEL.integrate(store, i, to, context);
+    }
+
+    /**
+     * @return how the group of entries starting at {@code i} is integrated
+     */
+    private static int classify(BodyStore store, int i) {
+        int dynamic = 0;
+        int rotational = 0;
+
+        for (int j = i; j < i + SPECIES.length(); ++j) {
+            if (!store.dynamic[j]) continue;
+
+            if (store.materials[j] != null) return SCALAR;
+
+            ++dynamic;
+
+            if (store.rotational[j]) ++rotational;
+        }
+
+        if (dynamic == 0) return SKIPPED;
+
+        if (dynamic < SPECIES.length()) return SCALAR;
+
+        return rotational == 0 ? LINEAR : rotational < dynamic ? PARTLY_ROTATIONAL : ROTATIONAL;
+    }
+
+    /**
+     * Integrates the component {@code k} of the velocity and the position and clears the same component of the force.
+     */
+    private static void integrateLinear(BodyStore store, int k, int i, double dt, double linearDamping) {
+        DoubleVector scale = DoubleVector.fromArray(SPECIES, store.inverseMasses, i).mul(dt);
+        DoubleVector v = DoubleVector.fromArray(SPECIES, store.velocities[k], i)
+                .add(DoubleVector.fromArray(SPECIES, store.forces[k], i).mul(scale))
+                .mul(linearDamping);
+        DoubleVector p = DoubleVector.fromArray(SPECIES, store.positions[k], i).add(v.mul(dt));
+
+        v.intoArray(store.velocities[k], i);
+        p.intoArray(store.positions[k], i);
+        DoubleVector.zero(SPECIES).intoArray(store.forces[k], i);
+    }
+
+    /**
+     * Integrates the component {@code k} of the angular velocity. All three components need the whole torque, so it is cleared afterwards by
+     * {@link #clearTorques(BodyStore, int)}.
+     */
+    private static void integrateAngularVelocity(BodyStore store, int k, int i, double dt, double angularDamping) {
+        double[][] m = store.inverseInertiaTensors;
+        double[][] t = store.torques;
+        DoubleVector torque = DoubleVector.fromArray(SPECIES, m[3 * k], i).mul(DoubleVector.fromArray(SPECIES, t[0], i))
+                .add(DoubleVector.fromArray(SPECIES, m[3 * k + 1], i).mul(DoubleVector.fromArray(SPECIES, t[1], i)))
+                .add(DoubleVector.fromArray(SPECIES, m[3 * k + 2], i).mul(DoubleVector.fromArray(SPECIES, t[2], i)));
+
+        DoubleVector.fromArray(SPECIES, store.angularVelocities[k], i).add(torque.mul(dt)).mul(angularDamping).intoArray(store.angularVelocities[k], i);
+    }
+
+    private static void clearTorques(BodyStore store, int i) {
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        zero.intoArray(store.torques[0], i);
+        zero.intoArray(store.torques[1], i);
+        zero.intoArray(store.torques[2], i);
+    }
+
+    /**
+     * Integrates and normalizes the orientation with the angular velocity that has already been integrated.
+     */
+    private static void integrateOrientation(BodyStore store, int i, double dt) {
+        double[][] q = store.orientations;
+        DoubleVector x = DoubleVector.fromArray(SPECIES, store.angularVelocities[0], i).mul(dt);
+        DoubleVector y = DoubleVector.fromArray(SPECIES, store.angularVelocities[1], i).mul(dt);
+        DoubleVector z = DoubleVector.fromArray(SPECIES, store.angularVelocities[2], i).mul(dt);
+        DoubleVector qw = DoubleVector.fromArray(SPECIES, q[0], i);
+        DoubleVector qx = DoubleVector.fromArray(SPECIES, q[1], i);
+        DoubleVector qy = DoubleVector.fromArray(SPECIES, q[2], i);
+        DoubleVector qz = DoubleVector.fromArray(SPECIES, q[3], i);
+        DoubleVector nw = qw.add(x.neg().mul(qx).sub(y.mul(qy)).sub(z.mul(qz)).mul(0.5));
+        DoubleVector nx = qx.add(x.mul(qw).add(y.mul(qz)).sub(z.mul(qy)).mul(0.5));
+        DoubleVector ny = qy.add(x.neg().mul(qz).add(y.mul(qw)).add(z.mul(qx)).mul(0.5));
+        DoubleVector nz = qz.add(x.mul(qy).sub(y.mul(qx)).add(z.mul(qw)).mul(0.5));
+
+        // The scalar kernel leaves a zero quaternion as it is. Raising a zero squared length to the smallest positive double does the same without
+        // a mask, since zero times the large but finite factor stays zero, and leaves every other squared length unchanged.
+        DoubleVector squaredLength = nw.mul(nw).add(nx.mul(nx)).add(ny.mul(ny)).add(nz.mul(nz)).max(Double.MIN_VALUE);
+        DoubleVector l = DoubleVector.broadcast(SPECIES, 1.0).div(squaredLength.sqrt());
+        nw.mul(l).intoArray(q[0], i);
+        nx.mul(l).intoArray(q[1], i);
+        ny.mul(l).intoArray(q[2], i);
+        nz.mul(l).intoArray(q[3], i);
+    }
+}
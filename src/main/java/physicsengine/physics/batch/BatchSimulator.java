@@ -0,0 +1,126 @@
+package physicsengine.physics.batch;
+
+import physicsengine.physics.Scene;
+import physicsengine.physics.SimulationRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many independent simulations concurrently, e.g. the scenes of a parameter sweep. Every job builds its own scene on a worker thread and steps it
+ * there with a {@link SimulationRunner}; scenes share no state, since every scene has its own forces and every thread its own scratch memory.
+ *
+ * <p>At most {@link #getParallelism()} jobs run at the same time, the others wait in the queue of the executor without having built their scene, so memory
+ * is bounded by the parallelism rather than by the number of jobs.</p>
+ */
+public class BatchSimulator implements AutoCloseable {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    /**
+     * Runs one job per available processor at a time.
+     */
+    public BatchSimulator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchSimulator(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("BatchSimulator requires a parallelism of at least 1!");
+
+        int id = NEXT_ID.getAndIncrement();
+        AtomicInteger nextWorker = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "BatchSimulator-" + id + "-" + nextWorker.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    /**
+     * Queues a job, which is run as soon as a worker is free.
+     */
+    public CompletableFuture<SimulationResult> submit(SimulationJob job) {
+        return CompletableFuture.supplyAsync(() -> run(job), this.executor);
+    }
+
+    /**
+     * Runs all jobs and waits for them to finish.
+     *
+     * @return the results in the order of the jobs
+     * @throws java.util.concurrent.CompletionException if a job failed, after all other jobs have finished
+     */
+    public List<SimulationResult> runAll(List<SimulationJob> jobs) {
+        List<CompletableFuture<SimulationResult>> futures = new ArrayList<>(jobs.size());
+
+        for (SimulationJob job : jobs) {
+            futures.add(this.submit(job));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).exceptionally(throwable -> null).join();
+        List<SimulationResult> results = new ArrayList<>(futures.size());
+
+        for (CompletableFuture<SimulationResult> future : futures) {
+            results.add(future.join());
+        }
+
+        return results;
+    }
+
+    /**
+     * Runs a job on the calling thread.
+     */
+    public static SimulationResult run(SimulationJob job) {
+        long start = System.nanoTime();
+        Scene scene = job.sceneFactory().get();
+        SimulationRunner runner = new SimulationRunner(scene, job.timeStep());
+        ContactCounter contactCounter = new ContactCounter();
+
+        runner.addStepListener(contactCounter);
+        runner.step(job.steps());
+
+        return SimulationResult.of(job, scene, contactCounter.totalContacts, contactCounter.maxContacts, System.nanoTime() - start);
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Lets the queued jobs finish and stops the workers afterwards.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+
+        try {
+            while (!this.executor.awaitTermination(1L, TimeUnit.MINUTES)) {
+                // keep waiting for long simulations
+            }
+        } catch (InterruptedException exception) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class ContactCounter implements SimulationRunner.StepListener {
+        private long totalContacts = 0;
+        private int maxContacts = 0;
+
+        @Override
+        public void onStep(Scene scene, long step, double time) {
+            int contacts = scene.getCollisionData().size();
+            this.totalContacts += contacts;
+            this.maxContacts = Math.max(this.maxContacts, contacts);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package physicsengine.physics.batch;
+
+import physicsengine.physics.Scene;
+import physicsengine.physics.SimulationRunner;
+
+import java.util.function.Supplier;
+
+/**
+ * One simulation of a batch: a scene, which is only built when the job is run, and the number of steps to simulate it for.
+ *
+ * @param name         identifies the job in its result, e.g. the parameters of a sweep
+ * @param sceneFactory builds a new scene with its own forces on every call, see {@link Scene#getForces()}
+ * @param steps        the number of steps to simulate
+ * @param timeStep     the length of a step in seconds
+ */
+public record SimulationJob(String name, Supplier<Scene> sceneFactory, int steps, double timeStep) {
+    public SimulationJob {
+        if (sceneFactory == null) throw new IllegalArgumentException("SimulationJob requires a scene factory!");
+        if (steps < 0) throw new IllegalArgumentException("SimulationJob requires a non-negative number of steps!");
+        if (!(timeStep > 0.0)) throw new IllegalArgumentException("SimulationJob requires a positive timestep!");
+    }
+
+    public SimulationJob(String name, Supplier<Scene> sceneFactory, int steps) {
+        this(name, sceneFactory, steps, SimulationRunner.DEFAULT_TIME_STEP);
+    }
+}
@@ -0,0 +1,88 @@
+package physicsengine.physics.batch;
+
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.PhysicsObject;
+import physicsengine.physics.Scene;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The summary of a finished {@link SimulationJob}.
+ *
+ * @param name              the name of the job
+ * @param steps             the number of steps that were simulated
+ * @param time              the simulated time in seconds
+ * @param bodies            the final state of every object of the scene, in the order of {@link Scene#getPhysicsObjects()}
+ * @param totalContacts     the number of contacts summed over all steps
+ * @param maxContacts       the largest number of contacts in one step
+ * @param kineticEnergy     the final linear and rotational kinetic energy in joules
+ * @param potentialEnergy   the final gravitational potential energy in joules, relative to the origin
+ * @param nanos             the wall-clock time the job took, including building the scene
+ */
+public record SimulationResult(String name, int steps, double time, List<BodyState> bodies, long totalContacts, int maxContacts,
+                               double kineticEnergy, double potentialEnergy, long nanos) {
+    /**
+     * @return the sum of the kinetic and the potential energy
+     */
+    public double energy() {
+        return this.kineticEnergy + this.potentialEnergy;
+    }
+
+    /**
+     * Summarizes the final state of a scene.
+     */
+    static SimulationResult of(SimulationJob job, Scene scene, long totalContacts, int maxContacts, long nanos) {
+        List<PhysicsObject> physicsObjects = scene.getPhysicsObjects();
+        List<BodyState> bodies = new ArrayList<>(physicsObjects.size());
+        Vec3 gravity = scene.getStepContext().getGravity();
+        double kineticEnergy = 0.0;
+        double potentialEnergy = 0.0;
+
+        for (PhysicsObject physicsObject : physicsObjects) {
+            BodyState state = BodyState.of(physicsObject);
+            bodies.add(state);
+
+            // Static objects of infinite mass have no energy to add, sleeping objects are counted with their mass like any other
+            if (!Double.isFinite(physicsObject.getMass())) continue;
+
+            double mass = physicsObject.getMass();
+            kineticEnergy += 0.5 * mass * state.velocity().dot(state.velocity());
+            potentialEnergy -= mass * gravity.dot(state.position());
+
+            if (physicsObject instanceof RigidBody rigidBody && rigidBody.getInverseInertiaTensor() != null) {
+                Mat3 inertiaTensor = rigidBody.getWorldSpaceInverseInertiaTensor().invert();
+                kineticEnergy += 0.5 * state.angularVelocity().dot(inertiaTensor.transform(state.angularVelocity()));
+            }
+        }
+
+        return new SimulationResult(job.name(), job.steps(), job.steps() * job.timeStep(), Collections.unmodifiableList(bodies), totalContacts, maxContacts,
+                kineticEnergy, potentialEnergy, nanos);
+    }
+
+    /**
+     * The state of an object at the end of a simulation. Objects that do not rotate have no rotation and no angular velocity.
+     */
+    public record BodyState(Vec3 position, Vec3 velocity, Quaternion orientation, Vec3 angularVelocity, boolean awake) {
+        static BodyState of(PhysicsObject physicsObject) {
+            Vec3 position = physicsObject.getPosition();
+            Vec3 velocity = physicsObject.getVelocity();
+            Quaternion orientation = Quaternion.NO_ROTATION;
+            Vec3 angularVelocity = new Vec3(0.0, 0.0, 0.0);
+
+            if (physicsObject instanceof RigidBody rigidBody) {
+                orientation = rigidBody.getOrientation();
+                angularVelocity = rigidBody.getAngularVelocity();
+            }
+
+            // Copies, since the getters of the handles return vectors they reuse
+            return new BodyState(new Vec3(position.x, position.y, position.z), new Vec3(velocity.x, velocity.y, velocity.z),
+                    new Quaternion(orientation.w, orientation.x, orientation.y, orientation.z), new Vec3(angularVelocity.x, angularVelocity.y, angularVelocity.z),
+                    physicsObject.isAwake());
+        }
+    }
+}
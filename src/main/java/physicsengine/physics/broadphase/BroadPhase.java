@@ -0,0 +1,41 @@
+package physicsengine.physics.broadphase;
+
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The broad phase of collision detection reduces the set of all rigid body pairs to a set of candidate pairs that can possibly collide.
+ * Only the candidate pairs are handed over to the (more expensive) narrow phase.
+ *
+ * <p>Rigid bodies whose collider is not bounded (e.g. planes) do not take part in the spatial subdivision of an implementation.
+ * They are kept in a separate set and are always paired with every bounded rigid body instead.</p>
+ */
+public interface BroadPhase {
+    void add(RigidBody rigidBody);
+
+    void remove(RigidBody rigidBody);
+
+    /**
+     * Refreshes the internal state of the broad phase after the rigid bodies have been moved by the integration step.
+     */
+    void update();
+
+    /**
+     * Emits every candidate pair exactly once.
+     * Pairs of two unbounded rigid bodies are never emitted. Sleeping rigid bodies are only paired with bounded rigid bodies that are awake.
+     *
+     * @param consumer receives the two rigid bodies of each candidate pair
+     */
+    void findPairs(BiConsumer<RigidBody, RigidBody> consumer);
+
+    /**
+     * Receives notifications whenever a pair of rigid bodies starts or stops overlapping in a broad phase that keeps track of its pairs across updates.
+     * Downstream stages can use these notifications to create and destroy persistent per-pair state.
+     */
+    interface PairListener {
+        void pairAdded(RigidBody rigidBody1, RigidBody rigidBody2);
+
+        void pairRemoved(RigidBody rigidBody1, RigidBody rigidBody2);
+    }
+}
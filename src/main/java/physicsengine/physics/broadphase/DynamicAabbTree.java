@@ -0,0 +1,481 @@
+package physicsengine.physics.broadphase;
+
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A dynamic bounding volume hierarchy over the world space bounds of all bounded rigid bodies.
+ *
+ * <p>Every leaf stores the bounds of its rigid body enlarged by a margin. A rigid body is only re-inserted once its bounds leave the enlarged bounds of its leaf,
+ * so resting and slowly moving rigid bodies do not modify the tree at all.</p>
+ *
+ * <p>Leaves are inserted next to the sibling that minimizes the increase of the total surface area (surface area heuristic).
+ * Afterwards, the tree is kept balanced with rotations similar to an AVL tree.</p>
+ *
+ * <p>The nodes are stored in flat arrays and are addressed by their index. Removed nodes are kept in a free list for later reuse.</p>
+ */
+public class DynamicAabbTree implements BroadPhase {
+    public static final double DEFAULT_MARGIN = 0.1;
+    private static final int NULL_NODE = -1;
+    private final double margin;
+    private final List<RigidBody> rigidBodies = new ArrayList<>();
+    private final List<RigidBody> unboundedRigidBodies = new ArrayList<>();
+    private final AxisAlignedBoundingBox bounds = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+    private int[] leaves = new int[16]; // leaf node of each rigid body
+
+    private int root = NULL_NODE;
+    private int freeList = NULL_NODE;
+    private int capacity = 0;
+    private double[] nodeBounds = new double[0]; // minX, minY, minZ, maxX, maxY, maxZ per node
+    private int[] parents = new int[0]; // also links the free list
+    private int[] children1 = new int[0];
+    private int[] children2 = new int[0];
+    private int[] heights = new int[0]; // leaves have height 0
+    private RigidBody[] nodeRigidBodies = new RigidBody[0];
+    private int[] stack = new int[64];
+
+    public DynamicAabbTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * @param margin the distance by which the bounds of a leaf exceed the bounds of its rigid body
+     */
+    public DynamicAabbTree(double margin) {
+        this.margin = margin;
+        this.grow(16);
+    }
+
+    @Override
+    public void add(RigidBody rigidBody) {
+        if (!rigidBody.getCollider().isBounded()) {
+            this.unboundedRigidBodies.add(rigidBody);
+            return;
+        }
+
+        int index = this.rigidBodies.size();
+        this.rigidBodies.add(rigidBody);
+
+        if (this.leaves.length <= index) {
+            this.leaves = Arrays.copyOf(this.leaves, this.leaves.length * 2);
+        }
+
+        int leaf = this.allocateNode();
+        this.nodeRigidBodies[leaf] = rigidBody;
+        this.setFattenedBounds(leaf, rigidBody);
+        this.insertLeaf(leaf);
+        this.leaves[index] = leaf;
+    }
+
+    @Override
+    public void remove(RigidBody rigidBody) {
+        int index = this.rigidBodies.indexOf(rigidBody);
+
+        if (index < 0) {
+            this.unboundedRigidBodies.remove(rigidBody);
+            return;
+        }
+
+        int leaf = this.leaves[index];
+        this.removeLeaf(leaf);
+        this.freeNode(leaf);
+
+        int last = this.rigidBodies.size() - 1;
+        this.rigidBodies.set(index, this.rigidBodies.get(last));
+        this.rigidBodies.remove(last);
+        this.leaves[index] = this.leaves[last];
+    }
+
+    @Override
+    public void update() {
+        for (int i = 0; i < this.rigidBodies.size(); ++i) {
+            RigidBody rigidBody = this.rigidBodies.get(i);
+
+            if (!rigidBody.isAwake()) continue;
+
+            int leaf = this.leaves[i];
+            rigidBody.getCollider().computeBounds(rigidBody, this.bounds);
+
+            if (!this.containsBounds(leaf)) {
+                this.removeLeaf(leaf);
+                this.setFattenedBounds(leaf, rigidBody);
+                this.insertLeaf(leaf);
+            }
+        }
+    }
+
+    @Override
+    public void findPairs(BiConsumer<RigidBody, RigidBody> consumer) {
+        for (int i = 0; i < this.rigidBodies.size(); ++i) {
+            // Pairs of sleeping rigid bodies are never reported, so only the leaves of awake rigid bodies need to be queried
+            if (!this.rigidBodies.get(i).isAwake()) continue;
+
+            int leaf = this.leaves[i];
+            int offset = 6 * leaf;
+            int count = this.push(0, this.root);
+
+            while (count > 0) {
+                int node = this.stack[--count];
+
+                if (node == NULL_NODE || !this.overlaps(node, this.nodeBounds[offset], this.nodeBounds[offset + 1], this.nodeBounds[offset + 2], this.nodeBounds[offset + 3], this.nodeBounds[offset + 4], this.nodeBounds[offset + 5])) continue;
+
+                if (this.isLeaf(node)) {
+                    // A pair of awake rigid bodies is found from both leaves, but only reported from the leaf with the lower index
+                    if (node != leaf && (leaf < node || !this.nodeRigidBodies[node].isAwake())) consumer.accept(this.nodeRigidBodies[leaf], this.nodeRigidBodies[node]);
+                } else {
+                    count = this.push(count, this.children1[node]);
+                    count = this.push(count, this.children2[node]);
+                }
+            }
+        }
+
+        for (int i = 0; i < this.unboundedRigidBodies.size(); ++i) {
+            RigidBody unboundedRigidBody = this.unboundedRigidBodies.get(i);
+
+            for (int j = 0; j < this.rigidBodies.size(); ++j) {
+                RigidBody rigidBody = this.rigidBodies.get(j);
+                if (rigidBody.isAwake()) consumer.accept(unboundedRigidBody, rigidBody);
+            }
+        }
+    }
+
+    /**
+     * Reports every bounded rigid body whose enlarged bounds overlap the given bounds.
+     * Unbounded rigid bodies are not part of the tree and are never reported.
+     *
+     * @param bounds the world space bounds to test against
+     * @param consumer receives every rigid body found
+     */
+    public void query(AxisAlignedBoundingBox bounds, Consumer<RigidBody> consumer) {
+        Vec3 min = bounds.getMin();
+        Vec3 max = bounds.getMax();
+        int count = this.push(0, this.root);
+
+        while (count > 0) {
+            int node = this.stack[--count];
+
+            if (node == NULL_NODE || !this.overlaps(node, min.x, min.y, min.z, max.x, max.y, max.z)) continue;
+
+            if (this.isLeaf(node)) {
+                consumer.accept(this.nodeRigidBodies[node]);
+            } else {
+                count = this.push(count, this.children1[node]);
+                count = this.push(count, this.children2[node]);
+            }
+        }
+    }
+
+    /**
+     * @return the height of the tree, where a tree consisting of a single leaf has a height of 0
+     */
+    public int getHeight() {
+        return this.root == NULL_NODE ? 0 : this.heights[this.root];
+    }
+
+    private void insertLeaf(int leaf) {
+        if (this.root == NULL_NODE) {
+            this.root = leaf;
+            this.parents[leaf] = NULL_NODE;
+            return;
+        }
+
+        // Descend to the sibling with the lowest cost according to the surface area heuristic
+        int index = this.root;
+
+        while (!this.isLeaf(index)) {
+            int child1 = this.children1[index];
+            int child2 = this.children2[index];
+
+            double area = this.getSurfaceArea(index);
+            double combinedArea = this.getCombinedSurfaceArea(index, leaf);
+
+            // Cost of creating a new parent for this node and the new leaf
+            double cost = 2.0 * combinedArea;
+
+            // Minimum cost of pushing the leaf further down the tree
+            double inheritanceCost = 2.0 * (combinedArea - area);
+
+            double cost1 = this.getDescendCost(child1, leaf) + inheritanceCost;
+            double cost2 = this.getDescendCost(child2, leaf) + inheritanceCost;
+
+            if (cost < cost1 && cost < cost2) break;
+
+            index = cost1 < cost2 ? child1 : child2;
+        }
+
+        int sibling = index;
+        int oldParent = this.parents[sibling];
+        int newParent = this.allocateNode();
+        this.parents[newParent] = oldParent;
+        this.nodeRigidBodies[newParent] = null;
+        this.setCombinedBounds(newParent, leaf, sibling);
+        this.heights[newParent] = this.heights[sibling] + 1;
+        this.children1[newParent] = sibling;
+        this.children2[newParent] = leaf;
+        this.parents[sibling] = newParent;
+        this.parents[leaf] = newParent;
+
+        if (oldParent == NULL_NODE) {
+            this.root = newParent;
+        } else if (this.children1[oldParent] == sibling) {
+            this.children1[oldParent] = newParent;
+        } else {
+            this.children2[oldParent] = newParent;
+        }
+
+        this.refit(this.parents[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == this.root) {
+            this.root = NULL_NODE;
+            return;
+        }
+
+        int parent = this.parents[leaf];
+        int grandParent = this.parents[parent];
+        int sibling = this.children1[parent] == leaf ? this.children2[parent] : this.children1[parent];
+
+        if (grandParent == NULL_NODE) {
+            this.root = sibling;
+            this.parents[sibling] = NULL_NODE;
+            this.freeNode(parent);
+            return;
+        }
+
+        if (this.children1[grandParent] == parent) {
+            this.children1[grandParent] = sibling;
+        } else {
+            this.children2[grandParent] = sibling;
+        }
+
+        this.parents[sibling] = grandParent;
+        this.freeNode(parent);
+        this.refit(grandParent);
+    }
+
+    /**
+     * Walks up from the given node to the root, balancing the tree and recalculating heights and bounds along the way.
+     */
+    private void refit(int index) {
+        while (index != NULL_NODE) {
+            index = this.balance(index);
+
+            int child1 = this.children1[index];
+            int child2 = this.children2[index];
+            this.heights[index] = 1 + Math.max(this.heights[child1], this.heights[child2]);
+            this.setCombinedBounds(index, child1, child2);
+
+            index = this.parents[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if the subtree of node A is imbalanced.
+     *
+     * @return the index of the node that took the place of node A
+     */
+    private int balance(int a) {
+        if (this.isLeaf(a) || this.heights[a] < 2) return a;
+
+        int b = this.children1[a];
+        int c = this.children2[a];
+        int balance = this.heights[c] - this.heights[b];
+
+        if (balance > 1) {
+            // Rotate C up
+            int f = this.children1[c];
+            int g = this.children2[c];
+
+            this.children1[c] = a;
+            this.parents[c] = this.parents[a];
+            this.parents[a] = c;
+            this.replaceChild(this.parents[c], a, c);
+
+            if (this.heights[f] > this.heights[g]) {
+                this.children2[c] = f;
+                this.children2[a] = g;
+                this.parents[g] = a;
+            } else {
+                this.children2[c] = g;
+                this.children2[a] = f;
+                this.parents[f] = a;
+            }
+
+            this.setCombinedBounds(a, b, this.children2[a]);
+            this.setCombinedBounds(c, a, this.children2[c]);
+            this.heights[a] = 1 + Math.max(this.heights[b], this.heights[this.children2[a]]);
+            this.heights[c] = 1 + Math.max(this.heights[a], this.heights[this.children2[c]]);
+
+            return c;
+        }
+
+        if (balance < -1) {
+            // Rotate B up
+            int d = this.children1[b];
+            int e = this.children2[b];
+
+            this.children1[b] = a;
+            this.parents[b] = this.parents[a];
+            this.parents[a] = b;
+            this.replaceChild(this.parents[b], a, b);
+
+            if (this.heights[d] > this.heights[e]) {
+                this.children2[b] = d;
+                this.children1[a] = e;
+                this.parents[e] = a;
+            } else {
+                this.children2[b] = e;
+                this.children1[a] = d;
+                this.parents[d] = a;
+            }
+
+            this.setCombinedBounds(a, this.children1[a], c);
+            this.setCombinedBounds(b, a, this.children2[b]);
+            this.heights[a] = 1 + Math.max(this.heights[this.children1[a]], this.heights[c]);
+            this.heights[b] = 1 + Math.max(this.heights[a], this.heights[this.children2[b]]);
+
+            return b;
+        }
+
+        return a;
+    }
+
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NULL_NODE) {
+            this.root = newChild;
+        } else if (this.children1[parent] == oldChild) {
+            this.children1[parent] = newChild;
+        } else {
+            this.children2[parent] = newChild;
+        }
+    }
+
+    private double getDescendCost(int child, int leaf) {
+        double combinedArea = this.getCombinedSurfaceArea(child, leaf);
+        return this.isLeaf(child) ? combinedArea : combinedArea - this.getSurfaceArea(child);
+    }
+
+    private boolean isLeaf(int node) {
+        return this.children1[node] == NULL_NODE;
+    }
+
+    private boolean containsBounds(int node) {
+        int offset = 6 * node;
+        Vec3 min = this.bounds.getMin();
+        Vec3 max = this.bounds.getMax();
+
+        return this.nodeBounds[offset] <= min.x && this.nodeBounds[offset + 1] <= min.y && this.nodeBounds[offset + 2] <= min.z &&
+                this.nodeBounds[offset + 3] >= max.x && this.nodeBounds[offset + 4] >= max.y && this.nodeBounds[offset + 5] >= max.z;
+    }
+
+    private boolean overlaps(int node, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        int offset = 6 * node;
+
+        return this.nodeBounds[offset] <= maxX && this.nodeBounds[offset + 3] >= minX &&
+                this.nodeBounds[offset + 1] <= maxY && this.nodeBounds[offset + 4] >= minY &&
+                this.nodeBounds[offset + 2] <= maxZ && this.nodeBounds[offset + 5] >= minZ;
+    }
+
+    private void setFattenedBounds(int leaf, RigidBody rigidBody) {
+        rigidBody.getCollider().computeBounds(rigidBody, this.bounds);
+        Vec3 min = this.bounds.getMin();
+        Vec3 max = this.bounds.getMax();
+        int offset = 6 * leaf;
+
+        this.nodeBounds[offset] = min.x - this.margin;
+        this.nodeBounds[offset + 1] = min.y - this.margin;
+        this.nodeBounds[offset + 2] = min.z - this.margin;
+        this.nodeBounds[offset + 3] = max.x + this.margin;
+        this.nodeBounds[offset + 4] = max.y + this.margin;
+        this.nodeBounds[offset + 5] = max.z + this.margin;
+    }
+
+    private void setCombinedBounds(int node, int node1, int node2) {
+        int offset = 6 * node;
+        int offset1 = 6 * node1;
+        int offset2 = 6 * node2;
+
+        for (int i = 0; i < 3; ++i) {
+            this.nodeBounds[offset + i] = Math.min(this.nodeBounds[offset1 + i], this.nodeBounds[offset2 + i]);
+            this.nodeBounds[offset + 3 + i] = Math.max(this.nodeBounds[offset1 + 3 + i], this.nodeBounds[offset2 + 3 + i]);
+        }
+    }
+
+    private double getSurfaceArea(int node) {
+        int offset = 6 * node;
+        double dx = this.nodeBounds[offset + 3] - this.nodeBounds[offset];
+        double dy = this.nodeBounds[offset + 4] - this.nodeBounds[offset + 1];
+        double dz = this.nodeBounds[offset + 5] - this.nodeBounds[offset + 2];
+
+        return 2.0 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    private double getCombinedSurfaceArea(int node1, int node2) {
+        int offset1 = 6 * node1;
+        int offset2 = 6 * node2;
+        double dx = Math.max(this.nodeBounds[offset1 + 3], this.nodeBounds[offset2 + 3]) - Math.min(this.nodeBounds[offset1], this.nodeBounds[offset2]);
+        double dy = Math.max(this.nodeBounds[offset1 + 4], this.nodeBounds[offset2 + 4]) - Math.min(this.nodeBounds[offset1 + 1], this.nodeBounds[offset2 + 1]);
+        double dz = Math.max(this.nodeBounds[offset1 + 5], this.nodeBounds[offset2 + 5]) - Math.min(this.nodeBounds[offset1 + 2], this.nodeBounds[offset2 + 2]);
+
+        return 2.0 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    private int push(int count, int node) {
+        if (count == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, count * 2);
+        }
+
+        this.stack[count] = node;
+        return count + 1;
+    }
+
+    private int allocateNode() {
+        if (this.freeList == NULL_NODE) {
+            this.grow(this.capacity * 2);
+        }
+
+        int node = this.freeList;
+        this.freeList = this.parents[node];
+        this.parents[node] = NULL_NODE;
+        this.children1[node] = NULL_NODE;
+        this.children2[node] = NULL_NODE;
+        this.heights[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        this.parents[node] = this.freeList;
+        this.nodeRigidBodies[node] = null;
+        this.heights[node] = -1;
+        this.freeList = node;
+    }
+
+    private void grow(int capacity) {
+        int oldCapacity = this.capacity;
+        this.capacity = capacity;
+        this.nodeBounds = Arrays.copyOf(this.nodeBounds, capacity * 6);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.children1 = Arrays.copyOf(this.children1, capacity);
+        this.children2 = Arrays.copyOf(this.children2, capacity);
+        this.heights = Arrays.copyOf(this.heights, capacity);
+        this.nodeRigidBodies = Arrays.copyOf(this.nodeRigidBodies, capacity);
+
+        // Chain the new nodes into the free list
+        for (int i = oldCapacity; i < capacity - 1; ++i) {
+            this.parents[i] = i + 1;
+            this.heights[i] = -1;
+        }
+
+        this.parents[capacity - 1] = this.freeList;
+        this.heights[capacity - 1] = -1;
+        this.freeList = oldCapacity;
+    }
+}
@@ -0,0 +1,94 @@
+package physicsengine.physics.broadphase;
+
+import physicsengine.physics.PairTable;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The overlapping pairs of a broad phase, which persist between its updates.
+ * Pairs are keyed on the stable proxy ids of both rigid bodies. Every pair that is not marked again during an update is considered removed at the end of it.
+ * The entries of removed pairs are kept in a pool and handed out again for new pairs.
+ */
+class OverlapPairTable {
+    private final PairTable<Pair> pairs = new PairTable<>();
+    private final Consumer<Pair> release = this::release;
+    private BroadPhase.PairListener listener;
+    private Pair[] pool = new Pair[16];
+    private int poolSize = 0;
+
+    /**
+     * Marks a pair as overlapping during the current update.
+     *
+     * @return {@code true} if the pair did not overlap during the previous update
+     */
+    boolean mark(int id1, RigidBody rigidBody1, int id2, RigidBody rigidBody2) {
+        if (this.pairs.mark(id1, id2) != null) return false;
+
+        Pair pair = this.poolSize > 0 ? this.pool[--this.poolSize] : new Pair();
+        this.pool[this.poolSize] = null;
+        pair.rigidBody1 = rigidBody1;
+        pair.rigidBody2 = rigidBody2;
+        this.pairs.put(id1, id2, pair);
+        return true;
+    }
+
+    /**
+     * Removes all pairs that have not been marked since the last call and clears the marks of the remaining pairs.
+     *
+     * @param listener receives every removed pair, may be {@code null}
+     */
+    void removeUnmarked(BroadPhase.PairListener listener) {
+        this.listener = listener;
+        this.pairs.removeUnmarked(this.release);
+        this.listener = null;
+    }
+
+    /**
+     * Removes all pairs that contain the proxy with the given id.
+     *
+     * @param listener receives every removed pair, may be {@code null}
+     */
+    void removeAll(int id, BroadPhase.PairListener listener) {
+        this.listener = listener;
+        this.pairs.removeAll(id, this.release);
+        this.listener = null;
+    }
+
+    /**
+     * Reports every pair that has at least one awake rigid body.
+     */
+    void forEachAwake(BiConsumer<RigidBody, RigidBody> consumer) {
+        for (int i = 0; i < this.pairs.capacity(); ++i) {
+            Pair pair = this.pairs.get(i);
+
+            if (pair != null && (pair.rigidBody1.isAwake() || pair.rigidBody2.isAwake())) {
+                consumer.accept(pair.rigidBody1, pair.rigidBody2);
+            }
+        }
+    }
+
+    int size() {
+        return this.pairs.size();
+    }
+
+    private void release(Pair pair) {
+        if (this.listener != null) this.listener.pairRemoved(pair.rigidBody1, pair.rigidBody2);
+
+        pair.rigidBody1 = null;
+        pair.rigidBody2 = null;
+
+        if (this.poolSize == this.pool.length) {
+            this.pool = Arrays.copyOf(this.pool, this.pool.length * 2);
+        }
+
+        this.pool[this.poolSize++] = pair;
+    }
+
+    private static class Pair {
+        private RigidBody rigidBody1;
+        private RigidBody rigidBody2;
+    }
+}
@@ -0,0 +1,277 @@
+package physicsengine.physics.broadphase;
+
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A uniform grid of cubic cells that is stored in a hash table keyed on the integer cell coordinates.
+ * Each bounded rigid body is inserted into every cell its world space bounds overlap, so only rigid bodies sharing a cell become candidate pairs.
+ *
+ * <p>The grid is rebuilt on every update. Cells and hash table are reused between updates so that no memory is allocated in a steady state.</p>
+ *
+ * <p>Rigid bodies that would cover more than {@link #MAX_CELLS} cells, e.g. a level mesh, are not inserted into the grid, since filling their cells would
+ * dominate the update. Their bounds are tested against the bounds of every other bounded rigid body instead.</p>
+ */
+public class SpatialHashGrid implements BroadPhase {
+    public static final double DEFAULT_CELL_SIZE = 2.0;
+    public static final int MAX_CELLS = 64;
+    private final double inverseCellSize;
+    private final List<RigidBody> rigidBodies = new ArrayList<>();
+    private final List<RigidBody> unboundedRigidBodies = new ArrayList<>();
+    private final List<Cell> cells = new ArrayList<>();
+    private final AxisAlignedBoundingBox bounds = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+    private int cellCount = 0;
+    private Cell[] table = new Cell[64]; // open addressing on the full cell coordinates, empty slots are null
+    private int[] cellRanges = new int[0]; // minX, minY, minZ, maxX, maxY, maxZ per rigid body
+    private double[] rigidBodyBounds = new double[0]; // minX, minY, minZ, maxX, maxY, maxZ per rigid body
+    private boolean[] large = new boolean[0]; // whether the rigid body covers too many cells to be inserted into the grid
+    private int[] largeRigidBodies = new int[0];
+    private int largeCount = 0;
+
+    public SpatialHashGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize the edge length of a cell, which should be close to the diameter of a typical rigid body
+     */
+    public SpatialHashGrid(double cellSize) {
+        if (cellSize <= 0.0) throw new IllegalArgumentException("SpatialHashGrid cell size must be positive!");
+
+        this.inverseCellSize = 1.0 / cellSize;
+    }
+
+    @Override
+    public void add(RigidBody rigidBody) {
+        if (rigidBody.getCollider().isBounded()) {
+            this.rigidBodies.add(rigidBody);
+        } else {
+            this.unboundedRigidBodies.add(rigidBody);
+        }
+    }
+
+    @Override
+    public void remove(RigidBody rigidBody) {
+        if (!this.rigidBodies.remove(rigidBody)) {
+            this.unboundedRigidBodies.remove(rigidBody);
+        }
+    }
+
+    @Override
+    public void update() {
+        int size = this.rigidBodies.size();
+
+        if (this.cellRanges.length < size * 6) {
+            this.cellRanges = new int[size * 6];
+            this.rigidBodyBounds = new double[size * 6];
+            this.large = new boolean[size];
+            this.largeRigidBodies = new int[size];
+        }
+
+        this.clear();
+        this.largeCount = 0;
+
+        for (int i = 0; i < size; ++i) {
+            RigidBody rigidBody = this.rigidBodies.get(i);
+            rigidBody.getCollider().computeBounds(rigidBody, this.bounds);
+            Vec3 min = this.bounds.getMin();
+            Vec3 max = this.bounds.getMax();
+
+            int minX = this.toCell(min.x);
+            int minY = this.toCell(min.y);
+            int minZ = this.toCell(min.z);
+            int maxX = this.toCell(max.x);
+            int maxY = this.toCell(max.y);
+            int maxZ = this.toCell(max.z);
+
+            int offset = i * 6;
+            this.cellRanges[offset] = minX;
+            this.cellRanges[offset + 1] = minY;
+            this.cellRanges[offset + 2] = minZ;
+            this.cellRanges[offset + 3] = maxX;
+            this.cellRanges[offset + 4] = maxY;
+            this.cellRanges[offset + 5] = maxZ;
+            this.rigidBodyBounds[offset] = min.x;
+            this.rigidBodyBounds[offset + 1] = min.y;
+            this.rigidBodyBounds[offset + 2] = min.z;
+            this.rigidBodyBounds[offset + 3] = max.x;
+            this.rigidBodyBounds[offset + 4] = max.y;
+            this.rigidBodyBounds[offset + 5] = max.z;
+
+            // In long, since the bounds of a large rigid body can cover more cells than an int can count
+            long cells = (long)(maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+            this.large[i] = cells > MAX_CELLS;
+
+            if (this.large[i]) {
+                this.largeRigidBodies[this.largeCount++] = i;
+                continue;
+            }
+
+            for (int x = minX; x <= maxX; ++x) {
+                for (int y = minY; y <= maxY; ++y) {
+                    for (int z = minZ; z <= maxZ; ++z) {
+                        this.getOrCreateCell(x, y, z).add(i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void findPairs(BiConsumer<RigidBody, RigidBody> consumer) {
+        for (int c = 0; c < this.cellCount; ++c) {
+            Cell cell = this.cells.get(c);
+
+            for (int i = 0; i < cell.size - 1; ++i) {
+                int index1 = cell.entries[i];
+
+                for (int j = i + 1; j < cell.size; ++j) {
+                    int index2 = cell.entries[j];
+
+                    if (this.isReportingCell(cell, index1, index2)) {
+                        RigidBody rigidBody1 = this.rigidBodies.get(index1);
+                        RigidBody rigidBody2 = this.rigidBodies.get(index2);
+
+                        if (rigidBody1.isAwake() || rigidBody2.isAwake()) consumer.accept(rigidBody1, rigidBody2);
+                    }
+                }
+            }
+        }
+
+        for (int l = 0; l < this.largeCount; ++l) {
+            int index1 = this.largeRigidBodies[l];
+            RigidBody rigidBody1 = this.rigidBodies.get(index1);
+
+            for (int index2 = 0; index2 < this.rigidBodies.size(); ++index2) {
+                // A pair of two large rigid bodies is only reported from the one with the lower index
+                if (index2 == index1 || this.large[index2] && index2 < index1 || !this.overlaps(index1, index2)) continue;
+
+                RigidBody rigidBody2 = this.rigidBodies.get(index2);
+                if (rigidBody1.isAwake() || rigidBody2.isAwake()) consumer.accept(rigidBody1, rigidBody2);
+            }
+        }
+
+        for (int i = 0; i < this.unboundedRigidBodies.size(); ++i) {
+            RigidBody unboundedRigidBody = this.unboundedRigidBodies.get(i);
+
+            for (int j = 0; j < this.rigidBodies.size(); ++j) {
+                RigidBody rigidBody = this.rigidBodies.get(j);
+                if (rigidBody.isAwake()) consumer.accept(unboundedRigidBody, rigidBody);
+            }
+        }
+    }
+
+    /**
+     * Two rigid bodies can share several cells. To report their pair only once, it is only reported by the cell at the minimum corner of the intersection of both cell ranges.
+     */
+    private boolean isReportingCell(Cell cell, int index1, int index2) {
+        int offset1 = index1 * 6;
+        int offset2 = index2 * 6;
+
+        return cell.x == Math.max(this.cellRanges[offset1], this.cellRanges[offset2]) &&
+                cell.y == Math.max(this.cellRanges[offset1 + 1], this.cellRanges[offset2 + 1]) &&
+                cell.z == Math.max(this.cellRanges[offset1 + 2], this.cellRanges[offset2 + 2]);
+    }
+
+    private boolean overlaps(int index1, int index2) {
+        int offset1 = index1 * 6;
+        int offset2 = index2 * 6;
+
+        for (int axis = 0; axis < 3; ++axis) {
+            if (this.rigidBodyBounds[offset1 + axis] > this.rigidBodyBounds[offset2 + 3 + axis] || this.rigidBodyBounds[offset2 + axis] > this.rigidBodyBounds[offset1 + 3 + axis]) return false;
+        }
+
+        return true;
+    }
+
+    private int toCell(double coordinate) {
+        return (int)Math.floor(coordinate * this.inverseCellSize);
+    }
+
+    private void clear() {
+        for (int c = 0; c < this.cellCount; ++c) {
+            this.cells.get(c).size = 0;
+        }
+
+        this.cellCount = 0;
+        Arrays.fill(this.table, null);
+    }
+
+    private Cell getOrCreateCell(int x, int y, int z) {
+        int mask = this.table.length - 1;
+        int slot = hash(x, y, z) & mask;
+        Cell cell;
+
+        // Cells are compared on all coordinates, so distant cells with the same hash never share their entries
+        while ((cell = this.table[slot]) != null) {
+            if (cell.x == x && cell.y == y && cell.z == z) return cell;
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (this.cellCount < this.cells.size()) {
+            cell = this.cells.get(this.cellCount);
+        } else {
+            cell = new Cell();
+            this.cells.add(cell);
+        }
+
+        ++this.cellCount;
+        cell.x = x;
+        cell.y = y;
+        cell.z = z;
+        this.table[slot] = cell;
+
+        if (this.cellCount * 2 > this.table.length) {
+            this.rehash();
+        }
+
+        return cell;
+    }
+
+    private void rehash() {
+        Cell[] oldTable = this.table;
+        this.table = new Cell[oldTable.length * 2];
+        int mask = this.table.length - 1;
+
+        for (Cell cell : oldTable) {
+            if (cell != null) {
+                int slot = hash(cell.x, cell.y, cell.z) & mask;
+
+                while (this.table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                this.table[slot] = cell;
+            }
+        }
+    }
+
+    private static int hash(int x, int y, int z) {
+        long key = x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL ^ z * 0x165667B19E3779F9L;
+        key *= 0x9E3779B97F4A7C15L;
+        return (int)(key ^ (key >>> 32));
+    }
+
+    private static class Cell {
+        private int x;
+        private int y;
+        private int z;
+        private int[] entries = new int[4];
+        private int size = 0;
+
+        private void add(int index) {
+            if (this.size == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.size * 2);
+            }
+
+            this.entries[this.size++] = index;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package physicsengine.physics.broadphase;
+
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Sort and sweep over the bounds of all bounded rigid bodies.
+ *
+ * <p>The minimum and maximum endpoints of every rigid body are kept in one sorted array per axis. The arrays persist between updates and are re-sorted with insertion sort.
+ * Since rigid bodies barely move between two steps, the arrays are almost sorted already, which makes an update close to linear in the number of rigid bodies.</p>
+ *
+ * <p>Overlapping pairs are found by sweeping along the axis on which the rigid bodies are spread the most.
+ * The pairs are kept across updates, so a {@link BroadPhase.PairListener} can be notified about pairs that start or stop overlapping.</p>
+ */
+public class SweepAndPrune implements BroadPhase {
+    private final List<RigidBody> rigidBodies = new ArrayList<>();
+    private final List<RigidBody> unboundedRigidBodies = new ArrayList<>();
+    private final OverlapPairTable pairs = new OverlapPairTable();
+    private final AxisAlignedBoundingBox scratchBounds = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+    private int[] ids = new int[16];
+    private double[] bounds = new double[16 * 6]; // minX, minY, minZ, maxX, maxY, maxZ per rigid body
+    private final double[][] endpointValues = new double[3][32];
+    private final int[][] endpointEntries = new int[3][32]; // 2 * index for minimum endpoints, 2 * index + 1 for maximum endpoints
+    private int[] active = new int[16];
+    private final double[] centerSum = new double[3];
+    private final double[] squaredCenterSum = new double[3];
+    private int nextId = 0;
+    private int sweepAxis = 0;
+    private PairListener pairListener;
+
+    public void setPairListener(PairListener pairListener) {
+        this.pairListener = pairListener;
+    }
+
+    @Override
+    public void add(RigidBody rigidBody) {
+        if (!rigidBody.getCollider().isBounded()) {
+            this.unboundedRigidBodies.add(rigidBody);
+            return;
+        }
+
+        int index = this.rigidBodies.size();
+        this.rigidBodies.add(rigidBody);
+
+        if (this.ids.length <= index) {
+            this.ids = Arrays.copyOf(this.ids, this.ids.length * 2);
+            this.bounds = Arrays.copyOf(this.bounds, this.ids.length * 6);
+            this.active = new int[this.ids.length];
+
+            for (int axis = 0; axis < 3; ++axis) {
+                this.endpointValues[axis] = Arrays.copyOf(this.endpointValues[axis], this.ids.length * 2);
+                this.endpointEntries[axis] = Arrays.copyOf(this.endpointEntries[axis], this.ids.length * 2);
+            }
+        }
+
+        this.ids[index] = this.nextId++;
+        this.updateBounds(index);
+
+        // New endpoints are appended and moved to their place by the next insertion sort
+        for (int axis = 0; axis < 3; ++axis) {
+            this.endpointEntries[axis][2 * index] = 2 * index;
+            this.endpointEntries[axis][2 * index + 1] = 2 * index + 1;
+        }
+    }
+
+    @Override
+    public void remove(RigidBody rigidBody) {
+        int index = this.rigidBodies.indexOf(rigidBody);
+
+        if (index < 0) {
+            this.unboundedRigidBodies.remove(rigidBody);
+            return;
+        }
+
+        this.pairs.removeAll(this.ids[index], this.pairListener);
+
+        int last = this.rigidBodies.size() - 1;
+        int endpointCount = 2 * this.rigidBodies.size();
+
+        for (int axis = 0; axis < 3; ++axis) {
+            int[] entries = this.endpointEntries[axis];
+            double[] values = this.endpointValues[axis];
+            int j = 0;
+
+            for (int i = 0; i < endpointCount; ++i) {
+                int proxy = entries[i] >> 1;
+
+                if (proxy == index) continue;
+
+                // The last rigid body takes the place of the removed one
+                entries[j] = proxy == last ? (2 * index) | (entries[i] & 1) : entries[i];
+                values[j] = values[i];
+                ++j;
+            }
+        }
+
+        this.rigidBodies.set(index, this.rigidBodies.get(last));
+        this.rigidBodies.remove(last);
+        this.ids[index] = this.ids[last];
+        System.arraycopy(this.bounds, 6 * last, this.bounds, 6 * index, 6);
+    }
+
+    @Override
+    public void update() {
+        int size = this.rigidBodies.size();
+        int endpointCount = 2 * size;
+
+        double[] sum = this.centerSum;
+        double[] squaredSum = this.squaredCenterSum;
+        Arrays.fill(sum, 0.0);
+        Arrays.fill(squaredSum, 0.0);
+
+        for (int i = 0; i < size; ++i) {
+            // The bounds of a sleeping rigid body do not change
+            if (this.rigidBodies.get(i).isAwake()) this.updateBounds(i);
+
+            for (int axis = 0; axis < 3; ++axis) {
+                double center = 0.5 * (this.bounds[6 * i + axis] + this.bounds[6 * i + 3 + axis]);
+                sum[axis] += center;
+                squaredSum[axis] += center * center;
+            }
+        }
+
+        for (int axis = 0; axis < 3; ++axis) {
+            int[] entries = this.endpointEntries[axis];
+            double[] values = this.endpointValues[axis];
+
+            for (int i = 0; i < endpointCount; ++i) {
+                values[i] = this.getEndpointValue(entries[i], axis);
+            }
+
+            insertionSort(values, entries, endpointCount);
+        }
+
+        // Sweep along the axis with the largest variance of the centers to keep the number of simultaneously active rigid bodies low
+        double maxVariance = -1.0;
+
+        for (int axis = 0; axis < 3; ++axis) {
+            double variance = squaredSum[axis] - sum[axis] * sum[axis] / Math.max(size, 1);
+
+            if (variance > maxVariance) {
+                maxVariance = variance;
+                this.sweepAxis = axis;
+            }
+        }
+
+        this.sweep(endpointCount);
+    }
+
+    @Override
+    public void findPairs(BiConsumer<RigidBody, RigidBody> consumer) {
+        this.pairs.forEachAwake(consumer);
+
+        for (int i = 0; i < this.unboundedRigidBodies.size(); ++i) {
+            RigidBody unboundedRigidBody = this.unboundedRigidBodies.get(i);
+
+            for (int j = 0; j < this.rigidBodies.size(); ++j) {
+                RigidBody rigidBody = this.rigidBodies.get(j);
+                if (rigidBody.isAwake()) consumer.accept(unboundedRigidBody, rigidBody);
+            }
+        }
+    }
+
+    /**
+     * @return the number of overlapping pairs of bounded rigid bodies found during the last update
+     */
+    public int getPairCount() {
+        return this.pairs.size();
+    }
+
+    private void sweep(int endpointCount) {
+        int[] entries = this.endpointEntries[this.sweepAxis];
+        int axis1 = (this.sweepAxis + 1) % 3;
+        int axis2 = (this.sweepAxis + 2) % 3;
+        int activeCount = 0;
+
+        for (int i = 0; i < endpointCount; ++i) {
+            int entry = entries[i];
+            int index = entry >> 1;
+
+            if ((entry & 1) == 0) {
+                for (int j = 0; j < activeCount; ++j) {
+                    int other = this.active[j];
+
+                    if (this.overlaps(index, other, axis1) && this.overlaps(index, other, axis2)) {
+                        RigidBody rigidBody1 = this.rigidBodies.get(other);
+                        RigidBody rigidBody2 = this.rigidBodies.get(index);
+
+                        if (this.pairs.mark(this.ids[other], rigidBody1, this.ids[index], rigidBody2) && this.pairListener != null) {
+                            this.pairListener.pairAdded(rigidBody1, rigidBody2);
+                        }
+                    }
+                }
+
+                this.active[activeCount++] = index;
+            } else {
+                for (int j = 0; j < activeCount; ++j) {
+                    if (this.active[j] == index) {
+                        this.active[j] = this.active[--activeCount];
+                        break;
+                    }
+                }
+            }
+        }
+
+        this.pairs.removeUnmarked(this.pairListener);
+    }
+
+    private boolean overlaps(int index1, int index2, int axis) {
+        return this.bounds[6 * index1 + axis] <= this.bounds[6 * index2 + 3 + axis] && this.bounds[6 * index2 + axis] <= this.bounds[6 * index1 + 3 + axis];
+    }
+
+    private double getEndpointValue(int entry, int axis) {
+        return this.bounds[6 * (entry >> 1) + 3 * (entry & 1) + axis];
+    }
+
+    private void updateBounds(int index) {
+        RigidBody rigidBody = this.rigidBodies.get(index);
+
+        rigidBody.getCollider().computeBounds(rigidBody, this.scratchBounds);
+        Vec3 min = this.scratchBounds.getMin();
+        Vec3 max = this.scratchBounds.getMax();
+        int offset = 6 * index;
+
+        this.bounds[offset] = min.x;
+        this.bounds[offset + 1] = min.y;
+        this.bounds[offset + 2] = min.z;
+        this.bounds[offset + 3] = max.x;
+        this.bounds[offset + 4] = max.y;
+        this.bounds[offset + 5] = max.z;
+    }
+
+    /**
+     * Sorts the endpoints by their value. Minimum endpoints are placed before maximum endpoints of equal value so that touching bounds count as overlapping.
+     */
+    private static void insertionSort(double[] values, int[] entries, int count) {
+        for (int i = 1; i < count; ++i) {
+            double value = values[i];
+            int entry = entries[i];
+            int j = i - 1;
+
+            while (j >= 0 && (values[j] > value || (values[j] == value && (entries[j] & 1) > (entry & 1)))) {
+                values[j + 1] = values[j];
+                entries[j + 1] = entries[j];
+                --j;
+            }
+
+            values[j + 1] = value;
+            entries[j + 1] = entry;
+        }
+    }
+}
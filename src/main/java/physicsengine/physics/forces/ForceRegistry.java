@@ -0,0 +1,270 @@
+package physicsengine.physics.forces;
+
+import physicsengine.math.Vec3;
+import physicsengine.physics.PhysicsObject;
+import physicsengine.physics.StepContext;
+import physicsengine.physics.forces.rigidbody.AnchoredRigidBodySpringForce;
+import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
+import physicsengine.physics.particle.Particle;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * The forces of one scene: which objects are pulled by gravity or slowed by drag, and which are connected by springs. Every scene has a registry of
+ * its own, see {@link physicsengine.physics.Scene#getForces()}, so that scenes in the same application do not apply forces to each other's objects.
+ *
+ * <p>Registering a force returns a {@link Registration}, which removes the force again. The forces of each kind are stored densely in an array and are
+ * applied in one pass, kinds without any forces are skipped. Removing a force moves the last force of its kind into the freed place. When an object is
+ * removed from its scene, all forces that act on it are removed as well, see {@link #removeAll(PhysicsObject)}.</p>
+ */
+public class ForceRegistry {
+    private final Generator<PhysicsObject> gravity = new Generator<>(GravityForce::apply, (physicsObject, other) -> physicsObject == other);
+    private final Generator<PhysicsObject> drag = new Generator<>((physicsObject, context) -> DragForce.apply(physicsObject), (physicsObject, other) -> physicsObject == other);
+    private final SpringNetwork springs = new SpringNetwork();
+    private final Generator<RigidBodySpringForce> rigidBodySprings = new Generator<>(
+            (spring, context) -> RigidBodySpringForce.apply(spring.rigidBody1(), spring.rigidBody2(), spring.localAttachmentPoint1(), spring.localAttachmentPoint2(), spring.k(), spring.restLength()),
+            (spring, other) -> spring.rigidBody1() == other || spring.rigidBody2() == other);
+    private final Generator<AnchoredRigidBodySpringForce> anchoredRigidBodySprings = new Generator<>(
+            (spring, context) -> AnchoredRigidBodySpringForce.apply(spring.rigidBody(), spring.particle(), spring.localAttachmentPoint(), spring.k(), spring.restLength()),
+            (spring, other) -> spring.rigidBody() == other || spring.particle() == other);
+    // In the order the forces are applied
+    private final Store[] stores = {this.gravity, this.drag, this.springs, this.rigidBodySprings, this.anchoredRigidBodySprings};
+
+    public Registration<PhysicsObject> registerGravity(PhysicsObject physicsObject) {
+        return this.gravity.add(physicsObject);
+    }
+
+    public Registration<PhysicsObject> registerDrag(PhysicsObject physicsObject) {
+        return this.drag.add(physicsObject);
+    }
+
+    /**
+     * Registers a spring that only pulls the receiver towards the anchor.
+     */
+    public Registration<SpringForce.Spring> registerAnchoredSpring(PhysicsObject receiver, PhysicsObject anchor, double k, double restLength) {
+        return this.springs.add(new SpringForce.Spring(receiver, anchor, k, restLength, 0.0, false));
+    }
+
+    /**
+     * Registers a spring that pulls both objects towards each other.
+     */
+    public Registration<SpringForce.Spring> registerSpring(PhysicsObject object1, PhysicsObject object2, double k, double restLength) {
+        return this.registerSpring(object1, object2, k, restLength, 0.0);
+    }
+
+    /**
+     * Registers a damped spring that pulls both objects towards each other.
+     *
+     * @param damping resists the relative velocity of the objects along the spring
+     */
+    public Registration<SpringForce.Spring> registerSpring(PhysicsObject object1, PhysicsObject object2, double k, double restLength, double damping) {
+        return this.springs.add(new SpringForce.Spring(object1, object2, k, restLength, damping, true));
+    }
+
+    public Registration<RigidBodySpringForce> registerRigidBodySpring(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 localAttachmentPoint1, Vec3 localAttachmentPoint2, double k, double restLength) {
+        return this.rigidBodySprings.add(new RigidBodySpringForce(rigidBody1, rigidBody2, localAttachmentPoint1, localAttachmentPoint2, k, restLength));
+    }
+
+    public Registration<AnchoredRigidBodySpringForce> registerAnchoredRigidBodySpring(RigidBody rigidBody, Particle particle, Vec3 localAttachmentPoint, double k, double restLength) {
+        return this.anchoredRigidBodySprings.add(new AnchoredRigidBodySpringForce(rigidBody, particle, localAttachmentPoint, k, restLength));
+    }
+
+    /**
+     * Applies all registered forces for one step, to be called before the objects are integrated.
+     *
+     * <p>The forces of a scene are accumulated on the same objects, so they are applied one after another on the stepping thread; scenes are independent
+     * of each other and can be stepped in parallel, see {@link physicsengine.physics.batch.BatchSimulator}.</p>
+     */
+    public void apply(StepContext context) {
+        for (Store store : this.stores) {
+            if (store.size() > 0) {
+                store.apply(context);
+            }
+        }
+    }
+
+    /**
+     * Removes every force that acts on the object or is anchored to it.
+     */
+    public void removeAll(PhysicsObject physicsObject) {
+        for (Store store : this.stores) {
+            store.removeAll(physicsObject);
+        }
+    }
+
+    public void clear() {
+        for (Store store : this.stores) {
+            store.clear();
+        }
+    }
+
+    /**
+     * @return the springs between two objects, which must not be changed directly
+     */
+    public SpringNetwork getSprings() {
+        return this.springs;
+    }
+
+    /**
+     * @return an unmodifiable view of the springs between two rigid bodies
+     */
+    public List<RigidBodySpringForce> getRigidBodySprings() {
+        return this.rigidBodySprings.view;
+    }
+
+    /**
+     * @return an unmodifiable view of the springs between a rigid body and a particle
+     */
+    public List<AnchoredRigidBodySpringForce> getAnchoredRigidBodySprings() {
+        return this.anchoredRigidBodySprings.view;
+    }
+
+    /**
+     * A force in a registry, which can be removed from it again.
+     */
+    public static final class Registration<T> {
+        private final Store store;
+        private final T force;
+        int index; // -1 once removed
+
+        Registration(Store store, T force, int index) {
+            this.store = store;
+            this.force = force;
+            this.index = index;
+        }
+
+        /**
+         * @return the object the force acts on for gravity and drag, otherwise the spring
+         */
+        public T getForce() {
+            return this.force;
+        }
+
+        public boolean isRegistered() {
+            return this.index >= 0;
+        }
+
+        /**
+         * Removes the force from its registry. Does nothing if it has already been removed.
+         */
+        public void remove() {
+            if (this.index >= 0) {
+                this.store.remove(this.index);
+            }
+        }
+    }
+
+    /**
+     * The forces of one kind, which keeps the index of every {@link Registration} up to date.
+     */
+    abstract static class Store {
+        abstract int size();
+
+        abstract void apply(StepContext context);
+
+        abstract void remove(int index);
+
+        abstract void removeAll(PhysicsObject physicsObject);
+
+        abstract void clear();
+    }
+
+    /**
+     * The forces of one kind, stored densely: {@code forces[i]} belongs to {@code registrations[i]}.
+     */
+    private static final class Generator<T> extends Store {
+        private final BiConsumer<T, StepContext> force;
+        private final BiPredicate<T, PhysicsObject> involves;
+        private Object[] forces = new Object[16];
+        private Registration<?>[] registrations = new Registration<?>[16];
+        private int size = 0;
+        private final List<T> view = new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                if (index >= Generator.this.size) throw new IndexOutOfBoundsException(index);
+
+                return Generator.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return Generator.this.size;
+            }
+        };
+
+        private Generator(BiConsumer<T, StepContext> force, BiPredicate<T, PhysicsObject> involves) {
+            this.force = force;
+            this.involves = involves;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int index) {
+            return (T) this.forces[index];
+        }
+
+        @Override
+        int size() {
+            return this.size;
+        }
+
+        private Registration<T> add(T force) {
+            if (this.size == this.forces.length) {
+                this.forces = Arrays.copyOf(this.forces, 2 * this.size);
+                this.registrations = Arrays.copyOf(this.registrations, 2 * this.size);
+            }
+
+            Registration<T> registration = new Registration<>(this, force, this.size);
+            this.forces[this.size] = force;
+            this.registrations[this.size] = registration;
+            ++this.size;
+            return registration;
+        }
+
+        @Override
+        void remove(int index) {
+            int last = --this.size;
+            this.registrations[index].index = -1;
+
+            if (index != last) {
+                this.forces[index] = this.forces[last];
+                this.registrations[index] = this.registrations[last];
+                this.registrations[index].index = index;
+            }
+
+            this.forces[last] = null;
+            this.registrations[last] = null;
+        }
+
+        @Override
+        void apply(StepContext context) {
+            for (int i = 0; i < this.size; ++i) {
+                this.force.accept(this.get(i), context);
+            }
+        }
+
+        @Override
+        void removeAll(PhysicsObject physicsObject) {
+            for (int i = this.size - 1; i >= 0; --i) {
+                if (this.involves.test(this.get(i), physicsObject)) {
+                    this.remove(i);
+                }
+            }
+        }
+
+        @Override
+        void clear() {
+            for (int i = 0; i < this.size; ++i) {
+                this.registrations[i].index = -1;
+            }
+
+            Arrays.fill(this.forces, 0, this.size, null);
+            Arrays.fill(this.registrations, 0, this.size, null);
+            this.size = 0;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package physicsengine.physics.forces;
+
+import physicsengine.math.Scratch;
+import physicsengine.math.Vec3;
+import physicsengine.physics.PhysicsObject;
+import physicsengine.physics.StepContext;
+
+import java.util.Arrays;
+
+/**
+ * The springs between pairs of objects, stored in flat arrays: {@code objects1[i]} and {@code objects2[i]} are the ends of the i-th spring, which has
+ * the stiffness {@code stiffnesses[i]}, the rest length {@code restLengths[i]} and the damping {@code dampings[i]}.
+ *
+ * <p>The distance between the ends is computed once per spring; a mutual spring applies the force to its first object and the opposite force to its
+ * second one. A damped spring additionally resists the relative velocity of its ends along the spring. Like the other forces of a
+ * {@link ForceRegistry}, removing a spring moves the last spring into the freed place.</p>
+ */
+public final class SpringNetwork extends ForceRegistry.Store {
+    private PhysicsObject[] objects1 = new PhysicsObject[16];
+    private PhysicsObject[] objects2 = new PhysicsObject[16];
+    private double[] stiffnesses = new double[16];
+    private double[] restLengths = new double[16];
+    private double[] dampings = new double[16];
+    private boolean[] mutual = new boolean[16];
+    private ForceRegistry.Registration<?>[] registrations = new ForceRegistry.Registration<?>[16];
+    private int size = 0;
+
+    SpringNetwork() {
+    }
+
+    ForceRegistry.Registration<SpringForce.Spring> add(SpringForce.Spring spring) {
+        if (this.size == this.objects1.length) {
+            int capacity = 2 * this.size;
+            this.objects1 = Arrays.copyOf(this.objects1, capacity);
+            this.objects2 = Arrays.copyOf(this.objects2, capacity);
+            this.stiffnesses = Arrays.copyOf(this.stiffnesses, capacity);
+            this.restLengths = Arrays.copyOf(this.restLengths, capacity);
+            this.dampings = Arrays.copyOf(this.dampings, capacity);
+            this.mutual = Arrays.copyOf(this.mutual, capacity);
+            this.registrations = Arrays.copyOf(this.registrations, capacity);
+        }
+
+        int i = this.size++;
+        ForceRegistry.Registration<SpringForce.Spring> registration = new ForceRegistry.Registration<>(this, spring, i);
+        this.objects1[i] = spring.receiver();
+        this.objects2[i] = spring.anchor();
+        this.stiffnesses[i] = spring.k();
+        this.restLengths[i] = spring.restLength();
+        this.dampings[i] = spring.damping();
+        this.mutual[i] = spring.mutual();
+        this.registrations[i] = registration;
+        return registration;
+    }
+
+    @Override
+    void remove(int index) {
+        int last = --this.size;
+        this.registrations[index].index = -1;
+
+        if (index != last) {
+            this.objects1[index] = this.objects1[last];
+            this.objects2[index] = this.objects2[last];
+            this.stiffnesses[index] = this.stiffnesses[last];
+            this.restLengths[index] = this.restLengths[last];
+            this.dampings[index] = this.dampings[last];
+            this.mutual[index] = this.mutual[last];
+            this.registrations[index] = this.registrations[last];
+            this.registrations[index].index = index;
+        }
+
+        this.objects1[last] = null;
+        this.objects2[last] = null;
+        this.registrations[last] = null;
+    }
+
+    @Override
+    void removeAll(PhysicsObject physicsObject) {
+        for (int i = this.size - 1; i >= 0; --i) {
+            if (this.objects1[i] == physicsObject || this.objects2[i] == physicsObject) {
+                this.remove(i);
+            }
+        }
+    }
+
+    @Override
+    void clear() {
+        for (int i = 0; i < this.size; ++i) {
+            this.registrations[i].index = -1;
+        }
+
+        Arrays.fill(this.objects1, 0, this.size, null);
+        Arrays.fill(this.objects2, 0, this.size, null);
+        Arrays.fill(this.registrations, 0, this.size, null);
+        this.size = 0;
+    }
+
+    @Override
+    void apply(StepContext context) {
+        Scratch scratch = context.getScratch();
+        scratch.push();
+        Vec3 force = scratch.vec3();
+
+        for (int i = 0; i < this.size; ++i) {
+            PhysicsObject object1 = this.objects1[i];
+            PhysicsObject object2 = this.objects2[i];
+            boolean mutual = this.mutual[i];
+
+            if (object1.isWokenUpBy(object2)) object1.setAwake(true);
+            if (mutual && object2.isWokenUpBy(object1)) object2.setAwake(true);
+
+            boolean finite1 = object1.hasFiniteMass();
+            boolean finite2 = mutual && object2.hasFiniteMass();
+
+            if (!finite1 && !finite2) continue;
+
+            Vec3 position1 = object1.getPosition();
+            Vec3 position2 = object2.getPosition();
+            double dx = position2.x - position1.x;
+            double dy = position2.y - position1.y;
+            double dz = position2.z - position1.z;
+            double squaredDistance = dx * dx + dy * dy + dz * dz;
+            double distance = Math.sqrt(squaredDistance);
+            double magnitude = this.stiffnesses[i] * (distance - this.restLengths[i]);
+            double damping = this.dampings[i];
+
+            if (damping != 0.0 && squaredDistance != 0.0) {
+                Vec3 velocity1 = object1.getVelocity();
+                Vec3 velocity2 = object2.getVelocity();
+                double relativeSpeed = ((velocity2.x - velocity1.x) * dx + (velocity2.y - velocity1.y) * dy + (velocity2.z - velocity1.z) * dz) / distance;
+                magnitude += damping * relativeSpeed;
+            }
+
+            double s = squaredDistance != 0.0 ? magnitude / distance : 1.0;
+            force.set(dx * s, dy * s, dz * s);
+
+            if (finite1) {
+                object1.addForce(force);
+            }
+
+            if (finite2) {
+                force.set(-force.x, -force.y, -force.z);
+                object2.addForce(force);
+            }
+        }
+
+        scratch.pop();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the object the i-th spring pulls towards {@link #getObject2(int)}
+     */
+    public PhysicsObject getObject1(int i) {
+        return this.objects1[i];
+    }
+
+    /**
+     * @return the other end of the i-th spring, which is only pulled as well if the spring is mutual
+     */
+    public PhysicsObject getObject2(int i) {
+        return this.objects2[i];
+    }
+
+    public double getStiffness(int i) {
+        return this.stiffnesses[i];
+    }
+
+    public double getRestLength(int i) {
+        return this.restLengths[i];
+    }
+
+    public double getDamping(int i) {
+        return this.dampings[i];
+    }
+
+    public boolean isMutual(int i) {
+        return this.mutual[i];
+    }
+}
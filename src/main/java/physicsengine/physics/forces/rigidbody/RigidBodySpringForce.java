@@ -1,35 +1,33 @@
 package physicsengine.physics.forces.rigidbody;
 
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
 import physicsengine.physics.rigidbody.RigidBody;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public record RigidBodySpringForce(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 localAttachmentPoint1, Vec3 localAttachmentPoint2, double k, double restLength) {
-    public static final List<RigidBodySpringForce> SPRINGS = new ArrayList<>();
-
     public static void apply(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 localAttachmentPoint1, Vec3 localAttachmentPoint2, double k, double restLength) {
+        if (rigidBody1.isWokenUpBy(rigidBody2)) rigidBody1.setAwake(true);
+        if (rigidBody2.isWokenUpBy(rigidBody1)) rigidBody2.setAwake(true);
+
         if (!rigidBody1.hasFiniteMass() && !rigidBody2.hasFiniteMass()) return;
 
-        Vec3 p1 = rigidBody1.getPointInWorldSpace(localAttachmentPoint1);
-        Vec3 p2 = rigidBody2.getPointInWorldSpace(localAttachmentPoint2);
-        Vec3 deltaVector = p2.sub(p1);
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
+        Vec3 p1 = rigidBody1.getPointInWorldSpaceInto(localAttachmentPoint1, scratch.vec3());
+        Vec3 p2 = rigidBody2.getPointInWorldSpaceInto(localAttachmentPoint2, scratch.vec3());
+        Vec3 deltaVector = p2.subInto(p1, scratch.vec3());
 
         double f = k * (deltaVector.length() - restLength);
-        Vec3 force = deltaVector.normalize(f);
+        Vec3 force = deltaVector.normalizeInto(f, deltaVector);
 
         if (rigidBody1.hasFiniteMass()) rigidBody1.addForce(force, p1);
-        if (rigidBody2.hasFiniteMass()) rigidBody2.addForce(force.mul(-1.0), p2);
-    }
-
-    public static void register(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 localAttachmentPoint1, Vec3 localAttachmentPoint2, double k, double restLength) {
-        SPRINGS.add(new RigidBodySpringForce(rigidBody1, rigidBody2, localAttachmentPoint1, localAttachmentPoint2, k, restLength));
-    }
 
-    public static void apply() {
-        for (RigidBodySpringForce rigidBodySpringForce : SPRINGS) {
-            RigidBodySpringForce.apply(rigidBodySpringForce.rigidBody1(), rigidBodySpringForce.rigidBody2(), rigidBodySpringForce.localAttachmentPoint1(), rigidBodySpringForce.localAttachmentPoint2(), rigidBodySpringForce.k(), rigidBodySpringForce.restLength());
+        if (rigidBody2.hasFiniteMass()) {
+            force.scale(-1.0);
+            rigidBody2.addForce(force, p2);
         }
+
+        scratch.pop();
     }
 }
@@ -2,6 +2,8 @@ package physicsengine.physics.optimization;
 
 import physicsengine.math.Vec3;
 
+import java.util.Arrays;
+
 public class Tracker {
     private final int capacity;
     private final double[] values;
@@ -13,6 +15,17 @@ public class Tracker {
         this.values = new double[this.capacity];
     }
 
+    /**
+     * Overwrites all tracked values, e.g. to prevent an object that has just been woken up from falling asleep again immediately.
+     *
+     * @param velocity the velocity every tracked value is set to
+     */
+    public void reset(double velocity) {
+        Arrays.fill(this.values, velocity * velocity);
+        this.sum = this.capacity * velocity * velocity;
+        this.index = 0;
+    }
+
     public void update(Vec3 velocity) {
         double old = this.values[this.index];
         this.sum -= old;
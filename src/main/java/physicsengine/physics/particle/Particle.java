@@ -5,34 +5,90 @@ import physicsengine.math.Quaternion;
 import physicsengine.math.Vec3;
 import physicsengine.math.boundingvolumes.BoundingVolume;
 import physicsengine.math.boundingvolumes.SphericalBoundingVolume;
+import physicsengine.physics.BodyStore;
+import physicsengine.physics.Material;
 import physicsengine.physics.PhysicsObject;
 import physicsengine.physics.Scene;
-import physicsengine.physics.forces.GravityForce;
-import physicsengine.physics.forces.SpringForce;
+import physicsengine.physics.StepContext;
+import physicsengine.physics.optimization.Tracker;
 
+/**
+ * A handle to the state of a particle in a {@link BodyStore}. The vectors returned by the getters are copies of that state, which are refreshed on every call
+ * and are reused by this particle; changing them has no effect.
+ */
 public class Particle implements PhysicsObject, Editable {
     public static final double PARTICLE_RADIUS = 0.15;
     private static final BoundingVolume BOUNDING_VOLUME = new SphericalBoundingVolume(Particle.PARTICLE_RADIUS);
     private final double mass;
-    protected final Vec3 position = new Vec3(0.0, 0.0, 0.0);
-    protected final Vec3 velocity = new Vec3(0.0, 0.0, 0.0);
-    protected final Vec3 force = new Vec3(0.0, 0.0, 0.0);
+    private final BodyStore.Slot slot;
+    // Copies of the state in the body store, see getPosition()
+    private final Vec3 position = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 velocity = new Vec3(0.0, 0.0, 0.0);
+    private final Tracker tracker = new Tracker(PhysicsObject.SLEEP_SAMPLES);
+    private boolean awake = true;
     private boolean selected = false;
 
     public Particle(double mass) {
         this.mass = mass;
+        this.slot = new BodyStore(1).add(mass, null);
+        this.slot.setDynamic(this.hasFiniteMass());
+        this.tracker.reset(2.0 * PhysicsObject.SLEEP_VELOCITY);
     }
 
+    /**
+     * Integrates this particle on its own. A scene integrates all its bodies at once, see {@link BodyStore#integrate(StepContext)}.
+     */
     @Override
-    public void integrate(double dt) {
-        if (!this.hasFiniteMass()) return;
+    public void integrate(StepContext context) {
+        this.slot.integrate(context);
+    }
+
+    /**
+     * @return the material that determines the damping of this particle, {@link Material#DEFAULT} unless another material has been set
+     */
+    public Material getMaterial() {
+        return this.slot.getMaterial();
+    }
 
-        Vec3 acceleration = this.force.mul(1.0 / this.mass);
-        this.velocity.increment(acceleration.mul(dt));
-        this.velocity.scale(Math.pow(PhysicsObject.LINEAR_DAMPING_PER_SECOND, dt));
-        this.position.increment(this.velocity.mul(dt));
+    public void setMaterial(Material material) {
+        this.slot.setMaterial(material);
+    }
 
-        this.force.set(0.0, 0.0, 0.0);
+    /**
+     * @return the entry of this particle in the body store of its scene
+     */
+    public BodyStore.Slot getSlot() {
+        return this.slot;
+    }
+
+    @Override
+    public boolean updateSleepState() {
+        if (!this.awake) return true;
+
+        if (!this.hasFiniteMass()) return false;
+
+        this.tracker.update(this.getVelocity());
+
+        return this.tracker.canSleep(PhysicsObject.SLEEP_VELOCITY);
+    }
+
+    @Override
+    public boolean isAwake() {
+        return this.awake;
+    }
+
+    @Override
+    public void setAwake(boolean awake) {
+        if (awake) {
+            if (!this.awake) {
+                this.tracker.reset(2.0 * PhysicsObject.SLEEP_VELOCITY);
+            }
+        } else {
+            this.slot.stop();
+        }
+
+        this.awake = awake;
+        this.slot.setDynamic(this.hasFiniteMass());
     }
 
     @Override
@@ -42,32 +98,57 @@ public class Particle implements PhysicsObject, Editable {
 
     @Override
     public Vec3 getPosition() {
-        return this.position;
+        return this.slot.getPosition(this.position);
     }
 
     @Override
     public void setPosition(Vec3 position) {
-        this.position.set(position);
+        this.slot.setPosition(position.x, position.y, position.z);
+    }
+
+    @Override
+    public void setPosition(double x, double y, double z) {
+        this.slot.setPosition(x, y, z);
+    }
+
+    /**
+     * Moves this particle by the vector {@code v} scaled by {@code t}.
+     */
+    public void translate(Vec3 v, double t) {
+        this.slot.translate(v, t);
     }
 
     @Override
     public Vec3 getVelocity() {
-        return this.velocity;
+        return this.slot.getVelocity(this.velocity);
     }
 
     @Override
     public void setVelocity(Vec3 velocity) {
-        this.velocity.set(velocity);
+        this.slot.setVelocity(velocity.x, velocity.y, velocity.z);
+    }
+
+    @Override
+    public void setVelocity(double x, double y, double z) {
+        this.slot.setVelocity(x, y, z);
+    }
+
+    /**
+     * Adds the vector {@code v} scaled by {@code t} to the velocity.
+     */
+    public void addVelocity(Vec3 v, double t) {
+        this.slot.addVelocity(v, t);
     }
 
     @Override
     public void addForce(Vec3 force) {
-        this.force.increment(force);
+        this.slot.addForce(force.x, force.y, force.z);
     }
 
     @Override
     public void select(boolean selected) {
         this.selected = selected;
+        this.setAwake(true);
     }
 
     @Override
@@ -77,7 +158,7 @@ public class Particle implements PhysicsObject, Editable {
 
     @Override
     public Vec3 getIntersection(Vec3 origin, Vec3 direction, boolean clip) {
-        return BoundingVolume.getIntersection(BOUNDING_VOLUME, origin, direction, clip, this.position, Quaternion.NO_ROTATION);
+        return BoundingVolume.getIntersection(BOUNDING_VOLUME, origin, direction, clip, this.getPosition(), Quaternion.NO_ROTATION);
     }
 
     public static void createRigidCube(Scene scene) {
@@ -95,7 +176,7 @@ public class Particle implements PhysicsObject, Editable {
             Particle particle = new Particle(particleMass);
             cube[i] = particle;
             scene.add(particle);
-            GravityForce.register(particle);
+            scene.getForces().registerGravity(particle);
         }
 
         cube[0].setPosition(center.add(-sideLength / 2.0, -sideLength / 2.0, -sideLength / 2.0));
@@ -113,7 +194,7 @@ public class Particle implements PhysicsObject, Editable {
             for (int j = i + 1; j < 8; ++j) {
                 Particle b = cube[j];
 
-                SpringForce.register(a, b, k, a.getPosition().distance(b.getPosition()));
+                scene.getForces().registerSpring(a, b, k, a.getPosition().distance(b.getPosition()));
             }
         }
     }
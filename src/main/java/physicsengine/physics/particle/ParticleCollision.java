@@ -7,8 +7,7 @@ public class ParticleCollision {
     public static void resolve(Particle particle, Vec3 contactNormal, double penetration, double restitution) {
         // Resolve Interpenetration
         if (penetration > 0.0) {
-            Vec3 movement = contactNormal.mul(penetration);
-            particle.setPosition(particle.getPosition().add(movement));
+            particle.translate(contactNormal, penetration);
         }
 
         // Resolve Velocity
@@ -16,8 +15,7 @@ public class ParticleCollision {
 
         if (separatingVelocity < 0.0) {
             double deltaVelocity = -(1.0 + restitution) * separatingVelocity;
-            Vec3 impulse = contactNormal.mul(deltaVelocity);
-            particle.setVelocity(particle.getVelocity().add(impulse));
+            particle.addVelocity(contactNormal, deltaVelocity);
         }
     }
 }
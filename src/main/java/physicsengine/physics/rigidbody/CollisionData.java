@@ -2,58 +2,129 @@ package physicsengine.physics.rigidbody;
 
 import physicsengine.math.Vec3;
 
+import java.util.Arrays;
+
+/**
+ * A buffer of the collisions detected during a single step.
+ *
+ * <p>The {@code RigidBodyCollision} slots are pooled and reused in every step. If a step produces more collisions than there are slots, the buffer grows geometrically,
+ * so no collision is ever dropped and no memory is allocated once the buffer has reached the size a scene requires. The contact normal and point are copied into
+ * the slot, so callers may pass temporary vectors.</p>
+ */
 public class CollisionData {
-    private final RigidBodyCollision[] collisions;
+    public static final int DEFAULT_INITIAL_CAPACITY = 128;
+    private RigidBodyCollision[] collisions;
     private int index = 0;
+    private int highWaterMark = 0;
+
+    public CollisionData() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
 
-    public CollisionData(int size) {
-        this.collisions = new RigidBodyCollision[size];
+    public CollisionData(int initialCapacity) {
+        if (initialCapacity < 1) throw new IllegalArgumentException("CollisionData requires an initial capacity of at least 1!");
 
-        for (int i = 0; i < size; ++i) {
+        this.collisions = new RigidBodyCollision[initialCapacity];
+
+        for (int i = 0; i < initialCapacity; ++i) {
             this.collisions[i] = new RigidBodyCollision();
         }
     }
 
     public void reset() {
+        for (int i = 0; i < this.index; ++i) {
+            RigidBodyCollision collision = this.collisions[i];
+
+            // Clean up references to free memory
+            collision.rigidBody1 = null;
+            collision.rigidBody2 = null;
+        }
+
         this.index = 0;
     }
 
-    public boolean hasMaxCapacity() {
-        return this.index >= this.collisions.length;
+    /**
+     * Removes all collisions that were added after the buffer had the given size.
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.index) throw new IndexOutOfBoundsException("Size " + size + " out of bounds for size " + this.index);
+
+        for (int i = size; i < this.index; ++i) {
+            RigidBodyCollision collision = this.collisions[i];
+            collision.rigidBody1 = null;
+            collision.rigidBody2 = null;
+        }
+
+        this.index = size;
+    }
+
+    public RigidBodyCollision get(int index) {
+        if (index >= this.index) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.index);
+
+        return this.collisions[index];
+    }
+
+    /**
+     * @return the number of collisions added since the last reset
+     */
+    public int size() {
+        return this.index;
+    }
+
+    /**
+     * @return the number of pooled collision slots
+     */
+    public int getCapacity() {
+        return this.collisions.length;
+    }
+
+    /**
+     * @return the maximum number of collisions that were held at once since the creation of this buffer
+     */
+    public int getHighWaterMark() {
+        return this.highWaterMark;
     }
 
     public void set(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 contactNormal, Vec3 contactPoint, double penetration, double restitution) {
-        if (this.hasMaxCapacity()) {
-            throw new IllegalStateException("CollisionData already contains maximum amount of possible collisions!");
+        this.set(rigidBody1, rigidBody2, contactNormal, contactPoint, penetration, restitution, 0, false);
+    }
+
+    public void set(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 contactNormal, Vec3 contactPoint, double penetration, double restitution, int feature) {
+        this.set(rigidBody1, rigidBody2, contactNormal, contactPoint, penetration, restitution, feature, false);
+    }
+
+    /**
+     * @param feature identifies the colliding geometric feature of the rigid body pair, see {@link RigidBodyCollision#feature}
+     * @param bilateral {@code true} if the collision may also pull both rigid bodies together, see {@link RigidBodyCollision#bilateral}
+     */
+    public void set(RigidBody rigidBody1, RigidBody rigidBody2, Vec3 contactNormal, Vec3 contactPoint, double penetration, double restitution, int feature, boolean bilateral) {
+        if (this.index == this.collisions.length) {
+            this.grow();
         }
 
         RigidBodyCollision collision = this.collisions[this.index++];
+        this.highWaterMark = Math.max(this.highWaterMark, this.index);
 
         collision.rigidBody1 = rigidBody1;
         collision.rigidBody2 = rigidBody2;
-        collision.contactNormal = contactNormal;
-        collision.contactPoint = contactPoint;
+        collision.contactNormal.set(contactNormal);
+        collision.contactPoint.set(contactPoint);
         collision.penetration = penetration;
         collision.restitution = restitution;
+        collision.feature = feature;
+        collision.bilateral = bilateral;
+        collision.normalImpulse = 0.0;
 
         rigidBody1.collisionMarker = Math.max(rigidBody1.collisionMarker, RigidBody.COLLISION_MARKER_COLLISION);
         rigidBody2.collisionMarker = Math.max(rigidBody2.collisionMarker, RigidBody.COLLISION_MARKER_COLLISION);
     }
 
-    public void resolve() {
-        int i = 0;
+    private void grow() {
+        int oldCapacity = this.collisions.length;
+        this.collisions = Arrays.copyOf(this.collisions, oldCapacity * 2);
 
-        while (i < this.index) {
-            RigidBodyCollision collision = this.collisions[i];
-            collision.resolve();
-
-            // Clean up references to free memory
-            collision.rigidBody1 = null;
-            collision.rigidBody2 = null;
-            collision.contactNormal = null;
-            collision.contactPoint = null;
-
-            ++i;
+        for (int i = oldCapacity; i < this.collisions.length; ++i) {
+            this.collisions[i] = new RigidBodyCollision();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package physicsengine.physics.rigidbody;
 
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
 
 /**
@@ -21,23 +22,32 @@ public class Constraint {
     }
 
     public void perform(CollisionData data) {
-        Vec3 point1 = this.rigidBody1.getPointInWorldSpace(this.localAttachmentPoint1);
-        Vec3 point2 = this.rigidBody2.getPointInWorldSpace(this.localAttachmentPoint2);
-        Vec3 deltaVector = point1.sub(point2); // point2 -> point1
+        if (this.rigidBody1.isWokenUpBy(this.rigidBody2)) this.rigidBody1.setAwake(true);
+        if (this.rigidBody2.isWokenUpBy(this.rigidBody1)) this.rigidBody2.setAwake(true);
+
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
+        Vec3 point1 = this.rigidBody1.getPointInWorldSpaceInto(this.localAttachmentPoint1, scratch.vec3());
+        Vec3 point2 = this.rigidBody2.getPointInWorldSpaceInto(this.localAttachmentPoint2, scratch.vec3());
+        Vec3 deltaVector = point1.subInto(point2, scratch.vec3()); // point2 -> point1
         double distance = deltaVector.length();
 
-        if (distance == 0.0) return;
+        if (distance != 0.0) {
+            Vec3 normal = deltaVector.mulInto(1.0 / distance, deltaVector);
+            double penetration = this.restLength - distance;
 
-        Vec3 normal = deltaVector.mul(1.0 / distance);
-        double penetration = this.restLength - distance;
+            if (distance > this.restLength) {
+                normal.scale(-1.0);
+                penetration *= -1.0;
+            }
 
-        if (distance > this.restLength) {
-            normal.scale(-1.0);
-            penetration *= -1.0;
+            Vec3 contactPoint = point1.addInto(point2, point1);
+            contactPoint.scale(0.5);
+            data.set(this.rigidBody1, this.rigidBody2, normal, contactPoint, penetration, 0.0, 0, true);
         }
 
-        Vec3 contactPoint = (point1.add(point2)).mul(0.5);
-        data.set(this.rigidBody1, this.rigidBody2, normal, contactPoint, penetration, 0.0);
+        scratch.pop();
     }
 
     public RigidBody getRigidBody1() {
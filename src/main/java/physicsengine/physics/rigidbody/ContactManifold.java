@@ -0,0 +1,319 @@
+package physicsengine.physics.rigidbody;
+
+import physicsengine.math.Quaternion;
+import physicsengine.math.Scratch;
+import physicsengine.math.Vec3;
+
+/**
+ * The persistent set of contact points between a pair of rigid bodies.
+ *
+ * <p>The narrow phase only reports the deepest point of a collision, which is not enough to let a box rest on a face: It keeps rocking from one vertex to the next.
+ * A manifold therefore collects the points reported over several steps. Each point is stored in the local space of both rigid bodies, and its normal in that of the second one,
+ * so it can be refreshed after the rigid bodies have moved.
+ * Points that separated or slid apart further than {@link #CONTACT_BREAKING_THRESHOLD} are dropped. If more than {@link #MAX_POINTS} points remain, the deepest point and the subset spanning the largest area are kept.</p>
+ *
+ * <p>As long as neither rigid body has moved noticeably since the last run of the narrow phase, the refreshed points are reused without running the narrow phase at all.</p>
+ */
+public class ContactManifold {
+    public static final int MAX_POINTS = 4;
+    public static final double CONTACT_BREAKING_THRESHOLD = 0.02;
+    /**
+     * The maximum distance a rigid body may have moved since the last run of the narrow phase for the manifold to be reused.
+     */
+    public static final double LINEAR_REUSE_TOLERANCE = 0.001;
+    /**
+     * The maximum value of {@code 1 - |q1 · q2|} between the current orientation and the orientation at the last run of the narrow phase for the manifold to be reused (about half a degree).
+     */
+    public static final double ANGULAR_REUSE_TOLERANCE = 1.0e-5;
+    /**
+     * The maximum number of consecutive steps the narrow phase may be skipped.
+     */
+    public static final int MAX_REUSED_STEPS = 3;
+    private RigidBody rigidBody1;
+    private RigidBody rigidBody2;
+    private final ManifoldPoint[] points = new ManifoldPoint[MAX_POINTS + 1]; // One additional slot for the point that is about to be reduced
+    private int size = 0;
+    private final Vec3 lastPosition1 = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 lastPosition2 = new Vec3(0.0, 0.0, 0.0);
+    private final Quaternion lastOrientation1 = new Quaternion(1.0, 0.0, 0.0, 0.0);
+    private final Quaternion lastOrientation2 = new Quaternion(1.0, 0.0, 0.0, 0.0);
+    private int reusedSteps = 0;
+    private int separatingAxis = -1;
+    private final Vec3 separatingDirection = new Vec3(0.0, 0.0, 0.0);
+
+    public ContactManifold(RigidBody rigidBody1, RigidBody rigidBody2) {
+        this.rigidBody1 = rigidBody1;
+        this.rigidBody2 = rigidBody2;
+
+        for (int i = 0; i < this.points.length; ++i) {
+            this.points[i] = new ManifoldPoint();
+        }
+    }
+
+    /**
+     * Empties this manifold and assigns it to another rigid body pair, so that the manifolds of separated pairs can be reused.
+     */
+    void reset(RigidBody rigidBody1, RigidBody rigidBody2) {
+        for (int i = 0; i < this.size; ++i) {
+            this.points[i].clear();
+        }
+
+        this.rigidBody1 = rigidBody1;
+        this.rigidBody2 = rigidBody2;
+        this.size = 0;
+        this.reusedSteps = 0;
+        this.separatingAxis = -1;
+        this.separatingDirection.set(0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Recalculates the position and penetration of every point from the current transforms of both rigid bodies and drops the points that are no longer valid.
+     */
+    public void refresh() {
+        int i = 0;
+
+        while (i < this.size) {
+            if (this.points[i].refresh()) {
+                ++i;
+            } else {
+                this.removePoint(i);
+            }
+        }
+    }
+
+    /**
+     * Reuses the refreshed points instead of running the narrow phase, if neither rigid body has moved noticeably since the last run of the narrow phase.
+     *
+     * @return {@code true} if the narrow phase can be skipped for this step
+     */
+    public boolean tryReuse() {
+        if (this.size == 0 || this.reusedSteps >= MAX_REUSED_STEPS) return false;
+
+        if (!hasNotMoved(this.rigidBody1, this.lastPosition1, this.lastOrientation1) || !hasNotMoved(this.rigidBody2, this.lastPosition2, this.lastOrientation2)) return false;
+
+        ++this.reusedSteps;
+        return true;
+    }
+
+    /**
+     * Merges the collisions the narrow phase has just added to the collision data into this manifold and removes them from the collision data again.
+     *
+     * @param collisionData the collision data the narrow phase has written to
+     * @param start the size of the collision data before the narrow phase ran
+     */
+    public void merge(CollisionData collisionData, int start) {
+        for (int i = start; i < collisionData.size(); ++i) {
+            this.addPoint(collisionData.get(i));
+        }
+
+        collisionData.truncate(start);
+
+        this.lastPosition1.set(this.rigidBody1.getPosition());
+        this.lastPosition2.set(this.rigidBody2.getPosition());
+        this.lastOrientation1.set(this.rigidBody1.getOrientation());
+        this.lastOrientation2.set(this.rigidBody2.getOrientation());
+        this.reusedSteps = 0;
+    }
+
+    /**
+     * Adds every point of this manifold to the collision data.
+     */
+    public void emit(CollisionData collisionData) {
+        for (int i = 0; i < this.size; ++i) {
+            ManifoldPoint point = this.points[i];
+            collisionData.set(point.rigidBody1, point.rigidBody2, point.normal, point.worldPoint, point.penetration, point.restitution, point.feature);
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the index of the axis that separated the rigid bodies at the last run of the narrow phase, in the order of the rigid bodies of this
+     * manifold, or -1 if they were not separated. The meaning of the index is up to the narrow phase routine of the pair.
+     */
+    public int getSeparatingAxis() {
+        return this.separatingAxis;
+    }
+
+    public void setSeparatingAxis(int separatingAxis) {
+        this.separatingAxis = separatingAxis;
+    }
+
+    /**
+     * @return the direction, from the second towards the first rigid body of this manifold, that separated them at the last run of a narrow phase
+     * routine that searches for one, or the zero vector. It may be changed by that routine.
+     */
+    public Vec3 getSeparatingDirection() {
+        return this.separatingDirection;
+    }
+
+    public RigidBody getRigidBody1() {
+        return this.rigidBody1;
+    }
+
+    public RigidBody getRigidBody2() {
+        return this.rigidBody2;
+    }
+
+    private void addPoint(RigidBodyCollision collision) {
+        int index = this.size;
+
+        // A new point replaces an existing point of the same feature or at (almost) the same position
+        for (int i = 0; i < this.size; ++i) {
+            ManifoldPoint point = this.points[i];
+
+            if ((point.feature == collision.feature && point.rigidBody1 == collision.rigidBody1) || point.worldPoint.distance(collision.contactPoint) < CONTACT_BREAKING_THRESHOLD) {
+                index = i;
+                break;
+            }
+        }
+
+        this.points[index].set(collision);
+
+        if (index == this.size) {
+            ++this.size;
+
+            if (this.size > MAX_POINTS) {
+                this.removePoint(this.getPointToReduce());
+            }
+        }
+    }
+
+    private void removePoint(int index) {
+        ManifoldPoint point = this.points[index];
+        this.points[index] = this.points[this.size - 1];
+        this.points[this.size - 1] = point;
+        point.clear();
+        --this.size;
+    }
+
+    /**
+     * Chooses the point whose removal leaves the largest area spanned by the remaining points. The deepest point is always kept.
+     */
+    private int getPointToReduce() {
+        int deepest = 0;
+
+        for (int i = 1; i < this.size; ++i) {
+            if (this.points[i].penetration > this.points[deepest].penetration) deepest = i;
+        }
+
+        int result = this.size - 1;
+        double maxArea = -1.0;
+
+        for (int i = 0; i < this.size; ++i) {
+            if (i == deepest) continue;
+
+            // the indices of the remaining points, skipping i
+            int j0 = i > 0 ? 0 : 1;
+            int j1 = i > 1 ? 1 : 2;
+            int j2 = i > 2 ? 2 : 3;
+            int j3 = i > 3 ? 3 : 4;
+
+            double area = getArea(this.points[j0].worldPoint, this.points[j1].worldPoint, this.points[j2].worldPoint, this.points[j3].worldPoint);
+
+            if (area > maxArea) {
+                maxArea = area;
+                result = i;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return a measure of the area spanned by four points, which is the largest cross product of two diagonals of any of the three possible quadrilaterals
+     */
+    private static double getArea(Vec3 p0, Vec3 p1, Vec3 p2, Vec3 p3) {
+        double a = getCrossLength(p0, p1, p2, p3);
+        double b = getCrossLength(p0, p2, p1, p3);
+        double c = getCrossLength(p0, p3, p1, p2);
+
+        return Math.max(a, Math.max(b, c));
+    }
+
+    /**
+     * @return the length of (a - b) x (c - d)
+     */
+    private static double getCrossLength(Vec3 a, Vec3 b, Vec3 c, Vec3 d) {
+        double ux = a.x - b.x, uy = a.y - b.y, uz = a.z - b.z;
+        double vx = c.x - d.x, vy = c.y - d.y, vz = c.z - d.z;
+        double x = uy * vz - uz * vy;
+        double y = uz * vx - ux * vz;
+        double z = ux * vy - uy * vx;
+
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    private static boolean hasNotMoved(RigidBody rigidBody, Vec3 lastPosition, Quaternion lastOrientation) {
+        if (!rigidBody.hasFiniteMass()) return true;
+
+        Quaternion orientation = rigidBody.getOrientation();
+        double dot = orientation.w * lastOrientation.w + orientation.x * lastOrientation.x + orientation.y * lastOrientation.y + orientation.z * lastOrientation.z;
+
+        return rigidBody.getPosition().distance(lastPosition) <= LINEAR_REUSE_TOLERANCE && 1.0 - Math.abs(dot) <= ANGULAR_REUSE_TOLERANCE;
+    }
+
+    private static class ManifoldPoint {
+        private RigidBody rigidBody1;
+        private RigidBody rigidBody2;
+        private final Vec3 localPoint1 = new Vec3(0.0, 0.0, 0.0);
+        private final Vec3 localPoint2 = new Vec3(0.0, 0.0, 0.0);
+        private final Vec3 localNormal2 = new Vec3(0.0, 0.0, 0.0);
+        private final Vec3 normal = new Vec3(0.0, 0.0, 0.0);
+        private final Vec3 worldPoint = new Vec3(0.0, 0.0, 0.0);
+        private double initialPenetration;
+        private double penetration;
+        private double restitution;
+        private int feature;
+
+        private void set(RigidBodyCollision collision) {
+            this.rigidBody1 = collision.rigidBody1;
+            this.rigidBody2 = collision.rigidBody2;
+            this.rigidBody1.getPointInLocalSpaceInto(collision.contactPoint, this.localPoint1);
+            this.rigidBody2.getPointInLocalSpaceInto(collision.contactPoint, this.localPoint2);
+            this.rigidBody2.getRotationMatrix().transformTransposedInto(collision.contactNormal, this.localNormal2);
+            this.normal.set(collision.contactNormal);
+            this.worldPoint.set(collision.contactPoint);
+            this.initialPenetration = collision.penetration;
+            this.penetration = collision.penetration;
+            this.restitution = collision.restitution;
+            this.feature = collision.feature;
+        }
+
+        /**
+         * Both local points coincide when the point is created. Afterwards, the normal turns with the second rigid body and the penetration changes by
+         * the distance the local points have moved apart along it.
+         *
+         * @return {@code false} if the point has become invalid
+         */
+        private boolean refresh() {
+            Scratch scratch = Scratch.get();
+            scratch.push();
+
+            this.rigidBody2.getRotationMatrix().transformInto(this.localNormal2, this.normal);
+            Vec3 point1 = this.rigidBody1.getPointInWorldSpaceInto(this.localPoint1, scratch.vec3());
+            Vec3 point2 = this.rigidBody2.getPointInWorldSpaceInto(this.localPoint2, scratch.vec3());
+            Vec3 deltaVector = point1.subInto(point2, scratch.vec3()); // point2 -> point1
+
+            double separation = deltaVector.dot(this.normal);
+            this.penetration = this.initialPenetration - separation;
+
+            deltaVector.increment(this.normal, -separation); // the tangential part remains
+            boolean valid = this.penetration >= -CONTACT_BREAKING_THRESHOLD && deltaVector.dot(deltaVector) <= CONTACT_BREAKING_THRESHOLD * CONTACT_BREAKING_THRESHOLD;
+
+            if (valid) {
+                point1.addInto(point2, this.worldPoint).scale(0.5);
+            }
+
+            scratch.pop();
+            return valid;
+        }
+
+        private void clear() {
+            this.rigidBody1 = null;
+            this.rigidBody2 = null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package physicsengine.physics.rigidbody;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An iterative sequential impulse solver for all collisions of a step, including the ones created by constraints.
+ *
+ * <p>Resolving each collision only once makes the result depend on the order of the collisions, since an impulse on one contact changes the velocities at all other contacts of the same rigid bodies.
+ * The solver therefore sweeps over all collisions several times and accumulates the impulse of every contact. The accumulated impulse of a regular contact is clamped to be non-negative,
+ * so an iteration may take back impulse from an earlier one, but never pulls two rigid bodies together.</p>
+ *
+ * <p>Contacts are matched with the contacts of the previous step by {@link RigidBodyCollision#getContactId()}. Matching contacts start with the impulse they ended up with in the previous step (warm starting).
+ * For resting contacts this impulse is already close to the solution, so few iterations suffice to converge.</p>
+ *
+ * <p>Given the {@link Islands} of a step, independent islands are solved concurrently on a {@link ForkJoinPool}. Since islands share no movable rigid bodies,
+ * the result is the same as solving them one after another. The rigid bodies they do share are only read from their {@link physicsengine.physics.BodyStore},
+ * never through accessors that refresh cached state.</p>
+ */
+public class ContactSolver {
+    public static final int DEFAULT_ITERATIONS = 10;
+    /**
+     * Steps with fewer collisions are solved on the calling thread, since distributing them would cost more than it saves.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+    private int iterations = DEFAULT_ITERATIONS;
+    private boolean warmStarting = true;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private ImpulseCache previousImpulses = new ImpulseCache();
+    private ImpulseCache currentImpulses = new ImpulseCache();
+    private int[] order = new int[0];
+
+    /**
+     * Solves all collisions as a single island.
+     */
+    public void solve(CollisionData collisionData) {
+        int size = collisionData.size();
+
+        if (this.order.length < size) {
+            this.order = new int[Math.max(size, this.order.length * 2)];
+
+            for (int i = 0; i < this.order.length; ++i) {
+                this.order[i] = i;
+            }
+        }
+
+        this.solveIsland(collisionData, this.order, 0, size);
+        this.storeImpulses(collisionData);
+    }
+
+    /**
+     * Solves the collisions of every island, running independent islands concurrently if the step holds enough collisions.
+     */
+    public void solve(CollisionData collisionData, Islands islands) {
+        int islandCount = islands.getIslandCount();
+
+        if (islandCount > 1 && collisionData.size() >= this.parallelThreshold) {
+            this.pool.invoke(new IslandTask(collisionData, islands, 0, islandCount));
+        } else {
+            for (int island = 0; island < islandCount; ++island) {
+                this.solveIsland(collisionData, islands.getContactOrder(), islands.getContactStart(island), islands.getContactEnd(island));
+            }
+        }
+
+        this.storeImpulses(collisionData);
+    }
+
+    public int getParallelThreshold() {
+        return this.parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public ForkJoinPool getPool() {
+        return this.pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Solves the collisions {@code order[from]} to {@code order[to - 1]}. Only reads the impulses of the previous step, so several islands may be solved at once.
+     */
+    private void solveIsland(CollisionData collisionData, int[] order, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            collisionData.get(order[i]).storePositions();
+        }
+
+        for (int i = from; i < to; ++i) {
+            collisionData.get(order[i]).resolveInterpenetration();
+        }
+
+        for (int i = from; i < to; ++i) {
+            RigidBodyCollision collision = collisionData.get(order[i]);
+            collision.prepare();
+
+            if (this.warmStarting) {
+                collision.normalImpulse = this.previousImpulses.get(collision.getContactId());
+                collision.applyImpulse(collision.normalImpulse);
+            }
+        }
+
+        for (int iteration = 0; iteration < this.iterations; ++iteration) {
+            for (int i = from; i < to; ++i) {
+                collisionData.get(order[i]).solve();
+            }
+        }
+    }
+
+    private void storeImpulses(CollisionData collisionData) {
+        int size = collisionData.size();
+        this.currentImpulses.clear();
+
+        for (int i = 0; i < size; ++i) {
+            RigidBodyCollision collision = collisionData.get(i);
+            this.currentImpulses.put(collision.getContactId(), collision.normalImpulse);
+        }
+
+        ImpulseCache impulses = this.previousImpulses;
+        this.previousImpulses = this.currentImpulses;
+        this.currentImpulses = impulses;
+    }
+
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    public void setIterations(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("ContactSolver requires at least one iteration!");
+
+        this.iterations = iterations;
+    }
+
+    public boolean isWarmStarting() {
+        return this.warmStarting;
+    }
+
+    public void setWarmStarting(boolean warmStarting) {
+        this.warmStarting = warmStarting;
+    }
+
+    /**
+     * Recursively splits a range of islands until it holds few enough collisions to be solved by a single thread.
+     */
+    private class IslandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int GRAIN = 64;
+        private final CollisionData collisionData;
+        private final Islands islands;
+        private final int from;
+        private final int to;
+
+        private IslandTask(CollisionData collisionData, Islands islands, int from, int to) {
+            this.collisionData = collisionData;
+            this.islands = islands;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int contacts = this.islands.getContactEnd(this.to - 1) - this.islands.getContactStart(this.from);
+
+            if (this.to - this.from == 1 || contacts <= GRAIN) {
+                for (int island = this.from; island < this.to; ++island) {
+                    ContactSolver.this.solveIsland(this.collisionData, this.islands.getContactOrder(), this.islands.getContactStart(island), this.islands.getContactEnd(island));
+                }
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new IslandTask(this.collisionData, this.islands, this.from, middle), new IslandTask(this.collisionData, this.islands, middle, this.to));
+            }
+        }
+    }
+
+    /**
+     * An open-addressing hash table that maps contact ids to accumulated impulses.
+     */
+    private static class ImpulseCache {
+        private static final long EMPTY_KEY = -1L;
+        private long[] keys = new long[256];
+        private double[] impulses = new double[256];
+        private int size = 0;
+
+        private ImpulseCache() {
+            Arrays.fill(this.keys, EMPTY_KEY);
+        }
+
+        private double get(long key) {
+            int mask = this.keys.length - 1;
+            int slot = hash(key) & mask;
+
+            while (this.keys[slot] != EMPTY_KEY) {
+                if (this.keys[slot] == key) return this.impulses[slot];
+
+                slot = (slot + 1) & mask;
+            }
+
+            return 0.0;
+        }
+
+        private void put(long key, double impulse) {
+            if ((this.size + 1) * 2 > this.keys.length) {
+                this.resize();
+            }
+
+            int mask = this.keys.length - 1;
+            int slot = hash(key) & mask;
+
+            while (this.keys[slot] != EMPTY_KEY && this.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (this.keys[slot] == EMPTY_KEY) ++this.size;
+
+            this.keys[slot] = key;
+            this.impulses[slot] = impulse;
+        }
+
+        private void clear() {
+            if (this.size > 0) {
+                Arrays.fill(this.keys, EMPTY_KEY);
+                this.size = 0;
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = this.keys;
+            double[] oldImpulses = this.impulses;
+            this.keys = new long[oldKeys.length * 2];
+            this.impulses = new double[oldImpulses.length * 2];
+            Arrays.fill(this.keys, EMPTY_KEY);
+            this.size = 0;
+
+            for (int i = 0; i < oldKeys.length; ++i) {
+                if (oldKeys[i] != EMPTY_KEY) {
+                    this.put(oldKeys[i], oldImpulses[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return (int)(key ^ (key >>> 32));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package physicsengine.physics.rigidbody;
 
 import physicsengine.math.Mat3;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.colliders.ConvexHullCollider;
 
 public class GeometryProperties {
     public static double calculateCuboidMass(double density, double width, double height, double depth) {
@@ -18,6 +20,52 @@ public class GeometryProperties {
         return density * volume;
     }
 
+    public static double calculateConvexHullMass(double density, ConvexHullCollider hull) {
+        return density * hull.getVolume();
+    }
+
+    /**
+     * The polyhedron is split into one tetrahedron per triangle, with the origin as its fourth vertex. Their signed volumes add up to the volume of
+     * the polyhedron wherever the origin lies.
+     *
+     * @param vertices  the coordinates of the vertices, three per vertex
+     * @param triangles the closed surface of the polyhedron, counter-clockwise when seen from outside
+     */
+    public static double calculatePolyhedronVolume(double[] vertices, int[] triangles) {
+        double volume = 0.0;
+
+        for (int i = 0; i < triangles.length; i += 3) {
+            volume += determinant(vertices, triangles[i], triangles[i + 1], triangles[i + 2]);
+        }
+
+        return volume / 6.0;
+    }
+
+    /**
+     * @see #calculatePolyhedronVolume(double[], int[])
+     */
+    public static Vec3 calculatePolyhedronCenterOfMassInto(double[] vertices, int[] triangles, Vec3 dst) {
+        double volume = 0.0;
+        double x = 0.0;
+        double y = 0.0;
+        double z = 0.0;
+
+        for (int i = 0; i < triangles.length; i += 3) {
+            int a = 3 * triangles[i];
+            int b = 3 * triangles[i + 1];
+            int c = 3 * triangles[i + 2];
+            double determinant = determinant(vertices, triangles[i], triangles[i + 1], triangles[i + 2]);
+            volume += determinant;
+            x += determinant * (vertices[a] + vertices[b] + vertices[c]);
+            y += determinant * (vertices[a + 1] + vertices[b + 1] + vertices[c + 1]);
+            z += determinant * (vertices[a + 2] + vertices[b + 2] + vertices[c + 2]);
+        }
+
+        // The centroid of each tetrahedron is a quarter of the sum of its vertices, one of which is the origin
+        dst.set(x / (4.0 * volume), y / (4.0 * volume), z / (4.0 * volume));
+        return dst;
+    }
+
     public static Mat3 calculateCuboidInertiaTensor(double mass, double width, double height, double depth) {
         return new Mat3((1.0 / 12.0) * mass * (height * height + depth * depth), 0.0, 0.0, 0.0, (1.0 / 12.0) * mass * (width * width + depth * depth), 0.0, 0.0, 0.0, (1.0 / 12.0) * mass * (width * width + height * height));
     }
@@ -32,4 +80,73 @@ public class GeometryProperties {
         double Iy = (1.0 / 2.0) * mass * radius * radius;
         return new Mat3(Ixz, 0.0, 0.0, 0.0, Iy, 0.0, 0.0, 0.0, Ixz);
     }
+
+    /**
+     * @return the inertia tensor of the hull about its center of mass, which is the origin of its local space
+     */
+    public static Mat3 calculateConvexHullInertiaTensor(double mass, ConvexHullCollider hull) {
+        return calculatePolyhedronInertiaTensor(mass, hull.getVertices(), hull.getTriangles());
+    }
+
+    /**
+     * Integrates the second moments of the polyhedron's volume over the same tetrahedra as {@link #calculatePolyhedronVolume(double[], int[])} and
+     * moves them to the center of mass, where the mass is distributed uniformly.
+     *
+     * @return the inertia tensor of the polyhedron about its center of mass
+     */
+    public static Mat3 calculatePolyhedronInertiaTensor(double mass, double[] vertices, int[] triangles) {
+        double volume = 0.0;
+        double cx = 0.0, cy = 0.0, cz = 0.0;
+        double xx = 0.0, yy = 0.0, zz = 0.0, xy = 0.0, xz = 0.0, yz = 0.0;
+
+        for (int i = 0; i < triangles.length; i += 3) {
+            int a = 3 * triangles[i];
+            int b = 3 * triangles[i + 1];
+            int c = 3 * triangles[i + 2];
+            double determinant = determinant(vertices, triangles[i], triangles[i + 1], triangles[i + 2]);
+            double sx = vertices[a] + vertices[b] + vertices[c];
+            double sy = vertices[a + 1] + vertices[b + 1] + vertices[c + 1];
+            double sz = vertices[a + 2] + vertices[b + 2] + vertices[c + 2];
+            volume += determinant;
+            cx += determinant * sx;
+            cy += determinant * sy;
+            cz += determinant * sz;
+
+            // The integral of p * p^T over a tetrahedron with a vertex at the origin is det / 120 * (a a^T + b b^T + c c^T + s s^T), with s = a + b + c
+            xx += determinant * (vertices[a] * vertices[a] + vertices[b] * vertices[b] + vertices[c] * vertices[c] + sx * sx);
+            yy += determinant * (vertices[a + 1] * vertices[a + 1] + vertices[b + 1] * vertices[b + 1] + vertices[c + 1] * vertices[c + 1] + sy * sy);
+            zz += determinant * (vertices[a + 2] * vertices[a + 2] + vertices[b + 2] * vertices[b + 2] + vertices[c + 2] * vertices[c + 2] + sz * sz);
+            xy += determinant * (vertices[a] * vertices[a + 1] + vertices[b] * vertices[b + 1] + vertices[c] * vertices[c + 1] + sx * sy);
+            xz += determinant * (vertices[a] * vertices[a + 2] + vertices[b] * vertices[b + 2] + vertices[c] * vertices[c + 2] + sx * sz);
+            yz += determinant * (vertices[a + 1] * vertices[a + 2] + vertices[b + 1] * vertices[b + 2] + vertices[c + 1] * vertices[c + 2] + sy * sz);
+        }
+
+        volume /= 6.0;
+        cx /= 24.0 * volume;
+        cy /= 24.0 * volume;
+        cz /= 24.0 * volume;
+
+        // Second moments per unit of mass, moved from the origin to the center of mass
+        double s = 1.0 / (120.0 * volume);
+        xx = xx * s - cx * cx;
+        yy = yy * s - cy * cy;
+        zz = zz * s - cz * cz;
+        xy = xy * s - cx * cy;
+        xz = xz * s - cx * cz;
+        yz = yz * s - cy * cz;
+
+        return new Mat3(mass * (yy + zz), -mass * xy, -mass * xz, -mass * xy, mass * (xx + zz), -mass * yz, -mass * xz, -mass * yz, mass * (xx + yy));
+    }
+
+    /**
+     * @return six times the signed volume of the tetrahedron of the vertices a, b, c and the origin
+     */
+    private static double determinant(double[] vertices, int a, int b, int c) {
+        a *= 3;
+        b *= 3;
+        c *= 3;
+        return vertices[a] * (vertices[b + 1] * vertices[c + 2] - vertices[b + 2] * vertices[c + 1])
+                + vertices[a + 1] * (vertices[b + 2] * vertices[c] - vertices[b] * vertices[c + 2])
+                + vertices[a + 2] * (vertices[b] * vertices[c + 1] - vertices[b + 1] * vertices[c]);
+    }
 }
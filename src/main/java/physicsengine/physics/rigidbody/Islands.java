@@ -0,0 +1,247 @@
+package physicsengine.physics.rigidbody;
+
+import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Partitions the rigid bodies of a step into simulation islands: groups of rigid bodies that are connected by collisions, constraints or springs.
+ *
+ * <p>Islands are built with union-find. Rigid bodies of infinite mass, like the ground, and selected rigid bodies do not connect islands,
+ * since nothing that happens in one island can move them. Consequently, no two islands share a rigid body whose state is changed while solving collisions,
+ * which allows the {@link ContactSolver} to solve independent islands concurrently.</p>
+ *
+ * <p>An island only falls asleep as a whole, once all of its rigid bodies have been resting. If any rigid body of an island is still moving, the sleeping rigid bodies of that island are woken up.</p>
+ */
+public class Islands {
+    private List<RigidBody> rigidBodies = List.of();
+    private int[] parents = new int[64];
+    private int[] sizes = new int[64];
+    private int[] bodyIslands = new int[64];
+    private int[] bodyStarts = new int[65];
+    private int[] bodyOrder = new int[64];
+    private int[] contactIslands = new int[128];
+    private int[] contactStarts = new int[65];
+    private int[] contactOrder = new int[128];
+    private int islandCount = 0;
+
+    /**
+     * Builds the islands of the current step. Must be called after all collisions of the step have been added to the collision data.
+     *
+     * @param springs the springs between rigid bodies, springs between rigid bodies of another scene are ignored
+     */
+    public void build(List<RigidBody> rigidBodies, CollisionData collisionData, List<Constraint> constraints, List<RigidBodySpringForce> springs) {
+        int bodyCount = rigidBodies.size();
+        int contactCount = collisionData.size();
+        this.rigidBodies = rigidBodies;
+        this.ensureCapacity(bodyCount, contactCount);
+
+        for (int i = 0; i < bodyCount; ++i) {
+            rigidBodies.get(i).islandIndex = i;
+            this.parents[i] = i;
+            this.sizes[i] = 1;
+        }
+
+        for (int i = 0; i < contactCount; ++i) {
+            RigidBodyCollision collision = collisionData.get(i);
+            this.union(collision.rigidBody1, collision.rigidBody2);
+        }
+
+        for (int i = 0; i < constraints.size(); ++i) {
+            Constraint constraint = constraints.get(i);
+            this.union(constraint.getRigidBody1(), constraint.getRigidBody2());
+        }
+
+        for (int i = 0; i < springs.size(); ++i) {
+            RigidBodySpringForce spring = springs.get(i);
+            this.union(spring.rigidBody1(), spring.rigidBody2());
+        }
+
+        // Assign consecutive island numbers to the roots and count the rigid bodies of each island
+        this.islandCount = 0;
+        Arrays.fill(this.bodyIslands, 0, bodyCount, -1);
+
+        for (int i = 0; i < bodyCount; ++i) {
+            if (!canJoin(rigidBodies.get(i))) continue;
+
+            int root = this.find(i);
+
+            if (this.bodyIslands[root] < 0) {
+                this.bodyIslands[root] = this.islandCount++;
+            }
+
+            this.bodyIslands[i] = this.bodyIslands[root];
+        }
+
+        this.ensureIslandCapacity();
+        Arrays.fill(this.bodyStarts, 0, this.islandCount + 1, 0);
+        Arrays.fill(this.contactStarts, 0, this.islandCount + 1, 0);
+
+        for (int i = 0; i < bodyCount; ++i) {
+            if (this.bodyIslands[i] >= 0) ++this.bodyStarts[this.bodyIslands[i] + 1];
+        }
+
+        for (int i = 0; i < contactCount; ++i) {
+            RigidBodyCollision collision = collisionData.get(i);
+            int island = this.getIsland(collision.rigidBody1);
+
+            if (island < 0) island = this.getIsland(collision.rigidBody2);
+
+            this.contactIslands[i] = island;
+
+            if (island >= 0) ++this.contactStarts[island + 1];
+        }
+
+        // Counting sort keeps the original order within each island, so the result does not depend on how the islands are scheduled
+        for (int i = 0; i < this.islandCount; ++i) {
+            this.bodyStarts[i + 1] += this.bodyStarts[i];
+            this.contactStarts[i + 1] += this.contactStarts[i];
+        }
+
+        int[] bodyOffsets = this.parents; // The union-find forest is no longer needed
+        int[] contactOffsets = this.sizes;
+        System.arraycopy(this.bodyStarts, 0, bodyOffsets, 0, this.islandCount);
+        System.arraycopy(this.contactStarts, 0, contactOffsets, 0, this.islandCount);
+
+        for (int i = 0; i < bodyCount; ++i) {
+            if (this.bodyIslands[i] >= 0) this.bodyOrder[bodyOffsets[this.bodyIslands[i]]++] = i;
+        }
+
+        for (int i = 0; i < contactCount; ++i) {
+            if (this.contactIslands[i] >= 0) this.contactOrder[contactOffsets[this.contactIslands[i]]++] = i;
+        }
+    }
+
+    /**
+     * Samples the sleep state of every rigid body and lets each island fall asleep or wake up as a whole.
+     */
+    public void updateSleepStates() {
+        for (int island = 0; island < this.islandCount; ++island) {
+            boolean resting = true;
+
+            for (int i = this.bodyStarts[island]; i < this.bodyStarts[island + 1]; ++i) {
+                resting &= this.rigidBodies.get(this.bodyOrder[i]).updateSleepState();
+            }
+
+            for (int i = this.bodyStarts[island]; i < this.bodyStarts[island + 1]; ++i) {
+                RigidBody rigidBody = this.rigidBodies.get(this.bodyOrder[i]);
+
+                if (resting) {
+                    if (rigidBody.isAwake()) rigidBody.setAwake(false);
+                } else if (!rigidBody.isAwake()) {
+                    rigidBody.setAwake(true);
+                }
+            }
+        }
+    }
+
+    public int getIslandCount() {
+        return this.islandCount;
+    }
+
+    /**
+     * @return the index of the first collision of the given island in {@link #getContactOrder()}
+     */
+    public int getContactStart(int island) {
+        return this.contactStarts[island];
+    }
+
+    /**
+     * @return the index after the last collision of the given island in {@link #getContactOrder()}
+     */
+    public int getContactEnd(int island) {
+        return this.contactStarts[island + 1];
+    }
+
+    /**
+     * @return the indices of all collisions in the collision data, grouped by island. Collisions between two rigid bodies that cannot be moved belong to no island and are omitted.
+     */
+    public int[] getContactOrder() {
+        return this.contactOrder;
+    }
+
+    /**
+     * @return the number of rigid bodies in the given island
+     */
+    public int getSize(int island) {
+        return this.bodyStarts[island + 1] - this.bodyStarts[island];
+    }
+
+    /**
+     * @return the island of the given rigid body, or {@code -1} if it belongs to no island
+     */
+    public int getIsland(RigidBody rigidBody) {
+        int index = this.indexOf(rigidBody);
+        return index < 0 ? -1 : this.bodyIslands[index];
+    }
+
+    private void union(RigidBody rigidBody1, RigidBody rigidBody2) {
+        int index1 = this.indexOf(rigidBody1);
+        int index2 = this.indexOf(rigidBody2);
+
+        if (index1 < 0 || index2 < 0 || !canJoin(rigidBody1) || !canJoin(rigidBody2)) return;
+
+        int root1 = this.find(index1);
+        int root2 = this.find(index2);
+
+        if (root1 == root2) return;
+
+        // Union by size keeps the trees flat
+        if (this.sizes[root1] < this.sizes[root2]) {
+            int root = root1;
+            root1 = root2;
+            root2 = root;
+        }
+
+        this.parents[root2] = root1;
+        this.sizes[root1] += this.sizes[root2];
+    }
+
+    private int find(int index) {
+        while (this.parents[index] != index) {
+            this.parents[index] = this.parents[this.parents[index]]; // Path halving
+            index = this.parents[index];
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the index of the rigid body in the rigid bodies of the current step, or {@code -1} if it is not part of them
+     */
+    private int indexOf(RigidBody rigidBody) {
+        int index = rigidBody.islandIndex;
+        return index >= 0 && index < this.rigidBodies.size() && this.rigidBodies.get(index) == rigidBody ? index : -1;
+    }
+
+    private void ensureCapacity(int bodyCount, int contactCount) {
+        if (this.parents.length < bodyCount) {
+            int capacity = Math.max(bodyCount, this.parents.length * 2);
+            this.parents = new int[capacity];
+            this.sizes = new int[capacity];
+            this.bodyIslands = new int[capacity];
+            this.bodyOrder = new int[capacity];
+        }
+
+        if (this.contactIslands.length < contactCount) {
+            int capacity = Math.max(contactCount, this.contactIslands.length * 2);
+            this.contactIslands = new int[capacity];
+            this.contactOrder = new int[capacity];
+        }
+    }
+
+    private void ensureIslandCapacity() {
+        if (this.bodyStarts.length < this.islandCount + 1) {
+            this.bodyStarts = new int[this.parents.length + 1];
+            this.contactStarts = new int[this.parents.length + 1];
+        }
+    }
+
+    /**
+     * Rigid bodies that cannot be moved by collisions do not connect islands. Sleeping rigid bodies do, so they are woken up together with their island.
+     */
+    private static boolean canJoin(RigidBody rigidBody) {
+        return !rigidBody.isSelected() && Double.isFinite(rigidBody.getMass());
+    }
+}
@@ -0,0 +1,63 @@
+package physicsengine.physics.rigidbody;
+
+import physicsengine.physics.PairTable;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The contact manifolds of all rigid body pairs in a {@link PairTable}, keyed on the ids of both rigid bodies regardless of their order.
+ * Every manifold that is not requested during a step is considered stale and dropped by {@link #removeUnused()}. Dropped manifolds are kept in a pool
+ * and handed out again for new pairs.
+ */
+public class ManifoldCache {
+    private final PairTable<ContactManifold> manifolds = new PairTable<>();
+    private final Consumer<ContactManifold> release = this::release;
+    private ContactManifold[] pool = new ContactManifold[16];
+    private int poolSize = 0;
+
+    /**
+     * Returns the manifold of a rigid body pair, creating an empty one if the pair has none yet, and marks it as used during the current step.
+     */
+    public ContactManifold get(RigidBody rigidBody1, RigidBody rigidBody2) {
+        ContactManifold manifold = this.manifolds.mark(rigidBody1.getId(), rigidBody2.getId());
+
+        if (manifold != null) return manifold;
+
+        if (this.poolSize > 0) {
+            manifold = this.pool[--this.poolSize];
+            this.pool[this.poolSize] = null;
+            manifold.reset(rigidBody1, rigidBody2);
+        } else {
+            manifold = new ContactManifold(rigidBody1, rigidBody2);
+        }
+
+        this.manifolds.put(rigidBody1.getId(), rigidBody2.getId(), manifold);
+        return manifold;
+    }
+
+    /**
+     * Removes all manifolds that have not been requested since the last call and clears the marks of the remaining manifolds.
+     */
+    public void removeUnused() {
+        this.manifolds.removeUnmarked(this.release);
+    }
+
+    public void clear() {
+        this.manifolds.clear(this.release);
+    }
+
+    public int size() {
+        return this.manifolds.size();
+    }
+
+    private void release(ContactManifold manifold) {
+        manifold.reset(null, null);
+
+        if (this.poolSize == this.pool.length) {
+            this.pool = Arrays.copyOf(this.pool, this.pool.length * 2);
+        }
+
+        this.pool[this.poolSize++] = manifold;
+    }
+}
@@ -3,59 +3,141 @@ package physicsengine.physics.rigidbody;
 import physicsengine.editor.Editable;
 import physicsengine.math.Mat3;
 import physicsengine.math.Quaternion;
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
 import physicsengine.math.boundingvolumes.BoundingVolume;
+import physicsengine.physics.BodyStore;
+import physicsengine.physics.Material;
 import physicsengine.physics.PhysicsObject;
+import physicsengine.physics.StepContext;
+import physicsengine.physics.optimization.Tracker;
 import physicsengine.physics.rigidbody.colliders.Collider;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle to the state of a rigid body in a {@link BodyStore}. The vectors returned by the getters are copies of that state, which are refreshed on every call
+ * and are reused by this rigid body; changing them has no effect.
+ *
+ * <p>The rotation matrix, its inverse and the world space inverse inertia tensor are derived from the orientation when they are first needed and are cached
+ * until the orientation changes, so that e.g. a rigid body with ten contacts computes its world space inverse inertia tensor once per step instead of ten times.</p>
+ */
 public class RigidBody implements PhysicsObject, Editable {
     public static final boolean HIGHLIGHT_RIGID_BODY_COLLISIONS = false;
     public static final int COLLISION_MARKER_NONE = 0;
     public static final int COLLISION_MARKER_BROAD = 1;
     public static final int COLLISION_MARKER_COLLISION = 2;
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private final int id = NEXT_ID.getAndIncrement();
     private final double mass;
     private final Mat3 inverseInertiaTensor;
     private final Collider collider;
 
+    private final BodyStore.Slot slot;
+
+    // Copies of the state in the body store, see getPosition()
     private final Vec3 position = new Vec3(0.0, 0.0, 0.0);
     private final Vec3 velocity = new Vec3(0.0, 0.0, 0.0);
-    private final Vec3 force = new Vec3(0.0, 0.0, 0.0);
-
     private final Quaternion orientation = new Quaternion(1.0, 0.0, 0.0, 0.0);
-    private final Vec3 angularVelocity = new Vec3(0.0, 0.0, 0.0); // angular velocity
-    private final Vec3 torque = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 angularVelocity = new Vec3(0.0, 0.0, 0.0);
+
+    // Derived from the orientation, see getRotationMatrix()
+    private final Quaternion derivedOrientation = new Quaternion(Double.NaN, 0.0, 0.0, 0.0); // the orientation the matrices were derived from, NaN if none
+    private final Mat3 rotationMatrix = new Mat3();
+    private final Mat3 inverseRotationMatrix = new Mat3();
+    private final Mat3 worldSpaceInverseInertiaTensor = new Mat3();
+    private boolean worldSpaceInverseInertiaTensorValid = false;
+
+    private final Tracker linearTracker = new Tracker(PhysicsObject.SLEEP_SAMPLES);
+    private final Tracker angularTracker = new Tracker(PhysicsObject.SLEEP_SAMPLES);
+    private boolean awake = true;
 
     private boolean selected = false;
     public int collisionMarker = COLLISION_MARKER_NONE;
+    int islandIndex = -1; // The index of this rigid body while the islands of a step are built, see Islands
 
     public RigidBody(double mass, Collider collider, Mat3 inverseInertiaTensor) {
         this.mass = mass;
         this.inverseInertiaTensor = inverseInertiaTensor;
         this.collider = collider;
+        this.slot = new BodyStore(1).add(mass, inverseInertiaTensor);
+        this.slot.setDynamic(this.hasFiniteMass());
+        this.linearTracker.reset(2.0 * PhysicsObject.SLEEP_VELOCITY);
+        this.angularTracker.reset(2.0 * PhysicsObject.SLEEP_VELOCITY);
     }
 
     public RigidBody(Collider collider) {
         this(Double.POSITIVE_INFINITY, collider, null);
     }
 
+    /**
+     * Integrates this rigid body on its own. A scene integrates all its bodies at once, see {@link BodyStore#integrate(StepContext)}.
+     */
     @Override
-    public void integrate(double dt) {
-        if (!this.hasFiniteMass()) return;
+    public void integrate(StepContext context) {
+        this.slot.integrate(context);
+    }
+
+    /**
+     * @return the material that determines the damping of this rigid body, {@link Material#DEFAULT} unless another material has been set
+     */
+    public Material getMaterial() {
+        return this.slot.getMaterial();
+    }
 
-        Vec3 acceleration = this.force.mul(1.0 / this.mass);
-        this.velocity.increment(acceleration.mul(dt));
-        this.velocity.scale(Math.pow(PhysicsObject.LINEAR_DAMPING_PER_SECOND, dt));
-        this.position.increment(this.velocity.mul(dt));
+    public void setMaterial(Material material) {
+        this.slot.setMaterial(material);
+    }
 
-        Vec3 angularAcceleration = this.inverseInertiaTensor.transform(this.torque);
-        this.angularVelocity.increment(angularAcceleration.mul(dt));
-        this.angularVelocity.scale(Math.pow(PhysicsObject.ANGULAR_DAMPING_PER_SECOND, dt));
-        this.orientation.addScaledVector(this.angularVelocity, dt);
+    /**
+     * @return the entry of this rigid body in the body store of its scene
+     */
+    public BodyStore.Slot getSlot() {
+        return this.slot;
+    }
+
+    @Override
+    public boolean updateSleepState() {
+        if (!this.awake) return true;
 
-        this.force.set(0.0, 0.0, 0.0);
-        this.torque.set(0.0, 0.0, 0.0);
+        if (!this.hasFiniteMass()) return false;
 
-        this.orientation.normalize();
+        this.linearTracker.update(this.getVelocity());
+        this.angularTracker.update(this.getAngularVelocity());
+
+        return this.linearTracker.canSleep(PhysicsObject.SLEEP_VELOCITY) && this.angularTracker.canSleep(PhysicsObject.SLEEP_VELOCITY);
+    }
+
+    @Override
+    public boolean isAwake() {
+        return this.awake;
+    }
+
+    @Override
+    public void setAwake(boolean awake) {
+        if (awake) {
+            if (!this.awake) {
+                this.linearTracker.reset(2.0 * PhysicsObject.SLEEP_VELOCITY);
+                this.angularTracker.reset(2.0 * PhysicsObject.SLEEP_VELOCITY);
+            }
+        } else {
+            this.slot.stop();
+        }
+
+        this.awake = awake;
+        this.slot.setDynamic(this.hasFiniteMass());
+    }
+
+    @Override
+    public boolean isMoving() {
+        return PhysicsObject.super.isMoving() || this.slot.dotAngularVelocity(this.getAngularVelocity()) > PhysicsObject.SLEEP_VELOCITY * PhysicsObject.SLEEP_VELOCITY;
+    }
+
+    /**
+     * @return a number that uniquely identifies this rigid body for the lifetime of the application
+     */
+    public int getId() {
+        return this.id;
     }
 
     @Override
@@ -65,40 +147,111 @@ public class RigidBody implements PhysicsObject, Editable {
 
     @Override
     public Vec3 getPosition() {
-        return this.position;
+        return this.slot.getPosition(this.position);
     }
 
     @Override
     public void setPosition(Vec3 position) {
-        this.position.set(position);
+        this.slot.setPosition(position.x, position.y, position.z);
+    }
+
+    @Override
+    public void setPosition(double x, double y, double z) {
+        this.slot.setPosition(x, y, z);
+    }
+
+    /**
+     * Moves this rigid body by the vector {@code v} scaled by {@code t}.
+     */
+    public void translate(Vec3 v, double t) {
+        this.slot.translate(v, t);
     }
 
     @Override
     public Vec3 getVelocity() {
-        return this.velocity;
+        return this.slot.getVelocity(this.velocity);
     }
 
     @Override
     public void setVelocity(Vec3 velocity) {
-        this.velocity.set(velocity);
+        this.slot.setVelocity(velocity.x, velocity.y, velocity.z);
+    }
+
+    @Override
+    public void setVelocity(double x, double y, double z) {
+        this.slot.setVelocity(x, y, z);
     }
 
     @Override
     public Quaternion getOrientation() {
-        return this.orientation;
+        return this.slot.getOrientation(this.orientation);
     }
 
     @Override
     public void setOrientation(Quaternion orientation) {
-        this.orientation.set(orientation);
+        double squaredLength = orientation.w * orientation.w + orientation.x * orientation.x + orientation.y * orientation.y + orientation.z * orientation.z;
+        double l = squaredLength != 0.0 ? 1.0 / Math.sqrt(squaredLength) : 1.0;
+        this.slot.setOrientation(orientation.w * l, orientation.x * l, orientation.y * l, orientation.z * l);
+        this.derivedOrientation.w = Double.NaN;
+    }
+
+    /**
+     * @return the rotation matrix of the orientation, which is cached and must not be modified
+     */
+    public Mat3 getRotationMatrix() {
+        this.updateDerivedState();
+        return this.rotationMatrix;
+    }
+
+    /**
+     * @return the inverse (transposed) rotation matrix of the orientation, which is cached and must not be modified
+     */
+    public Mat3 getInverseRotationMatrix() {
+        this.updateDerivedState();
+        return this.inverseRotationMatrix;
+    }
+
+    /**
+     * @return R I^-1 R^T, which is cached and must not be modified, or the zero matrix if this rigid body does not rotate
+     */
+    public Mat3 getWorldSpaceInverseInertiaTensor() {
+        this.updateDerivedState();
+
+        if (!this.worldSpaceInverseInertiaTensorValid) {
+            if (this.inverseInertiaTensor != null) {
+                this.rotationMatrix.mulInto(this.inverseInertiaTensor, this.worldSpaceInverseInertiaTensor).mulInto(this.inverseRotationMatrix, this.worldSpaceInverseInertiaTensor);
+            } else {
+                this.worldSpaceInverseInertiaTensor.set(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+            }
+
+            this.worldSpaceInverseInertiaTensorValid = true;
+        }
+
+        return this.worldSpaceInverseInertiaTensor;
+    }
+
+    /**
+     * Derives the rotation matrices again if the orientation has changed, by integration or by {@link #setOrientation(Quaternion)}.
+     * The world space inverse inertia tensor is only derived on demand, since e.g. the narrow phase needs the rotation matrix alone.
+     */
+    private void updateDerivedState() {
+        Quaternion orientation = this.getOrientation();
+        Quaternion derived = this.derivedOrientation;
+
+        if (orientation.w == derived.w && orientation.x == derived.x && orientation.y == derived.y && orientation.z == derived.z) return;
+
+        orientation.getMatrixInto(this.rotationMatrix);
+        this.rotationMatrix.transposeInto(this.inverseRotationMatrix);
+        this.worldSpaceInverseInertiaTensorValid = false;
+        derived.set(orientation); // last, after the matrices are complete
     }
 
     public Vec3 getAngularVelocity() {
-        return this.angularVelocity;
+        return this.slot.getAngularVelocity(this.angularVelocity);
     }
 
     public void setAngularVelocity(Vec3 angularVelocity) {
-        this.angularVelocity.set(angularVelocity);
+        this.slot.setAngularVelocity(angularVelocity.x, angularVelocity.y, angularVelocity.z);
     }
 
     /**
@@ -108,7 +261,7 @@ public class RigidBody implements PhysicsObject, Editable {
      */
     @Override
     public void addForce(Vec3 force) {
-        this.force.increment(force);
+        this.slot.addForce(force.x, force.y, force.z);
     }
 
     /**
@@ -118,10 +271,13 @@ public class RigidBody implements PhysicsObject, Editable {
      * @param point a point in world coordinates where the force is applied
      */
     public void addForce(Vec3 force, Vec3 point) {
-        Vec3 relativeVector = point.sub(this.position);
+        Vec3 position = this.getPosition();
+        double rx = point.x - position.x;
+        double ry = point.y - position.y;
+        double rz = point.z - position.z;
 
-        this.force.increment(force);
-        this.torque.increment(relativeVector.cross(force));
+        this.slot.addForce(force.x, force.y, force.z);
+        this.slot.addTorque(ry * force.z - rz * force.y, rz * force.x - rx * force.z, rx * force.y - ry * force.x);
     }
 
     /**
@@ -131,12 +287,16 @@ public class RigidBody implements PhysicsObject, Editable {
      * @param point a point in local coordinates where the force is applied
      */
     public void addForceAtLocalPoint(Vec3 force, Vec3 point) {
-        this.addForce(force, this.getPointInWorldSpace(point));
+        Scratch scratch = Scratch.get();
+        scratch.push();
+        this.addForce(force, this.getPointInWorldSpaceInto(point, scratch.vec3()));
+        scratch.pop();
     }
 
     @Override
     public void select(boolean selected) {
         this.selected = selected;
+        this.setAwake(true);
     }
 
     @Override
@@ -146,7 +306,7 @@ public class RigidBody implements PhysicsObject, Editable {
 
     @Override
     public Vec3 getIntersection(Vec3 origin, Vec3 direction, boolean clip) {
-        return BoundingVolume.getIntersection(this.collider.getBoundingVolume(), origin, direction, clip, this.position, this.orientation);
+        return BoundingVolume.getIntersection(this.collider.getBoundingVolume(), origin, direction, clip, this.getPosition(), this.getRotationMatrix(), this.getInverseRotationMatrix());
     }
 
     public Collider getCollider() {
@@ -158,10 +318,23 @@ public class RigidBody implements PhysicsObject, Editable {
     }
 
     public final Vec3 getPointInWorldSpace(Vec3 point) {
-        return this.orientation.apply(point).add(this.position);
+        return this.getPointInWorldSpaceInto(point, new Vec3(0.0, 0.0, 0.0));
+    }
+
+    public final Vec3 getPointInWorldSpaceInto(Vec3 point, Vec3 dst) {
+        Mat3 rotationMatrix = this.getRotationMatrix();
+        return rotationMatrix.transformInto(point, dst).addInto(this.getPosition(), dst);
     }
 
     public final Vec3 getPointInLocalSpace(Vec3 point) {
-        return this.orientation.invert().apply(point.sub(this.position));
+        return this.getPointInLocalSpaceInto(point, new Vec3(0.0, 0.0, 0.0));
+    }
+
+    /**
+     * Unlike the inverse of a general quaternion, this relies on the orientation being a unit quaternion, which {@link #integrate(StepContext)} maintains.
+     */
+    public final Vec3 getPointInLocalSpaceInto(Vec3 point, Vec3 dst) {
+        Mat3 inverseRotationMatrix = this.getInverseRotationMatrix();
+        return inverseRotationMatrix.transformInto(point.subInto(this.getPosition(), dst), dst);
     }
 }
@@ -1,105 +1,183 @@
 package physicsengine.physics.rigidbody;
 
 import physicsengine.math.Mat3;
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
+import physicsengine.physics.BodyStore;
 
 public class RigidBodyCollision {
     private static final Mat3 ZERO_MATRIX = new Mat3(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
     public static final double DEFAULT_RESTITUTION = 0.4;
+    /**
+     * Contacts that approach each other slower than this velocity do not bounce. Resting contacts would jitter otherwise, since gravity accelerates them into the ground on every step.
+     */
+    public static final double RESTITUTION_VELOCITY_THRESHOLD = 0.5;
     public RigidBody rigidBody1;
     public RigidBody rigidBody2;
-    public Vec3 contactNormal;
-    public Vec3 contactPoint;
+    public final Vec3 contactNormal = new Vec3(0.0, 0.0, 0.0); // points from rigidBody2 towards rigidBody1
+    public final Vec3 contactPoint = new Vec3(0.0, 0.0, 0.0);
     public double restitution;
     public double penetration;
+    /**
+     * Identifies the geometric feature (e.g. the vertex or the pair of edges) that caused the collision, so that the same contact can be recognized in the next step.
+     */
+    public int feature;
+    /**
+     * Bilateral collisions are created by constraints. In contrast to regular contacts, they may pull both rigid bodies towards each other.
+     */
+    public boolean bilateral;
+    /**
+     * The accumulated impulse along the contact normal that has been applied during the current step.
+     */
+    public double normalImpulse;
+
+    private final Vec3 initialPosition1 = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 initialPosition2 = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 normalDirection1 = new Vec3(0.0, 0.0, 0.0); // r1 x n
+    private final Vec3 normalDirection2 = new Vec3(0.0, 0.0, 0.0); // r2 x n
+    private final Vec3 angularDirection1 = new Vec3(0.0, 0.0, 0.0); // I1^-1 (r1 x n)
+    private final Vec3 angularDirection2 = new Vec3(0.0, 0.0, 0.0); // I2^-1 (r2 x n)
+    private double normalMass;
+    private double targetVelocity;
 
     /**
+     * Resolves this collision on its own with a single impulse.
      * <a href="https://en.wikipedia.org/wiki/Collision_response#Impulse-based_contact_model">Source</a>
      */
     public void resolve() {
+        this.storePositions();
         this.resolveInterpenetration();
+        this.prepare();
+        this.normalImpulse = 0.0;
+        this.solve();
+    }
 
-        // The formulas assume that the contact normal is given from the second object's perspective.
-        // Therefore, the contact normal gets inverted.
-        //this.contactNormal.scale(-1.0);
+    /**
+     * Combines both rigid body ids and the feature into a key that is equal for the same contact in two consecutive steps.
+     * Rigid body ids are truncated to 20 bits and the feature to 24 bits.
+     *
+     * @return the persistent id of this contact
+     */
+    public long getContactId() {
+        return ((long)(this.rigidBody1.getId() & 0xFFFFF) << 44) | ((long)(this.rigidBody2.getId() & 0xFFFFF) << 24) | (this.feature & 0xFFFFFF);
+    }
 
-        boolean flag1 = this.rigidBody1.hasFiniteMass();
-        boolean flag2 = this.rigidBody2.hasFiniteMass();
+    /**
+     * Stores the positions of both rigid bodies before any interpenetration of the current step is resolved.
+     */
+    void storePositions() {
+        this.rigidBody1.getSlot().getPosition(this.initialPosition1);
+        this.rigidBody2.getSlot().getPosition(this.initialPosition2);
+    }
 
-        Vec3 r1 = this.contactPoint.sub(this.rigidBody1.getPosition()); // m1 -> contactPoint
-        Vec3 r2 = this.contactPoint.sub(this.rigidBody2.getPosition()); // m2 -> contactPoint
+    /**
+     * Applies a  simple linear projection that may not be the most realistic approach but suffices the needs of resolving interpenetration.
+     * The penetration is reduced by the distance both rigid bodies have already been moved apart since {@link #storePositions()},
+     * so that several contacts between the same rigid bodies do not push them apart several times.
+     */
+    void resolveInterpenetration() {
+        Scratch scratch = Scratch.get();
+        scratch.push();
 
-        Vec3 velocity1 = this.rigidBody1.getVelocity();
-        Vec3 velocity2 = this.rigidBody2.getVelocity();
-        Vec3 angularVelocity1 = this.rigidBody1.getAngularVelocity();
-        Vec3 angularVelocity2 = this.rigidBody2.getAngularVelocity();
+        Vec3 position1 = this.rigidBody1.getSlot().getPosition(scratch.vec3());
+        Vec3 position2 = this.rigidBody2.getSlot().getPosition(scratch.vec3());
+        double movementX = (position1.x - this.initialPosition1.x) - (position2.x - this.initialPosition2.x);
+        double movementY = (position1.y - this.initialPosition1.y) - (position2.y - this.initialPosition2.y);
+        double movementZ = (position1.z - this.initialPosition1.z) - (position2.z - this.initialPosition2.z);
+        double penetration = this.penetration - (movementX * this.contactNormal.x + movementY * this.contactNormal.y + movementZ * this.contactNormal.z);
 
-        Vec3 contactVelocity1 = velocity1.add(angularVelocity1.cross(r1));
-        Vec3 contactVelocity2 = velocity2.add(angularVelocity2.cross(r2));
+        scratch.pop();
 
-        // Step 1
+        if (penetration > 0.0) {
+            double inverseMassSum = this.rigidBody1.getInverseMass() + this.rigidBody2.getInverseMass();
 
-        Vec3 relativeVelocity = contactVelocity2.sub(contactVelocity1);
-        double inverseMass1 = this.rigidBody1.getInverseMass();
-        double inverseMass2 = this.rigidBody2.getInverseMass();
-        Mat3 inverseInertiaTensor1 = flag1 ? this.getWorldSpaceInverseInertiaTensor(this.rigidBody1) : ZERO_MATRIX;
-        Mat3 inverseInertiaTensor2 = flag2 ? this.getWorldSpaceInverseInertiaTensor(this.rigidBody2) : ZERO_MATRIX;
+            if (inverseMassSum == 0.0) return;
 
-        Vec3 totalAngularInertia = new Vec3(0.0, 0.0, 0.0);
+            double movement1 = penetration * (this.rigidBody1.getInverseMass() / inverseMassSum);
+            double movement2 = penetration * (this.rigidBody2.getInverseMass() / inverseMassSum);
 
-        if (flag1) {
-            totalAngularInertia.increment(inverseInertiaTensor1.transform(r1.cross(this.contactNormal)).cross(r1));
+            // Rigid bodies that cannot be moved may be shared between islands that are solved concurrently, so they must not be written to, not even
+            // their cached copies of the position
+            if (movement1 != 0.0) this.rigidBody1.translate(this.contactNormal, movement1);
+            if (movement2 != 0.0) this.rigidBody2.translate(this.contactNormal, -movement2);
         }
+    }
 
-        if (flag2) {
-            totalAngularInertia.increment(inverseInertiaTensor2.transform(r2.cross(this.contactNormal)).cross(r2));
-        }
+    /**
+     * Calculates the quantities that stay constant while the solver iterates: the lever arms, the effective mass along the normal and the target separating velocity.
+     */
+    void prepare() {
+        boolean flag1 = this.rigidBody1.hasFiniteMass();
+        boolean flag2 = this.rigidBody2.hasFiniteMass();
 
-        double j = (-(1.0 + this.restitution) * relativeVelocity.dot(this.contactNormal)) / (inverseMass1 + inverseMass2 + totalAngularInertia.dot(this.contactNormal));
-        Vec3 impulse = this.contactNormal.mul(j);
+        Scratch scratch = Scratch.get();
+        scratch.push();
 
-        // Step 3: Compute linear velocities
+        // Positions are read from the store, since the copy cached by a rigid body is written by every call to getPosition()
+        Vec3 r1 = this.rigidBody1.getSlot().getPosition(scratch.vec3());
+        Vec3 r2 = this.rigidBody2.getSlot().getPosition(scratch.vec3());
+        this.contactPoint.subInto(r1, r1); // m1 -> contactPoint
+        this.contactPoint.subInto(r2, r2); // m2 -> contactPoint
 
-        if (flag1) {
-            Vec3 velocity1p = velocity1.sub(impulse.mul(inverseMass1));
-            this.rigidBody1.setVelocity(velocity1p);
-        }
+        Mat3 inverseInertiaTensor1 = flag1 ? this.rigidBody1.getWorldSpaceInverseInertiaTensor() : ZERO_MATRIX;
+        Mat3 inverseInertiaTensor2 = flag2 ? this.rigidBody2.getWorldSpaceInverseInertiaTensor() : ZERO_MATRIX;
 
-        if (flag2) {
-            Vec3 velocity2p = velocity2.add(impulse.mul(inverseMass2));
-            this.rigidBody2.setVelocity(velocity2p);
-        }
+        r1.crossInto(this.contactNormal, this.normalDirection1);
+        r2.crossInto(this.contactNormal, this.normalDirection2);
+        inverseInertiaTensor1.transformInto(this.normalDirection1, this.angularDirection1);
+        inverseInertiaTensor2.transformInto(this.normalDirection2, this.angularDirection2);
 
-        // Step 4: Compute angular velocities
+        scratch.pop();
 
-        if (flag1) {
-            Vec3 angularVelocity1p = angularVelocity1.sub(inverseInertiaTensor1.transform(r1.cross(impulse)));
-            this.rigidBody1.setAngularVelocity(angularVelocity1p);
-        }
+        double inverseMass = this.rigidBody1.getInverseMass() + this.rigidBody2.getInverseMass() + this.angularDirection1.dot(this.normalDirection1) + this.angularDirection2.dot(this.normalDirection2);
+        this.normalMass = inverseMass > 0.0 ? 1.0 / inverseMass : 0.0;
+
+        double separatingVelocity = this.getSeparatingVelocity();
+        this.targetVelocity = !this.bilateral && separatingVelocity < -RESTITUTION_VELOCITY_THRESHOLD ? -this.restitution * separatingVelocity : 0.0;
+    }
 
-        if (flag2) {
-            Vec3 angularVelocity2p = angularVelocity2.add(inverseInertiaTensor2.transform(r2.cross(impulse)));
-            this.rigidBody2.setAngularVelocity(angularVelocity2p);
+    /**
+     * Performs a single iteration: Applies the impulse that changes the separating velocity to the target velocity,
+     * while the accumulated impulse of a regular contact is clamped so that it never pulls both rigid bodies together.
+     */
+    void solve() {
+        double deltaImpulse = (this.targetVelocity - this.getSeparatingVelocity()) * this.normalMass;
+        double impulse = this.normalImpulse + deltaImpulse;
+
+        if (!this.bilateral) {
+            impulse = Math.max(impulse, 0.0);
         }
+
+        this.applyImpulse(impulse - this.normalImpulse);
+        this.normalImpulse = impulse;
     }
 
     /**
-     * Applies a  simple linear projection that may not be the most realistic approach but suffices the needs of resolving interpenetration.
+     * Applies an impulse along the contact normal, pushing rigidBody1 along the normal and rigidBody2 in the opposite direction.
      */
-    private void resolveInterpenetration() {
-        if (this.penetration > 0.0) {
-            double inverseMassSum = this.rigidBody1.getInverseMass() + this.rigidBody2.getInverseMass();
+    void applyImpulse(double impulse) {
+        if (impulse == 0.0) return;
+
+        if (this.rigidBody1.hasFiniteMass()) {
+            BodyStore.Slot slot = this.rigidBody1.getSlot();
+            slot.addVelocity(this.contactNormal, impulse * this.rigidBody1.getInverseMass());
+            slot.addAngularVelocity(this.angularDirection1, impulse);
+        }
 
-            double movement1 = this.penetration * (this.rigidBody1.getInverseMass() / inverseMassSum);
-            double movement2 = this.penetration * (this.rigidBody2.getInverseMass() / inverseMassSum);
-            this.rigidBody1.setPosition(this.rigidBody1.getPosition().add(this.contactNormal.mul(movement1)));
-            this.rigidBody2.setPosition(this.rigidBody2.getPosition().add(this.contactNormal.mul(-movement2)));
+        if (this.rigidBody2.hasFiniteMass()) {
+            BodyStore.Slot slot = this.rigidBody2.getSlot();
+            slot.addVelocity(this.contactNormal, -impulse * this.rigidBody2.getInverseMass());
+            slot.addAngularVelocity(this.angularDirection2, -impulse);
         }
     }
 
-    private Mat3 getWorldSpaceInverseInertiaTensor(RigidBody rigidBody) {
-        Mat3 orientation = rigidBody.getOrientation().getMatrix();
-        Mat3 inverseInertiaTensor = rigidBody.getInverseInertiaTensor();
-        return orientation.mul(inverseInertiaTensor).mul(orientation.transpose());
+    /**
+     * @return the relative velocity of both contact points along the contact normal, which is negative if the rigid bodies approach each other
+     */
+    private double getSeparatingVelocity() {
+        BodyStore.Slot slot1 = this.rigidBody1.getSlot();
+        BodyStore.Slot slot2 = this.rigidBody2.getSlot();
+        return slot1.dotVelocity(this.contactNormal) + slot1.dotAngularVelocity(this.normalDirection1)
+                - slot2.dotVelocity(this.contactNormal) - slot2.dotAngularVelocity(this.normalDirection2);
     }
 }
@@ -1,9 +1,10 @@
 package physicsengine.physics.rigidbody.colliders;
 
+import physicsengine.math.Mat3;
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
 import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
 import physicsengine.math.boundingvolumes.BoundingVolume;
-import physicsengine.physics.rigidbody.CollisionData;
 import physicsengine.physics.rigidbody.RigidBody;
 
 public class BoxCollider implements Collider {
@@ -31,6 +32,11 @@ public class BoxCollider implements Collider {
         this.boundingVolume = new AxisAlignedBoundingBox(new Vec3(-width / 2.0, -height / 2.0, -depth / 2.0), new Vec3(width / 2.0, height / 2.0, depth / 2.0));
     }
 
+    @Override
+    public int getTypeId() {
+        return CollisionDispatcher.BOX;
+    }
+
     @Override
     public BoundingVolume getBoundingVolume() {
         return this.boundingVolume;
@@ -42,17 +48,32 @@ public class BoxCollider implements Collider {
     }
 
     @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, BoxCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideBoxBox(parent, this, rigidBody, collider, collisionData);
-    }
+    public void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
 
-    @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, SphereCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideBoxSphere(parent, this, rigidBody, collider, collisionData);
+        Mat3 orientation = parent.getRotationMatrix();
+        Vec3 axisX = orientation.getColumnInto(0, scratch.vec3());
+        Vec3 axisY = orientation.getColumnInto(1, scratch.vec3());
+        Vec3 axisZ = orientation.getColumnInto(2, scratch.vec3());
+        Vec3 position = parent.getPosition();
+
+        // Extent of the rotated box along each world axis
+        double extentX = Math.abs(axisX.x) * this.width / 2.0 + Math.abs(axisY.x) * this.height / 2.0 + Math.abs(axisZ.x) * this.depth / 2.0;
+        double extentY = Math.abs(axisX.y) * this.width / 2.0 + Math.abs(axisY.y) * this.height / 2.0 + Math.abs(axisZ.y) * this.depth / 2.0;
+        double extentZ = Math.abs(axisX.z) * this.width / 2.0 + Math.abs(axisY.z) * this.height / 2.0 + Math.abs(axisZ.z) * this.depth / 2.0;
+
+        bounds.set(position.x - extentX, position.y - extentY, position.z - extentZ, position.x + extentX, position.y + extentY, position.z + extentZ);
+        scratch.pop();
     }
 
     @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, PlaneCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideBoxPlane(parent, this, rigidBody, collider, collisionData);
+    public Vec3 supportInto(Vec3 direction, Vec3 dst) {
+        dst.set(
+                direction.x < 0.0 ? -this.width / 2.0 : this.width / 2.0,
+                direction.y < 0.0 ? -this.height / 2.0 : this.height / 2.0,
+                direction.z < 0.0 ? -this.depth / 2.0 : this.depth / 2.0
+        );
+        return dst;
     }
 }
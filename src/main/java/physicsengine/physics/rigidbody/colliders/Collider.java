@@ -1,10 +1,16 @@
 package physicsengine.physics.rigidbody.colliders;
 
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
 import physicsengine.math.boundingvolumes.BoundingVolume;
-import physicsengine.physics.rigidbody.CollisionData;
 import physicsengine.physics.rigidbody.RigidBody;
 
 public interface Collider {
+    /**
+     * @return the type of the collider, which selects the narrow phase routines for it, see {@link CollisionDispatcher}
+     */
+    int getTypeId();
+
     BoundingVolume getBoundingVolume();
 
     /**
@@ -17,9 +23,33 @@ public interface Collider {
      */
     double getMinDiagonalRadius();
 
-    void collide(RigidBody parent, RigidBody rigidBody, BoxCollider collider, CollisionData collisionData);
+    /**
+     * Unbounded colliders, like planes, extend infinitely and are therefore excluded from the spatial subdivision of the broad phase.
+     *
+     * @return {@code true} if the collider occupies a finite region of space
+     */
+    default boolean isBounded() {
+        return true;
+    }
 
-    void collide(RigidBody parent, RigidBody rigidBody, SphereCollider collider, CollisionData collisionData);
+    /**
+     * Calculates the world space axis aligned bounds of the collider at the current position and orientation of its rigid body.
+     * Unbounded colliders span the whole space.
+     *
+     * @param parent the rigid body the collider belongs to
+     * @param bounds receives the world space bounds
+     */
+    void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds);
 
-    void collide(RigidBody parent, RigidBody rigidBody, PlaneCollider collider, CollisionData collisionData);
+    /**
+     * The support point is the point of the collider that lies farthest in the given direction. Convex colliders are fully described by their support
+     * points, which is all {@link ConvexCollision} needs to know about them.
+     *
+     * @param direction a direction in the local space of the collider, not necessarily normalized
+     * @param dst       receives the support point in local space
+     * @throws UnsupportedOperationException if the collider is not convex and bounded
+     */
+    default Vec3 supportInto(Vec3 direction, Vec3 dst) {
+        throw new UnsupportedOperationException(this.getClass().getSimpleName() + " has no support points!");
+    }
 }
@@ -1,7 +1,9 @@
 package physicsengine.physics.rigidbody.colliders;
 
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
 import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
 import physicsengine.physics.rigidbody.RigidBody;
 import physicsengine.physics.rigidbody.RigidBodyCollision;
 import physicsengine.physics.rigidbody.colliders.external.BoxCollision;
@@ -17,83 +19,135 @@ public class CollisionAlgorithms {
         return axis.dot(point);
     }
 
-    public static void collideBoxBox(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, BoxCollider collider2, CollisionData data) {
-        BoxCollision.boxAndBox(rigidBody1, collider1, rigidBody2, collider2, data);
+    public static void collideBoxBox(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, BoxCollider collider2, ContactManifold manifold, CollisionData data) {
+        BoxCollision.boxAndBox(rigidBody1, collider1, rigidBody2, collider2, manifold, data);
     }
 
-    public static void collideSphereSphere(RigidBody rigidBody1, SphereCollider collider1, RigidBody rigidBody2, SphereCollider collider2, CollisionData data) {
+    public static void collideSphereSphere(RigidBody rigidBody1, SphereCollider collider1, RigidBody rigidBody2, SphereCollider collider2, ContactManifold manifold, CollisionData data) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
         Vec3 position1 = rigidBody1.getPosition();
         Vec3 position2 = rigidBody2.getPosition();
-        Vec3 deltaVector = position1.sub(position2); // rigidBody2 -> rigidBody1
+        Vec3 deltaVector = position1.subInto(position2, scratch.vec3()); // rigidBody2 -> rigidBody1
         double distance = deltaVector.length();
 
         //if (distance > collider1.radius + collider2.radius) return; // can be safely ignored because of the broad collision detection stage
 
         deltaVector.scale(1.0 / distance); // Vec3 normal = deltaVector.normalize();
         double surfaceDistance = distance - collider1.radius - collider2.radius;
-        Vec3 collisionPoint = position2.add(deltaVector.mul(collider2.radius + surfaceDistance / 2.0));
+        Vec3 collisionPoint = scratch.vec3(position2);
+        collisionPoint.increment(deltaVector, collider2.radius + surfaceDistance / 2.0);
 
         data.set(rigidBody1, rigidBody2, deltaVector, collisionPoint, -surfaceDistance, RigidBodyCollision.DEFAULT_RESTITUTION);
+        scratch.pop();
     }
 
     private static double clamp(double d, double min, double max) {
         return Math.max(min, Math.min(d, max));
     }
 
-    public static void collideBoxSphere(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, SphereCollider collider2, CollisionData data) {
+    public static void collideBoxSphere(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, SphereCollider collider2, ContactManifold manifold, CollisionData data) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
         Vec3 center = rigidBody2.getPosition();
-        Vec3 relativeCenter = rigidBody1.getPointInLocalSpace(center);
+        Vec3 relativeCenter = rigidBody1.getPointInLocalSpaceInto(center, scratch.vec3());
 
-        Vec3 closestPoint = new Vec3(0.0, 0.0, 0.0);
+        Vec3 closestPoint = scratch.vec3();
         closestPoint.x = clamp(relativeCenter.x, -collider1.width / 2.0, collider1.width / 2.0);
         closestPoint.y = clamp(relativeCenter.y, -collider1.height / 2.0, collider1.height / 2.0);
         closestPoint.z = clamp(relativeCenter.z, -collider1.depth / 2.0, collider1.depth / 2.0);
 
         double distance = closestPoint.distance(relativeCenter);
-        if (distance > collider2.radius) return;
 
-        Vec3 closestPointWorld = rigidBody1.getPointInWorldSpace(closestPoint);
-        data.set(rigidBody1, rigidBody2, closestPointWorld.sub(center).normalize(1.0), closestPointWorld, collider2.radius - distance, RigidBodyCollision.DEFAULT_RESTITUTION);
+        if (distance <= collider2.radius) {
+            Vec3 closestPointWorld = rigidBody1.getPointInWorldSpaceInto(closestPoint, closestPoint);
+            Vec3 normal = closestPointWorld.subInto(center, relativeCenter).normalizeInto(1.0, relativeCenter);
+            data.set(rigidBody1, rigidBody2, normal, closestPointWorld, collider2.radius - distance, RigidBodyCollision.DEFAULT_RESTITUTION);
+        }
+
+        scratch.pop();
     }
 
-    public static void collideBoxPlane(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, PlaneCollider collider2, CollisionData data) {
+    public static void collideBoxPlane(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, PlaneCollider collider2, ContactManifold manifold, CollisionData data) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
         Vec3 center = rigidBody2.getPosition();
-        Vec3 normal = rigidBody2.getOrientation().apply(collider2.normal).normalize(1.0);
+        Vec3 normal = rigidBody2.getRotationMatrix().transformInto(collider2.normal, scratch.vec3());
+        normal.normalize();
 
         double penetration = Double.NEGATIVE_INFINITY;
-        Vec3 contactVertex = null;
+        Vec3 contactVertex = scratch.vec3();
+        Vec3 point = scratch.vec3();
+        int feature = 0;
 
-        for (Vec3 vertex : BoxCollider.VERTICES) {
-            Vec3 boxVertex = new Vec3(vertex.x * collider1.width / 2.0, vertex.y * collider1.height / 2.0, vertex.z * collider1.depth / 2.0);
-            Vec3 point = rigidBody1.getPointInWorldSpace(boxVertex);
-            double depth = -project(point.sub(center), normal);
+        for (int i = 0; i < BoxCollider.VERTICES.length; ++i) {
+            Vec3 vertex = BoxCollider.VERTICES[i];
+            point.set(vertex.x * collider1.width / 2.0, vertex.y * collider1.height / 2.0, vertex.z * collider1.depth / 2.0);
+            rigidBody1.getPointInWorldSpaceInto(point, point);
+            double depth = -((point.x - center.x) * normal.x + (point.y - center.y) * normal.y + (point.z - center.z) * normal.z);
 
             if (depth >= 0 && depth > penetration) {
                 penetration = depth;
-                contactVertex = point;
+                contactVertex.set(point);
+                feature = i;
             }
         }
 
         if (penetration >= 0) {
-            Vec3 contactPoint = contactVertex.add(normal.mul(penetration / 2.0));
-            data.set(rigidBody1, rigidBody2, normal, contactPoint, penetration, RigidBodyCollision.DEFAULT_RESTITUTION);
+            contactVertex.increment(normal, penetration / 2.0);
+            data.set(rigidBody1, rigidBody2, normal, contactVertex, penetration, RigidBodyCollision.DEFAULT_RESTITUTION, feature);
         }
+
+        scratch.pop();
     }
 
-    public static void collideSpherePlane(RigidBody rigidBody1, SphereCollider collider1, RigidBody rigidBody2, PlaneCollider collider2, CollisionData data) {
+    public static void collideSpherePlane(RigidBody rigidBody1, SphereCollider collider1, RigidBody rigidBody2, PlaneCollider collider2, ContactManifold manifold, CollisionData data) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
         Vec3 center = rigidBody2.getPosition();
-        Vec3 normal = rigidBody2.getOrientation().apply(collider2.normal);
+        Vec3 normal = rigidBody2.getRotationMatrix().transformInto(collider2.normal, scratch.vec3());
         Vec3 position = rigidBody1.getPosition();
 
-        Vec3 relativeSphereCenter = position.sub(center);
+        Vec3 relativeSphereCenter = position.subInto(center, scratch.vec3());
         double projection = project(relativeSphereCenter, normal);
 
         if (projection <= collider1.radius) {
             double depth = -projection;
             double penetration = depth + collider1.radius;
-            Vec3 contactPoint = position.add(normal.mul(-1.0 * penetration / 2.0));
+            Vec3 contactPoint = scratch.vec3(position);
+            contactPoint.increment(normal, -1.0 * penetration / 2.0);
 
             data.set(rigidBody1, rigidBody2, normal, contactPoint, penetration, RigidBodyCollision.DEFAULT_RESTITUTION);
         }
+
+        scratch.pop();
+    }
+
+    /**
+     * Collides any convex collider with a plane through its support point against the normal of the plane, which is its deepest point.
+     */
+    public static void collideConvexPlane(RigidBody rigidBody1, Collider collider1, RigidBody rigidBody2, PlaneCollider collider2, ContactManifold manifold, CollisionData data) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
+        Vec3 center = rigidBody2.getPosition();
+        Vec3 normal = rigidBody2.getRotationMatrix().transformInto(collider2.normal, scratch.vec3());
+        normal.normalize();
+
+        Vec3 direction = normal.mulInto(-1.0, scratch.vec3());
+        Vec3 point = ConvexCollision.supportInWorldSpaceInto(rigidBody1, collider1, direction, scratch.vec3(), scratch.vec3());
+        double penetration = -((point.x - center.x) * normal.x + (point.y - center.y) * normal.y + (point.z - center.z) * normal.z);
+
+        if (penetration >= 0) {
+            int feature = ConvexCollision.getFeature(rigidBody1, point, direction);
+            point.increment(normal, penetration / 2.0);
+            data.set(rigidBody1, rigidBody2, normal, point, penetration, RigidBodyCollision.DEFAULT_RESTITUTION, feature);
+        }
+
+        scratch.pop();
     }
 }
@@ -0,0 +1,111 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.Arrays;
+
+/**
+ * Selects the narrow phase routine for a pair of colliders by their type ids, see {@link Collider#getTypeId()}, from a table with one entry per pair
+ * of types. A routine registered for the types (A, B) also handles the pair (B, A) with its arguments swapped, unless a routine is registered for
+ * (B, A) itself. The contacts a routine writes name its bodies in the order it was called with, and their normals point towards the first of them,
+ * so a swapped call needs no further correction.
+ *
+ * <p>New collider types are added with {@link #registerType()} and {@link #register(int, int, Narrowphase)}, before any scene using them is stepped.
+ * A new type is taken to be convex: until other routines are registered for it, it collides with planes through its deepest support point, with
+ * meshes through {@link ConvexCollision} against each triangle, see {@link MeshCollision}, and with every other type through {@link ConvexCollision}.
+ * Pairs without a routine, like two planes or two meshes, never collide.</p>
+ */
+public final class CollisionDispatcher {
+    public static final int BOX = 0;
+    public static final int SPHERE = 1;
+    public static final int PLANE = 2;
+    public static final int MESH = 3;
+    private static int typeCount = 4;
+    private static Narrowphase<?, ?>[][] narrowphases = new Narrowphase<?, ?>[typeCount][typeCount];
+    private static boolean[][] swapped = new boolean[typeCount][typeCount]; // the routine expects the colliders the other way around
+
+    static {
+        register(BOX, BOX, CollisionAlgorithms::collideBoxBox);
+        register(BOX, SPHERE, CollisionAlgorithms::collideBoxSphere);
+        register(BOX, PLANE, CollisionAlgorithms::collideBoxPlane);
+        register(SPHERE, SPHERE, CollisionAlgorithms::collideSphereSphere);
+        register(SPHERE, PLANE, CollisionAlgorithms::collideSpherePlane);
+        register(SPHERE, MESH, MeshCollision::collideSphereMesh);
+        register(BOX, MESH, MeshCollision::collideBoxMesh);
+    }
+
+    private CollisionDispatcher() {
+    }
+
+    /**
+     * @return the id of a new convex collider type, to be returned by its {@link Collider#getTypeId()}
+     */
+    public static synchronized int registerType() {
+        int type = typeCount++;
+        narrowphases = Arrays.copyOf(narrowphases, typeCount);
+        swapped = Arrays.copyOf(swapped, typeCount);
+
+        for (int i = 0; i < typeCount; ++i) {
+            narrowphases[i] = i < type ? Arrays.copyOf(narrowphases[i], typeCount) : new Narrowphase<?, ?>[typeCount];
+            swapped[i] = i < type ? Arrays.copyOf(swapped[i], typeCount) : new boolean[typeCount];
+        }
+
+        for (int i = 0; i <= type; ++i) {
+            if (i == PLANE) {
+                register(type, PLANE, CollisionAlgorithms::collideConvexPlane);
+            } else if (i == MESH) {
+                register(type, MESH, MeshCollision::collideConvexMesh);
+            } else {
+                register(type, i, ConvexCollision::collide);
+            }
+        }
+
+        return type;
+    }
+
+    /**
+     * Registers the routine for colliders of the types {@code type1} and {@code type2}, which also handles the colliders the other way around.
+     */
+    public static synchronized <A extends Collider, B extends Collider> void register(int type1, int type2, Narrowphase<A, B> narrowphase) {
+        narrowphases[type1][type2] = narrowphase;
+        swapped[type1][type2] = false;
+
+        if (type1 != type2 && (narrowphases[type2][type1] == null || swapped[type2][type1])) {
+            narrowphases[type2][type1] = narrowphase;
+            swapped[type2][type1] = true;
+        }
+    }
+
+    /**
+     * Writes the contacts between the colliders of the rigid bodies into the collision data.
+     *
+     * @param manifold the manifold of the pair, in which routines may keep results for the next step, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static void collide(RigidBody rigidBody1, RigidBody rigidBody2, ContactManifold manifold, CollisionData data) {
+        Collider collider1 = rigidBody1.getCollider();
+        Collider collider2 = rigidBody2.getCollider();
+        int type1 = collider1.getTypeId();
+        int type2 = collider2.getTypeId();
+        Narrowphase<Collider, Collider> narrowphase = (Narrowphase<Collider, Collider>) narrowphases[type1][type2];
+
+        if (narrowphase == null) return;
+
+        if (swapped[type1][type2]) {
+            narrowphase.collide(rigidBody2, collider2, rigidBody1, collider1, manifold, data);
+        } else {
+            narrowphase.collide(rigidBody1, collider1, rigidBody2, collider2, manifold, data);
+        }
+    }
+
+    /**
+     * A narrow phase routine for colliders of two types, which writes their contacts into the collision data. The manifold, if there is one, belongs
+     * to the pair and may order the rigid bodies either way.
+     */
+    @FunctionalInterface
+    public interface Narrowphase<A extends Collider, B extends Collider> {
+        void collide(RigidBody rigidBody1, A collider1, RigidBody rigidBody2, B collider2, ContactManifold manifold, CollisionData data);
+    }
+}
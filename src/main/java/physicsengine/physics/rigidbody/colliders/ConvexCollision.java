@@ -0,0 +1,613 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+
+/**
+ * Collision detection between any two convex colliders through their support points, see {@link Collider#supportInto(Vec3, Vec3)}.
+ *
+ * <p>Two colliders intersect if the Minkowski difference of their shapes, the set of differences of a point of the first and a point of the second
+ * collider, contains the origin. GJK searches the difference for a simplex around the origin, or for a direction in which the difference ends before
+ * it reaches the origin, which separates the colliders. EPA then expands the simplex into a polytope until the face closest to the origin is found on
+ * the surface of the difference: its normal and distance are the direction and depth of the penetration.</p>
+ *
+ * <p>The direction that separated a pair is kept in the manifold of the pair and is tried first in the next step, where it usually still separates
+ * the pair after a single support point. The simplex and polytope are kept in a per-thread workspace, so a query does not allocate.</p>
+ */
+public final class ConvexCollision {
+    private static final int MAX_GJK_ITERATIONS = 64;
+    private static final int MAX_EPA_ITERATIONS = 64;
+    private static final int MAX_VERTICES = MAX_EPA_ITERATIONS + 4;
+    private static final int MAX_FACES = 2 * MAX_VERTICES;
+    private static final int MAX_EDGES = 3 * MAX_FACES;
+    private static final double EPA_TOLERANCE = 1.0e-6;
+    private static final double EPSILON = 1.0e-10;
+    /**
+     * The size of the cells contact points are sorted into to tell them apart, see {@link RigidBodyCollision#feature}.
+     */
+    private static final double FEATURE_CELL_SIZE = ContactManifold.CONTACT_BREAKING_THRESHOLD;
+    private static final ThreadLocal<ConvexCollision> WORKSPACE = ThreadLocal.withInitial(ConvexCollision::new);
+
+    private RigidBody rigidBody1;
+    private Collider collider1;
+    private RigidBody rigidBody2;
+    private Collider collider2;
+    // The vertices of the simplex and the polytope on the Minkowski difference, and the support points of both colliders they are made of
+    private final double[] points = new double[3 * MAX_VERTICES];
+    private final double[] points1 = new double[3 * MAX_VERTICES];
+    private final double[] points2 = new double[3 * MAX_VERTICES];
+    private int vertexCount = 0;
+    // The faces of the polytope, wound counterclockwise seen from outside
+    private final int[] faces = new int[3 * MAX_FACES];
+    private final double[] faceNormals = new double[3 * MAX_FACES];
+    private final double[] faceDistances = new double[MAX_FACES];
+    private final boolean[] visible = new boolean[MAX_FACES];
+    private int faceCount = 0;
+    // The edges of the horizon while the polytope is expanded
+    private final int[] edges = new int[2 * MAX_EDGES];
+    private int edgeCount = 0;
+    private final Vec3 direction = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 localDirection = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 support1 = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 support2 = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 normal = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 contactPoint = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 localPoint = new Vec3(0.0, 0.0, 0.0);
+
+    private ConvexCollision() {
+    }
+
+    /**
+     * Writes the contact between two convex colliders into the collision data, if they intersect.
+     *
+     * @param manifold the manifold of the pair, which keeps the last separating direction, or {@code null}
+     */
+    public static void collide(RigidBody rigidBody1, Collider collider1, RigidBody rigidBody2, Collider collider2, ContactManifold manifold, CollisionData data) {
+        ConvexCollision workspace = WORKSPACE.get();
+        workspace.rigidBody1 = rigidBody1;
+        workspace.collider1 = collider1;
+        workspace.rigidBody2 = rigidBody2;
+        workspace.collider2 = collider2;
+        workspace.run(manifold, data);
+        workspace.rigidBody1 = null;
+        workspace.collider1 = null;
+        workspace.rigidBody2 = null;
+        workspace.collider2 = null;
+    }
+
+    /**
+     * Writes the support point of the collider of a rigid body in the world space direction into {@code dst}.
+     */
+    static Vec3 supportInWorldSpaceInto(RigidBody rigidBody, Collider collider, Vec3 direction, Vec3 localDirection, Vec3 dst) {
+        rigidBody.getRotationMatrix().transformTransposedInto(direction, localDirection);
+        collider.supportInto(localDirection, dst);
+        return rigidBody.getPointInWorldSpaceInto(dst, dst);
+    }
+
+    /**
+     * @return a feature for a contact point, which is the same for points within the same small cell of the local space of the rigid body, so that
+     * a manifold replaces a point by the next point at the same place and keeps points at different places
+     */
+    static int getFeature(RigidBody rigidBody, Vec3 point, Vec3 localPoint) {
+        rigidBody.getPointInLocalSpaceInto(point, localPoint);
+        int x = (int) Math.floor(localPoint.x / FEATURE_CELL_SIZE);
+        int y = (int) Math.floor(localPoint.y / FEATURE_CELL_SIZE);
+        int z = (int) Math.floor(localPoint.z / FEATURE_CELL_SIZE);
+        return (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+    }
+
+    private void run(ContactManifold manifold, CollisionData data) {
+        // The manifold keeps the direction for its own order of the rigid bodies, and the difference changes its sign with the order
+        boolean swapped = manifold != null && manifold.getRigidBody1() != this.rigidBody1;
+
+        if (manifold != null) {
+            this.direction.set(manifold.getSeparatingDirection());
+
+            if (swapped) {
+                this.direction.scale(-1.0);
+            }
+        } else {
+            this.direction.set(0.0, 0.0, 0.0);
+        }
+
+        if (!this.gjk()) {
+            if (manifold != null) {
+                manifold.getSeparatingDirection().set(this.direction);
+
+                if (swapped) {
+                    manifold.getSeparatingDirection().scale(-1.0);
+                }
+            }
+
+            return;
+        }
+
+        if (!this.expandSimplex() || !this.epa()) return;
+
+        // The face of the polytope closest to the origin: the point on it closest to the origin is combined from the support points of its vertices
+        int face = this.findClosestFace();
+        double nx = this.faceNormals[3 * face];
+        double ny = this.faceNormals[3 * face + 1];
+        double nz = this.faceNormals[3 * face + 2];
+        double depth = this.faceDistances[face];
+        int a = this.faces[3 * face];
+        int b = this.faces[3 * face + 1];
+        int c = this.faces[3 * face + 2];
+
+        double[] p = this.points;
+        double v0x = p[3 * b] - p[3 * a], v0y = p[3 * b + 1] - p[3 * a + 1], v0z = p[3 * b + 2] - p[3 * a + 2];
+        double v1x = p[3 * c] - p[3 * a], v1y = p[3 * c + 1] - p[3 * a + 1], v1z = p[3 * c + 2] - p[3 * a + 2];
+        double v2x = nx * depth - p[3 * a], v2y = ny * depth - p[3 * a + 1], v2z = nz * depth - p[3 * a + 2];
+        double d00 = v0x * v0x + v0y * v0y + v0z * v0z;
+        double d01 = v0x * v1x + v0y * v1y + v0z * v1z;
+        double d11 = v1x * v1x + v1y * v1y + v1z * v1z;
+        double d20 = v2x * v0x + v2y * v0y + v2z * v0z;
+        double d21 = v2x * v1x + v2y * v1y + v2z * v1z;
+        double denominator = d00 * d11 - d01 * d01;
+        double u = 1.0 / 3.0;
+        double v = 1.0 / 3.0;
+        double w = 1.0 / 3.0;
+
+        if (Math.abs(denominator) > EPSILON) {
+            v = (d11 * d20 - d01 * d21) / denominator;
+            w = (d00 * d21 - d01 * d20) / denominator;
+            u = 1.0 - v - w;
+        }
+
+        double[] p1 = this.points1;
+        double[] p2 = this.points2;
+        this.contactPoint.set(
+                0.5 * (u * (p1[3 * a] + p2[3 * a]) + v * (p1[3 * b] + p2[3 * b]) + w * (p1[3 * c] + p2[3 * c])),
+                0.5 * (u * (p1[3 * a + 1] + p2[3 * a + 1]) + v * (p1[3 * b + 1] + p2[3 * b + 1]) + w * (p1[3 * c + 1] + p2[3 * c + 1])),
+                0.5 * (u * (p1[3 * a + 2] + p2[3 * a + 2]) + v * (p1[3 * b + 2] + p2[3 * b + 2]) + w * (p1[3 * c + 2] + p2[3 * c + 2]))
+        );
+
+        // The first collider has to be moved against the normal of the face to resolve the penetration
+        this.normal.set(-nx, -ny, -nz);
+        int feature = getFeature(this.rigidBody1, this.contactPoint, this.localPoint);
+        data.set(this.rigidBody1, this.rigidBody2, this.normal, this.contactPoint, depth, RigidBodyCollision.DEFAULT_RESTITUTION, feature);
+    }
+
+    /**
+     * Adds the support point of the Minkowski difference in the direction as the vertex with the given index.
+     */
+    private void support(int index, double dx, double dy, double dz) {
+        this.direction.set(dx, dy, dz);
+        supportInWorldSpaceInto(this.rigidBody1, this.collider1, this.direction, this.localDirection, this.support1);
+        this.direction.set(-dx, -dy, -dz);
+        supportInWorldSpaceInto(this.rigidBody2, this.collider2, this.direction, this.localDirection, this.support2);
+        this.direction.set(dx, dy, dz);
+
+        int i = 3 * index;
+        this.points1[i] = this.support1.x;
+        this.points1[i + 1] = this.support1.y;
+        this.points1[i + 2] = this.support1.z;
+        this.points2[i] = this.support2.x;
+        this.points2[i + 1] = this.support2.y;
+        this.points2[i + 2] = this.support2.z;
+        this.points[i] = this.support1.x - this.support2.x;
+        this.points[i + 1] = this.support1.y - this.support2.y;
+        this.points[i + 2] = this.support1.z - this.support2.z;
+    }
+
+    private void copyVertex(int from, int to) {
+        System.arraycopy(this.points, 3 * from, this.points, 3 * to, 3);
+        System.arraycopy(this.points1, 3 * from, this.points1, 3 * to, 3);
+        System.arraycopy(this.points2, 3 * from, this.points2, 3 * to, 3);
+    }
+
+    /**
+     * Searches the Minkowski difference for a simplex that contains the origin, starting in the current direction. The newest vertex of the simplex is
+     * always the last one. If the colliders are separated, the direction is left as the separating direction.
+     *
+     * @return {@code true} if the colliders intersect
+     */
+    private boolean gjk() {
+        Vec3 d = this.direction;
+
+        if (d.x * d.x + d.y * d.y + d.z * d.z < EPSILON) {
+            Vec3 position1 = this.rigidBody1.getPosition();
+            Vec3 position2 = this.rigidBody2.getPosition();
+            d.set(position1.x - position2.x, position1.y - position2.y, position1.z - position2.z);
+
+            if (d.x * d.x + d.y * d.y + d.z * d.z < EPSILON) {
+                d.set(1.0, 0.0, 0.0);
+            }
+        }
+
+        this.support(0, d.x, d.y, d.z);
+        this.vertexCount = 1;
+        d.set(-this.points[0], -this.points[1], -this.points[2]);
+
+        for (int iteration = 0; iteration < MAX_GJK_ITERATIONS; ++iteration) {
+            if (d.x * d.x + d.y * d.y + d.z * d.z < EPSILON) {
+                return true; // the origin lies on the simplex, the colliders touch
+            }
+
+            int i = 3 * this.vertexCount;
+            this.support(this.vertexCount, d.x, d.y, d.z);
+
+            if (this.points[i] * d.x + this.points[i + 1] * d.y + this.points[i + 2] * d.z < 0.0) {
+                return false; // the difference ends before the origin
+            }
+
+            ++this.vertexCount;
+
+            if (this.updateSimplex()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Reduces the simplex to the feature closest to the origin and points the direction from it towards the origin.
+     *
+     * @return {@code true} if the simplex is a tetrahedron that contains the origin
+     */
+    private boolean updateSimplex() {
+        return switch (this.vertexCount) {
+            case 2 -> this.updateLine();
+            case 3 -> this.updateTriangle();
+            default -> this.updateTetrahedron();
+        };
+    }
+
+    private boolean updateLine() {
+        double[] p = this.points;
+        double ax = p[3], ay = p[4], az = p[5];
+        double abx = p[0] - ax, aby = p[1] - ay, abz = p[2] - az;
+
+        if (abx * -ax + aby * -ay + abz * -az > 0.0) {
+            this.setTripleProduct(abx, aby, abz, -ax, -ay, -az);
+        } else {
+            this.copyVertex(1, 0);
+            this.vertexCount = 1;
+            this.direction.set(-ax, -ay, -az);
+        }
+
+        return false;
+    }
+
+    private boolean updateTriangle() {
+        double[] p = this.points;
+        double ax = p[6], ay = p[7], az = p[8];
+        double abx = p[3] - ax, aby = p[4] - ay, abz = p[5] - az;
+        double acx = p[0] - ax, acy = p[1] - ay, acz = p[2] - az;
+        double aox = -ax, aoy = -ay, aoz = -az;
+        // The normal of the triangle
+        double nx = aby * acz - abz * acy;
+        double ny = abz * acx - abx * acz;
+        double nz = abx * acy - aby * acx;
+
+        // Outside of the edge AC
+        double ex = ny * acz - nz * acy, ey = nz * acx - nx * acz, ez = nx * acy - ny * acx;
+
+        if (ex * aox + ey * aoy + ez * aoz > 0.0) {
+            if (acx * aox + acy * aoy + acz * aoz > 0.0) {
+                this.copyVertex(2, 1); // C, A
+                this.vertexCount = 2;
+                this.setTripleProduct(acx, acy, acz, aox, aoy, aoz);
+                return false;
+            }
+
+            return this.reduceToEdgeAB(abx, aby, abz, aox, aoy, aoz);
+        }
+
+        // Outside of the edge AB
+        ex = aby * nz - abz * ny;
+        ey = abz * nx - abx * nz;
+        ez = abx * ny - aby * nx;
+
+        if (ex * aox + ey * aoy + ez * aoz > 0.0) {
+            return this.reduceToEdgeAB(abx, aby, abz, aox, aoy, aoz);
+        }
+
+        // Above or below the triangle, wind it so that its normal points towards the origin
+        if (nx * aox + ny * aoy + nz * aoz > 0.0) {
+            this.direction.set(nx, ny, nz);
+        } else {
+            this.copyVertex(0, 3);
+            this.copyVertex(1, 0);
+            this.copyVertex(3, 1); // B, C, A
+            this.direction.set(-nx, -ny, -nz);
+        }
+
+        return false;
+    }
+
+    private boolean reduceToEdgeAB(double abx, double aby, double abz, double aox, double aoy, double aoz) {
+        if (abx * aox + aby * aoy + abz * aoz > 0.0) {
+            this.copyVertex(1, 0);
+            this.copyVertex(2, 1); // B, A
+            this.vertexCount = 2;
+            this.setTripleProduct(abx, aby, abz, aox, aoy, aoz);
+        } else {
+            this.copyVertex(2, 0);
+            this.vertexCount = 1;
+            this.direction.set(aox, aoy, aoz);
+        }
+
+        return false;
+    }
+
+    private boolean updateTetrahedron() {
+        // The faces of the tetrahedron that contain the newest vertex A = 3, each with the vertex opposite to it
+        for (int face = 0; face < 3; ++face) {
+            int b = face;
+            int c = (face + 1) % 3;
+            int opposite = (face + 2) % 3;
+
+            if (this.isOutside(3, b, c, opposite)) {
+                this.copyVertex(b, 4);
+                this.copyVertex(c, 5);
+                this.copyVertex(4, 0);
+                this.copyVertex(5, 1);
+                this.copyVertex(3, 2);
+                this.vertexCount = 3;
+                return this.updateTriangle();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the origin lies on the other side of the face (a, b, c) than the vertex {@code opposite}
+     */
+    private boolean isOutside(int a, int b, int c, int opposite) {
+        double[] p = this.points;
+        double ax = p[3 * a], ay = p[3 * a + 1], az = p[3 * a + 2];
+        double abx = p[3 * b] - ax, aby = p[3 * b + 1] - ay, abz = p[3 * b + 2] - az;
+        double acx = p[3 * c] - ax, acy = p[3 * c + 1] - ay, acz = p[3 * c + 2] - az;
+        double nx = aby * acz - abz * acy;
+        double ny = abz * acx - abx * acz;
+        double nz = abx * acy - aby * acx;
+        double side = nx * (p[3 * opposite] - ax) + ny * (p[3 * opposite + 1] - ay) + nz * (p[3 * opposite + 2] - az);
+        double origin = nx * -ax + ny * -ay + nz * -az;
+
+        return side * origin < 0.0;
+    }
+
+    /**
+     * Sets the direction to (e x o) x e, which is perpendicular to the edge e and points towards the origin o.
+     */
+    private void setTripleProduct(double ex, double ey, double ez, double ox, double oy, double oz) {
+        double cx = ey * oz - ez * oy;
+        double cy = ez * ox - ex * oz;
+        double cz = ex * oy - ey * ox;
+        this.direction.set(cy * ez - cz * ey, cz * ex - cx * ez, cx * ey - cy * ex);
+    }
+
+    /**
+     * If GJK stopped with the origin on a point, an edge or a face of the simplex, adds vertices in other directions until the simplex is a tetrahedron.
+     *
+     * @return {@code false} if the difference is flat and no tetrahedron can be built
+     */
+    private boolean expandSimplex() {
+        double[] p = this.points;
+
+        if (this.vertexCount == 1) {
+            for (int axis = 0; axis < 6 && this.vertexCount == 1; ++axis) {
+                double sign = axis < 3 ? 1.0 : -1.0;
+                this.support(1, axis % 3 == 0 ? sign : 0.0, axis % 3 == 1 ? sign : 0.0, axis % 3 == 2 ? sign : 0.0);
+
+                if (squaredDistance(p, 0, 1) > EPSILON) {
+                    this.vertexCount = 2;
+                }
+            }
+        }
+
+        if (this.vertexCount == 2) {
+            double lx = p[3] - p[0], ly = p[4] - p[1], lz = p[5] - p[2];
+            // A vector perpendicular to the line, from the coordinate axis the line is least aligned with
+            double ux = 0.0, uy = 0.0, uz = 0.0;
+
+            if (Math.abs(lx) <= Math.abs(ly) && Math.abs(lx) <= Math.abs(lz)) ux = 1.0;
+            else if (Math.abs(ly) <= Math.abs(lz)) uy = 1.0;
+            else uz = 1.0;
+
+            double px = ly * uz - lz * uy, py = lz * ux - lx * uz, pz = lx * uy - ly * ux;
+            double qx = ly * pz - lz * py, qy = lz * px - lx * pz, qz = lx * py - ly * px;
+
+            for (int i = 0; i < 4 && this.vertexCount == 2; ++i) {
+                double sign = i < 2 ? 1.0 : -1.0;
+
+                if (i % 2 == 0) this.support(2, sign * px, sign * py, sign * pz);
+                else this.support(2, sign * qx, sign * qy, sign * qz);
+
+                double ax = p[6] - p[0], ay = p[7] - p[1], az = p[8] - p[2];
+                double cx = ay * lz - az * ly, cy = az * lx - ax * lz, cz = ax * ly - ay * lx;
+
+                if (cx * cx + cy * cy + cz * cz > EPSILON) {
+                    this.vertexCount = 3;
+                }
+            }
+        }
+
+        if (this.vertexCount == 3) {
+            double abx = p[3] - p[0], aby = p[4] - p[1], abz = p[5] - p[2];
+            double acx = p[6] - p[0], acy = p[7] - p[1], acz = p[8] - p[2];
+            double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+
+            for (int i = 0; i < 2 && this.vertexCount == 3; ++i) {
+                double sign = i == 0 ? 1.0 : -1.0;
+                this.support(3, sign * nx, sign * ny, sign * nz);
+
+                if (Math.abs(nx * (p[9] - p[0]) + ny * (p[10] - p[1]) + nz * (p[11] - p[2])) > EPSILON) {
+                    this.vertexCount = 4;
+                }
+            }
+        }
+
+        return this.vertexCount == 4;
+    }
+
+    /**
+     * Expands the tetrahedron found by GJK towards the surface of the Minkowski difference. If the polytope cannot take another vertex without exceeding
+     * its arrays, it is left as it is and its closest face is the best approximation of the surface.
+     *
+     * @return {@code false} if the polytope degenerated
+     */
+    private boolean epa() {
+        double[] p = this.points;
+        double cx = 0.25 * (p[0] + p[3] + p[6] + p[9]);
+        double cy = 0.25 * (p[1] + p[4] + p[7] + p[10]);
+        double cz = 0.25 * (p[2] + p[5] + p[8] + p[11]);
+
+        // Wind the tetrahedron so that the normals of its faces point away from its centre
+        if (isAbove(p, 0, 1, 2, cx, cy, cz)) {
+            this.copyVertex(1, 4);
+            this.copyVertex(2, 1);
+            this.copyVertex(4, 2);
+        }
+
+        this.faceCount = 0;
+        this.addFace(0, 1, 2);
+        this.addFace(0, 3, 1);
+        this.addFace(0, 2, 3);
+        this.addFace(1, 3, 2);
+
+        for (int iteration = 0; iteration < MAX_EPA_ITERATIONS; ++iteration) {
+            int face = this.findClosestFace();
+
+            if (face < 0) return false;
+
+            double nx = this.faceNormals[3 * face];
+            double ny = this.faceNormals[3 * face + 1];
+            double nz = this.faceNormals[3 * face + 2];
+            int w = this.vertexCount;
+            this.support(w, nx, ny, nz);
+
+            if (p[3 * w] * nx + p[3 * w + 1] * ny + p[3 * w + 2] * nz - this.faceDistances[face] < EPA_TOLERANCE) {
+                return true; // the face lies on the surface of the difference
+            }
+
+            this.edgeCount = 0;
+            int visibleCount = 0;
+            boolean fits = true;
+
+            // Find the faces the new vertex sees and the horizon around them, and only change the polytope once the new faces are known to fit.
+            // Faces the vertex lies in the plane of, which are common on the difference of two boxes, count as hidden: Rounding would otherwise
+            // see some of them and not their neighbours, and the horizon around a scattered set of faces breaks the polytope.
+            for (int i = 0; i < this.faceCount; ++i) {
+                int a = this.faces[3 * i];
+                this.visible[i] = this.faceNormals[3 * i] * (p[3 * w] - p[3 * a]) + this.faceNormals[3 * i + 1] * (p[3 * w + 1] - p[3 * a + 1]) + this.faceNormals[3 * i + 2] * (p[3 * w + 2] - p[3 * a + 2]) > EPSILON;
+
+                if (this.visible[i]) {
+                    ++visibleCount;
+                    fits &= this.addEdge(this.faces[3 * i], this.faces[3 * i + 1]);
+                    fits &= this.addEdge(this.faces[3 * i + 1], this.faces[3 * i + 2]);
+                    fits &= this.addEdge(this.faces[3 * i + 2], this.faces[3 * i]);
+                }
+            }
+
+            if (!fits || this.faceCount - visibleCount + this.edgeCount > MAX_FACES) return true;
+
+            // Faces are removed from the back, so the last face that takes the place of a removed one has already been checked and is kept
+            for (int i = this.faceCount - 1; i >= 0; --i) {
+                if (this.visible[i]) this.removeFace(i);
+            }
+
+            ++this.vertexCount;
+
+            for (int i = 0; i < this.edgeCount; ++i) {
+                this.addFace(this.edges[2 * i], this.edges[2 * i + 1], w);
+            }
+
+            if (this.vertexCount == MAX_VERTICES) return true;
+        }
+
+        return true;
+    }
+
+    private static boolean isAbove(double[] p, int a, int b, int c, double x, double y, double z) {
+        double abx = p[3 * b] - p[3 * a], aby = p[3 * b + 1] - p[3 * a + 1], abz = p[3 * b + 2] - p[3 * a + 2];
+        double acx = p[3 * c] - p[3 * a], acy = p[3 * c + 1] - p[3 * a + 1], acz = p[3 * c + 2] - p[3 * a + 2];
+        double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+
+        return nx * (x - p[3 * a]) + ny * (y - p[3 * a + 1]) + nz * (z - p[3 * a + 2]) > 0.0;
+    }
+
+    private static double squaredDistance(double[] p, int a, int b) {
+        double dx = p[3 * b] - p[3 * a], dy = p[3 * b + 1] - p[3 * a + 1], dz = p[3 * b + 2] - p[3 * a + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void addFace(int a, int b, int c) {
+        double[] p = this.points;
+        double abx = p[3 * b] - p[3 * a], aby = p[3 * b + 1] - p[3 * a + 1], abz = p[3 * b + 2] - p[3 * a + 2];
+        double acx = p[3 * c] - p[3 * a], acy = p[3 * c + 1] - p[3 * a + 1], acz = p[3 * c + 2] - p[3 * a + 2];
+        double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        int i = this.faceCount++;
+
+        this.faces[3 * i] = a;
+        this.faces[3 * i + 1] = b;
+        this.faces[3 * i + 2] = c;
+
+        if (length > EPSILON) {
+            nx /= length;
+            ny /= length;
+            nz /= length;
+            this.faceDistances[i] = nx * p[3 * a] + ny * p[3 * a + 1] + nz * p[3 * a + 2];
+        } else {
+            this.faceDistances[i] = Double.POSITIVE_INFINITY; // a sliver, which is never the closest face
+        }
+
+        this.faceNormals[3 * i] = nx;
+        this.faceNormals[3 * i + 1] = ny;
+        this.faceNormals[3 * i + 2] = nz;
+    }
+
+    private void removeFace(int index) {
+        int last = --this.faceCount;
+
+        if (index != last) {
+            System.arraycopy(this.faces, 3 * last, this.faces, 3 * index, 3);
+            System.arraycopy(this.faceNormals, 3 * last, this.faceNormals, 3 * index, 3);
+            this.faceDistances[index] = this.faceDistances[last];
+        }
+    }
+
+    /**
+     * Adds an edge of a visible face to the horizon, unless the face next to it is visible as well.
+     *
+     * @return {@code false} if the horizon has no room for the edge
+     */
+    private boolean addEdge(int a, int b) {
+        for (int i = 0; i < this.edgeCount; ++i) {
+            if (this.edges[2 * i] == b && this.edges[2 * i + 1] == a) {
+                int last = --this.edgeCount;
+                this.edges[2 * i] = this.edges[2 * last];
+                this.edges[2 * i + 1] = this.edges[2 * last + 1];
+                return true;
+            }
+        }
+
+        if (this.edgeCount == MAX_EDGES) return false;
+
+        this.edges[2 * this.edgeCount] = a;
+        this.edges[2 * this.edgeCount + 1] = b;
+        ++this.edgeCount;
+        return true;
+    }
+
+    private int findClosestFace() {
+        int closest = -1;
+        double distance = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < this.faceCount; ++i) {
+            if (this.faceDistances[i] < distance) {
+                distance = this.faceDistances[i];
+                closest = i;
+            }
+        }
+
+        return closest;
+    }
+}
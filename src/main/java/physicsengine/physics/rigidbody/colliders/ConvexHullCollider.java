@@ -0,0 +1,257 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import physicsengine.math.Mat3;
+import physicsengine.math.Scratch;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.math.boundingvolumes.BoundingVolume;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+
+/**
+ * The convex hull of a point cloud, for example the vertices of a mesh loaded with
+ * {@link physicsengine.graphics.util.ObjLoader#loadVertices(String)}. Points inside the hull are dropped, and the remaining vertices are moved so
+ * that the center of mass of the hull is the origin of its local space, see {@link #getCenterOfMass()}.
+ *
+ * <p>Support points are found by hill climbing: starting from the best of the vertices farthest along the coordinate axes, the search moves to a
+ * neighboring vertex as long as one lies farther in the requested direction. Since the hull is convex, the vertex it stops at is a support point,
+ * usually after visiting a small part of the vertices. The neighbors of vertex i are {@code neighbors[neighborOffsets[i]]} up to
+ * {@code neighbors[neighborOffsets[i + 1] - 1]}.</p>
+ *
+ * <p>Hulls collide with each other, boxes, spheres and the triangles of meshes through {@link ConvexCollision} and with planes through their deepest
+ * vertex.</p>
+ */
+public class ConvexHullCollider implements Collider {
+    public static final int TYPE = CollisionDispatcher.registerType();
+    private static final int HILL_CLIMBING_MIN_VERTICES = 16; // small hulls are searched exhaustively
+    private final double[] vertices;
+    private final int[] triangles;
+    private final int[] neighborOffsets;
+    private final int[] neighbors;
+    private final int[] axisVertices; // the vertices farthest along +x, -x, +y, -y, +z and -z
+    private final Vec3 centerOfMass;
+    private final double volume;
+    private final double minDiagonalRadius;
+    private final BoundingVolume boundingVolume;
+
+    /**
+     * @param points the points to enclose, of which at least four must not lie in a plane
+     * @throws IllegalArgumentException if the points do not span a volume
+     */
+    public ConvexHullCollider(Vec3... points) {
+        double[] coordinates = new double[3 * points.length];
+
+        for (int i = 0; i < points.length; ++i) {
+            coordinates[3 * i] = points[i].x;
+            coordinates[3 * i + 1] = points[i].y;
+            coordinates[3 * i + 2] = points[i].z;
+        }
+
+        int[] triangles = QuickHull.build(coordinates);
+
+        // Keep only the points on the hull
+        int[] remap = new int[points.length];
+        int vertexCount = 0;
+
+        for (int i = 0; i < triangles.length; ++i) {
+            int point = triangles[i];
+
+            if (remap[point] == 0) {
+                remap[point] = ++vertexCount;
+            }
+
+            triangles[i] = remap[point] - 1;
+        }
+
+        this.vertices = new double[3 * vertexCount];
+
+        for (int i = 0; i < points.length; ++i) {
+            if (remap[i] != 0) {
+                System.arraycopy(coordinates, 3 * i, this.vertices, 3 * (remap[i] - 1), 3);
+            }
+        }
+
+        this.triangles = triangles;
+        this.centerOfMass = GeometryProperties.calculatePolyhedronCenterOfMassInto(this.vertices, this.triangles, new Vec3(0.0, 0.0, 0.0));
+
+        for (int i = 0; i < this.vertices.length; i += 3) {
+            this.vertices[i] -= this.centerOfMass.x;
+            this.vertices[i + 1] -= this.centerOfMass.y;
+            this.vertices[i + 2] -= this.centerOfMass.z;
+        }
+
+        this.volume = GeometryProperties.calculatePolyhedronVolume(this.vertices, this.triangles);
+
+        // Every edge of the closed surface appears once in each direction, so each neighbor is counted once
+        this.neighborOffsets = new int[vertexCount + 1];
+
+        for (int triangle : this.triangles) {
+            ++this.neighborOffsets[triangle + 1];
+        }
+
+        for (int i = 0; i < vertexCount; ++i) {
+            this.neighborOffsets[i + 1] += this.neighborOffsets[i];
+        }
+
+        this.neighbors = new int[this.triangles.length];
+        int[] sizes = new int[vertexCount];
+
+        for (int i = 0; i < this.triangles.length; i += 3) {
+            for (int j = 0; j < 3; ++j) {
+                int from = this.triangles[i + j];
+                int to = this.triangles[i + (j + 1) % 3];
+                this.neighbors[this.neighborOffsets[from] + sizes[from]++] = to;
+            }
+        }
+
+        this.axisVertices = new int[6];
+        double minX = 0.0, minY = 0.0, minZ = 0.0, maxX = 0.0, maxY = 0.0, maxZ = 0.0;
+        double maxSquaredRadius = 0.0;
+
+        for (int i = 0; i < vertexCount; ++i) {
+            double x = this.vertices[3 * i];
+            double y = this.vertices[3 * i + 1];
+            double z = this.vertices[3 * i + 2];
+
+            if (x > maxX) { maxX = x; this.axisVertices[0] = i; }
+            if (x < minX) { minX = x; this.axisVertices[1] = i; }
+            if (y > maxY) { maxY = y; this.axisVertices[2] = i; }
+            if (y < minY) { minY = y; this.axisVertices[3] = i; }
+            if (z > maxZ) { maxZ = z; this.axisVertices[4] = i; }
+            if (z < minZ) { minZ = z; this.axisVertices[5] = i; }
+
+            maxSquaredRadius = Math.max(maxSquaredRadius, x * x + y * y + z * z);
+        }
+
+        this.minDiagonalRadius = Math.sqrt(maxSquaredRadius);
+        this.boundingVolume = new AxisAlignedBoundingBox(new Vec3(minX, minY, minZ), new Vec3(maxX, maxY, maxZ));
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE;
+    }
+
+    @Override
+    public BoundingVolume getBoundingVolume() {
+        return this.boundingVolume;
+    }
+
+    @Override
+    public double getMinDiagonalRadius() {
+        return this.minDiagonalRadius;
+    }
+
+    @Override
+    public void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
+        // The world axes in local space are the rows of the rotation matrix, the extent along each is given by the support points in both directions
+        Mat3 orientation = parent.getRotationMatrix();
+        Vec3 position = parent.getPosition();
+        Vec3 axis = scratch.vec3();
+        Vec3 support = scratch.vec3();
+        double minX = position.x + this.extent(orientation.transformTransposedInto(Vec3.NEG_X, axis), support);
+        double maxX = position.x - this.extent(orientation.transformTransposedInto(Vec3.POS_X, axis), support);
+        double minY = position.y + this.extent(orientation.transformTransposedInto(Vec3.NEG_Y, axis), support);
+        double maxY = position.y - this.extent(orientation.transformTransposedInto(Vec3.POS_Y, axis), support);
+        double minZ = position.z + this.extent(orientation.transformTransposedInto(Vec3.NEG_Z, axis), support);
+        double maxZ = position.z - this.extent(orientation.transformTransposedInto(Vec3.POS_Z, axis), support);
+
+        bounds.set(minX, minY, minZ, maxX, maxY, maxZ);
+        scratch.pop();
+    }
+
+    /**
+     * @return the negated distance of the support point along the local direction
+     */
+    private double extent(Vec3 direction, Vec3 support) {
+        this.supportInto(direction, support);
+        return -direction.dot(support);
+    }
+
+    @Override
+    public Vec3 supportInto(Vec3 direction, Vec3 dst) {
+        int vertexCount = this.vertices.length / 3;
+        int best = 0;
+        double bestDistance = this.distance(0, direction);
+
+        if (vertexCount < HILL_CLIMBING_MIN_VERTICES) {
+            for (int i = 1; i < vertexCount; ++i) {
+                double distance = this.distance(i, direction);
+
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+        } else {
+            best = this.axisVertices[0];
+            bestDistance = this.distance(best, direction);
+
+            for (int i = 1; i < 6; ++i) {
+                double distance = this.distance(this.axisVertices[i], direction);
+
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    best = this.axisVertices[i];
+                }
+            }
+
+            boolean climbing = true;
+
+            while (climbing) {
+                climbing = false;
+                int end = this.neighborOffsets[best + 1];
+
+                for (int i = this.neighborOffsets[best]; i < end; ++i) {
+                    int neighbor = this.neighbors[i];
+                    double distance = this.distance(neighbor, direction);
+
+                    if (distance > bestDistance) {
+                        bestDistance = distance;
+                        best = neighbor;
+                        climbing = true;
+                    }
+                }
+            }
+        }
+
+        dst.set(this.vertices[3 * best], this.vertices[3 * best + 1], this.vertices[3 * best + 2]);
+        return dst;
+    }
+
+    private double distance(int vertex, Vec3 direction) {
+        return this.vertices[3 * vertex] * direction.x + this.vertices[3 * vertex + 1] * direction.y + this.vertices[3 * vertex + 2] * direction.z;
+    }
+
+    /**
+     * @return the offset that was subtracted from the points, so that a rigid body placed at it covers the points where they were given
+     */
+    public Vec3 getCenterOfMass() {
+        return new Vec3(this.centerOfMass.x, this.centerOfMass.y, this.centerOfMass.z);
+    }
+
+    public double getVolume() {
+        return this.volume;
+    }
+
+    public int getVertexCount() {
+        return this.vertices.length / 3;
+    }
+
+    /**
+     * @return the coordinates of the hull's vertices in local space, three per vertex
+     */
+    public double[] getVertices() {
+        return this.vertices.clone();
+    }
+
+    /**
+     * @return the faces of the hull as triangles of vertex indices, three per triangle, counter-clockwise when seen from outside
+     */
+    public int[] getTriangles() {
+        return this.triangles.clone();
+    }
+}
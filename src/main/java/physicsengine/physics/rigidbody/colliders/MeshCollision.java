@@ -0,0 +1,659 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import physicsengine.math.Mat3;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.math.boundingvolumes.BoundingVolume;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Collision detection between spheres or boxes and a {@link TriangleMeshCollider}. The bounds of the sphere or box in the local space of the mesh
+ * select the triangles to test from the mesh's hierarchy, so a query only reads the nodes and triangles below these bounds.
+ *
+ * <p>A sphere touches a triangle at the point of the triangle closest to its center. A box is tested against a triangle with the separating axis
+ * test: the normal of the triangle, the three axes of the box and the nine cross products of their edges. The axis of least penetration is the
+ * contact normal, where edge axes are only chosen if they are clearly shallower than face axes, since they flicker between neighboring edges.
+ * For a face axis, the face of the box that faces the triangle and the triangle are clipped against each other, like the faces of two boxes: the
+ * points of one that lie within the sides of the other and below its plane are the contacts, so that every contact lies over the triangle. An
+ * edge axis reports the closest points of the two edges.</p>
+ *
+ * <p>Any other convex collider is tested against each triangle with {@link ConvexCollision}, with the triangle as a convex collider of its own
+ * whose support point is its farthest vertex. Its bounds in the local space of the mesh come from its support points along the axes of the mesh.</p>
+ *
+ * <p>The traversal stack and the found triangles are kept in a per-thread workspace, so a query does not allocate once it has seen the largest
+ * number of triangles.</p>
+ */
+public final class MeshCollision {
+    private static final double EDGE_AXIS_BIAS = 1.05;
+    private static final double EPSILON = 1.0e-10;
+    private static final ThreadLocal<MeshCollision> WORKSPACE = ThreadLocal.withInitial(MeshCollision::new);
+
+    private int[] stack = new int[64];
+    private int[] hits = new int[64];
+    private int hitCount = 0;
+    // The current triangle, its edges and the box, all in the local space of the mesh
+    private final double[] vertices = new double[9];
+    private final double[] edges = new double[9];
+    private final double[] boxAxes = new double[9];
+    private final double[] halfExtents = new double[3];
+    private final Vec3 center = new Vec3(0.0, 0.0, 0.0);
+    // The axis of least penetration, pointing from the triangle towards the box
+    private final Vec3 normal = new Vec3(0.0, 0.0, 0.0);
+    private double depth;
+    private int axis;
+    private final Vec3 point = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 localPoint = new Vec3(0.0, 0.0, 0.0);
+    private final Vec3 direction = new Vec3(0.0, 0.0, 0.0);
+    // The polygon that is being clipped and the result of the last clipping plane, swapped after each plane, at most seven vertices
+    private double[] polygon = new double[3 * 8];
+    private double[] clipped = new double[3 * 8];
+    private final double[] depths = new double[8];
+    private final double[] bounds = new double[6];
+    private final Triangle triangle = new Triangle();
+
+    private MeshCollision() {
+    }
+
+    public static void collideSphereMesh(RigidBody rigidBody1, SphereCollider collider1, RigidBody rigidBody2, TriangleMeshCollider collider2, ContactManifold manifold, CollisionData data) {
+        MeshCollision workspace = WORKSPACE.get();
+        Vec3 center = rigidBody2.getPointInLocalSpaceInto(rigidBody1.getPosition(), workspace.center);
+        Vec3 point = workspace.point;
+        Vec3 normal = workspace.normal;
+        double radius = collider1.radius;
+
+        workspace.query(collider2, center.x - radius, center.y - radius, center.z - radius, center.x + radius, center.y + radius, center.z + radius);
+
+        for (int i = 0; i < workspace.hitCount; ++i) {
+            int triangle = workspace.hits[i];
+            workspace.loadTriangle(collider2, triangle);
+            workspace.closestPointInto(center, point);
+
+            double dx = center.x - point.x;
+            double dy = center.y - point.y;
+            double dz = center.z - point.z;
+            double squaredDistance = dx * dx + dy * dy + dz * dz;
+
+            if (squaredDistance > radius * radius) continue;
+
+            double distance = Math.sqrt(squaredDistance);
+
+            if (distance > EPSILON) {
+                normal.set(dx / distance, dy / distance, dz / distance);
+            } else {
+                workspace.triangleNormalInto(normal);
+            }
+
+            // Halfway between the triangle and the deepest point of the sphere
+            double penetration = radius - distance;
+            point.increment(normal, -penetration / 2.0);
+            rigidBody2.getPointInWorldSpaceInto(point, point);
+            rigidBody2.getRotationMatrix().transformInto(normal, normal);
+            data.set(rigidBody1, rigidBody2, normal, point, penetration, RigidBodyCollision.DEFAULT_RESTITUTION, triangle);
+        }
+    }
+
+    public static void collideBoxMesh(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, TriangleMeshCollider collider2, ContactManifold manifold, CollisionData data) {
+        MeshCollision workspace = WORKSPACE.get();
+        Mat3 orientation1 = rigidBody1.getRotationMatrix();
+        Mat3 orientation2 = rigidBody2.getRotationMatrix();
+        Vec3 point = workspace.point;
+        Vec3 normal = workspace.normal;
+        double[] axes = workspace.boxAxes;
+        double[] halfExtents = workspace.halfExtents;
+        halfExtents[0] = collider1.width / 2.0;
+        halfExtents[1] = collider1.height / 2.0;
+        halfExtents[2] = collider1.depth / 2.0;
+
+        // The box in the local space of the mesh
+        Vec3 center = rigidBody2.getPointInLocalSpaceInto(rigidBody1.getPosition(), workspace.center);
+        double extentX = 0.0;
+        double extentY = 0.0;
+        double extentZ = 0.0;
+
+        for (int j = 0; j < 3; ++j) {
+            orientation2.transformTransposedInto(orientation1.getColumnInto(j, point), point);
+            axes[3 * j] = point.x;
+            axes[3 * j + 1] = point.y;
+            axes[3 * j + 2] = point.z;
+            extentX += Math.abs(point.x) * halfExtents[j];
+            extentY += Math.abs(point.y) * halfExtents[j];
+            extentZ += Math.abs(point.z) * halfExtents[j];
+        }
+
+        workspace.query(collider2, center.x - extentX, center.y - extentY, center.z - extentZ, center.x + extentX, center.y + extentY, center.z + extentZ);
+
+        for (int i = 0; i < workspace.hitCount; ++i) {
+            if (!workspace.loadTriangle(collider2, workspace.hits[i], center, extentX, extentY, extentZ) || !workspace.findPenetration()) continue;
+
+            int count = workspace.axis < 4 ? workspace.clipFaces() : 0;
+            orientation2.transformInto(normal, workspace.direction);
+
+            for (int k = 0; k < count; ++k) {
+                double[] polygon = workspace.polygon;
+                point.set(polygon[3 * k], polygon[3 * k + 1], polygon[3 * k + 2]);
+                rigidBody2.getPointInWorldSpaceInto(point, point);
+                int feature = ConvexCollision.getFeature(rigidBody1, point, workspace.localPoint);
+                data.set(rigidBody1, rigidBody2, workspace.direction, point, workspace.depths[k], RigidBodyCollision.DEFAULT_RESTITUTION, feature);
+            }
+
+            // Edge axes, and face axes whose clipped faces lost all points to rounding
+            if (count == 0) {
+                workspace.contactPointInto(point);
+                rigidBody2.getPointInWorldSpaceInto(point, point);
+                int feature = ConvexCollision.getFeature(rigidBody1, point, workspace.localPoint);
+                data.set(rigidBody1, rigidBody2, workspace.direction, point, workspace.depth, RigidBodyCollision.DEFAULT_RESTITUTION, feature);
+            }
+        }
+    }
+
+    public static void collideConvexMesh(RigidBody rigidBody1, Collider collider1, RigidBody rigidBody2, TriangleMeshCollider collider2, ContactManifold manifold, CollisionData data) {
+        MeshCollision workspace = WORKSPACE.get();
+        Mat3 orientation2 = rigidBody2.getRotationMatrix();
+        Vec3 point = workspace.point;
+        Vec3 direction = workspace.direction;
+        double[] bounds = workspace.bounds;
+
+        // The bounds of the collider in the local space of the mesh, from its support points along the axes of the mesh in both directions
+        for (int k = 0; k < 6; ++k) {
+            orientation2.getColumnInto(k % 3, direction);
+
+            if (k >= 3) direction.scale(-1.0);
+
+            ConvexCollision.supportInWorldSpaceInto(rigidBody1, collider1, direction, workspace.localPoint, point);
+            rigidBody2.getPointInLocalSpaceInto(point, point);
+            bounds[k] = k % 3 == 0 ? point.x : k % 3 == 1 ? point.y : point.z;
+        }
+
+        Vec3 center = workspace.center;
+        center.set((bounds[0] + bounds[3]) / 2.0, (bounds[1] + bounds[4]) / 2.0, (bounds[2] + bounds[5]) / 2.0);
+        double extentX = (bounds[0] - bounds[3]) / 2.0;
+        double extentY = (bounds[1] - bounds[4]) / 2.0;
+        double extentZ = (bounds[2] - bounds[5]) / 2.0;
+
+        workspace.query(collider2, bounds[3], bounds[4], bounds[5], bounds[0], bounds[1], bounds[2]);
+
+        for (int i = 0; i < workspace.hitCount; ++i) {
+            if (!workspace.loadTriangle(collider2, workspace.hits[i], center, extentX, extentY, extentZ)) continue;
+
+            // The manifold keeps one separating direction for the whole mesh, which does not help with a single triangle
+            ConvexCollision.collide(rigidBody1, collider1, rigidBody2, workspace.triangle, null, data);
+        }
+    }
+
+    /**
+     * Collects the triangles of all leaves whose bounds overlap the given bounds in the local space of the mesh.
+     */
+    private void query(TriangleMeshCollider mesh, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        FloatBuffer bounds = mesh.nodeBounds;
+        IntBuffer nodes = mesh.nodes;
+        int size = 0;
+        this.hitCount = 0;
+        this.stack[size++] = 0;
+
+        while (size > 0) {
+            int node = this.stack[--size];
+            int offset = 6 * node;
+
+            if (bounds.get(offset) > maxX || bounds.get(offset + 1) > maxY || bounds.get(offset + 2) > maxZ
+                    || bounds.get(offset + 3) < minX || bounds.get(offset + 4) < minY || bounds.get(offset + 5) < minZ) {
+                continue;
+            }
+
+            int count = nodes.get(2 * node + 1);
+
+            if (count > 0) {
+                int first = nodes.get(2 * node);
+
+                if (this.hitCount + count > this.hits.length) {
+                    this.hits = Arrays.copyOf(this.hits, Math.max(2 * this.hits.length, this.hitCount + count));
+                }
+
+                for (int i = 0; i < count; ++i) {
+                    this.hits[this.hitCount++] = first + i;
+                }
+            } else {
+                if (size + 2 > this.stack.length) {
+                    this.stack = Arrays.copyOf(this.stack, 2 * this.stack.length);
+                }
+
+                this.stack[size++] = nodes.get(2 * node);
+                this.stack[size++] = node + 1;
+            }
+        }
+    }
+
+    /**
+     * Loads the triangle if its bounds overlap the bounds with the given center and extents, since the leaves of the hierarchy may also hold
+     * triangles farther away.
+     *
+     * @return {@code false} if the triangle lies outside the bounds
+     */
+    private boolean loadTriangle(TriangleMeshCollider mesh, int triangle, Vec3 center, double extentX, double extentY, double extentZ) {
+        this.loadTriangle(mesh, triangle);
+        double[] v = this.vertices;
+
+        return Math.min(v[0], Math.min(v[3], v[6])) <= center.x + extentX && Math.max(v[0], Math.max(v[3], v[6])) >= center.x - extentX
+                && Math.min(v[1], Math.min(v[4], v[7])) <= center.y + extentY && Math.max(v[1], Math.max(v[4], v[7])) >= center.y - extentY
+                && Math.min(v[2], Math.min(v[5], v[8])) <= center.z + extentZ && Math.max(v[2], Math.max(v[5], v[8])) >= center.z - extentZ;
+    }
+
+    private void loadTriangle(TriangleMeshCollider mesh, int triangle) {
+        FloatBuffer triangles = mesh.triangles;
+        int offset = 9 * triangle;
+
+        for (int i = 0; i < 9; ++i) {
+            this.vertices[i] = triangles.get(offset + i);
+        }
+
+        for (int k = 0; k < 3; ++k) {
+            int from = 3 * k;
+            int to = 3 * ((k + 1) % 3);
+            this.edges[from] = this.vertices[to] - this.vertices[from];
+            this.edges[from + 1] = this.vertices[to + 1] - this.vertices[from + 1];
+            this.edges[from + 2] = this.vertices[to + 2] - this.vertices[from + 2];
+        }
+    }
+
+    private void triangleNormalInto(Vec3 dst) {
+        double[] e = this.edges;
+        // The first edge crossed with the reversed third edge
+        dst.set(e[7] * e[2] - e[8] * e[1], e[8] * e[0] - e[6] * e[2], e[6] * e[1] - e[7] * e[0]);
+        dst.normalize();
+    }
+
+    /**
+     * Writes the point of the current triangle closest to p into {@code dst}, by finding the Voronoi region of the triangle that contains p
+     * (Ericson, Real-Time Collision Detection, 5.1.5).
+     */
+    private void closestPointInto(Vec3 p, Vec3 dst) {
+        double[] v = this.vertices;
+        double abx = v[3] - v[0], aby = v[4] - v[1], abz = v[5] - v[2];
+        double acx = v[6] - v[0], acy = v[7] - v[1], acz = v[8] - v[2];
+        double apx = p.x - v[0], apy = p.y - v[1], apz = p.z - v[2];
+        double d1 = abx * apx + aby * apy + abz * apz;
+        double d2 = acx * apx + acy * apy + acz * apz;
+
+        if (d1 <= 0.0 && d2 <= 0.0) {
+            dst.set(v[0], v[1], v[2]);
+            return;
+        }
+
+        double bpx = p.x - v[3], bpy = p.y - v[4], bpz = p.z - v[5];
+        double d3 = abx * bpx + aby * bpy + abz * bpz;
+        double d4 = acx * bpx + acy * bpy + acz * bpz;
+
+        if (d3 >= 0.0 && d4 <= d3) {
+            dst.set(v[3], v[4], v[5]);
+            return;
+        }
+
+        double vc = d1 * d4 - d3 * d2;
+
+        if (vc <= 0.0 && d1 >= 0.0 && d3 <= 0.0) {
+            double t = d1 / (d1 - d3);
+            dst.set(v[0] + t * abx, v[1] + t * aby, v[2] + t * abz);
+            return;
+        }
+
+        double cpx = p.x - v[6], cpy = p.y - v[7], cpz = p.z - v[8];
+        double d5 = abx * cpx + aby * cpy + abz * cpz;
+        double d6 = acx * cpx + acy * cpy + acz * cpz;
+
+        if (d6 >= 0.0 && d5 <= d6) {
+            dst.set(v[6], v[7], v[8]);
+            return;
+        }
+
+        double vb = d5 * d2 - d1 * d6;
+
+        if (vb <= 0.0 && d2 >= 0.0 && d6 <= 0.0) {
+            double t = d2 / (d2 - d6);
+            dst.set(v[0] + t * acx, v[1] + t * acy, v[2] + t * acz);
+            return;
+        }
+
+        double va = d3 * d6 - d5 * d4;
+
+        if (va <= 0.0 && d4 - d3 >= 0.0 && d5 - d6 >= 0.0) {
+            double t = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+            dst.set(v[3] + t * (v[6] - v[3]), v[4] + t * (v[7] - v[4]), v[5] + t * (v[8] - v[5]));
+            return;
+        }
+
+        double sum = va + vb + vc;
+
+        if (sum == 0.0) { // a degenerate triangle
+            dst.set(v[0], v[1], v[2]);
+            return;
+        }
+
+        double t = vb / sum;
+        double s = vc / sum;
+        dst.set(v[0] + t * abx + s * acx, v[1] + t * aby + s * acy, v[2] + t * abz + s * acz);
+    }
+
+    /**
+     * Tests the separating axes of the box and the current triangle.
+     *
+     * @return {@code false} if an axis separates them, otherwise the axis of least penetration is stored
+     */
+    private boolean findPenetration() {
+        double[] a = this.boxAxes;
+        double[] e = this.edges;
+        this.depth = Double.POSITIVE_INFINITY;
+
+        // Axis 0 is the triangle normal, axes 1 to 3 are the box axes and axis 4 + 3 * j + k is box axis j crossed with triangle edge k
+        if (!this.testAxis(e[7] * e[2] - e[8] * e[1], e[8] * e[0] - e[6] * e[2], e[6] * e[1] - e[7] * e[0], 0)) return false;
+
+        for (int j = 0; j < 3; ++j) {
+            if (!this.testAxis(a[3 * j], a[3 * j + 1], a[3 * j + 2], 1 + j)) return false;
+        }
+
+        for (int j = 0; j < 3; ++j) {
+            for (int k = 0; k < 3; ++k) {
+                double x = a[3 * j + 1] * e[3 * k + 2] - a[3 * j + 2] * e[3 * k + 1];
+                double y = a[3 * j + 2] * e[3 * k] - a[3 * j] * e[3 * k + 2];
+                double z = a[3 * j] * e[3 * k + 1] - a[3 * j + 1] * e[3 * k];
+
+                if (!this.testAxis(x, y, z, 4 + 3 * j + k)) return false;
+            }
+        }
+
+        return this.depth < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return {@code false} if the axis separates the box and the triangle
+     */
+    private boolean testAxis(double x, double y, double z, int axis) {
+        double squaredLength = x * x + y * y + z * z;
+
+        if (squaredLength < EPSILON * EPSILON) return true; // parallel edges, covered by the other axes
+
+        // Projections on the axis as it is, scaled by its length, which only matters for the depth
+        double[] a = this.boxAxes;
+        double[] h = this.halfExtents;
+        double[] v = this.vertices;
+        double radius = h[0] * Math.abs(a[0] * x + a[1] * y + a[2] * z) + h[1] * Math.abs(a[3] * x + a[4] * y + a[5] * z) + h[2] * Math.abs(a[6] * x + a[7] * y + a[8] * z);
+        double center = this.center.x * x + this.center.y * y + this.center.z * z;
+        double p0 = v[0] * x + v[1] * y + v[2] * z;
+        double p1 = v[3] * x + v[4] * y + v[5] * z;
+        double p2 = v[6] * x + v[7] * y + v[8] * z;
+        double up = Math.max(p0, Math.max(p1, p2)) - (center - radius); // to push the box along the axis
+        double down = (center + radius) - Math.min(p0, Math.min(p1, p2)); // to push the box against the axis
+
+        if (up < 0.0 || down < 0.0) return false;
+
+        double inverseLength = 1.0 / Math.sqrt(squaredLength);
+        double depth = Math.min(up, down) * inverseLength;
+        double biased = axis >= 4 ? EDGE_AXIS_BIAS * depth : depth;
+
+        if (biased < this.depth) {
+            double scale = up <= down ? inverseLength : -inverseLength;
+            this.depth = depth;
+            this.axis = axis;
+            this.normal.set(scale * x, scale * y, scale * z);
+        }
+
+        return true;
+    }
+
+    /**
+     * Clips the two faces for a face axis: for the triangle normal the face of the box that faces the triangle against the sides of the triangle,
+     * for an axis of the box the triangle against the sides of that face of the box. The remaining points below the other face are the contacts,
+     * each moved halfway out, and replace the polygon.
+     *
+     * @return the number of contacts
+     */
+    private int clipFaces() {
+        double[] a = this.boxAxes;
+        double[] h = this.halfExtents;
+        double[] v = this.vertices;
+        double[] e = this.edges;
+        Vec3 c = this.center;
+        Vec3 n = this.normal;
+        int size;
+        // The face of the box that faces the triangle lies along the box axis j, against the normal
+        int j = this.axis - 1;
+
+        if (this.axis == 0) {
+            double max = -1.0;
+
+            for (int k = 0; k < 3; ++k) {
+                double alignment = Math.abs(a[3 * k] * n.x + a[3 * k + 1] * n.y + a[3 * k + 2] * n.z);
+
+                if (alignment > max) {
+                    max = alignment;
+                    j = k;
+                }
+            }
+        }
+
+        double sign = a[3 * j] * n.x + a[3 * j + 1] * n.y + a[3 * j + 2] * n.z > 0.0 ? -1.0 : 1.0;
+        double fx = c.x + sign * h[j] * a[3 * j], fy = c.y + sign * h[j] * a[3 * j + 1], fz = c.z + sign * h[j] * a[3 * j + 2];
+        int u = (j + 1) % 3;
+        int w = (j + 2) % 3;
+
+        if (this.axis == 0) {
+            double[] p = this.polygon;
+
+            for (int k = 0; k < 4; ++k) {
+                double su = k == 0 || k == 3 ? h[u] : -h[u];
+                double sw = k < 2 ? h[w] : -h[w];
+                p[3 * k] = fx + su * a[3 * u] + sw * a[3 * w];
+                p[3 * k + 1] = fy + su * a[3 * u + 1] + sw * a[3 * w + 1];
+                p[3 * k + 2] = fz + su * a[3 * u + 2] + sw * a[3 * w + 2];
+            }
+
+            size = 4;
+            // The normal of the triangle crossed with each edge points into the triangle for either winding
+            double tx = e[7] * e[2] - e[8] * e[1], ty = e[8] * e[0] - e[6] * e[2], tz = e[6] * e[1] - e[7] * e[0];
+
+            for (int k = 0; k < 3 && size > 0; ++k) {
+                double mx = ty * e[3 * k + 2] - tz * e[3 * k + 1];
+                double my = tz * e[3 * k] - tx * e[3 * k + 2];
+                double mz = tx * e[3 * k + 1] - ty * e[3 * k];
+                size = this.clip(size, -mx, -my, -mz, -(mx * v[3 * k] + my * v[3 * k + 1] + mz * v[3 * k + 2]));
+            }
+        } else {
+            System.arraycopy(v, 0, this.polygon, 0, 9);
+            size = 3;
+
+            for (int k = 0; k < 2 && size > 0; ++k) {
+                int i = k == 0 ? u : w;
+                double offset = a[3 * i] * c.x + a[3 * i + 1] * c.y + a[3 * i + 2] * c.z;
+                size = this.clip(size, a[3 * i], a[3 * i + 1], a[3 * i + 2], offset + h[i]);
+                size = this.clip(size, -a[3 * i], -a[3 * i + 1], -a[3 * i + 2], h[i] - offset);
+            }
+        }
+
+        // Keep the points below the other face: the plane of the triangle, or the face of the box, whose normal is the negated contact normal
+        double planeX = this.axis == 0 ? v[0] : fx, planeY = this.axis == 0 ? v[1] : fy, planeZ = this.axis == 0 ? v[2] : fz;
+        double outwards = this.axis == 0 ? -1.0 : 1.0; // the direction along the normal in which the points penetrate
+        double[] p = this.polygon;
+        int count = 0;
+
+        for (int k = 0; k < size; ++k) {
+            double depth = outwards * ((p[3 * k] - planeX) * n.x + (p[3 * k + 1] - planeY) * n.y + (p[3 * k + 2] - planeZ) * n.z);
+
+            if (depth <= 0.0) continue;
+
+            double shift = -outwards * depth / 2.0;
+            p[3 * count] = p[3 * k] + shift * n.x;
+            p[3 * count + 1] = p[3 * k + 1] + shift * n.y;
+            p[3 * count + 2] = p[3 * k + 2] + shift * n.z;
+            this.depths[count++] = depth;
+        }
+
+        return count;
+    }
+
+    /**
+     * Clips the polygon against the plane, keeping the part where the dot product with the plane normal is at most {@code max}
+     * (Sutherland-Hodgman).
+     *
+     * @return the number of vertices of the clipped polygon
+     */
+    private int clip(int size, double nx, double ny, double nz, double max) {
+        double[] p = this.polygon;
+        double[] q = this.clipped;
+        int count = 0;
+
+        for (int k = 0; k < size; ++k) {
+            int next = (k + 1) % size;
+            double d1 = p[3 * k] * nx + p[3 * k + 1] * ny + p[3 * k + 2] * nz - max;
+            double d2 = p[3 * next] * nx + p[3 * next + 1] * ny + p[3 * next + 2] * nz - max;
+
+            if (d1 <= 0.0) {
+                System.arraycopy(p, 3 * k, q, 3 * count++, 3);
+            }
+
+            if ((d1 < 0.0 && d2 > 0.0) || (d1 > 0.0 && d2 < 0.0)) {
+                double t = d1 / (d1 - d2);
+                q[3 * count] = p[3 * k] + t * (p[3 * next] - p[3 * k]);
+                q[3 * count + 1] = p[3 * k + 1] + t * (p[3 * next + 1] - p[3 * k + 1]);
+                q[3 * count + 2] = p[3 * k + 2] + t * (p[3 * next + 2] - p[3 * k + 2]);
+                ++count;
+            }
+        }
+
+        this.polygon = q;
+        this.clipped = p;
+        return count;
+    }
+
+    /**
+     * Writes the contact point for the axis of least penetration into {@code dst}: the deepest vertex of the box for the triangle normal, the
+     * deepest vertex of the triangle for an axis of the box, and the closest points of both edges for an edge axis, each moved halfway out.
+     */
+    private void contactPointInto(Vec3 dst) {
+        double[] a = this.boxAxes;
+        double[] h = this.halfExtents;
+        double[] v = this.vertices;
+        Vec3 n = this.normal;
+
+        if (this.axis == 0) {
+            this.boxSupportInto(-1, dst);
+            dst.increment(n, this.depth / 2.0);
+        } else if (this.axis < 4) {
+            int deepest = 0;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (int k = 0; k < 3; ++k) {
+                double projection = v[3 * k] * n.x + v[3 * k + 1] * n.y + v[3 * k + 2] * n.z;
+
+                if (projection > max) {
+                    max = projection;
+                    deepest = k;
+                }
+            }
+
+            dst.set(v[3 * deepest], v[3 * deepest + 1], v[3 * deepest + 2]);
+            dst.increment(n, -this.depth / 2.0);
+        } else {
+            int j = (this.axis - 4) / 3;
+            int k = (this.axis - 4) % 3;
+
+            // The edge of the box along axis j that is deepest against the normal
+            this.boxSupportInto(j, dst);
+            double px = dst.x - h[j] * a[3 * j], py = dst.y - h[j] * a[3 * j + 1], pz = dst.z - h[j] * a[3 * j + 2];
+            double d1x = 2.0 * h[j] * a[3 * j], d1y = 2.0 * h[j] * a[3 * j + 1], d1z = 2.0 * h[j] * a[3 * j + 2];
+            double qx = v[3 * k], qy = v[3 * k + 1], qz = v[3 * k + 2];
+            double d2x = this.edges[3 * k], d2y = this.edges[3 * k + 1], d2z = this.edges[3 * k + 2];
+
+            // Closest points of the two segments (Ericson, Real-Time Collision Detection, 5.1.9)
+            double rx = px - qx, ry = py - qy, rz = pz - qz;
+            double aa = d1x * d1x + d1y * d1y + d1z * d1z;
+            double ee = d2x * d2x + d2y * d2y + d2z * d2z;
+            double f = d2x * rx + d2y * ry + d2z * rz;
+            double c = d1x * rx + d1y * ry + d1z * rz;
+            double b = d1x * d2x + d1y * d2y + d1z * d2z;
+            double denominator = aa * ee - b * b;
+            double s = denominator > EPSILON ? clamp((b * f - c * ee) / denominator) : 0.0;
+            double t = (b * s + f) / ee;
+
+            if (t < 0.0) {
+                t = 0.0;
+                s = clamp(-c / aa);
+            } else if (t > 1.0) {
+                t = 1.0;
+                s = clamp((b - c) / aa);
+            }
+
+            dst.set((px + s * d1x + qx + t * d2x) / 2.0, (py + s * d1y + qy + t * d2y) / 2.0, (pz + s * d1z + qz + t * d2z) / 2.0);
+        }
+    }
+
+    /**
+     * Writes the vertex of the box that lies deepest against the normal into {@code dst}, or the center of the edge along the axis {@code free}
+     * through it if that axis is not negative.
+     */
+    private void boxSupportInto(int free, Vec3 dst) {
+        double[] a = this.boxAxes;
+        double[] h = this.halfExtents;
+        Vec3 n = this.normal;
+        dst.set(this.center);
+
+        for (int j = 0; j < 3; ++j) {
+            if (j == free) continue;
+
+            double sign = a[3 * j] * n.x + a[3 * j + 1] * n.y + a[3 * j + 2] * n.z > 0.0 ? -1.0 : 1.0;
+            dst.set(dst.x + sign * h[j] * a[3 * j], dst.y + sign * h[j] * a[3 * j + 1], dst.z + sign * h[j] * a[3 * j + 2]);
+        }
+    }
+
+    private static double clamp(double d) {
+        return Math.max(0.0, Math.min(d, 1.0));
+    }
+
+    /**
+     * The current triangle as a convex collider in the local space of the mesh. It only provides support points and is never added to a scene.
+     */
+    private final class Triangle implements Collider {
+        @Override
+        public int getTypeId() {
+            throw new UnsupportedOperationException("Triangle only provides support points!");
+        }
+
+        @Override
+        public BoundingVolume getBoundingVolume() {
+            throw new UnsupportedOperationException("Triangle only provides support points!");
+        }
+
+        @Override
+        public double getMinDiagonalRadius() {
+            throw new UnsupportedOperationException("Triangle only provides support points!");
+        }
+
+        @Override
+        public void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds) {
+            throw new UnsupportedOperationException("Triangle only provides support points!");
+        }
+
+        @Override
+        public Vec3 supportInto(Vec3 direction, Vec3 dst) {
+            double[] v = MeshCollision.this.vertices;
+            int farthest = 0;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (int k = 0; k < 3; ++k) {
+                double projection = v[3 * k] * direction.x + v[3 * k + 1] * direction.y + v[3 * k + 2] * direction.z;
+
+                if (projection > max) {
+                    max = projection;
+                    farthest = k;
+                }
+            }
+
+            dst.set(v[3 * farthest], v[3 * farthest + 1], v[3 * farthest + 2]);
+            return dst;
+        }
+    }
+}
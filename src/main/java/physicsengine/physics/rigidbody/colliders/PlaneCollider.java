@@ -3,7 +3,6 @@ package physicsengine.physics.rigidbody.colliders;
 import physicsengine.math.Vec3;
 import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
 import physicsengine.math.boundingvolumes.BoundingVolume;
-import physicsengine.physics.rigidbody.CollisionData;
 import physicsengine.physics.rigidbody.RigidBody;
 
 public class PlaneCollider implements Collider {
@@ -22,6 +21,11 @@ public class PlaneCollider implements Collider {
         this.size = size;
     }
 
+    @Override
+    public int getTypeId() {
+        return CollisionDispatcher.PLANE;
+    }
+
     @Override
     public BoundingVolume getBoundingVolume() {
         return BOUNDING_VOLUME;
@@ -33,16 +37,12 @@ public class PlaneCollider implements Collider {
     }
 
     @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, BoxCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideBoxPlane(rigidBody, collider, parent, this, collisionData);
-    }
-
-    @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, SphereCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideSpherePlane(rigidBody, collider, parent, this, collisionData);
+    public boolean isBounded() {
+        return false;
     }
 
     @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, PlaneCollider collider, CollisionData collisionData) {
+    public void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds) {
+        bounds.set(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
     }
 }
@@ -0,0 +1,345 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the convex hull of a point cloud with the quickhull algorithm. Starting from a tetrahedron of extreme points, every face keeps the points
+ * in front of it; the farthest of them is added to the hull by replacing the faces it sees with a fan of faces to their horizon, until no face has
+ * points in front of it anymore.
+ *
+ * <p>Points closer to a face than a tolerance relative to the extent of the cloud count as lying on it, so the hull never contains vertices that
+ * are only numerically in front of a face. A point on a face of the final hull is only kept if it was added before that face was complete.</p>
+ */
+final class QuickHull {
+    private static final double TOLERANCE = 1.0e-10;
+    private final double[] points;
+    private final int count;
+    private final double tolerance;
+    private final List<Face> faces = new ArrayList<>();
+    private final Map<Long, Face> edges = new HashMap<>(); // the face to the left of each directed edge
+
+    private QuickHull(double[] points) {
+        this.points = points;
+        this.count = points.length / 3;
+        double extent = 0.0;
+
+        for (int i = 0; i < points.length; ++i) {
+            extent = Math.max(extent, Math.abs(points[i]));
+        }
+
+        this.tolerance = TOLERANCE * Math.max(extent, 1.0);
+    }
+
+    /**
+     * @param points the coordinates of the points, three per point
+     * @return the faces of the hull as triangles of point indices, three per triangle, counter-clockwise when seen from outside
+     * @throws IllegalArgumentException if the points do not span a volume
+     */
+    static int[] build(double[] points) {
+        if (points.length % 3 != 0) throw new IllegalArgumentException("QuickHull requires three coordinates per point!");
+
+        QuickHull hull = new QuickHull(points);
+        hull.createSimplex();
+        hull.expand();
+
+        int[] triangles = new int[3 * hull.faces.size()];
+        int size = 0;
+
+        for (Face face : hull.faces) {
+            if (face.removed) continue;
+
+            triangles[size++] = face.a;
+            triangles[size++] = face.b;
+            triangles[size++] = face.c;
+        }
+
+        return Arrays.copyOf(triangles, size);
+    }
+
+    private double x(int i) {
+        return this.points[3 * i];
+    }
+
+    private double y(int i) {
+        return this.points[3 * i + 1];
+    }
+
+    private double z(int i) {
+        return this.points[3 * i + 2];
+    }
+
+    /**
+     * Compares the points along the axis and then along the following axes, so that of several points with the same extreme coordinate one on a
+     * corner of the hull is chosen.
+     */
+    private int compare(int i, int j, int axis) {
+        for (int k = 0; k < 3; ++k) {
+            int comparison = Double.compare(this.points[3 * i + (axis + k) % 3], this.points[3 * j + (axis + k) % 3]);
+
+            if (comparison != 0) return comparison;
+        }
+
+        return 0;
+    }
+
+    private void createSimplex() {
+        if (this.count < 4) throw new IllegalArgumentException("QuickHull requires at least 4 points!");
+
+        // The two points farthest apart along one of the axes
+        int i0 = 0;
+        int i1 = 0;
+        double maxDistance = -1.0;
+
+        for (int axis = 0; axis < 3; ++axis) {
+            int min = 0;
+            int max = 0;
+
+            for (int i = 1; i < this.count; ++i) {
+                if (this.compare(i, min, axis) < 0) min = i;
+                if (this.compare(i, max, axis) > 0) max = i;
+            }
+
+            double distance = this.points[3 * max + axis] - this.points[3 * min + axis];
+
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                i0 = min;
+                i1 = max;
+            }
+        }
+
+        if (maxDistance <= this.tolerance) throw new IllegalArgumentException("QuickHull points are coincident!");
+
+        // The point farthest from the line through them
+        double dx = this.x(i1) - this.x(i0);
+        double dy = this.y(i1) - this.y(i0);
+        double dz = this.z(i1) - this.z(i0);
+        int i2 = -1;
+        maxDistance = this.tolerance * maxDistance;
+
+        for (int i = 0; i < this.count; ++i) {
+            double px = this.x(i) - this.x(i0);
+            double py = this.y(i) - this.y(i0);
+            double pz = this.z(i) - this.z(i0);
+            double cx = py * dz - pz * dy;
+            double cy = pz * dx - px * dz;
+            double cz = px * dy - py * dx;
+            double distance = Math.sqrt(cx * cx + cy * cy + cz * cz);
+
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                i2 = i;
+            }
+        }
+
+        if (i2 < 0) throw new IllegalArgumentException("QuickHull points are collinear!");
+
+        // The point farthest from the plane through all three
+        Face base = new Face(this, i0, i1, i2);
+        int i3 = -1;
+        maxDistance = this.tolerance;
+
+        for (int i = 0; i < this.count; ++i) {
+            double distance = Math.abs(base.distance(this, i));
+
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                i3 = i;
+            }
+        }
+
+        if (i3 < 0) throw new IllegalArgumentException("QuickHull points are coplanar!");
+
+        int[] simplex = {i0, i1, i2, i3};
+
+        for (int k = 0; k < 4; ++k) {
+            int a = simplex[(k + 1) % 4];
+            int b = simplex[(k + 2) % 4];
+            int c = simplex[(k + 3) % 4];
+            Face face = new Face(this, a, b, c);
+
+            // The omitted vertex lies behind every face of the tetrahedron
+            this.add(face.distance(this, simplex[k]) > 0.0 ? new Face(this, a, c, b) : face);
+        }
+
+        for (int i = 0; i < this.count; ++i) {
+            if (i == i0 || i == i1 || i == i2 || i == i3) continue;
+
+            this.assign(i, this.faces);
+        }
+    }
+
+    private void expand() {
+        ArrayDeque<Face> pending = new ArrayDeque<>(this.faces);
+        ArrayDeque<Face> queue = new ArrayDeque<>();
+        List<Face> visible = new ArrayList<>();
+        List<Face> created = new ArrayList<>();
+        List<int[]> horizon = new ArrayList<>();
+
+        while (!pending.isEmpty()) {
+            Face start = pending.poll();
+
+            if (start.removed || start.outsideSize == 0) continue;
+
+            int eye = start.outside[start.farthest];
+
+            // Flood the faces that see the eye point; the edges to faces that do not see it form the horizon
+            visible.clear();
+            horizon.clear();
+            start.visited = true;
+            visible.add(start);
+            queue.add(start);
+
+            while (!queue.isEmpty()) {
+                Face face = queue.poll();
+
+                for (int e = 0; e < 3; ++e) {
+                    int from = face.vertex(e);
+                    int to = face.vertex((e + 1) % 3);
+                    Face neighbor = this.edges.get(key(to, from));
+
+                    if (neighbor.visited) continue;
+
+                    if (neighbor.distance(this, eye) > this.tolerance) {
+                        neighbor.visited = true;
+                        visible.add(neighbor);
+                        queue.add(neighbor);
+                    } else {
+                        horizon.add(new int[]{from, to});
+                    }
+                }
+            }
+
+            for (Face face : visible) {
+                face.removed = true;
+                this.edges.remove(key(face.a, face.b));
+                this.edges.remove(key(face.b, face.c));
+                this.edges.remove(key(face.c, face.a));
+            }
+
+            created.clear();
+
+            for (int[] edge : horizon) {
+                Face face = new Face(this, edge[0], edge[1], eye);
+                this.add(face);
+                created.add(face);
+            }
+
+            for (Face face : visible) {
+                for (int i = 0; i < face.outsideSize; ++i) {
+                    if (face.outside[i] != eye) {
+                        this.assign(face.outside[i], created);
+                    }
+                }
+            }
+
+            for (Face face : created) {
+                if (face.outsideSize > 0) {
+                    pending.add(face);
+                }
+            }
+        }
+    }
+
+    private void add(Face face) {
+        this.faces.add(face);
+        this.edges.put(key(face.a, face.b), face);
+        this.edges.put(key(face.b, face.c), face);
+        this.edges.put(key(face.c, face.a), face);
+    }
+
+    /**
+     * Adds the point to the outside set of the candidate face it lies farthest in front of, if any.
+     */
+    private void assign(int point, List<Face> candidates) {
+        Face best = null;
+        double bestDistance = this.tolerance;
+
+        for (Face face : candidates) {
+            double distance = face.distance(this, point);
+
+            if (distance > bestDistance) {
+                bestDistance = distance;
+                best = face;
+            }
+        }
+
+        if (best != null) {
+            best.addOutside(point, bestDistance);
+        }
+    }
+
+    private static long key(int from, int to) {
+        return (long)from << 32 | to;
+    }
+
+    private static final class Face {
+        private final int a;
+        private final int b;
+        private final int c;
+        private final double normalX;
+        private final double normalY;
+        private final double normalZ;
+        private final double offset;
+        private int[] outside = new int[0];
+        private int outsideSize = 0;
+        private int farthest = -1;
+        private double farthestDistance = 0.0;
+        private boolean visited = false;
+        private boolean removed = false;
+
+        private Face(QuickHull hull, int a, int b, int c) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+
+            double abx = hull.x(b) - hull.x(a);
+            double aby = hull.y(b) - hull.y(a);
+            double abz = hull.z(b) - hull.z(a);
+            double acx = hull.x(c) - hull.x(a);
+            double acy = hull.y(c) - hull.y(a);
+            double acz = hull.z(c) - hull.z(a);
+            double nx = aby * acz - abz * acy;
+            double ny = abz * acx - abx * acz;
+            double nz = abx * acy - aby * acx;
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+            if (length > 0.0) {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+
+            this.normalX = nx;
+            this.normalY = ny;
+            this.normalZ = nz;
+            this.offset = nx * hull.x(a) + ny * hull.y(a) + nz * hull.z(a);
+        }
+
+        private int vertex(int i) {
+            return i == 0 ? this.a : i == 1 ? this.b : this.c;
+        }
+
+        private double distance(QuickHull hull, int point) {
+            return this.normalX * hull.x(point) + this.normalY * hull.y(point) + this.normalZ * hull.z(point) - this.offset;
+        }
+
+        private void addOutside(int point, double distance) {
+            if (this.outsideSize == this.outside.length) {
+                this.outside = Arrays.copyOf(this.outside, Math.max(4, 2 * this.outsideSize));
+            }
+
+            if (distance > this.farthestDistance) {
+                this.farthestDistance = distance;
+                this.farthest = this.outsideSize;
+            }
+
+            this.outside[this.outsideSize++] = point;
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package physicsengine.physics.rigidbody.colliders;
 
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
 import physicsengine.math.boundingvolumes.BoundingVolume;
 import physicsengine.math.boundingvolumes.SphericalBoundingVolume;
-import physicsengine.physics.rigidbody.CollisionData;
 import physicsengine.physics.rigidbody.RigidBody;
 
 public class SphereCollider implements Collider {
@@ -14,6 +15,11 @@ public class SphereCollider implements Collider {
         this.boundingVolume = new SphericalBoundingVolume(this.radius);
     }
 
+    @Override
+    public int getTypeId() {
+        return CollisionDispatcher.SPHERE;
+    }
+
     @Override
     public BoundingVolume getBoundingVolume() {
         return this.boundingVolume;
@@ -25,17 +31,21 @@ public class SphereCollider implements Collider {
     }
 
     @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, BoxCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideBoxSphere(rigidBody, collider, parent, this, collisionData);
+    public void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds) {
+        Vec3 position = parent.getPosition();
+        bounds.set(position.x - this.radius, position.y - this.radius, position.z - this.radius, position.x + this.radius, position.y + this.radius, position.z + this.radius);
     }
 
     @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, SphereCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideSphereSphere(parent, this, rigidBody, collider, collisionData);
-    }
+    public Vec3 supportInto(Vec3 direction, Vec3 dst) {
+        double length = direction.length();
 
-    @Override
-    public void collide(RigidBody parent, RigidBody rigidBody, PlaneCollider collider, CollisionData collisionData) {
-        CollisionAlgorithms.collideSpherePlane(parent, this, rigidBody, collider, collisionData);
+        if (length == 0.0) {
+            dst.set(this.radius, 0.0, 0.0);
+        } else {
+            dst.set(direction.x * this.radius / length, direction.y * this.radius / length, direction.z * this.radius / length);
+        }
+
+        return dst;
     }
 }
@@ -0,0 +1,317 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import physicsengine.math.Mat3;
+import physicsengine.math.Scratch;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.math.boundingvolumes.BoundingVolume;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A triangle mesh for static level geometry, for example loaded with {@link physicsengine.graphics.util.ObjLoader#loadMesh(String)}. It belongs to
+ * rigid bodies of infinite mass and collides with spheres, boxes and other convex colliders, see {@link MeshCollision}. Its triangles are two-sided.
+ *
+ * <p>The triangles are sorted into a bounding volume hierarchy, which is stored in flat arrays instead of a tree of objects: node i has the bounds
+ * {@code nodeBounds[6 * i]} to {@code nodeBounds[6 * i + 5]} (minimum and maximum corner), its left child is node i + 1 and {@code nodes[2 * i]} is
+ * its right child, unless it is a leaf, which holds the {@code nodes[2 * i + 1]} triangles starting at {@code nodes[2 * i]}. The triangles are
+ * stored in the order of the leaves with their vertices inline, nine coordinates per triangle, so that a query reads adjacent memory.</p>
+ *
+ * <p>Building the hierarchy takes about two seconds for a million triangles. {@link #save(Path)} writes it to a binary cache, which
+ * {@link #load(Path)} maps into memory without reading or copying it, so loading is independent of the size of the mesh.</p>
+ */
+public class TriangleMeshCollider implements Collider {
+    private static final int MAGIC = 0x4853454D; // "MESH"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int LEAF_SIZE = 4;
+    final FloatBuffer nodeBounds;
+    final IntBuffer nodes;
+    final FloatBuffer triangles;
+    private final int nodeCount;
+    private final int triangleCount;
+    private final AxisAlignedBoundingBox boundingVolume;
+    private final double minDiagonalRadius;
+
+    /**
+     * @param vertices  the coordinates of the vertices, three per vertex
+     * @param triangles the vertex indices of the triangles, three per triangle
+     * @throws IllegalArgumentException if there are no triangles
+     */
+    public TriangleMeshCollider(float[] vertices, int[] triangles) {
+        this(Builder.build(vertices, triangles));
+    }
+
+    private TriangleMeshCollider(Builder builder) {
+        this(FloatBuffer.wrap(builder.nodeBounds), IntBuffer.wrap(builder.nodes), FloatBuffer.wrap(builder.triangles));
+    }
+
+    private TriangleMeshCollider(FloatBuffer nodeBounds, IntBuffer nodes, FloatBuffer triangles) {
+        this.nodeBounds = nodeBounds;
+        this.nodes = nodes;
+        this.triangles = triangles;
+        this.nodeCount = nodes.limit() / 2;
+        this.triangleCount = triangles.limit() / 9;
+
+        // The root node bounds the whole mesh
+        Vec3 min = new Vec3(nodeBounds.get(0), nodeBounds.get(1), nodeBounds.get(2));
+        Vec3 max = new Vec3(nodeBounds.get(3), nodeBounds.get(4), nodeBounds.get(5));
+        this.boundingVolume = new AxisAlignedBoundingBox(min, max);
+        double x = Math.max(Math.abs(min.x), Math.abs(max.x));
+        double y = Math.max(Math.abs(min.y), Math.abs(max.y));
+        double z = Math.max(Math.abs(min.z), Math.abs(max.z));
+        this.minDiagonalRadius = Math.sqrt(x * x + y * y + z * z);
+    }
+
+    /**
+     * Maps a cache written by {@link #save(Path)} into memory.
+     *
+     * @throws IOException if the file cannot be read or is not a triangle mesh cache
+     */
+    public static TriangleMeshCollider load(Path path) throws IOException {
+        ByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(path + " is not a triangle mesh cache!");
+        }
+
+        int nodeCount = buffer.getInt(8);
+        int triangleCount = buffer.getInt(12);
+        int boundsSize = 4 * 6 * nodeCount;
+        int nodesSize = 4 * 2 * nodeCount;
+        int trianglesSize = 4 * 9 * triangleCount;
+
+        if (nodeCount < 1 || triangleCount < 1 || buffer.capacity() != (long)HEADER_SIZE + boundsSize + nodesSize + trianglesSize) {
+            throw new IOException(path + " is not a triangle mesh cache!");
+        }
+
+        return new TriangleMeshCollider(
+                buffer.slice(HEADER_SIZE, boundsSize).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer(),
+                buffer.slice(HEADER_SIZE + boundsSize, nodesSize).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+                buffer.slice(HEADER_SIZE + boundsSize + nodesSize, trianglesSize).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
+    }
+
+    /**
+     * Writes the triangles and their hierarchy to a cache, which {@link #load(Path)} reads back.
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(this.nodeCount).putInt(this.triangleCount).flip();
+        ByteBuffer data = ByteBuffer.allocate(4 * (6 * this.nodeCount + 2 * this.nodeCount + 9 * this.triangleCount)).order(ByteOrder.LITTLE_ENDIAN);
+        data.asFloatBuffer().put(this.nodeBounds.duplicate().clear());
+        data.position(4 * 6 * this.nodeCount);
+        data.asIntBuffer().put(this.nodes.duplicate().clear());
+        data.position(4 * 8 * this.nodeCount);
+        data.asFloatBuffer().put(this.triangles.duplicate().clear());
+        data.clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (data.hasRemaining()) channel.write(data);
+        }
+    }
+
+    @Override
+    public int getTypeId() {
+        return CollisionDispatcher.MESH;
+    }
+
+    @Override
+    public BoundingVolume getBoundingVolume() {
+        return this.boundingVolume;
+    }
+
+    @Override
+    public double getMinDiagonalRadius() {
+        return this.minDiagonalRadius;
+    }
+
+    @Override
+    public void computeBounds(RigidBody parent, AxisAlignedBoundingBox bounds) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+
+        Vec3 min = this.boundingVolume.getMin();
+        Vec3 max = this.boundingVolume.getMax();
+        Vec3 center = scratch.vec3((min.x + max.x) / 2.0, (min.y + max.y) / 2.0, (min.z + max.z) / 2.0);
+        parent.getPointInWorldSpaceInto(center, center);
+
+        Mat3 orientation = parent.getRotationMatrix();
+        Vec3 axisX = orientation.getColumnInto(0, scratch.vec3());
+        Vec3 axisY = orientation.getColumnInto(1, scratch.vec3());
+        Vec3 axisZ = orientation.getColumnInto(2, scratch.vec3());
+        double width = max.x - min.x;
+        double height = max.y - min.y;
+        double depth = max.z - min.z;
+
+        // Extent of the rotated bounds along each world axis
+        double extentX = Math.abs(axisX.x) * width / 2.0 + Math.abs(axisY.x) * height / 2.0 + Math.abs(axisZ.x) * depth / 2.0;
+        double extentY = Math.abs(axisX.y) * width / 2.0 + Math.abs(axisY.y) * height / 2.0 + Math.abs(axisZ.y) * depth / 2.0;
+        double extentZ = Math.abs(axisX.z) * width / 2.0 + Math.abs(axisY.z) * height / 2.0 + Math.abs(axisZ.z) * depth / 2.0;
+
+        bounds.set(center.x - extentX, center.y - extentY, center.z - extentZ, center.x + extentX, center.y + extentY, center.z + extentZ);
+        scratch.pop();
+    }
+
+    public int getTriangleCount() {
+        return this.triangleCount;
+    }
+
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * @return the vertex (0, 1 or 2) of the triangle, in the order the hierarchy stores the triangles
+     */
+    public Vec3 getVertexInto(int triangle, int vertex, Vec3 dst) {
+        int offset = 9 * triangle + 3 * vertex;
+        dst.set(this.triangles.get(offset), this.triangles.get(offset + 1), this.triangles.get(offset + 2));
+        return dst;
+    }
+
+    /**
+     * Builds the hierarchy top down: the triangles of a node are split at the median of their centroids along the longest axis of the centroids'
+     * bounds, until at most {@link #LEAF_SIZE} triangles remain.
+     */
+    private static final class Builder {
+        private final float[] vertices;
+        private final int[] indices;
+        private final int[] order;
+        private final float[] centroids;
+        private float[] nodeBounds;
+        private int[] nodes;
+        private float[] triangles;
+        private int nodeCount = 0;
+
+        private Builder(float[] vertices, int[] indices) {
+            this.vertices = vertices;
+            this.indices = indices;
+            int triangleCount = indices.length / 3;
+            this.order = new int[triangleCount];
+            this.centroids = new float[3 * triangleCount];
+
+            for (int i = 0; i < triangleCount; ++i) {
+                this.order[i] = i;
+
+                for (int axis = 0; axis < 3; ++axis) {
+                    this.centroids[3 * i + axis] = (this.vertex(i, 0, axis) + this.vertex(i, 1, axis) + this.vertex(i, 2, axis)) / 3.0f;
+                }
+            }
+
+            // A binary tree with at least two triangles in every leaf has fewer nodes than triangles
+            this.nodeBounds = new float[6 * Math.max(triangleCount, 1)];
+            this.nodes = new int[2 * Math.max(triangleCount, 1)];
+        }
+
+        private static Builder build(float[] vertices, int[] indices) {
+            if (indices.length < 3 || indices.length % 3 != 0) throw new IllegalArgumentException("TriangleMeshCollider requires complete triangles!");
+
+            Builder builder = new Builder(vertices, indices);
+            builder.buildNode(0, builder.order.length);
+            builder.nodeBounds = Arrays.copyOf(builder.nodeBounds, 6 * builder.nodeCount);
+            builder.nodes = Arrays.copyOf(builder.nodes, 2 * builder.nodeCount);
+            builder.triangles = new float[9 * builder.order.length];
+
+            for (int i = 0; i < builder.order.length; ++i) {
+                for (int j = 0; j < 3; ++j) {
+                    System.arraycopy(vertices, 3 * indices[3 * builder.order[i] + j], builder.triangles, 9 * i + 3 * j, 3);
+                }
+            }
+
+            return builder;
+        }
+
+        private float vertex(int triangle, int vertex, int axis) {
+            return this.vertices[3 * this.indices[3 * triangle + vertex] + axis];
+        }
+
+        private int buildNode(int start, int end) {
+            int node = this.nodeCount++;
+            float[] bounds = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+            float[] centroidBounds = bounds.clone();
+
+            for (int i = start; i < end; ++i) {
+                int triangle = this.order[i];
+
+                for (int axis = 0; axis < 3; ++axis) {
+                    for (int vertex = 0; vertex < 3; ++vertex) {
+                        bounds[axis] = Math.min(bounds[axis], this.vertex(triangle, vertex, axis));
+                        bounds[axis + 3] = Math.max(bounds[axis + 3], this.vertex(triangle, vertex, axis));
+                    }
+
+                    centroidBounds[axis] = Math.min(centroidBounds[axis], this.centroids[3 * triangle + axis]);
+                    centroidBounds[axis + 3] = Math.max(centroidBounds[axis + 3], this.centroids[3 * triangle + axis]);
+                }
+            }
+
+            System.arraycopy(bounds, 0, this.nodeBounds, 6 * node, 6);
+
+            if (end - start <= LEAF_SIZE) {
+                this.nodes[2 * node] = start;
+                this.nodes[2 * node + 1] = end - start;
+                return node;
+            }
+
+            int axis = 0;
+
+            for (int i = 1; i < 3; ++i) {
+                if (centroidBounds[i + 3] - centroidBounds[i] > centroidBounds[axis + 3] - centroidBounds[axis]) axis = i;
+            }
+
+            int middle = (start + end) / 2;
+            this.select(start, end, middle, axis);
+            this.buildNode(start, middle);
+            this.nodes[2 * node] = this.buildNode(middle, end);
+            this.nodes[2 * node + 1] = 0;
+            return node;
+        }
+
+        /**
+         * Reorders the triangles from start to end so that the k-th is at its sorted place along the axis, with no greater ones before it and no
+         * smaller ones after it.
+         */
+        private void select(int start, int end, int k, int axis) {
+            int left = start;
+            int right = end - 1;
+
+            while (left < right) {
+                float pivot = this.centroids[3 * this.order[(left + right) >>> 1] + axis];
+                int i = left;
+                int j = right;
+
+                while (i <= j) {
+                    while (this.centroids[3 * this.order[i] + axis] < pivot) ++i;
+                    while (this.centroids[3 * this.order[j] + axis] > pivot) --j;
+
+                    if (i <= j) {
+                        int swap = this.order[i];
+                        this.order[i++] = this.order[j];
+                        this.order[j--] = swap;
+                    }
+                }
+
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
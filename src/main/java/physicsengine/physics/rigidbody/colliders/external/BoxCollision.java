@@ -1,8 +1,10 @@
 package physicsengine.physics.rigidbody.colliders.external;
 
 import physicsengine.math.Mat3;
+import physicsengine.math.Scratch;
 import physicsengine.math.Vec3;
 import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
 import physicsengine.physics.rigidbody.RigidBody;
 import physicsengine.physics.rigidbody.RigidBodyCollision;
 import physicsengine.physics.rigidbody.colliders.BoxCollider;
@@ -10,7 +12,7 @@ import physicsengine.physics.rigidbody.colliders.BoxCollider;
 /*
 Modified version of Ian Millington's Box Collision Detector.
 The Code is modified to work in the Java Programming Language and has been adjusted to fit this Physics Engine.
-Last Modified 2024-11-24
+Last Modified 2026-10-18
 
 Source: https://github.com/idmillington/cyclone-physics/blob/master/src/collide_fine.cpp
 
@@ -39,59 +41,76 @@ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
 THE SOFTWARE.
  */
 public class BoxCollision {
-    private static double transformToAxis(BoxCollider collider, Vec3 axis, Mat3 orientation) {
-        return collider.width / 2.0 * Math.abs(axis.dot(orientation.getColumn(0))) +
-                collider.height / 2.0 * Math.abs(axis.dot(orientation.getColumn(1))) +
-                collider.depth / 2.0 * Math.abs(axis.dot(orientation.getColumn(2)));
+    // The axes of both boxes are passed as their three columns (x1, y1, z1) and (x2, y2, z2), so that no matrix columns need to be created
+
+    private static Vec3 column(int index, Vec3 x, Vec3 y, Vec3 z) {
+        return switch (index) {
+            case 0 -> x;
+            case 1 -> y;
+            case 2 -> z;
+            default -> throw new IllegalStateException("Unexpected value: " + index);
+        };
     }
 
-    private static double penetrationOnAxis(BoxCollider collider1, BoxCollider collider2, Vec3 axis, Vec3 toCentre, Mat3 orientation1, Mat3 orientation2) {
-        double oneProject = transformToAxis(collider1, axis, orientation1);
-        double twoProject = transformToAxis(collider2, axis, orientation2);
+    private static double transformToAxis(BoxCollider collider, Vec3 axis, Vec3 x, Vec3 y, Vec3 z) {
+        return collider.width / 2.0 * Math.abs(axis.dot(x)) +
+                collider.height / 2.0 * Math.abs(axis.dot(y)) +
+                collider.depth / 2.0 * Math.abs(axis.dot(z));
+    }
+
+    private static double penetrationOnAxis(BoxCollider collider1, BoxCollider collider2, Vec3 axis, Vec3 toCentre, Vec3 x1, Vec3 y1, Vec3 z1, Vec3 x2, Vec3 y2, Vec3 z2) {
+        double oneProject = transformToAxis(collider1, axis, x1, y1, z1);
+        double twoProject = transformToAxis(collider2, axis, x2, y2, z2);
 
         double distance = Math.abs(toCentre.dot(axis));
 
         return oneProject + twoProject - distance;
     }
 
-    private static boolean tryAxis(BoxCollider collider1, BoxCollider collider2, Vec3 axis, Vec3 toCentre, int index, Pointer<Double> smallestPenetration, Pointer<Integer> smallestCase, Mat3 orientation1, Mat3 orientation2) {
-        if (axis.x * axis.x + axis.y * axis.y + axis.z * axis.z < 0.0001) {
-            return true;
-        }
-
-        axis.normalize();
-
-        double penetration = penetrationOnAxis(collider1, collider2, axis, toCentre, orientation1, orientation2);
-
-        if (penetration < 0) {
-            return false;
+    /**
+     * Writes the separating axis candidate with the given index into {@code axis}: the face normals of both boxes followed by the cross products of their edges.
+     */
+    private static void getAxis(int index, Vec3 axis, Vec3 x1, Vec3 y1, Vec3 z1, Vec3 x2, Vec3 y2, Vec3 z2) {
+        if (index < 3) {
+            axis.set(column(index, x1, y1, z1));
+        } else if (index < 6) {
+            axis.set(column(index - 3, x2, y2, z2));
+        } else {
+            column((index - 6) / 3, x1, y1, z1).crossInto(column((index - 6) % 3, x2, y2, z2), axis);
         }
+    }
 
-        if (penetration < smallestPenetration.value) {
-            smallestPenetration.value = penetration;
-            smallestCase.value = index;
-        }
+    /**
+     * Converts the index of a separating axis candidate between the order of the boxes in a call and the order of the rigid bodies in their manifold,
+     * which may differ from step to step. Face normals of one box become those of the other box and the factors of the edge cross products switch places.
+     */
+    private static int swapAxis(int index) {
+        if (index < 0) return index;
+        if (index < 3) return index + 3;
+        if (index < 6) return index - 3;
 
-        return true;
+        return 6 + (index - 6) % 3 * 3 + (index - 6) / 3;
     }
 
-    private static void fillPointFaceBoxBox(RigidBody rigidBody1, RigidBody rigidBody2, BoxCollider collider2, Vec3 toCentre, CollisionData data, int best, double pen, Mat3 orientation1, Mat3 orientation2) {
-        Vec3 normal = orientation1.getColumn(best);
+    private static void fillPointFaceBoxBox(RigidBody rigidBody1, RigidBody rigidBody2, BoxCollider collider2, Vec3 toCentre, CollisionData data, int best, int axisCase, double pen, Vec3 x1, Vec3 y1, Vec3 z1, Vec3 x2, Vec3 y2, Vec3 z2, Scratch scratch) {
+        Vec3 normal = scratch.vec3(column(best, x1, y1, z1));
 
         if (normal.dot(toCentre) > 0) {
-            normal = normal.mul(-1.0);
+            normal.scale(-1.0);
         }
 
-        Vec3 vertex = new Vec3(collider2.width / 2.0, collider2.height / 2.0, collider2.depth / 2.0);
-        if (orientation2.getColumn(0).dot(normal) < 0) vertex.x = -vertex.x;
-        if (orientation2.getColumn(1).dot(normal) < 0) vertex.y = -vertex.y;
-        if (orientation2.getColumn(2).dot(normal) < 0) vertex.z = -vertex.z;
+        Vec3 vertex = scratch.vec3(collider2.width / 2.0, collider2.height / 2.0, collider2.depth / 2.0);
+        if (x2.dot(normal) < 0) vertex.x = -vertex.x;
+        if (y2.dot(normal) < 0) vertex.y = -vertex.y;
+        if (z2.dot(normal) < 0) vertex.z = -vertex.z;
 
-        data.set(rigidBody1, rigidBody2, normal, rigidBody2.getPointInWorldSpace(vertex), pen, RigidBodyCollision.DEFAULT_RESTITUTION);
+        // The feature consists of the separating axis and the octant of the contact vertex
+        int feature = (axisCase << 3) | (vertex.x < 0 ? 1 : 0) | (vertex.y < 0 ? 2 : 0) | (vertex.z < 0 ? 4 : 0);
+
+        data.set(rigidBody1, rigidBody2, normal, rigidBody2.getPointInWorldSpaceInto(vertex, vertex), pen, RigidBodyCollision.DEFAULT_RESTITUTION, feature);
     }
 
-    private static Vec3 contactPoint(Vec3 pOne, Vec3 dOne, double oneSize, Vec3 pTwo, Vec3 dTwo, double twoSize, boolean useOne) {
-        Vec3 toSt, cOne, cTwo;
+    private static Vec3 contactPoint(Vec3 pOne, Vec3 dOne, double oneSize, Vec3 pTwo, Vec3 dTwo, double twoSize, boolean useOne, Vec3 dst) {
         double dpStaOne, dpStaTwo, dpOneTwo, smOne, smTwo;
         double denom, mua, mub;
 
@@ -99,82 +118,142 @@ public class BoxCollision {
         smTwo = dTwo.x * dTwo.x + dTwo.y * dTwo.y + dTwo.z * dTwo.z;
         dpOneTwo = dTwo.dot(dOne);
 
-        toSt = pOne.sub(pTwo);
-        dpStaOne = dOne.dot(toSt);
-        dpStaTwo = dTwo.dot(toSt);
+        double toStX = pOne.x - pTwo.x;
+        double toStY = pOne.y - pTwo.y;
+        double toStZ = pOne.z - pTwo.z;
+        dpStaOne = dOne.x * toStX + dOne.y * toStY + dOne.z * toStZ;
+        dpStaTwo = dTwo.x * toStX + dTwo.y * toStY + dTwo.z * toStZ;
 
         denom = smOne * smTwo - dpOneTwo * dpOneTwo;
 
         if (Math.abs(denom) < 0.0001) {
-            return useOne ? pOne : pTwo;
+            dst.set(useOne ? pOne : pTwo);
+            return dst;
         }
 
         mua = (dpOneTwo * dpStaTwo - smTwo * dpStaOne) / denom;
         mub = (smOne * dpStaTwo - dpOneTwo * dpStaOne) / denom;
 
         if (mua > oneSize || mua < -oneSize || mub > twoSize || mub < -twoSize) {
-            return useOne ? pOne : pTwo;
+            dst.set(useOne ? pOne : pTwo);
         } else {
-            cOne = pOne.add(dOne.mul(mua));
-            cTwo = pTwo.add(dTwo.mul(mub));
-
-            return cOne.mul(0.5).add(cTwo.mul(0.5));
+            // The midpoint of the closest points on both edges
+            dst.set(
+                    (pOne.x + dOne.x * mua) * 0.5 + (pTwo.x + dTwo.x * mub) * 0.5,
+                    (pOne.y + dOne.y * mua) * 0.5 + (pTwo.y + dTwo.y * mub) * 0.5,
+                    (pOne.z + dOne.z * mua) * 0.5 + (pTwo.z + dTwo.z * mub) * 0.5
+            );
         }
+
+        return dst;
     }
 
     public static void boxAndBox(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, BoxCollider collider2, CollisionData data) {
-        Vec3 toCentre = rigidBody2.getPosition().sub(rigidBody1.getPosition());
-
-        Pointer<Double> penetration = new Pointer<>(Double.POSITIVE_INFINITY);
-        Pointer<Integer> bestAxis = new Pointer<>(0xffffff);
+        boxAndBox(rigidBody1, collider1, rigidBody2, collider2, null, data);
+    }
 
-        Mat3 orientation1 = rigidBody1.getOrientation().getMatrix();
-        Mat3 orientation2 = rigidBody2.getOrientation().getMatrix();
-        Vec3[] axes = new Vec3[15];
+    /**
+     * @param manifold the manifold of the pair, which remembers the axis that separated the boxes last time, so that it can be tested first, or {@code null}
+     */
+    public static void boxAndBox(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, BoxCollider collider2, ContactManifold manifold, CollisionData data) {
+        Scratch scratch = Scratch.get();
+        scratch.push();
+        boxAndBox(rigidBody1, collider1, rigidBody2, collider2, manifold, data, scratch);
+        scratch.pop();
+    }
 
-        for (int i = 0; i < 3; ++i) {
-            axes[i] = orientation1.getColumn(i);
-            axes[3 + i] = orientation2.getColumn(i);
+    private static void boxAndBox(RigidBody rigidBody1, BoxCollider collider1, RigidBody rigidBody2, BoxCollider collider2, ContactManifold manifold, CollisionData data, Scratch scratch) {
+        Vec3 toCentre = rigidBody2.getPosition().subInto(rigidBody1.getPosition(), scratch.vec3());
+
+        double penetration = Double.POSITIVE_INFINITY;
+        int bestAxis = 0xffffff;
+        int bestSingleAxis = bestAxis;
+
+        Mat3 orientation1 = rigidBody1.getRotationMatrix();
+        Mat3 orientation2 = rigidBody2.getRotationMatrix();
+        Vec3 x1 = orientation1.getColumnInto(0, scratch.vec3());
+        Vec3 y1 = orientation1.getColumnInto(1, scratch.vec3());
+        Vec3 z1 = orientation1.getColumnInto(2, scratch.vec3());
+        Vec3 x2 = orientation2.getColumnInto(0, scratch.vec3());
+        Vec3 y2 = orientation2.getColumnInto(1, scratch.vec3());
+        Vec3 z2 = orientation2.getColumnInto(2, scratch.vec3());
+        Vec3 axis = scratch.vec3();
+
+        // Most pairs that were separated in the last step are still separated by the same axis, test it before the others
+        boolean swapped = manifold != null && manifold.getRigidBody1() != rigidBody1;
+        int cachedAxis = manifold != null ? manifold.getSeparatingAxis() : -1;
+        double cachedPenetration = 0.0;
+
+        if (swapped) {
+            cachedAxis = swapAxis(cachedAxis);
         }
 
-        for (int i = 0; i < 3; ++i) {
-            for (int j = 0; j < 3; ++j) {
-                axes[6 + 3 * i + j] = axes[i].cross(axes[3 + j]);
-            }
-        }
+        if (cachedAxis >= 0) {
+            getAxis(cachedAxis, axis, x1, y1, z1, x2, y2, z2);
+
+            if (axis.x * axis.x + axis.y * axis.y + axis.z * axis.z >= 0.0001) {
+                axis.normalize();
+                cachedPenetration = penetrationOnAxis(collider1, collider2, axis, toCentre, x1, y1, z1, x2, y2, z2);
 
-        for (int i = 0; i < 6; ++i) {
-            if (!tryAxis(collider1, collider2, axes[i], toCentre, i, penetration, bestAxis, orientation1, orientation2)) {
-                return;
+                if (cachedPenetration < 0) {
+                    return;
+                }
+            } else {
+                cachedAxis = -1;
             }
         }
 
-        int bestSingleAxis = bestAxis.value;
+        for (int i = 0; i < 15; ++i) {
+            getAxis(i, axis, x1, y1, z1, x2, y2, z2);
+
+            if (axis.x * axis.x + axis.y * axis.y + axis.z * axis.z >= 0.0001) {
+                axis.normalize();
+
+                double axisPenetration = i == cachedAxis ? cachedPenetration : penetrationOnAxis(collider1, collider2, axis, toCentre, x1, y1, z1, x2, y2, z2);
+
+                if (axisPenetration < 0) {
+                    if (manifold != null) {
+                        manifold.setSeparatingAxis(swapped ? swapAxis(i) : i);
+                    }
 
-        for (int i = 6; i < 15; ++i) {
-            if (!tryAxis(collider1, collider2, axes[i], toCentre, i, penetration, bestAxis, orientation1, orientation2)) {
-                return;
+                    return;
+                }
+
+                if (axisPenetration < penetration) {
+                    penetration = axisPenetration;
+                    bestAxis = i;
+                }
             }
+
+            if (i == 5) {
+                bestSingleAxis = bestAxis;
+            }
+        }
+
+        if (manifold != null) {
+            manifold.setSeparatingAxis(-1);
         }
 
-        if (bestAxis.value < 3) {
-            fillPointFaceBoxBox(rigidBody1, rigidBody2, collider2, toCentre, data, bestAxis.value, penetration.value, orientation1, orientation2);
-        } else if (bestAxis.value < 6) {
-            fillPointFaceBoxBox(rigidBody2, rigidBody1, collider1, toCentre.mul(-1.0), data, bestAxis.value - 3, penetration.value, orientation2, orientation1);
+        if (bestAxis < 3) {
+            fillPointFaceBoxBox(rigidBody1, rigidBody2, collider2, toCentre, data, bestAxis, bestAxis, penetration, x1, y1, z1, x2, y2, z2, scratch);
+        } else if (bestAxis < 6) {
+            toCentre.scale(-1.0);
+            fillPointFaceBoxBox(rigidBody2, rigidBody1, collider1, toCentre, data, bestAxis - 3, bestAxis, penetration, x2, y2, z2, x1, y1, z1, scratch);
         } else {
-            bestAxis.value -= 6;
-            int oneAxisIndex = bestAxis.value / 3;
-            int twoAxisIndex = bestAxis.value % 3;
-            Vec3 oneAxis = axes[oneAxisIndex];
-            Vec3 twoAxis = axes[3 + twoAxisIndex];
-            Vec3 axis = axes[6 + 3 * oneAxisIndex + twoAxisIndex];
+            int feature = bestAxis << 3;
+            int oneAxisIndex = (bestAxis - 6) / 3;
+            int twoAxisIndex = (bestAxis - 6) % 3;
+            Vec3 oneAxis = column(oneAxisIndex, x1, y1, z1);
+            Vec3 twoAxis = column(twoAxisIndex, x2, y2, z2);
+            getAxis(bestAxis, axis, x1, y1, z1, x2, y2, z2);
+            axis.normalize();
 
             if (axis.dot(toCentre) > 0) {
-                axis = axis.mul(-1.0);
+                axis.scale(-1.0);
             }
 
-            Vec3 ptOnOneEdge = new Vec3(collider1.width / 2.0, collider1.height / 2.0, collider1.depth / 2.0);
-            Vec3 ptOnTwoEdge = new Vec3(collider2.width / 2.0, collider2.height / 2.0, collider2.depth / 2.0);
+            Vec3 ptOnOneEdge = scratch.vec3(collider1.width / 2.0, collider1.height / 2.0, collider1.depth / 2.0);
+            Vec3 ptOnTwoEdge = scratch.vec3(collider2.width / 2.0, collider2.height / 2.0, collider2.depth / 2.0);
 
             for (int i = 0; i < 3; i++) {
                 if (i == oneAxisIndex) {
@@ -183,7 +262,7 @@ public class BoxCollision {
                         case 1 -> ptOnOneEdge.y = 0;
                         case 2 -> ptOnOneEdge.z = 0;
                     }
-                } else if (orientation1.getColumn(i).dot(axis) > 0) {
+                } else if (column(i, x1, y1, z1).dot(axis) > 0) {
                     switch (i) {
                         case 0 -> ptOnOneEdge.x = -ptOnOneEdge.x;
                         case 1 -> ptOnOneEdge.y = -ptOnOneEdge.y;
@@ -197,7 +276,7 @@ public class BoxCollision {
                         case 1 -> ptOnTwoEdge.y = 0;
                         case 2 -> ptOnTwoEdge.z = 0;
                     }
-                } else if (orientation2.getColumn(i).dot(axis) < 0) {
+                } else if (column(i, x2, y2, z2).dot(axis) < 0) {
                     switch (i) {
                         case 0 -> ptOnTwoEdge.x = -ptOnTwoEdge.x;
                         case 1 -> ptOnTwoEdge.y = -ptOnTwoEdge.y;
@@ -206,8 +285,8 @@ public class BoxCollision {
                 }
             }
 
-            ptOnOneEdge = rigidBody1.getPointInWorldSpace(ptOnOneEdge);
-            ptOnTwoEdge = rigidBody2.getPointInWorldSpace(ptOnTwoEdge);
+            rigidBody1.getPointInWorldSpaceInto(ptOnOneEdge, ptOnOneEdge);
+            rigidBody2.getPointInWorldSpaceInto(ptOnTwoEdge, ptOnTwoEdge);
 
             double oneSize = switch (oneAxisIndex) {
                 case 0 -> collider1.width / 2.0;
@@ -223,18 +302,9 @@ public class BoxCollision {
                 default -> throw new IllegalStateException("Unexpected value: " + twoAxisIndex);
             };
 
-            Vec3 vertex = contactPoint(ptOnOneEdge, oneAxis, oneSize, ptOnTwoEdge, twoAxis, twoSize, bestSingleAxis > 2);
-
-            data.set(rigidBody1, rigidBody2, axis, vertex, penetration.value, RigidBodyCollision.DEFAULT_RESTITUTION);
-        }
-    }
+            Vec3 vertex = contactPoint(ptOnOneEdge, oneAxis, oneSize, ptOnTwoEdge, twoAxis, twoSize, bestSingleAxis > 2, scratch.vec3());
 
-    private static class Pointer<T> {
-        public T value;
-
-        public Pointer(T value) {
-            this.value = value;
+            data.set(rigidBody1, rigidBody2, axis, vertex, penetration, RigidBodyCollision.DEFAULT_RESTITUTION, feature);
         }
     }
 }
-
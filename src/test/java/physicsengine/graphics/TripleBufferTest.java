@@ -0,0 +1,61 @@
+package physicsengine.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripleBufferTest {
+    @Test
+    void readsTheLatestPublication() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[1]);
+        long[] initial = buffer.read();
+
+        assertEquals(0L, initial[0]);
+        assertSame(initial, buffer.read());
+
+        for (long i = 1; i <= 3; ++i) {
+            buffer.getBackBuffer()[0] = i;
+            buffer.publish();
+        }
+
+        long[] latest = buffer.read();
+        assertEquals(3L, latest[0]);
+        assertSame(latest, buffer.read());
+        assertNotSame(latest, buffer.getBackBuffer());
+    }
+
+    /**
+     * The writer fills both halves of a buffer with the same counter. A buffer that is written while it is being read shows two different halves.
+     */
+    @Test
+    void neverHandsOutABufferThatIsBeingWritten() throws InterruptedException {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+        long publications = 2_000_000L;
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= publications; ++i) {
+                long[] back = buffer.getBackBuffer();
+                back[0] = i;
+                back[1] = i;
+                buffer.publish();
+            }
+        });
+        writer.start();
+
+        long last = 0L;
+
+        while (last < publications) {
+            long[] front = buffer.read();
+            long first = front[0];
+            long second = front[1];
+
+            assertEquals(first, second);
+            assertTrue(first >= last);
+            last = first;
+        }
+
+        writer.join();
+    }
+}
@@ -0,0 +1,27 @@
+package physicsengine.physics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedTimestepTest {
+    @Test
+    void accumulatesFramesIntoWholeSteps() {
+        FixedTimestep fixedTimestep = new FixedTimestep(0.01, 5);
+
+        assertEquals(0, fixedTimestep.advance(0.004));
+        assertEquals(1, fixedTimestep.advance(0.007));
+        assertEquals(0.1, fixedTimestep.getAlpha(), 1e-9);
+        assertEquals(2, fixedTimestep.advance(0.0195));
+    }
+
+    @Test
+    void dropsTimeBeyondTheMaximumStepsPerFrame() {
+        FixedTimestep fixedTimestep = new FixedTimestep(0.01, 5);
+
+        assertEquals(5, fixedTimestep.advance(1.0));
+        assertTrue(fixedTimestep.getAlpha() < 1.0);
+        assertEquals(0, fixedTimestep.advance(0.0));
+    }
+}
@@ -0,0 +1,107 @@
+package physicsengine.physics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PairTableTest {
+    /**
+     * Follows a set of pairs that changes from one update to the next and compares the table with a map after every update.
+     */
+    @Test
+    void matchesAMap() {
+        PairTable<String> table = new PairTable<>();
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(1L);
+
+        for (int update = 0; update < 200; ++update) {
+            Map<String, String> kept = new HashMap<>();
+
+            // Keep most pairs, drop some and add new ones, which grows the table beyond its initial capacity
+            for (String key : expected.keySet()) {
+                if (random.nextInt(10) == 0) continue;
+
+                int[] ids = ids(key);
+                assertSame(expected.get(key), table.mark(ids[1], ids[0]));
+                kept.put(key, expected.get(key));
+            }
+
+            for (int i = 0; i < 20; ++i) {
+                int id1 = random.nextInt(100);
+                int id2 = random.nextInt(100);
+                String key = key(id1, id2);
+
+                if (id1 == id2 || kept.containsKey(key)) continue;
+
+                String value = table.mark(id1, id2);
+
+                if (value == null) {
+                    value = key;
+                    table.put(id1, id2, value);
+                } else {
+                    // A pair that was about to be dropped is found again
+                    assertSame(expected.get(key), value);
+                }
+
+                kept.put(key, value);
+            }
+
+            Set<String> removed = new HashSet<>();
+            table.removeUnmarked(removed::add);
+            Set<String> expectedRemoved = new HashSet<>(expected.keySet());
+            expectedRemoved.removeAll(kept.keySet());
+
+            assertEquals(expectedRemoved, removed, "update " + update);
+            expected = kept;
+            assertContents(expected, table);
+        }
+
+        Set<String> removed = new HashSet<>();
+        table.removeAll(7, removed::add);
+        Set<String> expectedRemoved = new HashSet<>();
+
+        for (String key : expected.keySet()) {
+            int[] ids = ids(key);
+            if (ids[0] == 7 || ids[1] == 7) expectedRemoved.add(key);
+        }
+
+        expected.keySet().removeAll(expectedRemoved);
+        assertEquals(expectedRemoved, removed);
+        assertContents(expected, table);
+
+        removed.clear();
+        table.clear(removed::add);
+        assertEquals(expected.keySet(), removed);
+        assertEquals(0, table.size());
+        assertNull(table.mark(1, 2));
+    }
+
+    private static void assertContents(Map<String, String> expected, PairTable<String> table) {
+        assertEquals(expected.size(), table.size());
+        Set<String> values = new HashSet<>();
+
+        for (int slot = 0; slot < table.capacity(); ++slot) {
+            String value = table.get(slot);
+            if (value != null) values.add(value);
+        }
+
+        assertEquals(expected.keySet(), values);
+    }
+
+    private static String key(int id1, int id2) {
+        return Math.min(id1, id2) + ":" + Math.max(id1, id2);
+    }
+
+    private static int[] ids(String key) {
+        String[] parts = key.split(":");
+        return new int[]{ Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) };
+    }
+}
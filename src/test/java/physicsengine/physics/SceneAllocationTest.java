@@ -0,0 +1,83 @@
+package physicsengine.physics;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.colliders.BoxCollider;
+import physicsengine.physics.rigidbody.colliders.PlaneCollider;
+import physicsengine.physics.rigidbody.colliders.SphereCollider;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Run with {@code --add-modules jdk.incubator.vector} to check the default kernel as it is used in applications.
+ */
+class SceneAllocationTest {
+    private static final double DT = 1.0 / 60.0;
+
+    /**
+     * Pools and tables still grow now and then when the contacts change, which is amortized over many updates. Per-step allocations, e.g. by
+     * boxed values or non-intrinsified vector operations, show up as kilobytes per update.
+     */
+    private static final long MAX_BYTES_PER_UPDATE = 64L;
+
+    @Test
+    void updateDoesNotAllocateOnceWarm() {
+        Scene scene = createScene();
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < 600; ++i) {
+            scene.update(DT);
+        }
+
+        long before = bean.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < 600; ++i) {
+            scene.update(DT);
+        }
+
+        long bytesPerUpdate = (bean.getCurrentThreadAllocatedBytes() - before) / 600;
+        assertTrue(bytesPerUpdate <= MAX_BYTES_PER_UPDATE, bytesPerUpdate + " bytes per update");
+    }
+
+    /**
+     * 64 tilted and spinning boxes in stacks of four and 16 spheres dropped on top of them.
+     */
+    private static Scene createScene() {
+        Scene scene = new Scene();
+        scene.add(new RigidBody(new PlaneCollider(Vec3.UP)));
+        Random random = new Random(0L);
+
+        double boxMass = GeometryProperties.calculateCuboidMass(1175.0, 1.0, 1.0, 1.0);
+        Mat3 boxInertia = GeometryProperties.calculateCuboidInertiaTensor(boxMass, 1.0, 1.0, 1.0).invert();
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+
+        for (int i = 0; i < 64; ++i) {
+            RigidBody rigidBody = new RigidBody(boxMass, box, boxInertia);
+            rigidBody.setPosition(2.0 * (i / 4 % 4) + 0.05 * random.nextGaussian(), 0.5 + 1.05 * (i % 4), 2.0 * (i / 16) + 0.05 * random.nextGaussian());
+            rigidBody.setOrientation(new Quaternion(0.3 * random.nextGaussian(), new Vec3(random.nextGaussian(), 1.0, random.nextGaussian())));
+            rigidBody.setAngularVelocity(new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+            scene.getForces().registerGravity(rigidBody);
+            scene.add(rigidBody);
+        }
+
+        double sphereMass = GeometryProperties.calculateSphereMass(1175.0, 0.5);
+        Mat3 sphereInertia = GeometryProperties.calculateSphereInertiaTensor(sphereMass, 0.5).invert();
+        SphereCollider sphere = new SphereCollider(0.5);
+
+        for (int i = 0; i < 16; ++i) {
+            RigidBody rigidBody = new RigidBody(sphereMass, sphere, sphereInertia);
+            rigidBody.setPosition(2.0 * (i % 4) + 0.3, 6.0 + 0.2 * i, 2.0 * (i / 4));
+            scene.getForces().registerGravity(rigidBody);
+            scene.add(rigidBody);
+        }
+
+        return scene;
+    }
+}
@@ -0,0 +1,104 @@
+package physicsengine.physics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SimulationRunnerTest {
+    @Test
+    void failingListenerStopsTheRunnerAndIsRethrownByStop() throws InterruptedException {
+        SimulationRunner runner = new SimulationRunner(new Scene());
+        IllegalArgumentException failure = new IllegalArgumentException();
+        runner.addStepListener((scene, step, time) -> {
+            if (step == 10) throw failure;
+        });
+
+        runner.start();
+        awaitStopped(runner);
+
+        assertEquals(10L, runner.getStepCount());
+        runner.step(2);
+        assertEquals(12L, runner.getStepCount());
+
+        CompletionException exception = assertThrows(CompletionException.class, runner::stop);
+        assertSame(failure, exception.getCause());
+        assertDoesNotThrow(runner::stop);
+    }
+
+    @Test
+    void failingCommandIsRethrownByTheNextStart() throws InterruptedException {
+        SimulationRunner runner = new SimulationRunner(new Scene());
+        IllegalStateException failure = new IllegalStateException();
+        runner.submit(() -> {
+            throw failure;
+        });
+
+        runner.start();
+        awaitStopped(runner);
+
+        assertSame(failure, assertThrows(CompletionException.class, runner::start).getCause());
+        runner.start();
+        runner.stop();
+    }
+
+    /**
+     * Stopping on the background thread used to make the thread wait for itself.
+     */
+    @Test
+    void listenerStopsTheRunner() throws InterruptedException {
+        SimulationRunner runner = new SimulationRunner(new Scene());
+        runner.addStepListener((scene, step, time) -> {
+            if (step == 10) runner.stop();
+        });
+
+        runner.start();
+        awaitStopped(runner);
+        assertStops(runner);
+
+        assertEquals(10L, runner.getStepCount());
+    }
+
+    @Test
+    void commandStopsTheRunnerAndItCanBeStartedAgain() throws InterruptedException {
+        SimulationRunner runner = new SimulationRunner(new Scene());
+        runner.submit(runner::stop);
+
+        runner.start();
+        awaitStopped(runner);
+        assertStops(runner);
+
+        assertEquals(1L, runner.getStepCount());
+        runner.submit(runner::stop);
+        runner.start();
+        awaitStopped(runner);
+        assertStops(runner);
+        assertEquals(2L, runner.getStepCount());
+    }
+
+    /**
+     * Waits for the rest of the current step, from another thread so that a runner whose thread waits for itself fails the test instead of blocking it.
+     */
+    private static void assertStops(SimulationRunner runner) {
+        assertTimeoutPreemptively(Duration.ofSeconds(10L), runner::stop);
+    }
+
+    private static void awaitStopped(SimulationRunner runner) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+
+        while (runner.isRunning()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("SimulationRunner did not stop");
+
+            Thread.sleep(1L);
+        }
+
+        assertFalse(runner.isRunning());
+    }
+}
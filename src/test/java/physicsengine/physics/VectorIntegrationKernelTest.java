@@ -0,0 +1,102 @@
+package physicsengine.physics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Requires the JVM option {@code --add-modules jdk.incubator.vector}, otherwise the tests are skipped.
+ */
+class VectorIntegrationKernelTest {
+    private static final Mat3 INVERSE_INERTIA_TENSOR = new Mat3(2.0, 0.1, 0.0, 0.1, 3.0, 0.2, 0.0, 0.2, 4.0);
+
+    @BeforeEach
+    void requireVectorKernel() {
+        assumeTrue(BodyStore.getVectorKernel() != null, "jdk.incubator.vector is not available");
+    }
+
+    @Test
+    void matchesScalarKernel() {
+        for (int size : new int[]{ 16, 300, 1027 }) {
+            BodyStore.Slot[] vectorSlots = new BodyStore.Slot[size];
+            BodyStore.Slot[] scalarSlots = new BodyStore.Slot[size];
+            BodyStore vector = createStore(BodyStore.getVectorKernel(), vectorSlots);
+            BodyStore scalar = createStore(BodyStore.SCALAR_KERNEL, scalarSlots);
+            StepContext context = new StepContext().begin(1.0 / 60.0);
+
+            for (int step = 0; step < 10; ++step) {
+                vector.integrate(context);
+                scalar.integrate(context);
+            }
+
+            for (int i = 0; i < size; ++i) {
+                BodyStore.Slot v = vectorSlots[i];
+                BodyStore.Slot s = scalarSlots[i];
+                assertArrayEquals(toArray(s.getPosition(new Vec3(0.0, 0.0, 0.0))), toArray(v.getPosition(new Vec3(0.0, 0.0, 0.0))), "position " + i);
+                assertArrayEquals(toArray(s.getVelocity(new Vec3(0.0, 0.0, 0.0))), toArray(v.getVelocity(new Vec3(0.0, 0.0, 0.0))), "velocity " + i);
+                assertArrayEquals(toArray(s.getAngularVelocity(new Vec3(0.0, 0.0, 0.0))), toArray(v.getAngularVelocity(new Vec3(0.0, 0.0, 0.0))), "angular velocity " + i);
+                assertArrayEquals(toArray(s.getOrientation(new Quaternion(1.0, 0.0, 0.0, 0.0))), toArray(v.getOrientation(new Quaternion(1.0, 0.0, 0.0, 0.0))), "orientation " + i);
+            }
+        }
+    }
+
+    @Test
+    void doesNotAllocateOnceCompiled() {
+        BodyStore store = createStore(BodyStore.getVectorKernel(), new BodyStore.Slot[1024]);
+        StepContext context = new StepContext().begin(1.0 / 60.0);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < 20000; ++i) {
+            store.integrate(context);
+        }
+
+        long before = bean.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < 1000; ++i) {
+            store.integrate(context);
+        }
+
+        assertEquals(0L, bean.getCurrentThreadAllocatedBytes() - before);
+    }
+
+    /**
+     * Mixes rotational and non-rotational, static and materialized entries, so that every group class of the kernel is used.
+     */
+    private static BodyStore createStore(IntegrationKernel kernel, BodyStore.Slot[] slots) {
+        int size = slots.length;
+        BodyStore store = new BodyStore(size);
+        store.setKernel(kernel);
+
+        for (int i = 0; i < size; ++i) {
+            boolean rotational = i < size / 2 ? i % 3 != 0 : i % 64 >= 8;
+            BodyStore.Slot slot = store.add(1.0 + i % 5, rotational ? INVERSE_INERTIA_TENSOR : null);
+            slot.setDynamic(i % 97 != 0);
+            slot.setPosition(i, 0.5 * i, -i);
+            slot.setVelocity(1.0, 0.1 * (i % 7), -0.5);
+            slot.setAngularVelocity(1.0, 2.0 - 0.01 * i, 3.0);
+            slot.addForce(0.0, -9.81, 0.1 * i);
+            slot.addTorque(0.2, 0.0, -0.1);
+
+            if (i % 211 == 5) slot.setMaterial(new Material(0.5, 0.5));
+            slots[i] = slot;
+        }
+
+        return store;
+    }
+
+    private static double[] toArray(Vec3 v) {
+        return new double[]{ v.x, v.y, v.z };
+    }
+
+    private static double[] toArray(Quaternion q) {
+        return new double[]{ q.w, q.x, q.y, q.z };
+    }
+}
@@ -0,0 +1,132 @@
+package physicsengine.physics.broadphase;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.colliders.BoxCollider;
+import physicsengine.physics.rigidbody.colliders.PlaneCollider;
+import physicsengine.physics.rigidbody.colliders.SphereCollider;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Compares the candidate pairs of a broad phase with the pairs found by testing the bounds of every two rigid bodies.
+ */
+abstract class BroadPhaseTest {
+    abstract BroadPhase createBroadPhase();
+
+    /**
+     * @return how far apart the bounds of a reported pair may be, {@code 0} if the broad phase reports exactly the pairs with overlapping bounds
+     */
+    abstract double getSlack();
+
+    @Test
+    void findsThePairsOfOverlappingBounds() {
+        Random random = new Random(1L);
+        BroadPhase broadPhase = this.createBroadPhase();
+        List<RigidBody> rigidBodies = new ArrayList<>();
+        RigidBody plane = new RigidBody(new PlaneCollider(Vec3.UP));
+        broadPhase.add(plane);
+
+        for (int i = 0; i < 300; ++i) {
+            RigidBody rigidBody = createRigidBody(random);
+            rigidBodies.add(rigidBody);
+            broadPhase.add(rigidBody);
+        }
+
+        // A slab through the middle that is much larger than the other rigid bodies
+        RigidBody slab = new RigidBody(1.0, new BoxCollider(30.0, 1.0, 30.0), null);
+        slab.setPosition(10.0, 10.0, 10.0);
+        rigidBodies.add(slab);
+        broadPhase.add(slab);
+
+        for (int step = 0; step < 50; ++step) {
+            // Remove, add and put to sleep a few rigid bodies now and then
+            if (step % 10 == 5) {
+                broadPhase.remove(rigidBodies.remove(random.nextInt(rigidBodies.size())));
+                RigidBody rigidBody = createRigidBody(random);
+                rigidBodies.add(rigidBody);
+                broadPhase.add(rigidBody);
+                rigidBodies.get(random.nextInt(rigidBodies.size())).setAwake(false);
+            }
+
+            for (RigidBody rigidBody : rigidBodies) {
+                if (rigidBody.isAwake()) {
+                    rigidBody.setPosition(rigidBody.getPosition().add(0.3 * random.nextGaussian(), 0.3 * random.nextGaussian(), 0.3 * random.nextGaussian()));
+                }
+            }
+
+            broadPhase.update();
+            Set<Long> expected = findOverlappingPairs(rigidBodies, 0.0);
+            Set<Long> possible = findOverlappingPairs(rigidBodies, this.getSlack());
+            Set<Long> actual = new HashSet<>();
+            int[] planePairs = { 0 };
+            int awake = (int) rigidBodies.stream().filter(RigidBody::isAwake).count();
+            int currentStep = step;
+
+            broadPhase.findPairs((rigidBody1, rigidBody2) -> {
+                if (rigidBody1 == plane || rigidBody2 == plane) {
+                    ++planePairs[0];
+                } else if (!actual.add(key(rigidBody1, rigidBody2))) {
+                    fail("pair reported twice in step " + currentStep);
+                }
+            });
+
+            assertEquals(awake, planePairs[0], "step " + step);
+            assertTrue(actual.containsAll(expected), "step " + step);
+            assertTrue(possible.containsAll(actual), "step " + step);
+        }
+    }
+
+    private static Set<Long> findOverlappingPairs(List<RigidBody> rigidBodies, double slack) {
+        Set<Long> pairs = new HashSet<>();
+        AxisAlignedBoundingBox bounds1 = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+        AxisAlignedBoundingBox bounds2 = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+
+        for (int i = 0; i < rigidBodies.size(); ++i) {
+            RigidBody rigidBody1 = rigidBodies.get(i);
+            rigidBody1.getCollider().computeBounds(rigidBody1, bounds1);
+            Vec3 min = bounds1.getMin();
+            Vec3 max = bounds1.getMax();
+            bounds1.set(min.x - slack, min.y - slack, min.z - slack, max.x + slack, max.y + slack, max.z + slack);
+
+            for (int j = i + 1; j < rigidBodies.size(); ++j) {
+                RigidBody rigidBody2 = rigidBodies.get(j);
+                rigidBody2.getCollider().computeBounds(rigidBody2, bounds2);
+
+                if ((rigidBody1.isAwake() || rigidBody2.isAwake()) && bounds1.overlaps(bounds2)) pairs.add(key(rigidBody1, rigidBody2));
+            }
+        }
+
+        return pairs;
+    }
+
+    /**
+     * 300 rigid bodies in a cube with an edge length of 20 overlap a few hundred times.
+     */
+    static RigidBody createRigidBody(Random random) {
+        RigidBody rigidBody = new RigidBody(1.0, random.nextBoolean() ? new BoxCollider(1.0, 0.5, 2.0) : new SphereCollider(0.3 + random.nextDouble()), null);
+        rigidBody.setPosition(20.0 * random.nextDouble(), 20.0 * random.nextDouble(), 20.0 * random.nextDouble());
+        rigidBody.setOrientation(new Quaternion(6.0 * random.nextDouble(), new Vec3(random.nextDouble() + 0.1, random.nextDouble(), random.nextDouble())));
+        return rigidBody;
+    }
+
+    /**
+     * @return a key that is unique for the pair and does not depend on the order of the rigid bodies
+     */
+    static long key(RigidBody rigidBody1, RigidBody rigidBody2) {
+        long id1 = rigidBody1.getId();
+        long id2 = rigidBody2.getId();
+        return Math.min(id1, id2) << 32 | Math.max(id1, id2);
+    }
+}
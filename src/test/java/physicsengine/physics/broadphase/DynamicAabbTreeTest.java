@@ -0,0 +1,60 @@
+package physicsengine.physics.broadphase;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DynamicAabbTreeTest extends BroadPhaseTest {
+    @Override
+    BroadPhase createBroadPhase() {
+        return new DynamicAabbTree();
+    }
+
+    /**
+     * A leaf is only re-inserted once the bounds leave it, so its bounds can lag behind the current bounds by the margin on each side.
+     */
+    @Override
+    double getSlack() {
+        return 4.0 * DynamicAabbTree.DEFAULT_MARGIN;
+    }
+
+    @Test
+    void queriesTheBoundsOfEveryRigidBody() {
+        Random random = new Random(3L);
+        DynamicAabbTree tree = new DynamicAabbTree(0.0);
+        List<RigidBody> rigidBodies = new ArrayList<>();
+
+        for (int i = 0; i < 300; ++i) {
+            RigidBody rigidBody = createRigidBody(random);
+            rigidBodies.add(rigidBody);
+            tree.add(rigidBody);
+        }
+
+        AxisAlignedBoundingBox query = new AxisAlignedBoundingBox(new Vec3(5.0, 5.0, 5.0), new Vec3(12.0, 8.0, 15.0));
+        AxisAlignedBoundingBox bounds = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+        Set<RigidBody> expected = new HashSet<>();
+
+        for (RigidBody rigidBody : rigidBodies) {
+            rigidBody.getCollider().computeBounds(rigidBody, bounds);
+            if (bounds.overlaps(query)) expected.add(rigidBody);
+        }
+
+        Set<RigidBody> actual = new HashSet<>();
+        tree.query(query, actual::add);
+
+        assertTrue(expected.size() > 10);
+        assertEquals(expected, actual);
+        // A balanced tree of 300 leaves is about 9 levels high
+        assertTrue(tree.getHeight() <= 20, "height " + tree.getHeight());
+    }
+}
@@ -0,0 +1,72 @@
+package physicsengine.physics.broadphase;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.colliders.BoxCollider;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialHashGridTest extends BroadPhaseTest {
+    @Override
+    BroadPhase createBroadPhase() {
+        return new SpatialHashGrid();
+    }
+
+    /**
+     * Rigid bodies that share a cell are paired even if their bounds do not overlap.
+     */
+    @Override
+    double getSlack() {
+        return SpatialHashGrid.DEFAULT_CELL_SIZE;
+    }
+
+    /**
+     * The ground covers 25 million cells, which must not be filled on every update.
+     */
+    @Test
+    void doesNotInsertLargeRigidBodiesIntoTheGrid() {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        RigidBody ground = new RigidBody(new BoxCollider(10000.0, 1.0, 10000.0));
+        ground.setPosition(0.0, -0.5, 0.0);
+        grid.add(ground);
+        Random random = new Random(4L);
+        Set<RigidBody> expected = new HashSet<>();
+        AxisAlignedBoundingBox groundBounds = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+        AxisAlignedBoundingBox bounds = new AxisAlignedBoundingBox(new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0));
+        ground.getCollider().computeBounds(ground, groundBounds);
+
+        for (int i = 0; i < 100; ++i) {
+            RigidBody rigidBody = createRigidBody(random);
+            rigidBody.setPosition(rigidBody.getPosition().add(0.0, -10.0, 0.0));
+            grid.add(rigidBody);
+            rigidBody.getCollider().computeBounds(rigidBody, bounds);
+
+            if (bounds.overlaps(groundBounds)) expected.add(rigidBody);
+        }
+
+        Set<RigidBody> actual = new HashSet<>();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5L), () -> {
+            for (int i = 0; i < 10; ++i) {
+                grid.update();
+            }
+
+            grid.findPairs((rigidBody1, rigidBody2) -> {
+                if (rigidBody1 == ground) actual.add(rigidBody2);
+                if (rigidBody2 == ground) actual.add(rigidBody1);
+            });
+        });
+
+        assertTrue(expected.size() > 5);
+        assertEquals(expected, actual);
+    }
+}
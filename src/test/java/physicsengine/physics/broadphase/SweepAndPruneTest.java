@@ -0,0 +1,75 @@
+package physicsengine.physics.broadphase;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SweepAndPruneTest extends BroadPhaseTest {
+    @Override
+    BroadPhase createBroadPhase() {
+        return new SweepAndPrune();
+    }
+
+    @Override
+    double getSlack() {
+        return 0.0;
+    }
+
+    /**
+     * The listener sees every pair added once and removed once, including the pairs of a removed rigid body.
+     */
+    @Test
+    void notifiesAboutAddedAndRemovedPairs() {
+        Random random = new Random(2L);
+        SweepAndPrune broadPhase = new SweepAndPrune();
+        Set<Long> listenerPairs = new HashSet<>();
+        broadPhase.setPairListener(new BroadPhase.PairListener() {
+            @Override
+            public void pairAdded(RigidBody rigidBody1, RigidBody rigidBody2) {
+                assertTrue(listenerPairs.add(key(rigidBody1, rigidBody2)));
+            }
+
+            @Override
+            public void pairRemoved(RigidBody rigidBody1, RigidBody rigidBody2) {
+                assertTrue(listenerPairs.remove(key(rigidBody1, rigidBody2)));
+            }
+        });
+        List<RigidBody> rigidBodies = new ArrayList<>();
+
+        for (int i = 0; i < 300; ++i) {
+            RigidBody rigidBody = createRigidBody(random);
+            rigidBodies.add(rigidBody);
+            broadPhase.add(rigidBody);
+        }
+
+        for (int step = 0; step < 50; ++step) {
+            if (step % 10 == 5) broadPhase.remove(rigidBodies.remove(random.nextInt(rigidBodies.size())));
+
+            for (RigidBody rigidBody : rigidBodies) {
+                rigidBody.setPosition(rigidBody.getPosition().add(0.3 * random.nextGaussian(), 0.3 * random.nextGaussian(), 0.3 * random.nextGaussian()));
+            }
+
+            broadPhase.update();
+            Set<Long> pairs = new HashSet<>();
+            broadPhase.findPairs((rigidBody1, rigidBody2) -> pairs.add(key(rigidBody1, rigidBody2)));
+
+            assertEquals(pairs, listenerPairs, "step " + step);
+            assertEquals(pairs.size(), broadPhase.getPairCount(), "step " + step);
+        }
+
+        while (!rigidBodies.isEmpty()) {
+            broadPhase.remove(rigidBodies.remove(rigidBodies.size() - 1));
+        }
+
+        assertEquals(0, listenerPairs.size());
+        assertEquals(0, broadPhase.getPairCount());
+    }
+}
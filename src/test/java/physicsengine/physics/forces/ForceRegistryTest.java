@@ -0,0 +1,89 @@
+package physicsengine.physics.forces;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Vec3;
+import physicsengine.physics.forces.rigidbody.RigidBodySpringForce;
+import physicsengine.physics.particle.Particle;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.colliders.SphereCollider;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForceRegistryTest {
+    /**
+     * Removing a force moves the last force into its place, the registration of the moved force must still remove the right force.
+     */
+    @Test
+    void registrationsRemoveTheirOwnForce() {
+        ForceRegistry registry = new ForceRegistry();
+        List<ForceRegistry.Registration<RigidBodySpringForce>> registrations = new ArrayList<>();
+        RigidBody anchor = new RigidBody(new SphereCollider(0.5));
+
+        for (int i = 0; i < 100; ++i) {
+            registrations.add(registry.registerRigidBodySpring(createRigidBody(), anchor, new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0), 1.0, 1.0));
+        }
+
+        Random random = new Random(1L);
+        Set<RigidBodySpringForce> expected = new HashSet<>();
+        registrations.forEach(registration -> expected.add(registration.getForce()));
+
+        while (registrations.size() > 20) {
+            ForceRegistry.Registration<RigidBodySpringForce> registration = registrations.remove(random.nextInt(registrations.size()));
+            registration.remove();
+            expected.remove(registration.getForce());
+
+            assertFalse(registration.isRegistered());
+            assertEquals(expected, new HashSet<>(registry.getRigidBodySprings()));
+        }
+
+        // Removing twice does nothing
+        ForceRegistry.Registration<RigidBodySpringForce> registration = registry.registerRigidBodySpring(createRigidBody(), anchor, new Vec3(0.0, 0.0, 0.0), new Vec3(0.0, 0.0, 0.0), 1.0, 1.0);
+        registration.remove();
+        registration.remove();
+
+        assertEquals(expected, new HashSet<>(registry.getRigidBodySprings()));
+        registrations.forEach(r -> assertTrue(r.isRegistered()));
+    }
+
+    @Test
+    void removeAllRemovesTheForcesOfTheObject() {
+        ForceRegistry registry = new ForceRegistry();
+        Particle particle1 = new Particle(1.0);
+        Particle particle2 = new Particle(1.0);
+        Particle particle3 = new Particle(1.0);
+        ForceRegistry.Registration<?> gravity1 = registry.registerGravity(particle1);
+        ForceRegistry.Registration<?> gravity2 = registry.registerGravity(particle2);
+        ForceRegistry.Registration<?> spring12 = registry.registerSpring(particle1, particle2, 1.0, 1.0);
+        ForceRegistry.Registration<?> spring23 = registry.registerSpring(particle2, particle3, 1.0, 1.0);
+        ForceRegistry.Registration<?> spring31 = registry.registerAnchoredSpring(particle3, particle1, 1.0, 1.0);
+
+        registry.removeAll(particle1);
+
+        assertFalse(gravity1.isRegistered());
+        assertTrue(gravity2.isRegistered());
+        assertFalse(spring12.isRegistered());
+        assertTrue(spring23.isRegistered());
+        assertFalse(spring31.isRegistered());
+        assertEquals(1, registry.getSprings().size());
+        assertEquals(particle2, registry.getSprings().getObject1(0));
+        assertEquals(particle3, registry.getSprings().getObject2(0));
+
+        registry.clear();
+
+        assertFalse(gravity2.isRegistered());
+        assertFalse(spring23.isRegistered());
+        assertEquals(0, registry.getSprings().size());
+    }
+
+    private static RigidBody createRigidBody() {
+        return new RigidBody(1.0, new SphereCollider(0.5), null);
+    }
+}
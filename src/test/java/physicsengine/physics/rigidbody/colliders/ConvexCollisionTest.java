@@ -0,0 +1,141 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConvexCollisionTest {
+    private static final Mat3 INVERSE_INERTIA_TENSOR = GeometryProperties.calculateCuboidInertiaTensor(1.0, 1.0, 1.0, 1.0).invert();
+
+    @Test
+    void boxesOverlappingAlongAnAxis() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        RigidBody rigidBody1 = createRigidBody(box, 0.0, 0.0, 0.0);
+        RigidBody rigidBody2 = createRigidBody(box, 0.8, 0.1, -0.2);
+
+        RigidBodyCollision contact = collide(rigidBody1, box, rigidBody2, box);
+
+        assertEquals(0.2, contact.penetration, 1e-9);
+        assertNormal(-1.0, 0.0, 0.0, contact, 1e-9);
+    }
+
+    @Test
+    void boxOnTheEdgeOfARotatedBox() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        RigidBody rigidBody1 = createRigidBody(box, 0.0, 0.0, 0.0);
+        rigidBody1.setOrientation(new Quaternion(0.25 * Math.PI, new Vec3(0.0, 0.0, 1.0)));
+        RigidBody rigidBody2 = createRigidBody(box, 0.0, 1.1, 0.0);
+
+        RigidBodyCollision contact = collide(rigidBody1, box, rigidBody2, box);
+
+        assertEquals(0.5 * Math.sqrt(2.0) + 0.5 - 1.1, contact.penetration, 1e-9);
+        assertNormal(0.0, -1.0, 0.0, contact, 1e-9);
+    }
+
+    @Test
+    void sphereOnABox() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        SphereCollider sphere = new SphereCollider(0.5);
+        RigidBody rigidBody1 = createRigidBody(box, 0.0, 0.0, 0.0);
+        RigidBody rigidBody2 = createRigidBody(sphere, 0.1, 0.9, 0.2);
+
+        RigidBodyCollision contact = collide(rigidBody1, box, rigidBody2, sphere);
+
+        assertEquals(0.1, contact.penetration, 1e-3);
+        assertNormal(0.0, -1.0, 0.0, contact, 1e-3);
+    }
+
+    @Test
+    void spheres() {
+        SphereCollider sphere = new SphereCollider(0.5);
+        RigidBody rigidBody1 = createRigidBody(sphere, 0.0, 0.0, 0.0);
+        RigidBody rigidBody2 = createRigidBody(sphere, 0.0, 0.0, 0.7);
+
+        RigidBodyCollision contact = collide(rigidBody1, sphere, rigidBody2, sphere);
+
+        // EPA approximates the round difference by a polytope, whose faces may be tilted a little
+        assertEquals(0.3, contact.penetration, 1e-3);
+        assertNormal(0.0, 0.0, -1.0, contact, 1e-2);
+    }
+
+    @Test
+    void separatedBoxes() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        CollisionData data = new CollisionData();
+
+        ConvexCollision.collide(createRigidBody(box, 0.0, 0.0, 0.0), box, createRigidBody(box, 1.1, 0.0, 0.0), box, null, data);
+
+        assertEquals(0, data.size());
+    }
+
+    /**
+     * The separating axis test of the box routine finds the exact depth, and boxes have many coplanar points on their Minkowski difference.
+     */
+    @Test
+    void matchesTheBoxRoutine() {
+        BoxCollider box = new BoxCollider(1.0, 1.4, 0.8);
+        Random random = new Random(1L);
+        int compared = 0;
+
+        for (int i = 0; i < 5000; ++i) {
+            RigidBody rigidBody1 = createRigidBody(box, 0.1 * random.nextGaussian(), 0.1 * random.nextGaussian(), 0.1 * random.nextGaussian());
+            rigidBody1.setOrientation(randomOrientation(random));
+            RigidBody rigidBody2 = createRigidBody(box, 0.8 * random.nextGaussian(), 0.8 * random.nextGaussian(), 0.8 * random.nextGaussian());
+            rigidBody2.setOrientation(randomOrientation(random));
+            CollisionData expected = new CollisionData();
+            CollisionData actual = new CollisionData();
+
+            CollisionAlgorithms.collideBoxBox(rigidBody1, box, rigidBody2, box, null, expected);
+            ConvexCollision.collide(rigidBody1, box, rigidBody2, box, null, actual);
+
+            if (expected.size() == 0) continue;
+
+            assertEquals(1, actual.size(), "configuration " + i);
+            RigidBodyCollision e = expected.get(0);
+            RigidBodyCollision a = actual.get(0);
+            double sign = e.rigidBody1 == a.rigidBody1 ? 1.0 : -1.0;
+            assertEquals(e.penetration, a.penetration, 1e-6, "configuration " + i);
+            assertTrue(sign * e.contactNormal.dot(a.contactNormal) > 1.0 - 1e-6, "configuration " + i);
+            ++compared;
+        }
+
+        assertTrue(compared > 1000);
+    }
+
+    private static RigidBodyCollision collide(RigidBody rigidBody1, Collider collider1, RigidBody rigidBody2, Collider collider2) {
+        CollisionData data = new CollisionData();
+        ConvexCollision.collide(rigidBody1, collider1, rigidBody2, collider2, null, data);
+
+        assertEquals(1, data.size());
+        RigidBodyCollision contact = data.get(0);
+        assertSame(rigidBody1, contact.rigidBody1);
+        return contact;
+    }
+
+    private static void assertNormal(double x, double y, double z, RigidBodyCollision contact, double delta) {
+        assertEquals(x, contact.contactNormal.x, delta);
+        assertEquals(y, contact.contactNormal.y, delta);
+        assertEquals(z, contact.contactNormal.z, delta);
+    }
+
+    private static RigidBody createRigidBody(Collider collider, double x, double y, double z) {
+        RigidBody rigidBody = new RigidBody(1.0, collider, INVERSE_INERTIA_TENSOR);
+        rigidBody.setPosition(x, y, z);
+        return rigidBody;
+    }
+
+    private static Quaternion randomOrientation(Random random) {
+        return new Quaternion(6.0 * random.nextDouble(), new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize(1.0));
+    }
+}
@@ -0,0 +1,100 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Mat3;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConvexHullColliderTest {
+    @Test
+    void offsetBoxHasTheMassPropertiesOfABox() {
+        Vec3[] points = new Vec3[9];
+
+        for (int i = 0; i < 8; ++i) {
+            points[i] = new Vec3(1.0 + ((i & 1) == 0 ? -1.0 : 1.0), 2.0 + ((i & 2) == 0 ? -1.5 : 1.5), 3.0 + ((i & 4) == 0 ? -0.5 : 0.5));
+        }
+
+        points[8] = new Vec3(1.2, 2.1, 3.0); // inside
+        ConvexHullCollider hull = new ConvexHullCollider(points);
+
+        assertEquals(8, hull.getVertexCount());
+        assertEquals(6.0, hull.getVolume(), 1e-12);
+        assertVec3(1.0, 2.0, 3.0, hull.getCenterOfMass(), 1e-12);
+
+        double mass = GeometryProperties.calculateConvexHullMass(1000.0, hull);
+        assertEquals(GeometryProperties.calculateCuboidMass(1000.0, 2.0, 3.0, 1.0), mass, 1e-9);
+
+        Mat3 expected = GeometryProperties.calculateCuboidInertiaTensor(mass, 2.0, 3.0, 1.0);
+        Mat3 actual = GeometryProperties.calculateConvexHullInertiaTensor(mass, hull);
+
+        for (int k = 0; k < 3; ++k) {
+            Vec3 column = expected.getColumn(k);
+            assertVec3(column.x, column.y, column.z, actual.getColumn(k), 1e-6);
+        }
+    }
+
+    @Test
+    void supportPointsOfALargeHullAreTheFarthestVertices() {
+        Random random = new Random(2L);
+        Vec3[] points = new Vec3[300];
+
+        for (int i = 0; i < points.length; ++i) {
+            points[i] = new Vec3(random.nextGaussian(), 0.5 * random.nextGaussian(), 2.0 * random.nextGaussian());
+        }
+
+        ConvexHullCollider hull = new ConvexHullCollider(points);
+        double[] vertices = hull.getVertices();
+        Vec3 support = new Vec3(0.0, 0.0, 0.0);
+
+        for (int i = 0; i < 1000; ++i) {
+            Vec3 direction = new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (int v = 0; v < vertices.length; v += 3) {
+                max = Math.max(max, vertices[v] * direction.x + vertices[v + 1] * direction.y + vertices[v + 2] * direction.z);
+            }
+
+            assertEquals(max, hull.supportInto(direction, support).dot(direction), 1e-12);
+        }
+    }
+
+    @Test
+    void collidesWithTheTrianglesOfAMesh() {
+        Vec3[] points = new Vec3[8];
+
+        for (int i = 0; i < 8; ++i) {
+            points[i] = new Vec3((i & 1) == 0 ? -0.5 : 0.5, (i & 2) == 0 ? -0.5 : 0.5, (i & 4) == 0 ? -0.5 : 0.5);
+        }
+
+        ConvexHullCollider hull = new ConvexHullCollider(points);
+        RigidBody rigidBody1 = new RigidBody(1.0, hull, GeometryProperties.calculateConvexHullInertiaTensor(1.0, hull).invert());
+        rigidBody1.setPosition(0.3, 0.4, -0.2);
+        TriangleMeshCollider mesh = new TriangleMeshCollider(new float[]{ -5, 0, -5, 5, 0, -5, 5, 0, 5, -5, 0, 5 }, new int[]{ 0, 2, 1, 0, 3, 2 });
+        RigidBody rigidBody2 = new RigidBody(mesh);
+        CollisionData data = new CollisionData();
+
+        CollisionDispatcher.collide(rigidBody1, rigidBody2, null, data);
+
+        assertTrue(data.size() >= 1);
+
+        for (int i = 0; i < data.size(); ++i) {
+            assertSame(rigidBody1, data.get(i).rigidBody1);
+            assertEquals(0.1, data.get(i).penetration, 1e-9);
+            assertVec3(0.0, 1.0, 0.0, data.get(i).contactNormal, 1e-9);
+        }
+    }
+
+    private static void assertVec3(double x, double y, double z, Vec3 actual, double delta) {
+        assertEquals(x, actual.x, delta);
+        assertEquals(y, actual.y, delta);
+        assertEquals(z, actual.z, delta);
+    }
+}
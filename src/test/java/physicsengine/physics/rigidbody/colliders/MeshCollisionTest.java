@@ -0,0 +1,86 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshCollisionTest {
+    private static final Mat3 INVERSE_INERTIA_TENSOR = GeometryProperties.calculateCuboidInertiaTensor(1.0, 1.0, 1.0, 1.0).invert();
+
+    /**
+     * The deepest vertex of the box lies far outside the triangle, the contacts must not.
+     */
+    @Test
+    void boxOnASmallTriangle() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        RigidBody rigidBody1 = new RigidBody(1.0, box, INVERSE_INERTIA_TENSOR);
+        rigidBody1.setPosition(0.0, 0.45, 0.0);
+        TriangleMeshCollider mesh = new TriangleMeshCollider(new float[]{ 0.1f, 0, 0.1f, 0.4f, 0, 0.1f, 0.1f, 0, 0.4f }, new int[]{ 0, 2, 1 });
+        CollisionData data = collide(rigidBody1, box, mesh);
+
+        assertEquals(3, data.size());
+
+        for (int i = 0; i < data.size(); ++i) {
+            RigidBodyCollision contact = data.get(i);
+            assertSame(rigidBody1, contact.rigidBody1);
+            assertEquals(0.05, contact.penetration, 1e-6);
+            assertVec3(0.0, 1.0, 0.0, contact.contactNormal, 1e-9);
+            assertTrue(contact.contactPoint.x > 0.1 - 1e-6 && contact.contactPoint.z > 0.1 - 1e-6, contact.contactPoint.toString());
+            assertTrue(contact.contactPoint.x + contact.contactPoint.z < 0.5 + 1e-6, contact.contactPoint.toString());
+        }
+    }
+
+    @Test
+    void tiltedBoxOnALargeTriangle() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        RigidBody rigidBody1 = new RigidBody(1.0, box, INVERSE_INERTIA_TENSOR);
+        double angle = 0.3;
+        double lowest = 0.5 * Math.cos(angle) + 0.5 * Math.sin(angle);
+        rigidBody1.setPosition(0.0, lowest - 0.05, 0.0);
+        rigidBody1.setOrientation(new Quaternion(angle, new Vec3(0.0, 0.0, 1.0)));
+        TriangleMeshCollider mesh = new TriangleMeshCollider(new float[]{ -5, 0, -5, 5, 0, -5, 0, 0, 5 }, new int[]{ 0, 2, 1 });
+        CollisionData data = collide(rigidBody1, box, mesh);
+
+        // Only the lowest edge of the box touches the triangle
+        assertEquals(2, data.size());
+
+        for (int i = 0; i < data.size(); ++i) {
+            RigidBodyCollision contact = data.get(i);
+            assertEquals(0.05, contact.penetration, 1e-6);
+            assertVec3(0.0, 1.0, 0.0, contact.contactNormal, 1e-9);
+            assertEquals(0.5 * Math.sin(angle) - 0.5 * Math.cos(angle), contact.contactPoint.x, 1e-6);
+            assertEquals(0.5, Math.abs(contact.contactPoint.z), 1e-6);
+        }
+    }
+
+    @Test
+    void boxAboveATriangle() {
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        RigidBody rigidBody1 = new RigidBody(1.0, box, INVERSE_INERTIA_TENSOR);
+        rigidBody1.setPosition(0.0, 0.55, 0.0);
+        TriangleMeshCollider mesh = new TriangleMeshCollider(new float[]{ -5, 0, -5, 5, 0, -5, 0, 0, 5 }, new int[]{ 0, 2, 1 });
+
+        assertEquals(0, collide(rigidBody1, box, mesh).size());
+    }
+
+    private static CollisionData collide(RigidBody rigidBody1, BoxCollider box, TriangleMeshCollider mesh) {
+        CollisionData data = new CollisionData();
+        MeshCollision.collideBoxMesh(rigidBody1, box, new RigidBody(mesh), mesh, null, data);
+        return data;
+    }
+
+    private static void assertVec3(double x, double y, double z, Vec3 actual, double delta) {
+        assertEquals(x, actual.x, delta);
+        assertEquals(y, actual.y, delta);
+        assertEquals(z, actual.z, delta);
+    }
+}
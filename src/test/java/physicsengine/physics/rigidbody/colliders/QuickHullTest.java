@@ -0,0 +1,109 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.physics.rigidbody.GeometryProperties;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuickHullTest {
+    @Test
+    void cubeWithInteriorAndFacePoints() {
+        Random random = new Random(0L);
+        double[] points = new double[3 * 200];
+
+        for (int i = 0; i < 8; ++i) {
+            points[3 * i] = (i & 1) == 0 ? -0.5 : 0.5;
+            points[3 * i + 1] = (i & 2) == 0 ? -0.5 : 0.5;
+            points[3 * i + 2] = (i & 4) == 0 ? -0.5 : 0.5;
+        }
+
+        for (int i = 8; i < 200; ++i) {
+            for (int k = 0; k < 3; ++k) {
+                points[3 * i + k] = random.nextDouble() - 0.5;
+            }
+
+            // Every other point lies on a face of the cube
+            if (i % 2 == 0) points[3 * i + random.nextInt(3)] = random.nextBoolean() ? 0.5 : -0.5;
+        }
+
+        int[] triangles = QuickHull.build(points);
+
+        assertEquals(3 * 12, triangles.length);
+
+        for (int vertex : triangles) {
+            assertTrue(vertex < 8, "vertex " + vertex + " is not a corner");
+        }
+
+        assertEquals(1.0, GeometryProperties.calculatePolyhedronVolume(points, triangles), 1e-12);
+        assertClosedAndConvex(points, triangles);
+    }
+
+    @Test
+    void pointsOnASphere() {
+        Random random = new Random(1L);
+        double[] points = new double[3 * 500];
+
+        for (int i = 0; i < 500; ++i) {
+            double x = random.nextGaussian(), y = random.nextGaussian(), z = random.nextGaussian();
+            double length = Math.sqrt(x * x + y * y + z * z);
+            points[3 * i] = x / length;
+            points[3 * i + 1] = y / length;
+            points[3 * i + 2] = z / length;
+        }
+
+        int[] triangles = QuickHull.build(points);
+        Set<Integer> vertices = new HashSet<>();
+
+        for (int vertex : triangles) {
+            vertices.add(vertex);
+        }
+
+        assertEquals(500, vertices.size());
+        assertClosedAndConvex(points, triangles);
+    }
+
+    @Test
+    void rejectsPointsWithoutVolume() {
+        assertThrows(IllegalArgumentException.class, () -> QuickHull.build(new double[]{ 0, 0, 0, 1, 0, 0, 0, 1, 0 }));
+        assertThrows(IllegalArgumentException.class, () -> QuickHull.build(new double[]{ 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 }));
+        assertThrows(IllegalArgumentException.class, () -> QuickHull.build(new double[]{ 0, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, -1, -1, -1 }));
+        assertThrows(IllegalArgumentException.class, () -> QuickHull.build(new double[]{ 0, 0, 0, 1, 0, 0, 0, 0, 1, 1, 0, 1, 0.5, 0, 0.3, 2, 0, 5 }));
+        assertThrows(IllegalArgumentException.class, () -> QuickHull.build(new double[]{ 0, 0, 0, 1 }));
+    }
+
+    /**
+     * Every edge must be shared by exactly two triangles that run along it in opposite directions, and every point must lie behind every face.
+     */
+    private static void assertClosedAndConvex(double[] points, int[] triangles) {
+        Set<Long> edges = new HashSet<>();
+
+        for (int i = 0; i < triangles.length; i += 3) {
+            for (int j = 0; j < 3; ++j) {
+                long edge = ((long) triangles[i + j] << 32) | triangles[i + (j + 1) % 3];
+                assertTrue(edges.add(edge), "edge used twice in the same direction");
+            }
+        }
+
+        for (long edge : edges) {
+            assertTrue(edges.contains((edge << 32) | (edge >>> 32)), "open edge");
+        }
+
+        for (int i = 0; i < triangles.length; i += 3) {
+            int a = 3 * triangles[i], b = 3 * triangles[i + 1], c = 3 * triangles[i + 2];
+            double abx = points[b] - points[a], aby = points[b + 1] - points[a + 1], abz = points[b + 2] - points[a + 2];
+            double acx = points[c] - points[a], acy = points[c + 1] - points[a + 1], acz = points[c + 2] - points[a + 2];
+            double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+
+            for (int p = 0; p < points.length; p += 3) {
+                double distance = nx * (points[p] - points[a]) + ny * (points[p + 1] - points[a + 1]) + nz * (points[p + 2] - points[a + 2]);
+                assertTrue(distance <= 1e-9, "point " + p / 3 + " in front of a face");
+            }
+        }
+    }
+}
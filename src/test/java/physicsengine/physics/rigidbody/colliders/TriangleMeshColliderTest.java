@@ -0,0 +1,159 @@
+package physicsengine.physics.rigidbody.colliders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.math.boundingvolumes.AxisAlignedBoundingBox;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TriangleMeshColliderTest {
+    private static final Mat3 INVERSE_INERTIA_TENSOR = GeometryProperties.calculateCuboidInertiaTensor(1.0, 1.0, 1.0, 1.0).invert();
+
+    @Test
+    void loadsWhatWasSaved(@TempDir Path directory) throws IOException {
+        TriangleMeshCollider mesh = createGrid(32, 1.0f);
+        Path path = directory.resolve("grid.mesh");
+        mesh.save(path);
+        TriangleMeshCollider loaded = TriangleMeshCollider.load(path);
+
+        assertEquals(2 * 32 * 32, loaded.getTriangleCount());
+        assertEquals(mesh.getTriangleCount(), loaded.getTriangleCount());
+        assertEquals(mesh.getNodeCount(), loaded.getNodeCount());
+        assertEquals(mesh.nodeBounds, loaded.nodeBounds);
+        assertEquals(mesh.nodes, loaded.nodes);
+        assertEquals(mesh.triangles, loaded.triangles);
+
+        Vec3 expected = new Vec3(0.0, 0.0, 0.0);
+        Vec3 actual = new Vec3(0.0, 0.0, 0.0);
+
+        for (int i = 0; i < mesh.getTriangleCount(); ++i) {
+            for (int v = 0; v < 3; ++v) {
+                mesh.getVertexInto(i, v, expected);
+                loaded.getVertexInto(i, v, actual);
+                assertEquals(expected.x, actual.x);
+                assertEquals(expected.y, actual.y);
+                assertEquals(expected.z, actual.z);
+            }
+        }
+
+        AxisAlignedBoundingBox bounds = (AxisAlignedBoundingBox) mesh.getBoundingVolume();
+        AxisAlignedBoundingBox loadedBounds = (AxisAlignedBoundingBox) loaded.getBoundingVolume();
+        assertEquals(bounds.getMin().toString(), loadedBounds.getMin().toString());
+        assertEquals(bounds.getMax().toString(), loadedBounds.getMax().toString());
+        assertEquals(mesh.getMinDiagonalRadius(), loaded.getMinDiagonalRadius());
+    }
+
+    /**
+     * The hierarchy of a loaded mesh is traversed from the mapped file and must find the same triangles.
+     */
+    @Test
+    void loadedMeshCollidesLikeTheOriginal(@TempDir Path directory) throws IOException {
+        TriangleMeshCollider mesh = createGrid(32, 1.0f);
+        Path path = directory.resolve("grid.mesh");
+        mesh.save(path);
+        TriangleMeshCollider loaded = TriangleMeshCollider.load(path);
+        BoxCollider box = new BoxCollider(1.0, 1.0, 1.0);
+        SphereCollider sphere = new SphereCollider(0.5);
+        Random random = new Random(3L);
+        int contacts = 0;
+
+        for (int i = 0; i < 200; ++i) {
+            double x = 30.0 * random.nextDouble() - 15.0;
+            double y = 0.3 * random.nextDouble() + 0.2;
+            double z = 30.0 * random.nextDouble() - 15.0;
+            Quaternion orientation = new Quaternion(random.nextDouble(), new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize(1.0));
+
+            RigidBody boxBody = new RigidBody(1.0, box, INVERSE_INERTIA_TENSOR);
+            boxBody.setPosition(x, y, z);
+            boxBody.setOrientation(orientation);
+            CollisionData expected = new CollisionData();
+            CollisionData actual = new CollisionData();
+            MeshCollision.collideBoxMesh(boxBody, box, new RigidBody(mesh), mesh, null, expected);
+            MeshCollision.collideBoxMesh(boxBody, box, new RigidBody(loaded), loaded, null, actual);
+            assertSameContacts(expected, actual, "box " + i);
+
+            RigidBody sphereBody = new RigidBody(1.0, sphere, INVERSE_INERTIA_TENSOR);
+            sphereBody.setPosition(x, y, z);
+            expected = new CollisionData();
+            actual = new CollisionData();
+            MeshCollision.collideSphereMesh(sphereBody, sphere, new RigidBody(mesh), mesh, null, expected);
+            MeshCollision.collideSphereMesh(sphereBody, sphere, new RigidBody(loaded), loaded, null, actual);
+            assertSameContacts(expected, actual, "sphere " + i);
+            contacts += expected.size();
+        }
+
+        assertTrue(contacts > 100);
+    }
+
+    @Test
+    void rejectsOtherFiles(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("grid.mesh");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> TriangleMeshCollider.load(path));
+    }
+
+    private static void assertSameContacts(CollisionData expected, CollisionData actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+
+        for (int i = 0; i < expected.size(); ++i) {
+            RigidBodyCollision e = expected.get(i);
+            RigidBodyCollision a = actual.get(i);
+            assertEquals(e.penetration, a.penetration, message);
+            assertEquals(e.feature, a.feature, message);
+            assertEquals(e.contactNormal.x, a.contactNormal.x, message);
+            assertEquals(e.contactNormal.y, a.contactNormal.y, message);
+            assertEquals(e.contactNormal.z, a.contactNormal.z, message);
+            assertEquals(e.contactPoint.x, a.contactPoint.x, message);
+            assertEquals(e.contactPoint.y, a.contactPoint.y, message);
+            assertEquals(e.contactPoint.z, a.contactPoint.z, message);
+        }
+    }
+
+    /**
+     * A grid of n by n cells around the origin, whose heights vary a little.
+     */
+    private static TriangleMeshCollider createGrid(int n, float size) {
+        float[] vertices = new float[3 * (n + 1) * (n + 1)];
+        int[] triangles = new int[6 * n * n];
+        Random random = new Random(7L);
+
+        for (int i = 0; i <= n; ++i) {
+            for (int j = 0; j <= n; ++j) {
+                int v = 3 * (i * (n + 1) + j);
+                vertices[v] = (i - n / 2.0f) * size;
+                vertices[v + 1] = 0.1f * random.nextFloat();
+                vertices[v + 2] = (j - n / 2.0f) * size;
+            }
+        }
+
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                int t = 6 * (i * n + j);
+                int v = i * (n + 1) + j;
+                triangles[t] = v;
+                triangles[t + 1] = v + 1;
+                triangles[t + 2] = v + n + 1;
+                triangles[t + 3] = v + 1;
+                triangles[t + 4] = v + n + 2;
+                triangles[t + 5] = v + n + 1;
+            }
+        }
+
+        return new TriangleMeshCollider(vertices, triangles);
+    }
+}
@@ -0,0 +1,179 @@
+package physicsengine.physics.rigidbody.colliders.external;
+
+import org.junit.jupiter.api.Test;
+import physicsengine.math.Mat3;
+import physicsengine.math.Quaternion;
+import physicsengine.math.Vec3;
+import physicsengine.physics.rigidbody.CollisionData;
+import physicsengine.physics.rigidbody.ContactManifold;
+import physicsengine.physics.rigidbody.GeometryProperties;
+import physicsengine.physics.rigidbody.RigidBody;
+import physicsengine.physics.rigidbody.RigidBodyCollision;
+import physicsengine.physics.rigidbody.colliders.BoxCollider;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoxCollisionTest {
+    private static final Mat3 INVERSE_INERTIA_TENSOR = GeometryProperties.calculateCuboidInertiaTensor(1.0, 1.0, 1.0, 1.0).invert();
+
+    /**
+     * Moves pairs of boxes a little on every step and collides them in a random order with a manifold whose rigid bodies may be in the other order,
+     * which must find the same contacts as the routine without a manifold and remember an axis that separates the boxes in the order of the manifold.
+     */
+    @Test
+    void manifoldDoesNotChangeTheContacts() {
+        Random random = new Random(5L);
+        int contacts = 0;
+        int separated = 0;
+
+        for (int i = 0; i < 500; ++i) {
+            BoxCollider collider1 = createCollider(random);
+            BoxCollider collider2 = createCollider(random);
+            RigidBody rigidBody1 = createRigidBody(collider1, random);
+            RigidBody rigidBody2 = createRigidBody(collider2, random);
+            boolean manifoldSwapped = random.nextBoolean();
+            ContactManifold manifold = manifoldSwapped ? new ContactManifold(rigidBody2, rigidBody1) : new ContactManifold(rigidBody1, rigidBody2);
+
+            for (int step = 0; step < 20; ++step) {
+                rigidBody2.setPosition(rigidBody2.getPosition().add(0.1 * random.nextGaussian(), 0.1 * random.nextGaussian(), 0.1 * random.nextGaussian()));
+                String message = "pair " + i + ", step " + step;
+                CollisionData expected = new CollisionData();
+                CollisionData actual = new CollisionData();
+
+                if (random.nextBoolean()) {
+                    BoxCollision.boxAndBox(rigidBody1, collider1, rigidBody2, collider2, null, expected);
+                    BoxCollision.boxAndBox(rigidBody1, collider1, rigidBody2, collider2, manifold, actual);
+                } else {
+                    BoxCollision.boxAndBox(rigidBody2, collider2, rigidBody1, collider1, null, expected);
+                    BoxCollision.boxAndBox(rigidBody2, collider2, rigidBody1, collider1, manifold, actual);
+                }
+
+                assertSameContacts(expected, actual, message);
+
+                if (expected.size() == 0) {
+                    ++separated;
+                    int axis = manifold.getSeparatingAxis();
+                    assertTrue(axis >= 0, message);
+                    assertTrue(penetrationOnAxis(manifold, axis) < 0.0, message);
+                } else {
+                    contacts += expected.size();
+                    assertEquals(-1, manifold.getSeparatingAxis(), message);
+                }
+            }
+        }
+
+        assertTrue(separated > 1000);
+        assertTrue(contacts > 1000);
+    }
+
+    /**
+     * The routine stops at the first axis that separates the boxes, so if a later one is remembered and kept, the routine returned after testing it.
+     */
+    @Test
+    void separatedPairsExitAtTheRememberedAxis() {
+        Random random = new Random(6L);
+        int exits = 0;
+
+        for (int i = 0; i < 2000; ++i) {
+            BoxCollider collider1 = createCollider(random);
+            BoxCollider collider2 = createCollider(random);
+            RigidBody rigidBody1 = createRigidBody(collider1, random);
+            RigidBody rigidBody2 = createRigidBody(collider2, random);
+            ContactManifold manifold = random.nextBoolean() ? new ContactManifold(rigidBody2, rigidBody1) : new ContactManifold(rigidBody1, rigidBody2);
+
+            for (int axis = 0; axis < 15; ++axis) {
+                if (!(penetrationOnAxis(manifold, axis) < -1e-9)) continue;
+
+                String message = "pair " + i + ", axis " + axis;
+                CollisionData data = new CollisionData();
+                manifold.setSeparatingAxis(axis);
+                BoxCollision.boxAndBox(rigidBody1, collider1, rigidBody2, collider2, manifold, data);
+                assertEquals(0, data.size(), message);
+                assertEquals(axis, manifold.getSeparatingAxis(), message);
+
+                BoxCollision.boxAndBox(rigidBody2, collider2, rigidBody1, collider1, manifold, data);
+                assertEquals(0, data.size(), message);
+                assertEquals(axis, manifold.getSeparatingAxis(), message);
+                ++exits;
+            }
+        }
+
+        assertTrue(exits > 1000);
+    }
+
+    /**
+     * @return the overlap of both boxes along the separating axis candidate with the given index, with the rigid bodies in the order of the manifold,
+     * or {@code NaN} if the edges of the candidate are parallel
+     */
+    private static double penetrationOnAxis(ContactManifold manifold, int index) {
+        RigidBody rigidBody1 = manifold.getRigidBody1();
+        RigidBody rigidBody2 = manifold.getRigidBody2();
+        Vec3 axis;
+
+        if (index < 3) {
+            axis = column(rigidBody1, index);
+        } else if (index < 6) {
+            axis = column(rigidBody2, index - 3);
+        } else {
+            axis = column(rigidBody1, (index - 6) / 3).cross(column(rigidBody2, (index - 6) % 3));
+        }
+
+        if (axis.dot(axis) < 0.0001) return Double.NaN;
+
+        axis = axis.normalize(1.0);
+        double distance = Math.abs(rigidBody2.getPosition().sub(rigidBody1.getPosition()).dot(axis));
+
+        return projectOnAxis(rigidBody1, axis) + projectOnAxis(rigidBody2, axis) - distance;
+    }
+
+    private static double projectOnAxis(RigidBody rigidBody, Vec3 axis) {
+        BoxCollider collider = (BoxCollider) rigidBody.getCollider();
+
+        return collider.width / 2.0 * Math.abs(axis.dot(column(rigidBody, 0))) +
+                collider.height / 2.0 * Math.abs(axis.dot(column(rigidBody, 1))) +
+                collider.depth / 2.0 * Math.abs(axis.dot(column(rigidBody, 2)));
+    }
+
+    private static Vec3 column(RigidBody rigidBody, int index) {
+        return rigidBody.getRotationMatrix().getColumnInto(index, new Vec3(0.0, 0.0, 0.0));
+    }
+
+    private static BoxCollider createCollider(Random random) {
+        return new BoxCollider(0.5 + 1.5 * random.nextDouble(), 0.5 + 1.5 * random.nextDouble(), 0.5 + 1.5 * random.nextDouble());
+    }
+
+    /**
+     * Places the box in a cube with an edge length of 3, so that about half of the pairs overlap. Every fifth box keeps its orientation, whose
+     * edges are parallel to those of the other unrotated boxes.
+     */
+    private static RigidBody createRigidBody(BoxCollider collider, Random random) {
+        RigidBody rigidBody = new RigidBody(1.0, collider, INVERSE_INERTIA_TENSOR);
+        rigidBody.setPosition(3.0 * random.nextDouble(), 3.0 * random.nextDouble(), 3.0 * random.nextDouble());
+
+        if (random.nextInt(5) != 0) {
+            rigidBody.setOrientation(new Quaternion(6.0 * random.nextDouble(), new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize(1.0)));
+        }
+
+        return rigidBody;
+    }
+
+    private static void assertSameContacts(CollisionData expected, CollisionData actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+
+        for (int i = 0; i < expected.size(); ++i) {
+            RigidBodyCollision e = expected.get(i);
+            RigidBodyCollision a = actual.get(i);
+            assertEquals(e.penetration, a.penetration, message);
+            assertEquals(e.feature, a.feature, message);
+            assertEquals(e.contactNormal.x, a.contactNormal.x, message);
+            assertEquals(e.contactNormal.y, a.contactNormal.y, message);
+            assertEquals(e.contactNormal.z, a.contactNormal.z, message);
+            assertEquals(e.contactPoint.x, a.contactPoint.x, message);
+            assertEquals(e.contactPoint.y, a.contactPoint.y, message);
+            assertEquals(e.contactPoint.z, a.contactPoint.z, message);
+        }
+    }
+}